@@ -14,9 +14,8 @@
 
 package com.google.api.ads.adwords.awreporting.model.csv;
 
-import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
-import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
 
 import au.com.bytecode.opencsv.CSVReader;
 import au.com.bytecode.opencsv.bean.CsvToBean;
@@ -24,12 +23,13 @@ import au.com.bytecode.opencsv.bean.MappingStrategy;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
 import java.io.IOException;
 import java.io.Serializable;
-import java.lang.reflect.Field;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.reflect.Method;
 
 /**
  * This class describes the mapping strategy to convert CSV files into Java beans using annotations.
@@ -66,9 +66,141 @@ public class AnnotationBasedMappingStrategy<T extends Report> implements Mapping
 
   private Class<T> reportEntityClass;
 
-  private final Map<Integer, String> csvIndexToReportNames = new HashMap<Integer, String>();
-  
-  private final Map<String, Boolean> fieldsWithMoneyValues = new HashMap<String, Boolean>();
+  /**
+   * The mapping of the report entity, shared by all the mapping strategies of the entity.
+   */
+  private final CsvReportMapping<T> reportMapping;
+
+  /**
+   * The mapping of the captured header, {@code null} before the header is captured.
+   */
+  private CsvReportMapping.Header header;
+
+  /**
+   * The setter of each column, resolved once when the header is captured so the rows do not look
+   * up the bean properties again.
+   */
+  private transient ColumnSetter[] columnSetters;
+
+  private transient Constructor<T> beanConstructor;
+
+  /**
+   * The binder generated for the report entity, {@code null} to set the properties by reflection.
+   */
+  private final transient CsvRowBinder<T> rowBinder;
+
+  private transient int[] binderColumns;
+
+  private boolean[] mappedColumns = new boolean[0];
+
+  /**
+   * The dictionary of the run for the interned columns, {@code null} to intern no column.
+   */
+  private transient StringDictionary stringDictionary;
+
+  private transient StringDictionary.Column[] columnDictionaries;
+
+  /**
+   * Sets the value of a CSV column into the bean property it is mapped to.
+   *
+   *  The property descriptor, the write method, the property editor and the money flag of the
+   * column are resolved when the header is captured, so setting a cell is only the conversion of
+   * the value and the invocation of the setter. The property editors hold the last converted value,
+   * so the setters must be used by one thread at a time, as the mapping strategy itself.
+   */
+  public static final class ColumnSetter {
+
+    private final PropertyDescriptor descriptor;
+    private final Method writeMethod;
+    private final PropertyEditor editor;
+    private final boolean trimmed;
+    private final boolean numeric;
+    private final boolean money;
+
+    private ColumnSetter(PropertyDescriptor descriptor, boolean money)
+        throws IntrospectionException {
+      this.descriptor = descriptor;
+      this.writeMethod = descriptor.getWriteMethod();
+      if (this.writeMethod == null) {
+        throw new IntrospectionException("No setter for property: " + descriptor.getName());
+      }
+      Class<?> propertyType = descriptor.getPropertyType();
+      this.trimmed = !String.class.isAssignableFrom(propertyType);
+      this.numeric = Number.class.isAssignableFrom(propertyType);
+      this.money = money;
+      this.editor = (money || !this.trimmed) ? null : findEditor(descriptor);
+    }
+
+    /**
+     * @return the descriptor of the property the column is mapped to.
+     */
+    public PropertyDescriptor getDescriptor() {
+      return descriptor;
+    }
+
+    /**
+     * @return true if the column holds money values in micros.
+     */
+    public boolean isMoney() {
+      return money;
+    }
+
+    /**
+     * Converts the value of the column and sets it into the bean.
+     *
+     * @param bean the bean being filled.
+     * @param value the value of the column as read from the CSV file.
+     * @throws IllegalAccessException error invoking the setter.
+     * @throws InvocationTargetException the setter threw an exception.
+     */
+    public void set(Object bean, String value)
+        throws IllegalAccessException, InvocationTargetException {
+      if (money) {
+        // Convert Money values to regular Decimals by dividing by a Million, the parsing ignores
+        // the white spaces and the signs
+        writeMethod.invoke(bean, BigDecimalUtil.parseFromMicros(value));
+        return;
+      }
+
+      if (trimmed) {
+        value = value.trim();
+      }
+      if (numeric) {
+        value = CsvRowBinder.removeMinusSigns(value);
+      }
+      Object obj = value;
+      if (editor != null) {
+        editor.setAsText(value);
+        obj = editor.getValue();
+      }
+      writeMethod.invoke(bean, obj);
+    }
+
+    @Override
+    public String toString() {
+      return descriptor.toString();
+    }
+
+    /**
+     * Finds the property editor the same way as the {@code CsvToBean} does.
+     */
+    private static PropertyEditor findEditor(PropertyDescriptor descriptor)
+        throws IntrospectionException {
+      Class<?> editorClass = descriptor.getPropertyEditorClass();
+      if (editorClass == null) {
+        return PropertyEditorManager.findEditor(descriptor.getPropertyType());
+      }
+      try {
+        return (PropertyEditor) editorClass.newInstance();
+      } catch (InstantiationException e) {
+        throw new IntrospectionException("Could not create the property editor of "
+            + descriptor.getName() + ": " + e.getMessage());
+      } catch (IllegalAccessException e) {
+        throw new IntrospectionException("Could not create the property editor of "
+            + descriptor.getName() + ": " + e.getMessage());
+      }
+    }
+  }
 
   /**
    * C'tor
@@ -77,98 +209,161 @@ public class AnnotationBasedMappingStrategy<T extends Report> implements Mapping
    *        obligatory.
    */
   public AnnotationBasedMappingStrategy(Class<T> reportEntityClass) {
+    this(reportEntityClass, reportEntityClass == null
+        ? null : CsvRowBinder.forClass(reportEntityClass));
+  }
+
+  /**
+   * C'tor
+   *
+   * @param reportEntityClass the {@code class} of the report entity POJO. This parameter is
+   *        obligatory.
+   * @param rowBinder the binder generated for the report entity, or {@code null} to set the
+   *        properties by reflection.
+   */
+  public AnnotationBasedMappingStrategy(Class<T> reportEntityClass, CsvRowBinder<T> rowBinder) {
 
     if (reportEntityClass == null) {
       throw new NullPointerException("The report entity class must be especified.");
     }
     this.reportEntityClass = reportEntityClass;
+    this.rowBinder = rowBinder;
+    this.reportMapping = CsvReportMapping.forClass(reportEntityClass);
+  }
+
+  /**
+   * C'tor
+   *
+   * @param reportMapping the mapping of the report entity, with the generated binder of the entity
+   *        if there is one. This parameter is obligatory.
+   */
+  public AnnotationBasedMappingStrategy(CsvReportMapping<T> reportMapping) {
+
+    if (reportMapping == null) {
+      throw new NullPointerException("The report mapping must be especified.");
+    }
+    this.reportEntityClass = reportMapping.getReportEntityClass();
+    this.rowBinder = reportMapping.getRowBinder();
+    this.reportMapping = reportMapping;
   }
 
   /**
    * Captures the header of the CSV file.
    *
-   *  This method scans the class of the bean for the proper annotations, and associate the correct
-   * column index to the correct field.
+   *  The columns are associated to the fields of the bean by the shared mapping of the report
+   * entity, which only scans the annotations of the class once, and maps each distinct header once.
    *
    * @param csvReader the {@code CSVReader}
    */
   @Override
   public void captureHeader(CSVReader csvReader) throws IOException {
 
-    String[] header = csvReader.readNext();
-
-    Map<String, String> nameMapping = this.createNameMapping();
+    String[] line = csvReader.readNext();
 
-    for (int i = 0; i < header.length; i++) {
-      this.csvIndexToReportNames.put(i, nameMapping.get(header[i]));
+    this.header = this.reportMapping.mapHeader(line);
+    this.mappedColumns = this.header.getMappedColumns();
+    this.columnDictionaries = null;
+    if (this.stringDictionary != null) {
+      for (int i = 0; i < line.length; i++) {
+        String propertyName = this.header.getFieldName(i);
+        if (propertyName != null && this.reportMapping.isInternedField(propertyName)) {
+          if (this.columnDictionaries == null) {
+            this.columnDictionaries = new StringDictionary.Column[line.length];
+          }
+          this.columnDictionaries[i] = this.stringDictionary.forColumn(propertyName);
+        }
+      }
+    }
+    this.columnSetters = null;
+    if (this.rowBinder != null) {
+      this.binderColumns = this.rowBinder == this.reportMapping.getRowBinder()
+          ? this.header.getBinderColumns() : this.rowBinder.bindHeader(line);
     }
   }
 
   /**
-   * Creates the {@code Map} where the key is the name of the property in the CSV file, and the
-   * value is the name of the field in the Java bean.
-   *
-   * @return the {@code Map} of the properties for the bean class.
+   * @return the columns of the captured header that are mapped to the bean, by column index. The
+   *         other columns do not need to be read.
    */
-  private Map<String, String> createNameMapping() {
-
-    Map<String, String> nameMapping = new HashMap<String, String>();
-
-    Class<?> currentClass = this.reportEntityClass;
-    while (currentClass != Object.class) {
+  public boolean[] getMappedColumns() {
+    return this.mappedColumns;
+  }
 
-      this.addNameMappingForDeclaredFields(nameMapping, currentClass);
-      currentClass = currentClass.getSuperclass();
-    }
-    return nameMapping;
+  /**
+   * @return the dictionary of each column of the captured header whose values are interned, by
+   *         column index, {@code null} for the other columns. {@code null} if no column is
+   *         interned.
+   */
+  public StringDictionary.Column[] getColumnDictionaries() {
+    return this.columnDictionaries;
   }
 
   /**
-   * Scans the current class' fields for the mapped properties, and associate then to the CSV file
-   * columns.
+   * Sets the dictionary of the run, to intern the values of the columns whose {@code CsvField} has
+   * the {@code intern} flag. It has to be set before the header is captured.
    *
-   * @param nameMapping the map to be filled.
-   * @param currentClass the class to be scanned.
+   * @param stringDictionary the dictionary of the run, {@code null} to intern no column.
    */
-  private void addNameMappingForDeclaredFields(
-      Map<String, String> nameMapping, Class<?> currentClass) {
-    Field[] declaredFields = currentClass.getDeclaredFields();
+  public void setStringDictionary(StringDictionary stringDictionary) {
+    this.stringDictionary = stringDictionary;
+  }
 
-    if (declaredFields.length > 0) {
-      for (Field field : declaredFields) {
-        this.addNameMappingIfAnnotationPresent(nameMapping, field);
-        this.addMoneyMappingIfAnnotationPresent(field);
-      }
-    }
+  /**
+   * @return true if the rows are bound by the generated binder of the report entity.
+   */
+  public boolean hasRowBinder() {
+    return this.rowBinder != null && this.binderColumns != null;
   }
 
   /**
-   * Checks for the annotation, and if the annotation is present, creates the association between
-   * the CSV property and the field.
+   * Creates the bean of a row with the generated binder of the report entity.
    *
-   * @param nameMapping the map that is being filled.
-   * @param field the current field.
+   * @param line the values of the row.
+   * @return the bean with the values of the row.
    */
-  private void addNameMappingIfAnnotationPresent(Map<String, String> nameMapping, Field field) {
+  public T bindRow(String[] line) {
+    return this.rowBinder.bindRow(line, this.binderColumns);
+  }
 
-    if (field.isAnnotationPresent(CsvField.class)) {
+  /**
+   * Resolves the setter of each column of the captured header.
+   *
+   * @return the setters by column index, {@code null} for the columns not mapped to the bean.
+   * @throws IntrospectionException error finding the properties of the bean.
+   */
+  private ColumnSetter[] createColumnSetters() throws IntrospectionException {
+    if (this.header == null) {
+      return new ColumnSetter[0];
+    }
 
-      CsvField reportFieldAnnotation = field.getAnnotation(CsvField.class);
-      String csvFieldName = reportFieldAnnotation.value();
-      nameMapping.put(csvFieldName, field.getName());
+    ColumnSetter[] setters = new ColumnSetter[this.header.getColumnCount()];
+    for (int column = 0; column < setters.length; column++) {
+      String propertyName = this.header.getFieldName(column);
+      if (propertyName != null) {
+        setters[column] = new ColumnSetter(this.reportMapping.getDescriptor(propertyName),
+            this.isMoneyField(propertyName));
+      }
     }
+    return setters;
   }
 
   /**
-   * Checks for the @MoneyField annotation, and if the annotation is present, puts a true value at 
-   * fieldsWithMoneyValues, this value will be used when parsing CSV to use BigDecimal and divide by 1M.
+   * Gets the setter of the given column, resolving the setters of all the columns the first time.
    *
-   * @param field the current field.
+   * @param columnNumber the index of the column in the CSV file.
+   * @return the setter of the column, or {@code null} if the column is not mapped to the bean.
+   * @throws IntrospectionException error finding the properties of the bean.
    */
-  private void addMoneyMappingIfAnnotationPresent(Field field) {
-    if (field.isAnnotationPresent(MoneyField.class)) {
-      fieldsWithMoneyValues.put(field.getName(), true);
+  public ColumnSetter getColumnSetter(int columnNumber) throws IntrospectionException {
+    ColumnSetter[] setters = this.columnSetters;
+    if (setters == null) {
+      setters = this.createColumnSetters();
+      this.columnSetters = setters;
+    }
+    if (columnNumber < 0 || columnNumber >= setters.length) {
+      return null;
     }
+    return setters[columnNumber];
   }
 
   /**
@@ -182,7 +377,10 @@ public class AnnotationBasedMappingStrategy<T extends Report> implements Mapping
   public T createBean() throws InstantiationException, IllegalAccessException {
 
     try {
-      return this.reportEntityClass.getConstructor().newInstance();
+      if (this.beanConstructor == null) {
+        this.beanConstructor = this.reportEntityClass.getConstructor();
+      }
+      return this.beanConstructor.newInstance();
 
     } catch (NoSuchMethodException e) {
       throw new InstantiationException("Could not instantiate "
@@ -206,14 +404,15 @@ public class AnnotationBasedMappingStrategy<T extends Report> implements Mapping
   /**
    * Find the property descriptor that is referenced by the given column index.
    *
-   * The mapping between the indexes and the field were created when the CSV header was captured.
+   * The mapping between the indexes and the field were created when the CSV header was captured,
+   * and the descriptors are only created once for all the rows.
    */
   @Override
   public PropertyDescriptor findDescriptor(int columnNumber) throws IntrospectionException {
 
-    String propertyName = this.csvIndexToReportNames.get(columnNumber);
-    if (propertyName != null) {
-      return new PropertyDescriptor(propertyName, this.reportEntityClass);
+    ColumnSetter setter = this.getColumnSetter(columnNumber);
+    if (setter != null) {
+      return setter.getDescriptor();
     }
     return null;
   }
@@ -223,10 +422,6 @@ public class AnnotationBasedMappingStrategy<T extends Report> implements Mapping
    * this value will be used when parsing CSV to use BigDecimal and divide by 1M.
    */
   public boolean isMoneyField(String field) {
-    if (fieldsWithMoneyValues.containsKey(field)) {
-      return fieldsWithMoneyValues.get(field);
-    } else {
-      return false;
-    }
+    return this.reportMapping.isMoneyField(field);
   }
 }
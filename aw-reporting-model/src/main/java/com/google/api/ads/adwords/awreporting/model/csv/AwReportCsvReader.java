@@ -14,6 +14,7 @@
 
 package com.google.api.ads.adwords.awreporting.model.csv;
 
+import au.com.bytecode.opencsv.CSVParser;
 import au.com.bytecode.opencsv.CSVReader;
 
 import java.io.IOException;
@@ -25,6 +26,11 @@ import java.io.Reader;
  *  The CSV parsing should stop when the line with the sum of the columns is reached. In order to
  * accomplish such behavior, the {@code readNext} was overriden to change the stop condition.
  *
+ *  The lines are read by an {@link AwReportCsvTokenizer} instead of the {@code CSVParser}, unless
+ * strict quotes or ignoring the leading white space are asked for. The tokenizer follows the
+ * quoting of the AW report files, where a quote inside a quoted cell is doubled, so the escape
+ * character of the {@code CSVParser} is not used and a backslash is kept as a regular character.
+ *
  * @author gustavomoreira@google.com (Gustavo Moreira)
  */
 public class AwReportCsvReader extends CSVReader {
@@ -34,6 +40,10 @@ public class AwReportCsvReader extends CSVReader {
    */
   private static final String AW_REPORT_CSV_TOTAL = "total";
 
+  private final AwReportCsvTokenizer tokenizer;
+
+  private String[] reusableLine = new String[0];
+
   /**
    * Constructs CSVReader with supplied separator, quote char and quote handling behavior.
    *
@@ -44,6 +54,8 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator, char quotechar, boolean strictQuotes) {
     super(reader, separator, quotechar, strictQuotes);
+    this.tokenizer =
+        strictQuotes ? null : new AwReportCsvTokenizer(reader, separator, quotechar, 0);
   }
 
   /**
@@ -66,6 +78,8 @@ public class AwReportCsvReader extends CSVReader {
       boolean strictQuotes,
       boolean ignoreLeadingWhiteSpace) {
     super(reader, separator, quotechar, escape, line, strictQuotes, ignoreLeadingWhiteSpace);
+    this.tokenizer = strictQuotes || ignoreLeadingWhiteSpace
+        ? null : new AwReportCsvTokenizer(reader, separator, quotechar, line);
   }
 
   /**
@@ -85,6 +99,8 @@ public class AwReportCsvReader extends CSVReader {
       int line,
       boolean strictQuotes) {
     super(reader, separator, quotechar, escape, line, strictQuotes);
+    this.tokenizer =
+        strictQuotes ? null : new AwReportCsvTokenizer(reader, separator, quotechar, line);
   }
 
   /**
@@ -98,6 +114,7 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator, char quotechar, char escape, int line) {
     super(reader, separator, quotechar, escape, line);
+    this.tokenizer = new AwReportCsvTokenizer(reader, separator, quotechar, line);
   }
 
   /**
@@ -110,6 +127,7 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator, char quotechar, char escape) {
     super(reader, separator, quotechar, escape);
+    this.tokenizer = new AwReportCsvTokenizer(reader, separator, quotechar, 0);
   }
 
   /**
@@ -122,6 +140,7 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator, char quotechar, int line) {
     super(reader, separator, quotechar, line);
+    this.tokenizer = new AwReportCsvTokenizer(reader, separator, quotechar, line);
   }
 
   /**
@@ -133,6 +152,7 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator, char quotechar) {
     super(reader, separator, quotechar);
+    this.tokenizer = new AwReportCsvTokenizer(reader, separator, quotechar, 0);
   }
 
   /**
@@ -143,6 +163,8 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader, char separator) {
     super(reader, separator);
+    this.tokenizer = new AwReportCsvTokenizer(
+        reader, separator, CSVParser.DEFAULT_QUOTE_CHARACTER, 0);
   }
 
   /**
@@ -152,6 +174,8 @@ public class AwReportCsvReader extends CSVReader {
    */
   public AwReportCsvReader(Reader reader) {
     super(reader);
+    this.tokenizer = new AwReportCsvTokenizer(reader, CSVParser.DEFAULT_SEPARATOR,
+        CSVParser.DEFAULT_QUOTE_CHARACTER, 0);
   }
 
   /**
@@ -164,11 +188,83 @@ public class AwReportCsvReader extends CSVReader {
   @Override
   public String[] readNext() throws IOException {
 
-    String[] next = super.readNext();
-    if (next != null && !next[0].toLowerCase().equals(AW_REPORT_CSV_TOTAL)) {
+    if (this.tokenizer == null) {
+      String[] next = super.readNext();
+      if (next != null && !next[0].toLowerCase().equals(AW_REPORT_CSV_TOTAL)) {
+        return next;
+      }
+      return null;
+    }
+
+    if (!this.nextTokenizerRow()) {
+      return null;
+    }
+    String[] next = new String[this.tokenizer.getCellCount()];
+    for (int i = 0; i < next.length; i++) {
+      next[i] = this.tokenizer.getString(i);
+    }
+    return next;
+  }
+
+  /**
+   * Returns the next CSV line in the file, with only the given columns read. The returned array is
+   * reused by the next call, and the columns that are not read are {@code null}.
+   *
+   * @param columnsToRead the columns to read, by column index.
+   * @return the next line in the CSV, or {@code null} in case the file has ended, or the total line
+   *         was reached.
+   */
+  public String[] readNext(boolean[] columnsToRead) throws IOException {
+    return this.readNext(columnsToRead, null);
+  }
+
+  /**
+   * Returns the next CSV line in the file, with only the given columns read, and the values of the
+   * columns with a dictionary interned. The returned array is reused by the next call, and the
+   * columns that are not read are {@code null}.
+   *
+   * @param columnsToRead the columns to read, by column index.
+   * @param dictionaries the dictionary of each column to intern, by column index, {@code null} for
+   *        the other columns. {@code null} to intern no column.
+   * @return the next line in the CSV, or {@code null} in case the file has ended, or the total line
+   *         was reached.
+   */
+  public String[] readNext(boolean[] columnsToRead, StringDictionary.Column[] dictionaries)
+      throws IOException {
+
+    if (this.tokenizer == null) {
+      String[] next = this.readNext();
+      if (next != null && dictionaries != null) {
+        for (int i = 0; i < next.length && i < dictionaries.length; i++) {
+          if (dictionaries[i] != null) {
+            next[i] = dictionaries[i].intern(next[i]);
+          }
+        }
+      }
       return next;
     }
-    return null;
+
+    if (!this.nextTokenizerRow()) {
+      return null;
+    }
+    int cellCount = this.tokenizer.getCellCount();
+    if (this.reusableLine.length != cellCount) {
+      this.reusableLine = new String[cellCount];
+    }
+    for (int i = 0; i < cellCount; i++) {
+      if (i >= columnsToRead.length || !columnsToRead[i]) {
+        this.reusableLine[i] = null;
+      } else if (dictionaries != null && i < dictionaries.length && dictionaries[i] != null) {
+        this.reusableLine[i] = dictionaries[i].intern(this.tokenizer.getCell(i));
+      } else {
+        this.reusableLine[i] = this.tokenizer.getString(i);
+      }
+    }
+    return this.reusableLine;
   }
 
+  private boolean nextTokenizerRow() throws IOException {
+    return this.tokenizer.nextRow()
+        && !this.tokenizer.cellEqualsIgnoreCase(0, AW_REPORT_CSV_TOTAL);
+  }
 }
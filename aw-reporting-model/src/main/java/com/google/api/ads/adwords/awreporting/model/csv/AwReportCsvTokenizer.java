@@ -0,0 +1,292 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Tokenizer of the CSV files of the AW reports.
+ *
+ *  The AW report CSV files are well formed: the cells are separated by a separator, and quoted
+ * only when they contain the separator, a quote or a line break, with the quotes inside a quoted
+ * cell doubled. The tokenizer scans the characters from a reusable buffer, and keeps the contents
+ * of the cells of the current row in a reusable character array, so reading a row does not
+ * allocate anything. The cells are only turned into {@code String}s when they are asked for.
+ *
+ *  A quote inside a cell that does not start with a quote is kept as a regular character, and a
+ * line break ends the row unless it is inside a quoted cell. A tokenizer is not thread safe.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class AwReportCsvTokenizer {
+
+  private static final int END_OF_INPUT = -1;
+
+  private final Reader reader;
+
+  private final char separator;
+
+  private final char quote;
+
+  private final char[] buffer = new char[8192];
+
+  private int position;
+
+  private int limit;
+
+  private int linesToSkip;
+
+  private char[] row = new char[1024];
+
+  private int rowLength;
+
+  private int[] cellStarts = new int[64];
+
+  private int[] cellEnds = new int[64];
+
+  private int cellCount;
+
+  private final CellView cellView = new CellView();
+
+  /**
+   * A view of the contents of a cell of the current row.
+   */
+  private final class CellView implements CharSequence {
+
+    private int start;
+    private int end;
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= end - start) {
+        throw new IndexOutOfBoundsException("Index: " + index);
+      }
+      return row[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      return toString().subSequence(from, to);
+    }
+
+    @Override
+    public String toString() {
+      return new String(row, start, end - start);
+    }
+  }
+
+  /**
+   * C'tor
+   *
+   * @param reader the reader of the CSV file.
+   * @param separator the character separating the cells.
+   * @param quote the character quoting the cells.
+   * @param linesToSkip the number of lines to skip before the first row.
+   */
+  public AwReportCsvTokenizer(Reader reader, char separator, char quote, int linesToSkip) {
+    this.reader = reader;
+    this.separator = separator;
+    this.quote = quote;
+    this.linesToSkip = linesToSkip;
+  }
+
+  /**
+   * Reads the next row.
+   *
+   * @return true if a row was read, false if the end of the file was reached.
+   * @throws IOException error reading the file.
+   */
+  public boolean nextRow() throws IOException {
+    while (linesToSkip > 0) {
+      linesToSkip--;
+      skipLine();
+    }
+
+    rowLength = 0;
+    cellCount = 0;
+    int c = read();
+    if (c == END_OF_INPUT) {
+      return false;
+    }
+
+    while (true) {
+      int cellStart = rowLength;
+      if (c == quote) {
+        c = readQuoted();
+      }
+      while (c != END_OF_INPUT && c != separator && c != '\n' && c != '\r') {
+        append((char) c);
+        c = read();
+      }
+      addCell(cellStart, rowLength);
+
+      if (c == separator) {
+        c = read();
+      } else {
+        if (c == '\r' && peek() == '\n') {
+          read();
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return the number of cells of the current row.
+   */
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Gets a view of the contents of a cell of the current row. The same view is returned for all
+   * the cells, and it is only valid until the next call to this method or to {@link #nextRow}.
+   *
+   * @param cell the index of the cell.
+   * @return the view of the contents of the cell.
+   */
+  public CharSequence getCell(int cell) {
+    checkCell(cell);
+    cellView.start = cellStarts[cell];
+    cellView.end = cellEnds[cell];
+    return cellView;
+  }
+
+  /**
+   * @param cell the index of the cell.
+   * @return the contents of the cell of the current row as a new {@code String}.
+   */
+  public String getString(int cell) {
+    checkCell(cell);
+    return new String(row, cellStarts[cell], cellEnds[cell] - cellStarts[cell]);
+  }
+
+  /**
+   * Compares the contents of a cell of the current row with a value, ignoring the case.
+   *
+   * @param cell the index of the cell.
+   * @param value the value to compare with.
+   * @return true if the cell has the value.
+   */
+  public boolean cellEqualsIgnoreCase(int cell, String value) {
+    checkCell(cell);
+    int start = cellStarts[cell];
+    int length = cellEnds[cell] - start;
+    if (length != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      char c1 = row[start + i];
+      char c2 = value.charAt(i);
+      if (c1 != c2 && Character.toLowerCase(c1) != Character.toLowerCase(c2)
+          && Character.toUpperCase(c1) != Character.toUpperCase(c2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the contents of a quoted cell, after the opening quote.
+   *
+   * @return the character after the closing quote.
+   */
+  private int readQuoted() throws IOException {
+    int c = read();
+    while (c != END_OF_INPUT) {
+      if (c == quote) {
+        c = read();
+        if (c != quote) {
+          return c;
+        }
+      }
+      append((char) c);
+      c = read();
+    }
+    return c;
+  }
+
+  private void skipLine() throws IOException {
+    int c = read();
+    while (c != END_OF_INPUT && c != '\n' && c != '\r') {
+      c = read();
+    }
+    if (c == '\r' && peek() == '\n') {
+      read();
+    }
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return END_OF_INPUT;
+    }
+    return buffer[position++];
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return END_OF_INPUT;
+    }
+    return buffer[position];
+  }
+
+  private boolean fill() throws IOException {
+    int read = reader.read(buffer, 0, buffer.length);
+    while (read == 0) {
+      read = reader.read(buffer, 0, buffer.length);
+    }
+    if (read < 0) {
+      return false;
+    }
+    position = 0;
+    limit = read;
+    return true;
+  }
+
+  private void append(char c) {
+    if (rowLength == row.length) {
+      char[] newRow = new char[row.length * 2];
+      System.arraycopy(row, 0, newRow, 0, rowLength);
+      row = newRow;
+    }
+    row[rowLength++] = c;
+  }
+
+  private void addCell(int start, int end) {
+    if (cellCount == cellStarts.length) {
+      int[] newStarts = new int[cellCount * 2];
+      int[] newEnds = new int[cellCount * 2];
+      System.arraycopy(cellStarts, 0, newStarts, 0, cellCount);
+      System.arraycopy(cellEnds, 0, newEnds, 0, cellCount);
+      cellStarts = newStarts;
+      cellEnds = newEnds;
+    }
+    cellStarts[cellCount] = start;
+    cellEnds[cellCount] = end;
+    cellCount++;
+  }
+
+  private void checkCell(int cell) {
+    if (cell < 0 || cell >= cellCount) {
+      throw new IndexOutOfBoundsException("Cell: " + cell + ", cells: " + cellCount);
+    }
+  }
+}
@@ -61,6 +61,12 @@ public class CsvReportEntitiesMapping {
   private final Map<ReportDefinitionReportType, List<String>> reportProperties =
       new HashMap<ReportDefinitionReportType, List<String>>();
 
+  private final Map<Class<? extends Report>, CsvRowBinder<? extends Report>> rowBinders =
+      new HashMap<Class<? extends Report>, CsvRowBinder<? extends Report>>();
+
+  private final Map<Class<? extends Report>, CsvReportMapping<? extends Report>> reportMappings =
+      new HashMap<Class<? extends Report>, CsvReportMapping<? extends Report>>();
+
   private static final Logger LOGGER =
       Logger.getLogger(CsvReportEntitiesMapping.class.getCanonicalName());
 
@@ -78,7 +84,8 @@ public class CsvReportEntitiesMapping {
    *
    * The base package is scanned in order to find the candidates to report beans, and the map of
    * {@code ReportDefinitionReportType} to the report bean class is created, based on the annotated
-   * classes.
+   * classes. The mapping of the CSV columns of each report bean class is also created, to be shared
+   * by all the files of the report.
    *
    */
   public void initializeReportMap() {
@@ -98,6 +105,17 @@ public class CsvReportEntitiesMapping {
     for (Class<? extends Report> reportBeanClass : reportBeans) {
       CsvReport csvReport = reportBeanClass.getAnnotation(CsvReport.class);
 
+      CsvReportMapping<? extends Report> reportMapping = CsvReportMapping.forClass(reportBeanClass);
+      this.reportMappings.put(reportBeanClass, reportMapping);
+
+      CsvRowBinder<? extends Report> rowBinder = reportMapping.getRowBinder();
+      if (rowBinder != null) {
+        this.rowBinders.put(reportBeanClass, rowBinder);
+      } else {
+        LOGGER.info("No generated CSV binder for " + reportBeanClass.getSimpleName()
+            + ", the rows will be parsed by reflection.");
+      }
+
       if (csvReport.value().equals(ReportDefinitionReportType.UNKNOWN)) {
         this.experimentalReportsDefinitionMap.put(csvReport.fileOnlyReportType(), reportBeanClass);
       } else {
@@ -147,6 +165,38 @@ public class CsvReportEntitiesMapping {
     return this.experimentalReportsDefinitionMap.get(reportTypeName);
   }
 
+  /**
+   * Retrieves the binder generated for the bean class, that sets the values of the CSV rows without
+   * reflection.
+   *
+   * @param reportBeanClass the class of the bean that represents the report data.
+   * @return the binder of the bean class, or {@code null} if there is none and the reflection must
+   *         be used.
+   */
+  @SuppressWarnings("unchecked")
+  public <R extends Report> CsvRowBinder<R> getRowBinder(Class<R> reportBeanClass) {
+
+    return (CsvRowBinder<R>) this.rowBinders.get(reportBeanClass);
+  }
+
+  /**
+   * Retrieves the mapping of the CSV columns to the fields of the bean class, shared by all the
+   * files of the report.
+   *
+   * @param reportBeanClass the class of the bean that represents the report data.
+   * @return the mapping of the bean class.
+   */
+  @SuppressWarnings("unchecked")
+  public <R extends Report> CsvReportMapping<R> getReportMapping(Class<R> reportBeanClass) {
+
+    CsvReportMapping<R> reportMapping =
+        (CsvReportMapping<R>) this.reportMappings.get(reportBeanClass);
+    if (reportMapping == null) {
+      reportMapping = CsvReportMapping.forClass(reportBeanClass);
+    }
+    return reportMapping;
+  }
+
   /**
    * Retrieves the properties that should be selected in the report.
    *
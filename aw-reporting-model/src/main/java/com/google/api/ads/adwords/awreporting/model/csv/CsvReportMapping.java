@@ -0,0 +1,263 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
+import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The mapping between the CSV columns and the fields of a report entity class.
+ *
+ *  The annotations of the class are scanned once, and the mapping is shared by all the
+ * {@link AnnotationBasedMappingStrategy} of the class, so capturing the header of a file is only a
+ * lookup of its column names. The mappings of the headers are also cached by the exact names of
+ * their columns, as the files of a report type all have the same header.
+ *
+ *  The mappings are immutable and can be used by several threads at the same time.
+ *
+ * @author agent@google.com (Agent)
+ *
+ * @param <T> type of sub Report.
+ */
+public final class CsvReportMapping<T extends Report> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The maximum number of headers cached by mapping, the other headers are mapped every time.
+   */
+  static final int MAX_CACHED_HEADERS = 64;
+
+  private static final Map<Class<?>, CsvReportMapping<?>> MAPPINGS =
+      new ConcurrentHashMap<Class<?>, CsvReportMapping<?>>();
+
+  private final Class<T> reportEntityClass;
+
+  private final transient Map<String, String> fieldsByCsvName;
+
+  private final transient Set<String> moneyFields;
+
+  private final transient Set<String> internedFields;
+
+  private final transient Map<String, PropertyDescriptor> descriptors;
+
+  private final transient CsvRowBinder<T> rowBinder;
+
+  private final transient Map<List<String>, Header> headers =
+      new ConcurrentHashMap<List<String>, Header>();
+
+  /**
+   * The mapping of the columns of a CSV header to the fields of the entity.
+   */
+  public static final class Header implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] fieldNames;
+
+    private final boolean[] mappedColumns;
+
+    private final int[] binderColumns;
+
+    private Header(String[] fieldNames, int[] binderColumns) {
+      this.fieldNames = fieldNames;
+      this.mappedColumns = new boolean[fieldNames.length];
+      for (int i = 0; i < fieldNames.length; i++) {
+        this.mappedColumns[i] = fieldNames[i] != null;
+      }
+      this.binderColumns = binderColumns;
+    }
+
+    /**
+     * @return the number of columns of the header.
+     */
+    public int getColumnCount() {
+      return fieldNames.length;
+    }
+
+    /**
+     * @param column the index of the column.
+     * @return the name of the field the column is mapped to, {@code null} if it is not mapped.
+     */
+    public String getFieldName(int column) {
+      return column < 0 || column >= fieldNames.length ? null : fieldNames[column];
+    }
+
+    /**
+     * @return a copy of the columns mapped to the entity, by column index.
+     */
+    public boolean[] getMappedColumns() {
+      return mappedColumns.clone();
+    }
+
+    /**
+     * @return a copy of the property indexes of the generated binder of the entity, by column
+     *         index, {@code null} if there is no binder.
+     */
+    public int[] getBinderColumns() {
+      return binderColumns == null ? null : binderColumns.clone();
+    }
+  }
+
+  private CsvReportMapping(Class<T> reportEntityClass) {
+    this.reportEntityClass = reportEntityClass;
+
+    Map<String, String> fieldsByCsvName = new HashMap<String, String>();
+    Set<String> moneyFields = new HashSet<String>();
+    Set<String> internedFields = new HashSet<String>();
+    Map<String, PropertyDescriptor> descriptors = new HashMap<String, PropertyDescriptor>();
+    Class<?> currentClass = reportEntityClass;
+    while (currentClass != Object.class) {
+      for (Field field : currentClass.getDeclaredFields()) {
+        CsvField csvField = field.getAnnotation(CsvField.class);
+        if (csvField != null) {
+          fieldsByCsvName.put(csvField.value(), field.getName());
+          if (csvField.intern() && field.getType() == String.class) {
+            internedFields.add(field.getName());
+          }
+          try {
+            descriptors.put(field.getName(),
+                new PropertyDescriptor(field.getName(), reportEntityClass));
+          } catch (IntrospectionException e) {
+            // Reported when a header maps a column to the field
+          }
+        }
+        if (field.isAnnotationPresent(MoneyField.class)) {
+          moneyFields.add(field.getName());
+        }
+      }
+      currentClass = currentClass.getSuperclass();
+    }
+    this.fieldsByCsvName = Collections.unmodifiableMap(fieldsByCsvName);
+    this.moneyFields = Collections.unmodifiableSet(moneyFields);
+    this.internedFields = Collections.unmodifiableSet(internedFields);
+    this.descriptors = Collections.unmodifiableMap(descriptors);
+    this.rowBinder = CsvRowBinder.forClass(reportEntityClass);
+  }
+
+  /**
+   * Gets the mapping of the report entity class, scanning the class the first time.
+   *
+   * @param reportEntityClass the class of the report entity.
+   * @return the mapping of the class.
+   */
+  @SuppressWarnings("unchecked")
+  public static <R extends Report> CsvReportMapping<R> forClass(Class<R> reportEntityClass) {
+    CsvReportMapping<?> mapping = MAPPINGS.get(reportEntityClass);
+    if (mapping == null) {
+      mapping = new CsvReportMapping<R>(reportEntityClass);
+      MAPPINGS.put(reportEntityClass, mapping);
+    }
+    return (CsvReportMapping<R>) mapping;
+  }
+
+  /**
+   * @return the class of the report entity.
+   */
+  public Class<T> getReportEntityClass() {
+    return reportEntityClass;
+  }
+
+  /**
+   * @return the generated binder of the entity, or {@code null} if there is none.
+   */
+  public CsvRowBinder<T> getRowBinder() {
+    return rowBinder;
+  }
+
+  /**
+   * @return the name of the field of each CSV column name.
+   */
+  public Map<String, String> getFieldsByCsvName() {
+    return fieldsByCsvName;
+  }
+
+  /**
+   * @param fieldName the name of the field.
+   * @return true if the field is annotated with {@code MoneyField}.
+   */
+  public boolean isMoneyField(String fieldName) {
+    return moneyFields.contains(fieldName);
+  }
+
+  /**
+   * @param fieldName the name of the field.
+   * @return true if the values of the field are interned, as set by its {@code CsvField}.
+   */
+  public boolean isInternedField(String fieldName) {
+    return internedFields.contains(fieldName);
+  }
+
+  /**
+   * Gets the property descriptor of a mapped field. The descriptors are shared, so they must not be
+   * modified.
+   *
+   * @param fieldName the name of the field.
+   * @return the descriptor of the field.
+   * @throws IntrospectionException the field is not a property of the entity.
+   */
+  public PropertyDescriptor getDescriptor(String fieldName) throws IntrospectionException {
+    PropertyDescriptor descriptor = descriptors.get(fieldName);
+    if (descriptor == null) {
+      // Throws the error of the introspection
+      descriptor = new PropertyDescriptor(fieldName, reportEntityClass);
+    }
+    return descriptor;
+  }
+
+  /**
+   * Maps the columns of a CSV header to the fields of the entity.
+   *
+   * @param header the names of the columns.
+   * @return the mapping of the header.
+   */
+  public Header mapHeader(String[] header) {
+    List<String> key = Arrays.asList(header.clone());
+    Header mappedHeader = headers.get(key);
+    if (mappedHeader == null) {
+      String[] fieldNames = new String[header.length];
+      for (int i = 0; i < header.length; i++) {
+        fieldNames[i] = fieldsByCsvName.get(header[i]);
+      }
+      mappedHeader = new Header(
+          fieldNames, rowBinder == null ? null : rowBinder.bindHeader(header));
+      if (headers.size() < MAX_CACHED_HEADERS) {
+        headers.put(key, mappedHeader);
+      }
+    }
+    return mappedHeader;
+  }
+
+  /**
+   * Shares the mapping of the class once deserialized.
+   */
+  private Object readResolve() {
+    return forClass(reportEntityClass);
+  }
+}
@@ -0,0 +1,236 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds the rows of a CSV report onto the typed setters of a report entity.
+ *
+ *  The binders are generated at compile time by the {@code CsvRowBinderProcessor} for every class
+ * annotated with {@code CsvReport}, as a class named after the entity with the
+ * {@link #CLASS_NAME_SUFFIX} suffix. The values are converted the same way as the reflection based
+ * {@link AnnotationBasedMappingStrategy} does, but each column is a direct call to the setter of
+ * its property, without property descriptors, property editors or boxing through
+ * {@code Object}.
+ *
+ *  The binders do not hold any state of the parsing, so one instance is shared by all the threads.
+ *
+ * @author agent@google.com (Agent)
+ *
+ * @param <T> type of sub Report.
+ */
+public abstract class CsvRowBinder<T extends Report> {
+
+  /**
+   * The suffix of the name of the generated binder classes.
+   */
+  public static final String CLASS_NAME_SUFFIX = "CsvRowBinder";
+
+  private static final Map<Class<?>, Object> BINDERS = new ConcurrentHashMap<Class<?>, Object>();
+
+  private static final Object NO_BINDER = new Object();
+
+  private final Class<T> reportEntityClass;
+
+  private final Map<String, Integer> propertiesByCsvName = new HashMap<String, Integer>();
+
+  /**
+   * C'tor
+   *
+   * @param reportEntityClass the class of the report entity.
+   * @param csvNames the CSV column name of each property, by property index.
+   */
+  protected CsvRowBinder(Class<T> reportEntityClass, String[] csvNames) {
+    this.reportEntityClass = reportEntityClass;
+    for (int i = 0; i < csvNames.length; i++) {
+      this.propertiesByCsvName.put(csvNames[i], i);
+    }
+  }
+
+  /**
+   * Finds the generated binder of the report entity class.
+   *
+   * @param reportEntityClass the class of the report entity.
+   * @return the binder of the class, or {@code null} if no binder was generated for it.
+   */
+  @SuppressWarnings("unchecked")
+  public static <R extends Report> CsvRowBinder<R> forClass(Class<R> reportEntityClass) {
+    Object binder = BINDERS.get(reportEntityClass);
+    if (binder == null) {
+      binder = loadBinder(reportEntityClass);
+      BINDERS.put(reportEntityClass, binder);
+    }
+    return binder == NO_BINDER ? null : (CsvRowBinder<R>) binder;
+  }
+
+  private static Object loadBinder(Class<?> reportEntityClass) {
+    try {
+      Class<?> binderClass = Class.forName(reportEntityClass.getName() + CLASS_NAME_SUFFIX, true,
+          reportEntityClass.getClassLoader());
+      CsvRowBinder<?> binder = (CsvRowBinder<?>) binderClass.newInstance();
+      return binder.getReportEntityClass() == reportEntityClass ? binder : NO_BINDER;
+    } catch (ClassNotFoundException e) {
+      return NO_BINDER;
+    } catch (InstantiationException e) {
+      return NO_BINDER;
+    } catch (IllegalAccessException e) {
+      return NO_BINDER;
+    } catch (ClassCastException e) {
+      return NO_BINDER;
+    }
+  }
+
+  /**
+   * @return the class of the report entity.
+   */
+  public Class<T> getReportEntityClass() {
+    return reportEntityClass;
+  }
+
+  /**
+   * Maps the columns of the CSV header to the properties of the entity.
+   *
+   * @param header the names of the columns.
+   * @return the property index of each column, -1 for the columns not mapped to the entity.
+   */
+  public int[] bindHeader(String[] header) {
+    int[] properties = new int[header.length];
+    for (int i = 0; i < header.length; i++) {
+      Integer property = this.propertiesByCsvName.get(header[i]);
+      properties[i] = property == null ? -1 : property;
+    }
+    return properties;
+  }
+
+  /**
+   * Creates a bean with the values of the row.
+   *
+   * @param row the values of the row.
+   * @param properties the property index of each column, as returned by {@link #bindHeader}.
+   * @return the bean with the values of the row.
+   */
+  public T bindRow(String[] row, int[] properties) {
+    T bean = this.createBean();
+    int columns = Math.min(row.length, properties.length);
+    for (int col = 0; col < columns; col++) {
+      int property = properties[col];
+      if (property >= 0) {
+        try {
+          this.setProperty(bean, property, row[col]);
+        } catch (RuntimeException e) {
+          throw new IllegalArgumentException(
+              "Error parsing column # " + col + " with contents: " + row[col], e);
+        }
+      }
+    }
+    return bean;
+  }
+
+  /**
+   * @return a new instance of the report entity.
+   */
+  public abstract T createBean();
+
+  /**
+   * Converts the value and sets it into the property of the bean.
+   *
+   * @param bean the bean being filled.
+   * @param property the index of the property.
+   * @param value the value of the column as read from the CSV file.
+   */
+  protected abstract void setProperty(T bean, int property, String value);
+
+  /**
+   * Converts a money value in micros to a regular decimal by dividing it by a million.
+   */
+  protected static BigDecimal toMoney(String value) {
+    return BigDecimalUtil.parseFromMicros(value);
+  }
+
+  protected static Long toLong(String value) {
+    return Long.decode(toNumber(value));
+  }
+
+  protected static Integer toInteger(String value) {
+    return Integer.decode(toNumber(value));
+  }
+
+  protected static Short toShort(String value) {
+    return Short.decode(toNumber(value));
+  }
+
+  protected static Byte toByte(String value) {
+    return Byte.decode(toNumber(value));
+  }
+
+  protected static Double toDouble(String value) {
+    return Double.valueOf(toNumber(value));
+  }
+
+  protected static Float toFloat(String value) {
+    return Float.valueOf(toNumber(value));
+  }
+
+  /**
+   * Converts the value the same way as the {@code BooleanEditor} of the property editors.
+   */
+  protected static Boolean toBoolean(String value) {
+    String trimmed = value.trim();
+    if ("true".equalsIgnoreCase(trimmed)) {
+      return Boolean.TRUE;
+    }
+    if ("false".equalsIgnoreCase(trimmed)) {
+      return Boolean.FALSE;
+    }
+    throw new IllegalArgumentException(value);
+  }
+
+  /**
+   * Creates the error for a property that the reflection based mapping can not set either.
+   */
+  protected static IllegalArgumentException unbindable(String property, String reason) {
+    return new IllegalArgumentException("Can not set property " + property + ": " + reason);
+  }
+
+  private static String toNumber(String value) {
+    return removeMinusSigns(value.trim());
+  }
+
+  /**
+   * Removes the '-' of a numeric value, without creating a new {@code String} if there is none.
+   */
+  static String removeMinusSigns(String value) {
+    int index = value.indexOf('-');
+    if (index < 0) {
+      return value;
+    }
+    StringBuilder removed = new StringBuilder(value.length());
+    removed.append(value, 0, index);
+    for (int i = index + 1; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c != '-') {
+        removed.append(c);
+      }
+    }
+    return removed.toString();
+  }
+}
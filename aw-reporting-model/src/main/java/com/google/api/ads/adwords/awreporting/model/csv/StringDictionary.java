@@ -0,0 +1,200 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dictionary of the values of the low cardinality columns of the reports, shared by all the
+ * threads parsing the reports of a run.
+ *
+ *  The columns with the {@code intern} flag of their {@code CsvField} get one canonical
+ * {@code String} for each distinct value, looked up straight from the characters of the cell, so
+ * the beans kept in the buffers share the instances instead of holding millions of copies of the
+ * same few names and statuses. Each column holds a bounded number of values, and the values that
+ * do not fit are returned as new {@code String}s.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class StringDictionary {
+
+  /**
+   * The most distinct values kept for a column.
+   */
+  public static final int MAX_VALUES_PER_COLUMN = 4096;
+
+  private final Map<String, Column> columns = new ConcurrentHashMap<String, Column>();
+
+  /**
+   * The dictionary of the values of one column.
+   */
+  public static final class Column {
+
+    // Open addressing with linear probing, at most half full, the values are never removed
+    private final AtomicReferenceArray<String> values =
+        new AtomicReferenceArray<String>(MAX_VALUES_PER_COLUMN * 2);
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    private Column() {}
+
+    /**
+     * Gets the canonical instance of the value.
+     *
+     * @param value the characters of the value, only read during the call.
+     * @return the canonical {@code String} with the characters, or a new one if the dictionary of
+     *         the column is full.
+     */
+    public String intern(CharSequence value) {
+      int length = value.length();
+      int hash = 0;
+      for (int i = 0; i < length; i++) {
+        hash = 31 * hash + value.charAt(i);
+      }
+
+      int mask = this.values.length() - 1;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (true) {
+        String candidate = this.values.get(slot);
+        if (candidate == null) {
+          String newValue = value.toString();
+          if (this.size.get() >= MAX_VALUES_PER_COLUMN) {
+            return newValue;
+          }
+          if (this.values.compareAndSet(slot, null, newValue)) {
+            this.size.incrementAndGet();
+            return newValue;
+          }
+          // Another thread took the slot, which may have the same value
+          candidate = this.values.get(slot);
+        }
+        if (candidate.hashCode() == hash && contentEquals(candidate, value)) {
+          this.hits.incrementAndGet();
+          this.savedBytes.addAndGet(estimateSize(length));
+          return candidate;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    /**
+     * @return the number of distinct values kept.
+     */
+    public int getSize() {
+      return this.size.get();
+    }
+
+    /**
+     * @return the number of values that got an instance already in the dictionary.
+     */
+    public long getHits() {
+      return this.hits.get();
+    }
+
+    /**
+     * @return the estimated bytes of the {@code String}s that were not created.
+     */
+    public long getSavedBytes() {
+      return this.savedBytes.get();
+    }
+
+    private static boolean contentEquals(String candidate, CharSequence value) {
+      if (candidate.length() != value.length()) {
+        return false;
+      }
+      for (int i = 0; i < candidate.length(); i++) {
+        if (candidate.charAt(i) != value.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Estimates the size of a {@code String} on a 64 bit JVM with compressed references: the
+     * object itself and its array of characters, each aligned to 8 bytes.
+     */
+    private static long estimateSize(int length) {
+      return 24 + ((16 + 2L * length + 7) & ~7L);
+    }
+  }
+
+  /**
+   * Gets the dictionary of a column, shared by all the report entities with the same property.
+   *
+   * @param propertyName the name of the property of the column.
+   * @return the dictionary of the column.
+   */
+  public Column forColumn(String propertyName) {
+    Column column = this.columns.get(propertyName);
+    if (column == null) {
+      synchronized (this.columns) {
+        column = this.columns.get(propertyName);
+        if (column == null) {
+          column = new Column();
+          this.columns.put(propertyName, column);
+        }
+      }
+    }
+    return column;
+  }
+
+  /**
+   * @return the number of values that got an instance already in the dictionary, in all the
+   *         columns.
+   */
+  public long getHits() {
+    long hits = 0;
+    for (Column column : this.columns.values()) {
+      hits += column.getHits();
+    }
+    return hits;
+  }
+
+  /**
+   * @return the estimated bytes of the {@code String}s that were not created, in all the columns.
+   */
+  public long getSavedBytes() {
+    long savedBytes = 0;
+    for (Column column : this.columns.values()) {
+      savedBytes += column.getSavedBytes();
+    }
+    return savedBytes;
+  }
+
+  /**
+   * @return a summary of the values and savings of each column.
+   */
+  @Override
+  public String toString() {
+    StringBuilder summary = new StringBuilder();
+    summary.append("Interned ").append(this.getHits()).append(" values, saving about ")
+        .append(this.getSavedBytes() / 1024).append(" KB");
+    for (Map.Entry<String, Column> column : this.columns.entrySet()) {
+      summary.append("\n  ").append(column.getKey()).append(": ")
+          .append(column.getValue().getSize()).append(" distinct values, ")
+          .append(column.getValue().getHits()).append(" repeated");
+    }
+    return summary.toString();
+  }
+}
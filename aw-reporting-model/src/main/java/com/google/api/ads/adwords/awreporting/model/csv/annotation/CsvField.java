@@ -43,4 +43,10 @@ public @interface CsvField {
    */
   String reportField();
 
+  /**
+   * True for the low cardinality columns, like names and statuses, whose values are shared through
+   * the {@code StringDictionary} of the run instead of creating a new {@code String} for each row.
+   */
+  boolean intern() default false;
+
 }
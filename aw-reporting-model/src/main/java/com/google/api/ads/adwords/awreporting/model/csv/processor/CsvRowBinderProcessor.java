@@ -0,0 +1,383 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code CsvRowBinder} for every report entity annotated with {@code CsvReport}.
+ *
+ *  The columns are mapped to the properties the same way as the {@code
+ * AnnotationBasedMappingStrategy} does: the {@code CsvField} annotations are read from the entity
+ * class and its super classes, and the setter of each property is the one whose parameter has the
+ * type returned by the getter. A property the reflection based mapping can not set either, like
+ * one without a setter, fails when its column is bound, as it does with the reflection. An entity
+ * with a property of a type the binder does not know how to convert gets no binder, and is parsed
+ * with the reflection.
+ *
+ *  The processor is run by the compiler plugin of the model, see the {@code pom.xml}.
+ *
+ * @author agent@google.com (Agent)
+ */
+@SupportedAnnotationTypes(CsvRowBinderProcessor.CSV_REPORT)
+public class CsvRowBinderProcessor extends AbstractProcessor {
+
+  static final String CSV_REPORT =
+      "com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport";
+
+  private static final String CSV_FIELD =
+      "com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField";
+
+  private static final String MONEY_FIELD =
+      "com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField";
+
+  private static final String REPORT =
+      "com.google.api.ads.adwords.awreporting.model.entities.Report";
+
+  private static final String ROW_BINDER =
+      "com.google.api.ads.adwords.awreporting.model.csv.CsvRowBinder";
+
+  /**
+   * The same suffix as the {@code CsvRowBinder.CLASS_NAME_SUFFIX}, the processor is compiled
+   * before the rest of the model.
+   */
+  private static final String BINDER_SUFFIX = "CsvRowBinder";
+
+  private static final String BIG_DECIMAL = "java.math.BigDecimal";
+
+  private static final Map<String, String> CONVERTERS = new LinkedHashMap<String, String>();
+
+  static {
+    CONVERTERS.put("java.lang.String", null);
+    CONVERTERS.put("java.lang.Long", "toLong");
+    CONVERTERS.put("long", "toLong");
+    CONVERTERS.put("java.lang.Integer", "toInteger");
+    CONVERTERS.put("int", "toInteger");
+    CONVERTERS.put("java.lang.Short", "toShort");
+    CONVERTERS.put("short", "toShort");
+    CONVERTERS.put("java.lang.Byte", "toByte");
+    CONVERTERS.put("byte", "toByte");
+    CONVERTERS.put("java.lang.Double", "toDouble");
+    CONVERTERS.put("double", "toDouble");
+    CONVERTERS.put("java.lang.Float", "toFloat");
+    CONVERTERS.put("float", "toFloat");
+    CONVERTERS.put("java.lang.Boolean", "toBoolean");
+    CONVERTERS.put("boolean", "toBoolean");
+  }
+
+  private final Set<String> generatedBinders = new HashSet<String>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement csvReport = processingEnv.getElementUtils().getTypeElement(CSV_REPORT);
+    if (csvReport == null) {
+      return false;
+    }
+    for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(csvReport))) {
+      String binderName = entity.getQualifiedName() + BINDER_SUFFIX;
+      if (isBindable(entity) && generatedBinders.add(binderName)) {
+        try {
+          generateBinder(entity, binderName);
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+              "Could not write " + binderName + ": " + e.getMessage(), entity);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks that the entity is a public concrete top level sub class of {@code Report} with a
+   * public constructor without arguments.
+   */
+  private boolean isBindable(TypeElement entity) {
+    if (entity.getKind() != ElementKind.CLASS
+        || !entity.getModifiers().contains(Modifier.PUBLIC)
+        || entity.getModifiers().contains(Modifier.ABSTRACT)
+        || entity.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      return false;
+    }
+    boolean publicConstructor = false;
+    for (ExecutableElement constructor
+        : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        publicConstructor = true;
+      }
+    }
+    if (!publicConstructor) {
+      return false;
+    }
+    for (TypeElement current = entity; current != null; current = getSuperclass(current)) {
+      if (current.getQualifiedName().contentEquals(REPORT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the binder of the entity, or nothing if a property has a type the binder can not
+   * convert.
+   */
+  private void generateBinder(TypeElement entity, String binderName) throws IOException {
+    Map<String, String> nameMapping = new LinkedHashMap<String, String>();
+    Set<String> moneyFields = new HashSet<String>();
+    // The super classes override the mapping of the sub classes, as in the reflection
+    for (TypeElement current = entity; current != null; current = getSuperclass(current)) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        String fieldName = field.getSimpleName().toString();
+        AnnotationMirror csvField = getAnnotation(field, CSV_FIELD);
+        if (csvField != null) {
+          nameMapping.put(getValue(csvField), fieldName);
+        }
+        if (getAnnotation(field, MONEY_FIELD) != null) {
+          moneyFields.add(fieldName);
+        }
+      }
+    }
+
+    List<String> csvNames = new ArrayList<String>(nameMapping.keySet());
+    List<String> statements = new ArrayList<String>();
+    for (String csvName : csvNames) {
+      String fieldName = nameMapping.get(csvName);
+      String statement = createSetStatement(entity, fieldName, moneyFields.contains(fieldName));
+      if (statement == null) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+            "No CsvRowBinder for " + entity.getSimpleName() + ", the type of " + fieldName
+            + " is not supported. The reflection is used.", entity);
+        return;
+      }
+      statements.add(statement);
+    }
+
+    String packageName = getPackage(entity).getQualifiedName().toString();
+    String entityName = entity.getSimpleName().toString();
+    String binderSimpleName = binderName.substring(binderName.lastIndexOf('.') + 1);
+
+    JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(binderName, entity);
+    PrintWriter writer = new PrintWriter(sourceFile.openWriter());
+    try {
+      writer.println("// Generated by " + CsvRowBinderProcessor.class.getSimpleName()
+          + " from the annotations of " + entityName + ". Do not edit.");
+      writer.println();
+      if (packageName.length() > 0) {
+        writer.println("package " + packageName + ";");
+        writer.println();
+      }
+      writer.println("@javax.annotation.Generated(\"" + CsvRowBinderProcessor.class.getName()
+          + "\")");
+      writer.println("public final class " + binderSimpleName + " extends " + ROW_BINDER + "<"
+          + entityName + "> {");
+      writer.println();
+      writer.println("  private static final String[] CSV_NAMES = {");
+      for (String csvName : csvNames) {
+        writer.println("    " + toLiteral(csvName) + ",");
+      }
+      writer.println("  };");
+      writer.println();
+      writer.println("  public " + binderSimpleName + "() {");
+      writer.println("    super(" + entityName + ".class, CSV_NAMES);");
+      writer.println("  }");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  public " + entityName + " createBean() {");
+      writer.println("    return new " + entityName + "();");
+      writer.println("  }");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  protected void setProperty(" + entityName
+          + " bean, int property, String value) {");
+      writer.println("    switch (property) {");
+      for (int i = 0; i < statements.size(); i++) {
+        writer.println("      case " + i + ":");
+        writer.println("        " + statements.get(i));
+        if (!statements.get(i).startsWith("throw ")) {
+          writer.println("        break;");
+        }
+      }
+      writer.println("      default:");
+      writer.println(
+          "        throw new IllegalArgumentException(\"Unknown property: \" + property);");
+      writer.println("    }");
+      writer.println("  }");
+      writer.println("}");
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Creates the statement setting the value into the property, as the reflection does.
+   *
+   * @return the statement, or {@code null} if the type of the property is not supported.
+   */
+  private String createSetStatement(TypeElement entity, String fieldName, boolean money) {
+    String baseName = fieldName.substring(0, 1).toUpperCase(Locale.ENGLISH)
+        + fieldName.substring(1);
+
+    // The same lookup as the PropertyDescriptor: "is" before "get", and the setter taking the
+    // type returned by the getter
+    ExecutableElement getter = findMethod(entity, "is" + baseName, null);
+    if (getter == null) {
+      getter = findMethod(entity, "get" + baseName, null);
+    }
+    if (getter == null || getter.getReturnType().getKind() == TypeKind.VOID) {
+      return unbindable(fieldName, "no getter");
+    }
+    TypeMirror propertyType = getter.getReturnType();
+    ExecutableElement setter = findMethod(entity, "set" + baseName, propertyType);
+    if (setter == null) {
+      return unbindable(fieldName, "no setter taking " + propertyType);
+    }
+    if (!setter.getThrownTypes().isEmpty()) {
+      return null;
+    }
+
+    String type = processingEnv.getTypeUtils().erasure(propertyType).toString();
+    String setterCall = "bean." + setter.getSimpleName() + "(";
+    if (money) {
+      if (!type.equals(BIG_DECIMAL)) {
+        return unbindable(fieldName, "money values are set as " + BIG_DECIMAL);
+      }
+      return setterCall + "toMoney(value));";
+    }
+    if (type.equals(BIG_DECIMAL)) {
+      return unbindable(fieldName, "no property editor for " + BIG_DECIMAL);
+    }
+    if (!CONVERTERS.containsKey(type)) {
+      return null;
+    }
+    String converter = CONVERTERS.get(type);
+    return setterCall + (converter == null ? "value" : converter + "(value)") + ");";
+  }
+
+  /**
+   * Finds a public method of the class or its super classes.
+   *
+   * @param parameterType the type of the only parameter, {@code null} for no parameters.
+   */
+  private ExecutableElement findMethod(TypeElement entity, String name,
+      TypeMirror parameterType) {
+    List<ExecutableElement> methods = ElementFilter.methodsIn(
+        processingEnv.getElementUtils().getAllMembers(entity));
+    for (ExecutableElement method : methods) {
+      if (!method.getSimpleName().contentEquals(name)
+          || !method.getModifiers().contains(Modifier.PUBLIC)
+          || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      List<? extends VariableElement> parameters = method.getParameters();
+      if (parameterType == null && parameters.isEmpty()) {
+        return method;
+      }
+      if (parameterType != null && parameters.size() == 1 && processingEnv.getTypeUtils()
+          .isSameType(parameters.get(0).asType(), parameterType)) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private static String unbindable(String fieldName, String reason) {
+    return "throw unbindable(" + toLiteral(fieldName) + ", " + toLiteral(reason) + ");";
+  }
+
+  private static TypeElement getSuperclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+    return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+  }
+
+  private static PackageElement getPackage(Element element) {
+    Element current = element;
+    while (current.getKind() != ElementKind.PACKAGE) {
+      current = current.getEnclosingElement();
+    }
+    return (PackageElement) current;
+  }
+
+  private static AnnotationMirror getAnnotation(Element element, String annotationName) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private static String getValue(AnnotationMirror annotation) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+        : annotation.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals("value")) {
+        return String.valueOf(entry.getValue().getValue());
+      }
+    }
+    return "";
+  }
+
+  private static String toLiteral(String value) {
+    StringBuilder literal = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7e) {
+        literal.append(String.format("\\u%04x", (int) c));
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.append('"').toString();
+  }
+}
@@ -16,6 +16,7 @@ package com.google.api.ads.adwords.awreporting.model.entities;
 
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.persistence.mongodb.MongoEntity;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 
 import org.joda.time.DateTime;
 
@@ -106,6 +107,29 @@ public abstract class Report implements MongoEntity {
     return "";
   }
 
+  /**
+   * Appends the dates of the row to its id, the same values as {@link #setIdDates()} returns.
+   *
+   * @param idBuilder the builder of the id.
+   */
+  protected void appendIdDates(RowIdBuilder idBuilder) {
+    if (this.getDateStart() != null && this.getDateEnd() != null) {
+      idBuilder.appendPart(this.getDateStart()).appendPart(this.getDateEnd());
+    }
+  }
+
+  /**
+   * Replaces the id by its fixed width hash of {@link RowIdBuilder#HASHED_ID_LENGTH} characters,
+   * so the primary key indexes of the data base do not grow with the length of the ids. The same
+   * id always gets the same hash, but the hashed ids do not match the rows stored with the
+   * regular ids.
+   */
+  public void hashId() {
+    if (this.id != null) {
+      this.id = RowIdBuilder.hash(this.id);
+    }
+  }
+
   public String getId() {
     return id;
   }
@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 
 import java.math.BigDecimal;
@@ -108,29 +109,14 @@ public class ReportAccount extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having date and accountId
-    this.id = this.getAccountId().toString();
-
-    this.id += setIdDates();
+    RowIdBuilder idBuilder = RowIdBuilder.start().append(this.getAccountId());
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
-    if (this.getHourOfDay() != null) {
-      this.id += "-" + this.getHourOfDay();
-    }
-    if (this.getConversionTypeName() != null) {
-      this.id += "-" + this.getConversionTypeName();
-    }
+    this.appendIdSegments(idBuilder);
+    idBuilder.appendPartIfNotNull(this.getHourOfDay())
+        .appendPartIfNotNull(this.getConversionTypeName());
+    this.id = idBuilder.build();
   }
 
   public String getSearchImpressionShare() {
@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.common.collect.Lists;
 
@@ -80,11 +81,11 @@ public class ReportAd extends ReportBase {
   private Long campaignId;
 
   @Column(name = "STATUS", length = 32)
-  @CsvField(value = "Ad state", reportField = "Status")
+  @CsvField(value = "Ad state", reportField = "Status", intern = true)
   private String adState;
 
   @Column(name = "CREATIVE_APPROVAL_STATUS", length = 32)
-  @CsvField(value = "Ad Approval Status", reportField = "CreativeApprovalStatus")
+  @CsvField(value = "Ad Approval Status", reportField = "CreativeApprovalStatus", intern = true)
   private String creativeApprovalStatus;
 
   @Column(name = "CLICKCONVERSIONRATESIGNIFICANCE")
@@ -200,26 +201,19 @@ public class ReportAd extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId and date
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null && this.getCampaignId() != null && this.getAdGroupId() != null
         && this.getAdId() != null) {
-      this.id = this.getAccountId() + "-" + this.getCampaignId() + "-" +
-        this.getAdGroupId() + "-" + this.getAdId();
+      idBuilder.append(this.getAccountId()).appendPart(this.getCampaignId())
+          .appendPart(this.getAdGroupId()).appendPart(this.getAdId());
+    } else {
+      idBuilder.append(this.id);
     }
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
+    this.appendIdSegments(idBuilder);
+    this.id = idBuilder.build();
   }
 
   // adId
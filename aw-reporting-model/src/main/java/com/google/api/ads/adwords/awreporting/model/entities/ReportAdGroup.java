@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.common.collect.Lists;
 
@@ -53,7 +54,7 @@ public class ReportAdGroup extends ReportBase {
   private Long campaignId;
 
   @Column(name = "ADGROUP_STATUS", length = 32)
-  @CsvField(value = "Ad group state", reportField = "AdGroupStatus")
+  @CsvField(value = "Ad group state", reportField = "AdGroupStatus", intern = true)
   private String adGroupStatus;
 
   @Column(name = "TARGETCPA")
@@ -163,29 +164,20 @@ public class ReportAdGroup extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId and date
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null && this.getCampaignId() != null
         && this.getAdGroupId() != null) {
-      this.id = this.getAccountId() + "-" + this.getCampaignId() + "-" + this.getAdGroupId();
+      idBuilder.append(this.getAccountId()).appendPart(this.getCampaignId())
+          .appendPart(this.getAdGroupId());
+    } else {
+      idBuilder.append(this.id);
     }
-
-    this.id += this.setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
-    if (this.getHourOfDay() != null) {
-      this.id += "-" + this.getHourOfDay();
-    }
+    this.appendIdSegments(idBuilder);
+    idBuilder.appendPartIfNotNull(this.getHourOfDay());
+    this.id = idBuilder.build();
   }
 
   // adGroupId
@@ -27,6 +27,7 @@ import com.google.api.ads.adwords.awreporting.model.entities.dateranges.TodayDat
 import com.google.api.ads.adwords.awreporting.model.entities.dateranges.YesterdayDateRangeHandler;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
 import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
 import com.google.api.client.util.Maps;
 
@@ -37,6 +38,7 @@ import org.joda.time.DateTime;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
@@ -61,23 +63,23 @@ public abstract class ReportBase extends Report {
 
   // General
   @Column(name = "ACCOUNT_DESCRIPTIVE_NAME", length = 255)
-  @CsvField(value = "Account", reportField = "AccountDescriptiveName")
+  @CsvField(value = "Account", reportField = "AccountDescriptiveName", intern = true)
   protected String accountDescriptiveName;
 
   @Column(name = "ACCOUNTTIMEZONEID")
-  @CsvField(value = "Time zone", reportField = "AccountTimeZoneId")
+  @CsvField(value = "Time zone", reportField = "AccountTimeZoneId", intern = true)
   protected String accountTimeZoneId;
 
   @Column(name = "CUSTOMER_DESCRIPTIVE_NAME")
-  @CsvField(value = "Client name", reportField = "CustomerDescriptiveName")
+  @CsvField(value = "Client name", reportField = "CustomerDescriptiveName", intern = true)
   protected String customerDescriptiveName;
 
   @Column(name = "PRIMARYCOMPANYNAME")
-  @CsvField(value = "Company name", reportField = "PrimaryCompanyName")
+  @CsvField(value = "Company name", reportField = "PrimaryCompanyName", intern = true)
   protected String primaryCompanyName;
 
   @Column(name = "CURRENCY_CODE", length = 6)
-  @CsvField(value = "Currency", reportField = "AccountCurrencyCode")
+  @CsvField(value = "Currency", reportField = "AccountCurrencyCode", intern = true)
   protected String currencyCode;
 
   // Date Segments
@@ -87,11 +89,11 @@ public abstract class ReportBase extends Report {
   protected Date day;
 
   @Column(name = "DAYOFWEEK")
-  @CsvField(value = "Day of week", reportField = "DayOfWeek")
+  @CsvField(value = "Day of week", reportField = "DayOfWeek", intern = true)
   protected String dayOfWeek;
 
   @Column(name = "WEEK")
-  @CsvField(value = "Week", reportField = "Week")
+  @CsvField(value = "Week", reportField = "Week", intern = true)
   protected String week;
 
   @Index
@@ -100,11 +102,11 @@ public abstract class ReportBase extends Report {
   protected Date month;
 
   @Column(name = "MONTH_OF_YEAR")
-  @CsvField(value = "Month of Year", reportField = "MonthOfYear")
+  @CsvField(value = "Month of Year", reportField = "MonthOfYear", intern = true)
   protected String monthOfYear;
 
   @Column(name = "QUARTER")
-  @CsvField(value = "Quarter", reportField = "Quarter")
+  @CsvField(value = "Quarter", reportField = "Quarter", intern = true)
   private String quarter;
 
   @Column(name = "YEAR")
@@ -145,19 +147,19 @@ public abstract class ReportBase extends Report {
 
   // Main Segments
   @Column(name = "DEVICE", length = 64)
-  @CsvField(value = "Device", reportField = "Device")
+  @CsvField(value = "Device", reportField = "Device", intern = true)
   protected String device;
 
   @Column(name = "CLICK_TYPE", length = 64)
-  @CsvField(value = "Click type", reportField = "ClickType")
+  @CsvField(value = "Click type", reportField = "ClickType", intern = true)
   protected String clickType;
 
   @Column(name = "NETWORK", length = 32)
-  @CsvField(value = "Network", reportField = "AdNetworkType1")
+  @CsvField(value = "Network", reportField = "AdNetworkType1", intern = true)
   protected String adNetwork;
 
   @Column(name = "NETWORK_PARTNERS", length = 32)
-  @CsvField(value = "Network (with search partners)", reportField = "AdNetworkType2")
+  @CsvField(value = "Network (with search partners)", reportField = "AdNetworkType2", intern = true)
   protected String adNetworkPartners;
 
   // Conversion Columns
@@ -199,11 +201,11 @@ public abstract class ReportBase extends Report {
 
   // General
   @Column(name = "CONVERSIONCATEGORYNAME")
-  @CsvField(value = "Conversion category", reportField = "ConversionCategoryName")
+  @CsvField(value = "Conversion category", reportField = "ConversionCategoryName", intern = true)
   protected String conversionCategoryName;
 
   @Column(name = "CONVERSIONTYPENAME")
-  @CsvField(value = "Conversion name", reportField = "ConversionTypeName")
+  @CsvField(value = "Conversion name", reportField = "ConversionTypeName", intern = true)
   protected String conversionTypeName;
 
   @Column(name = "CONVERSIONVALUE")
@@ -216,6 +218,27 @@ public abstract class ReportBase extends Report {
 
   private static final Map<String, DateRangeHandler> dateRangeHandlers = Maps.newHashMap();
 
+  /**
+   * The month and dates of each date range type, until the end of the day they were computed.
+   */
+  private static final Map<String, DateRangeDates> dateRangeDates =
+      new ConcurrentHashMap<String, DateRangeDates>();
+
+  private static final class DateRangeDates {
+
+    private final long validUntil;
+    private final long month;
+    private final String dateStart;
+    private final String dateEnd;
+
+    private DateRangeDates(long validUntil, long month, String dateStart, String dateEnd) {
+      this.validUntil = validUntil;
+      this.month = month;
+      this.dateStart = dateStart;
+      this.dateEnd = dateEnd;
+    }
+  }
+
   static {
     dateRangeHandlers.put(ReportDefinitionDateRangeType.LAST_14_DAYS.name(),
         new Last14DaysDateRangeHandler());
@@ -252,41 +275,104 @@ public abstract class ReportBase extends Report {
 
   @Override
   public String setIdDates() {
-    // Time Segments
+    String timeSegment = this.idTimeSegment();
+    if (timeSegment != null) {
+      return "-" + timeSegment;
+    }
+    this.setDateRangeDates();
+    if (this.getDateStart() != null && this.getDateEnd() != null) {
+      return "-" + this.getDateStart() + "-" + this.getDateEnd();
+    }
+    return "";
+  }
+
+  @Override
+  protected void appendIdDates(RowIdBuilder idBuilder) {
+    String timeSegment = this.idTimeSegment();
+    if (timeSegment != null) {
+      idBuilder.appendPart(timeSegment);
+      return;
+    }
+    this.setDateRangeDates();
+    if (this.getDateStart() != null && this.getDateEnd() != null) {
+      idBuilder.appendPart(this.getDateStart()).appendPart(this.getDateEnd());
+    }
+  }
+
+  /**
+   * Appends the network, network partners, device and click type segments to the id, when the
+   * report has them.
+   *
+   * @param idBuilder the builder of the id.
+   */
+  protected void appendIdSegments(RowIdBuilder idBuilder) {
+    idBuilder.appendPartIfNotEmpty(this.getAdNetwork())
+        .appendPartIfNotEmpty(this.getAdNetworkPartners())
+        .appendPartIfNotEmpty(this.getDevice())
+        .appendPartIfNotEmpty(this.getClickType());
+  }
+
+  /**
+   * @return the value of the first time segment of the row, or {@code null} if it has none.
+   */
+  private String idTimeSegment() {
     if (this.getDay() != null) {
-      return "-" + this.getDay();
+      return this.getDay();
     }
     if (this.getMonth() != null) {
-      return "-" + DateUtil.formatYearMonth(this.getMonthDateTime());
+      return DateUtil.formatYearMonth(this.month);
     }
     if (this.getDayOfWeek() != null) {
-      return "-" + this.getDayOfWeek();
+      return this.getDayOfWeek();
     }
     if (this.getWeek() != null) {
-      return "-" + this.getWeek();
+      return this.getWeek();
     }
     if (this.getQuarter() != null) {
-      return "-" + this.getQuarter();
+      return this.getQuarter();
     }
     if (this.getMonthOfYear() != null) {
-      return "-" + this.getMonthOfYear();
+      return this.getMonthOfYear();
     }
     if (this.getYear() != null) {
-      return "-" + this.getYear();
+      return String.valueOf(this.getYear());
     }
+    return null;
+  }
 
+  /**
+   * Sets the month and dates of the date range type of the report, for the types that have a
+   * handler. The values are computed once a day for all the rows.
+   */
+  private void setDateRangeDates() {
     if (this.getDateRangeType() != null) {
-      DateRangeHandler handler = dateRangeHandlers.get(this.getDateRangeType());
-      if (handler != null) {
-        this.setMonth(handler.retrieveMonth(DateTime.now()));
-        this.setDateStart(DateUtil.formatYearMonthDay(handler.retrieveDateStart(DateTime.now())));
-        this.setDateEnd(DateUtil.formatYearMonthDay(handler.retrieveDateEnd(DateTime.now())));
+      DateRangeDates dates = getDateRangeDates(this.getDateRangeType());
+      if (dates != null) {
+        this.month = new Date(dates.month);
+        this.setDateStart(dates.dateStart);
+        this.setDateEnd(dates.dateEnd);
       }
     }
-    if (this.getDateStart() != null && this.getDateEnd() != null) {
-      return "-" + this.getDateStart() + "-" + this.getDateEnd();
+  }
+
+  private static DateRangeDates getDateRangeDates(String dateRangeType) {
+    DateRangeHandler handler = dateRangeHandlers.get(dateRangeType);
+    if (handler == null) {
+      return null;
     }
-    return "";
+    long now = System.currentTimeMillis();
+    DateRangeDates dates = dateRangeDates.get(dateRangeType);
+    if (dates == null || now >= dates.validUntil) {
+      DateTime today = new DateTime(now);
+      // A handler without month sets the current time, as setMonth(null) does
+      DateTime month = handler.retrieveMonth(today);
+      dates = new DateRangeDates(today.withTimeAtStartOfDay().plusDays(1).getMillis(),
+          month == null ? now : month.getMillis(),
+          DateUtil.formatYearMonthDay(handler.retrieveDateStart(today)),
+          DateUtil.formatYearMonthDay(handler.retrieveDateEnd(today)));
+      dateRangeDates.put(dateRangeType, dates);
+    }
+    return dates;
   }
 
   public String getDay() {
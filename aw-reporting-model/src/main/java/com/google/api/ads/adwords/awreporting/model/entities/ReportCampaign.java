@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.common.collect.Lists;
 
@@ -49,7 +50,7 @@ public class ReportCampaign extends ReportBase {
   private String campaignName;
 
   @Column(name = "CAMPAIGN_STATUS", length = 32)
-  @CsvField(value = "Campaign state", reportField = "CampaignStatus")
+  @CsvField(value = "Campaign state", reportField = "CampaignStatus", intern = true)
   private String campaignStatus;
 
   @Column(name = "BUDGET")
@@ -188,28 +189,18 @@ public class ReportCampaign extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId and date
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null && this.getCampaignId() != null) {
-      this.id = this.getAccountId() + "-" + this.getCampaignId();
+      idBuilder.append(this.getAccountId()).appendPart(this.getCampaignId());
+    } else {
+      idBuilder.append(this.id);
     }
-
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
-    if (this.getHourOfDay() != null) {
-      this.id += "-" + this.getHourOfDay();
-    }
+    this.appendIdSegments(idBuilder);
+    idBuilder.appendPartIfNotNull(this.getHourOfDay());
+    this.id = idBuilder.build();
   }
 
   public Long getCampaignId() {
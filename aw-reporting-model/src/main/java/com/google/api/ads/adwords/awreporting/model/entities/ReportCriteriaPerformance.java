@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.common.collect.Lists;
 
@@ -246,24 +247,14 @@ public class ReportCriteriaPerformance extends ReportBase {
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId
     // and date
-    this.id = this.getAccountId() + "-" + this.getCampaignId() + "-"
-        + this.getAdGroupId() + "-" + this.getKeywordId();
-
-    this.id += this.setIdDates();
+    RowIdBuilder idBuilder = RowIdBuilder.start().append(this.getAccountId())
+        .appendPart(this.getCampaignId()).appendPart(this.getAdGroupId())
+        .appendPart(this.getKeywordId());
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
+    this.appendIdSegments(idBuilder);
+    this.id = idBuilder.build();
   }
 
   public Long getAdGroupId() {
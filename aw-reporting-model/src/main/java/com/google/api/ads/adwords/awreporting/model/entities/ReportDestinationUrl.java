@@ -18,7 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
-import com.google.api.ads.adwords.awreporting.model.util.UrlHashUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 
 import java.math.BigDecimal;
@@ -113,40 +113,30 @@ public class ReportDestinationUrl extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId and date
-    this.id = "";
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null) {
-      this.id += this.getAccountId() + "-";
+      idBuilder.append(this.getAccountId()).append(RowIdBuilder.SEPARATOR);
     }
     if (this.getCampaignId() != null) {
-      this.id += this.getCampaignId() + "-";
+      idBuilder.append(this.getCampaignId()).append(RowIdBuilder.SEPARATOR);
     }
     if (this.getAdGroupId() != null) {
-      this.id += this.getAdGroupId() + "-";
+      idBuilder.append(this.getAdGroupId()).append(RowIdBuilder.SEPARATOR);
     }
-    if (this.getCriteriaParameters() != null) { 
-      this.id += this.getCriteriaParameters() + "-";
+    if (this.getCriteriaParameters() != null) {
+      idBuilder.append(this.getCriteriaParameters()).append(RowIdBuilder.SEPARATOR);
     }
- 
+
     // Generating a SHA-1 Hash of the URLs for ID generation
-    if (this.getEffectiveDestinationUrl() != null) { 
-      this.id += UrlHashUtil.createUrlHash(this.getEffectiveDestinationUrl());
+    if (this.getEffectiveDestinationUrl() != null) {
+      idBuilder.appendUrlHash(this.getEffectiveDestinationUrl());
     }
 
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
+    this.appendIdSegments(idBuilder);
+    this.id = idBuilder.build();
   }
 
   public Long getAdGroupId() {
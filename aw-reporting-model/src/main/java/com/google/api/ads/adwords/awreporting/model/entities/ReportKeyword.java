@@ -18,6 +18,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.common.collect.Lists;
 
@@ -49,7 +50,7 @@ public class ReportKeyword extends ReportBase {
   private BigDecimal qualityScore;
 
   @Column(name = "KEYWORD_MATCH_TYPE", length = 32)
-  @CsvField(value = "Match type", reportField = "KeywordMatchType")
+  @CsvField(value = "Match type", reportField = "KeywordMatchType", intern = true)
   private String keywordMatchType;
 
   @Column(name = "KEYWORD_TEXT", length = 255)
@@ -78,7 +79,7 @@ public class ReportKeyword extends ReportBase {
   private String campaignName;
 
   @Column(name = "STATUS", length = 32)
-  @CsvField(value = "Keyword state", reportField = "Status")
+  @CsvField(value = "Keyword state", reportField = "Status", intern = true)
   private String status;
 
   @Column(name = "IS_NEGATIVE")
@@ -207,27 +208,19 @@ public class ReportKeyword extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId and date
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null && this.getCampaignId() != null && this.getAdGroupId() != null
         && this.getKeywordId() != null) {
-      this.id = this.getAccountId() + "-" + this.getCampaignId() + "-" + this.getAdGroupId() + "-"
-          + this.getKeywordId();
+      idBuilder.append(this.getAccountId()).appendPart(this.getCampaignId())
+          .appendPart(this.getAdGroupId()).appendPart(this.getKeywordId());
+    } else {
+      idBuilder.append(this.id);
     }
-
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
+    this.appendIdSegments(idBuilder);
+    this.id = idBuilder.build();
   }
 
   // adGroupId
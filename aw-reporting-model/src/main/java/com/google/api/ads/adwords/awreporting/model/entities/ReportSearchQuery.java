@@ -2,6 +2,7 @@ package com.google.api.ads.adwords.awreporting.model.entities;
 
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 
 import javax.persistence.Column;
@@ -79,41 +80,22 @@ public class ReportSearchQuery extends ReportBase {
   public void setId() {
 
     // Generating unique id after having accountId, campaignId and date
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null && this.getCampaignId() != null) {
-      this.id = this.getAccountId() + "-" + this.getCampaignId();
+      idBuilder.append(this.getAccountId()).appendPart(this.getCampaignId());
+    } else {
+      idBuilder.append(this.id);
     }
-
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdGroupId() != null) {
-      this.id += "-" + this.getAdGroupId();
-    }
-    if (this.getCreativeId() != null) {
-      this.id += "-" + this.getCreativeId();
-    }
-    if (this.getKeywordId() != null) {
-      this.id += "-" + this.getKeywordId();
-    }
-    if (this.getAdFormat() != null && this.getAdFormat().length() > 0) {
-      this.id += "-" + this.getAdFormat();
-    }
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
-    if (this.getDevice() != null && this.getDevice().length() > 0) {
-      this.id += "-" + this.getDevice();
-    }
-    if (this.getClickType() != null && this.getClickType().length() > 0) {
-      this.id += "-" + this.getClickType();
-    }
-    if (this.getQuery() != null && this.getQuery().length() > 0) {
-      this.id += "-" + this.getQuery();
-    }
-
+    idBuilder.appendPartIfNotNull(this.getAdGroupId())
+        .appendPartIfNotNull(this.getCreativeId())
+        .appendPartIfNotNull(this.getKeywordId())
+        .appendPartIfNotEmpty(this.getAdFormat());
+    this.appendIdSegments(idBuilder);
+    idBuilder.appendPartIfNotEmpty(this.getQuery());
+    this.id = idBuilder.build();
   }
 
   public String getAdFormat() {
@@ -4,7 +4,7 @@ import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvField;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.CsvReport;
 import com.google.api.ads.adwords.awreporting.model.csv.annotation.MoneyField;
 import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
-import com.google.api.ads.adwords.awreporting.model.util.UrlHashUtil;
+import com.google.api.ads.adwords.awreporting.model.util.RowIdBuilder;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 
 import java.math.BigDecimal;
@@ -113,35 +113,32 @@ public class ReportUrl extends ReportBase {
   @Override
   public void setId() {
     // Generating unique id after having accountId, campaignId, adGroupId and date
-    this.id = "";
+    RowIdBuilder idBuilder = RowIdBuilder.start();
     if (this.getAccountId() != null) {
-      this.id += this.getAccountId() + "-";
+      idBuilder.append(this.getAccountId()).append(RowIdBuilder.SEPARATOR);
     }
     if (this.getCampaignId() != null) {
-      this.id += this.getCampaignId() + "-";
+      idBuilder.append(this.getCampaignId()).append(RowIdBuilder.SEPARATOR);
     }
     if (this.getAdGroupId() != null) {
-      this.id += this.getAdGroupId() + "-";
+      idBuilder.append(this.getAdGroupId()).append(RowIdBuilder.SEPARATOR);
     }
- 
+
     // Generating a SHA-1 Hash of the URLs for ID generation
-    if (this.getUrl() != null) { 
-      this.id += UrlHashUtil.createUrlHash(this.getUrl());
+    if (this.getUrl() != null) {
+      idBuilder.appendUrlHash(this.getUrl());
     }
 
     if (this.getAdFormat() != null) {
-      this.id += this.getAdFormat() + "-";
+      idBuilder.append(this.getAdFormat()).append(RowIdBuilder.SEPARATOR);
     }
 
-    this.id += setIdDates();
+    this.appendIdDates(idBuilder);
 
     // Adding extra fields for unique ID
-    if (this.getAdNetwork() != null && this.getAdNetwork().length() > 0) {
-      this.id += "-" + this.getAdNetwork();
-    }
-    if (this.getAdNetworkPartners() != null && this.getAdNetworkPartners().length() > 0) {
-      this.id += "-" + this.getAdNetworkPartners();
-    }
+    idBuilder.appendPartIfNotEmpty(this.getAdNetwork())
+        .appendPartIfNotEmpty(this.getAdNetworkPartners());
+    this.id = idBuilder.build();
   }
 
   public String getAdFormat() {
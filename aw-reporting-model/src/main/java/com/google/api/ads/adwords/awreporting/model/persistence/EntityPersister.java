@@ -300,4 +300,26 @@ public interface EntityPersister {
    */
   public <T> T getMaxByDateKey(Class<T> classT, long topAccountId, String dateKey);
 
+  /**
+   * Gets the first date with data of each account of an MCC
+   *
+   * @param classT the ReportBase sub Class
+   * @param topAccountId the Top Account ID to get the data for
+   * @param dateKey the Date column to filter the Data.
+   * @return the first date of each account ID, without the accounts with no data
+   */
+  public <T extends ReportBase> Map<Long, Date> getMinDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey);
+
+  /**
+   * Gets the last date with data of each account of an MCC
+   *
+   * @param classT the ReportBase sub Class
+   * @param topAccountId the Top Account ID to get the data for
+   * @param dateKey the Date column to filter the Data.
+   * @return the last date of each account ID, without the accounts with no data
+   */
+  public <T extends ReportBase> Map<Long, Date> getMaxDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey);
+
 }
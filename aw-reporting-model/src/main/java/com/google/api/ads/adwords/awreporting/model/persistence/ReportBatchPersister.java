@@ -0,0 +1,39 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+
+/**
+ * An {@link EntityPersister} that persists the rows of the reports straight from the columns of
+ * a {@link RowBatch}, without creating their report entities.
+ *
+ *  The report processors hand the rows to the persisters implementing this interface as batches,
+ * and to the others as a list of entities through
+ * {@link EntityPersister#persistReportEntities(java.util.List)}.
+ *
+ * @author agent@google.com (Agent)
+ */
+public interface ReportBatchPersister extends EntityPersister {
+
+  /**
+   * Persists the rows of the batch, the same way as their entities would be by
+   * {@link #persistReportEntities(java.util.List)}. The batch is cleared and reused by the caller
+   * once the method returns, so it must not be kept.
+   *
+   * @param batch the rows that were retrieved from the AW report API.
+   */
+  void persistReportBatch(RowBatch<? extends Report> batch);
+}
@@ -0,0 +1,120 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.common.base.Objects;
+
+/**
+ * The rows of a report type downloaded for an account and a date range: the report entity class,
+ * the top account, the account and the date range of the rows.
+ *
+ * @author agent@google.com (Agent)
+ */
+public final class ReportSlice {
+
+  private final Class<? extends Report> reportClass;
+
+  private final Long topAccountId;
+
+  private final Long accountId;
+
+  private final String dateRangeType;
+
+  private final String dateStart;
+
+  private final String dateEnd;
+
+  /**
+   * C'tor
+   *
+   * @param reportClass the class of the report entities of the rows.
+   * @param topAccountId the top account of the rows.
+   * @param accountId the account of the rows.
+   * @param dateRangeType the date range type of the rows.
+   * @param dateStart the start date of the range, {@code null} for the predefined ranges.
+   * @param dateEnd the end date of the range, {@code null} for the predefined ranges.
+   */
+  public ReportSlice(Class<? extends Report> reportClass, Long topAccountId, Long accountId,
+      String dateRangeType, String dateStart, String dateEnd) {
+    this.reportClass = reportClass;
+    this.topAccountId = topAccountId;
+    this.accountId = accountId;
+    this.dateRangeType = dateRangeType;
+    this.dateStart = dateStart;
+    this.dateEnd = dateEnd;
+  }
+
+  /**
+   * Gets the slice of a report row.
+   *
+   * @param report the report entity of the row, with its accounts and dates set.
+   * @return the slice with the rows of the same report type, accounts and date range.
+   */
+  public static ReportSlice forReport(Report report) {
+    return new ReportSlice(report.getClass(), report.getTopAccountId(), report.getAccountId(),
+        report.getDateRangeType(), report.getDateStart(), report.getDateEnd());
+  }
+
+  public Class<? extends Report> getReportClass() {
+    return reportClass;
+  }
+
+  public Long getTopAccountId() {
+    return topAccountId;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public String getDateRangeType() {
+    return dateRangeType;
+  }
+
+  public String getDateStart() {
+    return dateStart;
+  }
+
+  public String getDateEnd() {
+    return dateEnd;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof ReportSlice)) {
+      return false;
+    }
+    ReportSlice other = (ReportSlice) obj;
+    return reportClass == other.reportClass
+        && Objects.equal(topAccountId, other.topAccountId)
+        && Objects.equal(accountId, other.accountId)
+        && Objects.equal(dateRangeType, other.dateRangeType)
+        && Objects.equal(dateStart, other.dateStart)
+        && Objects.equal(dateEnd, other.dateEnd);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(
+        reportClass, topAccountId, accountId, dateRangeType, dateStart, dateEnd);
+  }
+
+  @Override
+  public String toString() {
+    return reportClass.getSimpleName() + " of account " + accountId + " (top account "
+        + topAccountId + "), " + dateRangeType + " " + dateStart + " - " + dateEnd;
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+
+/**
+ * A {@link ReportBatchPersister} that can replace all the rows of a {@link ReportSlice} at once,
+ * instead of inserting or updating them row by row.
+ *
+ *  The new rows of the slice are added to a {@link Replacement}, and replace the stored rows of the
+ * slice once it is committed, so the rows that are no longer in the report are removed. The
+ * readers see either all the old rows of the slice or all the new ones.
+ *
+ * @author agent@google.com (Agent)
+ */
+public interface ReportSlicePersister extends ReportBatchPersister {
+
+  /**
+   * The new rows of a slice, not visible until committed. A replacement is used by one thread,
+   * and must be committed or aborted.
+   */
+  interface Replacement {
+
+    /**
+     * Adds rows of the slice. The batch can be cleared and reused once the method returns.
+     *
+     * @param batch rows of the slice.
+     */
+    void add(RowBatch<? extends Report> batch);
+
+    /**
+     * Replaces the stored rows of the slice with the rows added.
+     */
+    void commit();
+
+    /**
+     * Discards the rows added, leaving the stored rows of the slice as they were. Does nothing
+     * once the replacement is committed or aborted.
+     */
+    void abort();
+  }
+
+  /**
+   * Starts the replacement of the rows of a slice.
+   *
+   * @param slice the slice to replace.
+   * @return the replacement to add the new rows of the slice to.
+   */
+  Replacement beginReplacement(ReportSlice slice);
+}
@@ -0,0 +1,535 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.common.collect.Lists;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.Column;
+
+/**
+ * A set of rows of one report type, kept by column instead of as report entities.
+ *
+ *  The numbers, booleans and dates are kept in primitive {@code long} arrays, the decimals as
+ * their unscaled {@code long} value and scale, and the strings coded by a dictionary of the
+ * distinct values of the column in the batch. The values of a row are copied in when it is
+ * added, so its entity can be discarded right away, and the persisters that bind the columns
+ * directly do not need the entities at all. The others can get the entities back with
+ * {@link #toReports()}.
+ *
+ *  A batch is filled and read by one thread at a time, and is reused after {@link #clear()}.
+ *
+ * @author agent@google.com (Agent)
+ *
+ * @param <R> type of sub Report.
+ */
+public class RowBatch<R extends Report> {
+
+  /**
+   * How the values of a column are kept.
+   */
+  public enum ColumnType {
+    /** {@code Long}, {@code Integer}, {@code Short}, {@code Byte}, booleans and dates. */
+    LONG,
+    /** {@code BigDecimal}, as the unscaled value and the scale. */
+    DECIMAL,
+    /** {@code String}, as the code of the value in the dictionary of the column. */
+    STRING,
+    /** Any other type, as the value itself. */
+    OBJECT
+  }
+
+  private static final Map<Class<?>, List<Field>> FIELDS_BY_CLASS =
+      new ConcurrentHashMap<Class<?>, List<Field>>();
+
+  private final Class<R> reportClass;
+
+  private final int capacity;
+
+  private final List<BatchColumn> columns;
+
+  private final Map<String, BatchColumn> columnsByFieldName = new HashMap<String, BatchColumn>();
+
+  private int size;
+
+  /**
+   * A column of the batch, with the values of one field of the report entity.
+   */
+  public static final class BatchColumn {
+
+    private final Field field;
+    private final String columnName;
+    private final ColumnType type;
+    private final BitSet nulls;
+    private long[] longs;
+    private byte[] scales;
+    private Object[] objects;
+    private int[] codes;
+    private final List<String> dictionary = new ArrayList<String>();
+    private final Map<String, Integer> codesByValue = new HashMap<String, Integer>();
+
+    private BatchColumn(Field field, int capacity) {
+      this.field = field;
+      Column column = field.getAnnotation(Column.class);
+      this.columnName = column != null && column.name().length() > 0 ? column.name() : null;
+      this.type = columnType(field.getType());
+      this.nulls = new BitSet(capacity);
+      switch (this.type) {
+        case LONG:
+          this.longs = new long[capacity];
+          break;
+        case DECIMAL:
+          this.longs = new long[capacity];
+          this.scales = new byte[capacity];
+          break;
+        case STRING:
+          this.codes = new int[capacity];
+          break;
+        default:
+          this.objects = new Object[capacity];
+      }
+    }
+
+    /**
+     * @return the name of the field of the report entity.
+     */
+    public String getFieldName() {
+      return this.field.getName();
+    }
+
+    /**
+     * @return the name of the data base column of the field, or {@code null} if it has none.
+     */
+    public String getColumnName() {
+      return this.columnName;
+    }
+
+    /**
+     * @return the type of the field of the report entity.
+     */
+    public Class<?> getValueClass() {
+      return this.field.getType();
+    }
+
+    /**
+     * @return how the values of the column are kept.
+     */
+    public ColumnType getType() {
+      return this.type;
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return true if the value of the row is {@code null}.
+     */
+    public boolean isNull(int row) {
+      return this.nulls.get(row);
+    }
+
+    /**
+     * Gets a value of a {@link ColumnType#LONG} column: the number, 1 or 0 for the booleans, and
+     * the milliseconds of the dates.
+     *
+     * @param row the index of the row.
+     * @return the value of the row, 0 if it is {@code null}.
+     */
+    public long getLong(int row) {
+      return this.longs[row];
+    }
+
+    /**
+     * Gets a value of a {@link ColumnType#DECIMAL} column.
+     *
+     * @param row the index of the row.
+     * @return the value of the row, or {@code null}.
+     */
+    public BigDecimal getBigDecimal(int row) {
+      if (this.nulls.get(row)) {
+        return null;
+      }
+      if (this.objects != null && this.objects[row] != null) {
+        return (BigDecimal) this.objects[row];
+      }
+      return BigDecimal.valueOf(this.longs[row], this.scales[row]);
+    }
+
+    /**
+     * Gets a value of a {@link ColumnType#STRING} column.
+     *
+     * @param row the index of the row.
+     * @return the value of the row, or {@code null}.
+     */
+    public String getString(int row) {
+      return this.nulls.get(row) ? null : this.dictionary.get(this.codes[row]);
+    }
+
+    /**
+     * Gets the code of a value of a {@link ColumnType#STRING} column.
+     *
+     * @param row the index of the row.
+     * @return the index of the value of the row in the {@link #getDictionary()}, -1 if the value
+     *         is {@code null}.
+     */
+    public int getCode(int row) {
+      return this.nulls.get(row) ? -1 : this.codes[row];
+    }
+
+    /**
+     * @return the distinct values of a {@link ColumnType#STRING} column, in the order of their
+     *         codes.
+     */
+    public List<String> getDictionary() {
+      return Collections.unmodifiableList(this.dictionary);
+    }
+
+    /**
+     * Gets a value as the type of the field of the report entity.
+     *
+     * @param row the index of the row.
+     * @return the value of the row, or {@code null}.
+     */
+    public Object getValue(int row) {
+      if (this.nulls.get(row)) {
+        return null;
+      }
+      switch (this.type) {
+        case LONG:
+          return fromLong(this.field.getType(), this.longs[row]);
+        case DECIMAL:
+          return this.getBigDecimal(row);
+        case STRING:
+          return this.dictionary.get(this.codes[row]);
+        default:
+          return this.objects[row];
+      }
+    }
+
+    private void set(int row, Object value) {
+      if (value == null) {
+        this.nulls.set(row);
+        if (this.longs != null) {
+          this.longs[row] = 0L;
+        }
+        return;
+      }
+      this.nulls.clear(row);
+      switch (this.type) {
+        case LONG:
+          this.longs[row] = toLong(value);
+          break;
+        case DECIMAL:
+          this.setDecimal(row, (BigDecimal) value);
+          break;
+        case STRING:
+          String string = (String) value;
+          Integer code = this.codesByValue.get(string);
+          if (code == null) {
+            code = this.dictionary.size();
+            this.dictionary.add(string);
+            this.codesByValue.put(string, code);
+          }
+          this.codes[row] = code;
+          break;
+        default:
+          this.objects[row] = value;
+      }
+    }
+
+    private void setDecimal(int row, BigDecimal value) {
+      BigInteger unscaled = value.unscaledValue();
+      if (unscaled.bitLength() < 64 && value.scale() >= Byte.MIN_VALUE
+          && value.scale() <= Byte.MAX_VALUE) {
+        this.longs[row] = unscaled.longValue();
+        this.scales[row] = (byte) value.scale();
+        if (this.objects != null) {
+          this.objects[row] = null;
+        }
+      } else {
+        // Too large for a long, kept as it is
+        if (this.objects == null) {
+          this.objects = new Object[this.longs.length];
+        }
+        this.objects[row] = value;
+      }
+    }
+
+    private void clear() {
+      this.nulls.clear();
+      this.dictionary.clear();
+      this.codesByValue.clear();
+      if (this.objects != null) {
+        Arrays.fill(this.objects, null);
+      }
+    }
+  }
+
+  /**
+   * C'tor
+   *
+   * @param reportClass the class of the report entities of the rows.
+   * @param capacity the most rows the batch can hold.
+   */
+  public RowBatch(Class<R> reportClass, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+    }
+    this.reportClass = reportClass;
+    this.capacity = capacity;
+    List<Field> fields = getFields(reportClass);
+    this.columns = Lists.newArrayListWithCapacity(fields.size());
+    for (Field field : fields) {
+      BatchColumn column = new BatchColumn(field, capacity);
+      this.columns.add(column);
+      this.columnsByFieldName.put(field.getName(), column);
+    }
+  }
+
+  /**
+   * Adds a row with the values of the report.
+   *
+   * @param report the report entity of the row.
+   * @throws IllegalStateException if the batch is full.
+   */
+  public void add(R report) {
+    if (this.size == this.capacity) {
+      throw new IllegalStateException("The batch is full: " + this.capacity + " rows");
+    }
+    try {
+      for (BatchColumn column : this.columns) {
+        column.set(this.size, column.field.get(report));
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Can not read the report fields", e);
+    }
+    this.size++;
+  }
+
+  /**
+   * Adds the rows of another batch of the same report class, to persist small batches at once.
+   *
+   * @param batch the batch with the rows to add, unchanged.
+   * @throws IllegalArgumentException if the batch has another report class.
+   * @throws IllegalStateException if the rows do not fit in this batch.
+   */
+  public void addAll(RowBatch<R> batch) {
+    if (batch.reportClass != this.reportClass) {
+      throw new IllegalArgumentException("The batch has rows of " + batch.reportClass.getName()
+          + " instead of " + this.reportClass.getName());
+    }
+    if (this.size + batch.size > this.capacity) {
+      throw new IllegalStateException("The batch can not hold " + batch.size + " more rows: "
+          + this.size + " of " + this.capacity + " rows");
+    }
+    for (int i = 0; i < this.columns.size(); i++) {
+      BatchColumn column = this.columns.get(i);
+      BatchColumn otherColumn = batch.columns.get(i);
+      for (int row = 0; row < batch.size; row++) {
+        column.set(this.size + row, otherColumn.getValue(row));
+      }
+    }
+    this.size += batch.size;
+  }
+
+  /**
+   * Creates the report entities of the rows, for the persisters that need them.
+   *
+   * @return a new report entity for each row.
+   */
+  public List<R> toReports() {
+    List<R> reports = Lists.newArrayListWithCapacity(this.size);
+    for (int row = 0; row < this.size; row++) {
+      reports.add(this.getReport(row));
+    }
+    return reports;
+  }
+
+  /**
+   * Creates the report entity of a row.
+   *
+   * @param row the index of the row.
+   * @return a new report entity with the values of the row.
+   */
+  public R getReport(int row) {
+    this.checkRow(row);
+    try {
+      R report = this.reportClass.newInstance();
+      for (BatchColumn column : this.columns) {
+        Object value = column.getValue(row);
+        if (value != null || !column.field.getType().isPrimitive()) {
+          column.field.set(report, value);
+        }
+      }
+      return report;
+    } catch (InstantiationException e) {
+      throw new IllegalStateException("Can not create " + this.reportClass.getName(), e);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Can not create " + this.reportClass.getName(), e);
+    }
+  }
+
+  /**
+   * @param row the index of the row.
+   * @return the id of the row.
+   */
+  public String getId(int row) {
+    this.checkRow(row);
+    return this.columnsByFieldName.get(Report.ID).getString(row);
+  }
+
+  /**
+   * Removes all the rows, keeping the arrays for the next rows.
+   */
+  public void clear() {
+    for (BatchColumn column : this.columns) {
+      column.clear();
+    }
+    this.size = 0;
+  }
+
+  /**
+   * @return the class of the report entities of the rows.
+   */
+  public Class<R> getReportClass() {
+    return this.reportClass;
+  }
+
+  /**
+   * @return the columns of the batch, one for each field of the report entity.
+   */
+  public List<BatchColumn> getColumns() {
+    return Collections.unmodifiableList(this.columns);
+  }
+
+  /**
+   * @param fieldName the name of the field of the report entity.
+   * @return the column of the field, or {@code null} if the entity has no such field.
+   */
+  public BatchColumn getColumn(String fieldName) {
+    return this.columnsByFieldName.get(fieldName);
+  }
+
+  /**
+   * @return the number of rows in the batch.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return true if the batch has no rows.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return true if no more rows can be added.
+   */
+  public boolean isFull() {
+    return this.size == this.capacity;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= this.size) {
+      throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + this.size);
+    }
+  }
+
+  /**
+   * Gets the persisted fields of the class and its super classes: all but the static and
+   * transient ones.
+   */
+  private static List<Field> getFields(Class<?> reportClass) {
+    List<Field> fields = FIELDS_BY_CLASS.get(reportClass);
+    if (fields == null) {
+      List<Class<?>> hierarchy = Lists.newArrayList();
+      for (Class<?> c = reportClass; c != null && c != Object.class; c = c.getSuperclass()) {
+        hierarchy.add(0, c);
+      }
+      fields = Lists.newArrayList();
+      for (Class<?> c : hierarchy) {
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+              && !field.isSynthetic()) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      fields = Collections.unmodifiableList(fields);
+      FIELDS_BY_CLASS.put(reportClass, fields);
+    }
+    return fields;
+  }
+
+  private static ColumnType columnType(Class<?> type) {
+    if (type == Long.class || type == long.class || type == Integer.class || type == int.class
+        || type == Short.class || type == short.class || type == Byte.class || type == byte.class
+        || type == Boolean.class || type == boolean.class || type == Date.class) {
+      return ColumnType.LONG;
+    }
+    if (type == BigDecimal.class) {
+      return ColumnType.DECIMAL;
+    }
+    if (type == String.class) {
+      return ColumnType.STRING;
+    }
+    return ColumnType.OBJECT;
+  }
+
+  private static long toLong(Object value) {
+    if (value instanceof Boolean) {
+      return ((Boolean) value).booleanValue() ? 1L : 0L;
+    }
+    if (value instanceof Date) {
+      return ((Date) value).getTime();
+    }
+    return ((Number) value).longValue();
+  }
+
+  private static Object fromLong(Class<?> type, long value) {
+    if (type == Long.class || type == long.class) {
+      return Long.valueOf(value);
+    }
+    if (type == Integer.class || type == int.class) {
+      return Integer.valueOf((int) value);
+    }
+    if (type == Boolean.class || type == boolean.class) {
+      return Boolean.valueOf(value != 0);
+    }
+    if (type == Date.class) {
+      return new Date(value);
+    }
+    if (type == Short.class || type == short.class) {
+      return Short.valueOf((short) value);
+    }
+    return Byte.valueOf((byte) value);
+  }
+}
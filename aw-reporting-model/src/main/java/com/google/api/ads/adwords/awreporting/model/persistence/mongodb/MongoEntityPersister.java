@@ -17,12 +17,14 @@ package com.google.api.ads.adwords.awreporting.model.persistence.mongodb;
 import com.google.api.ads.adwords.awreporting.model.entities.AuthMcc;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
-import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
 import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
 import com.google.api.ads.adwords.awreporting.model.util.GsonUtil;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 
+import com.mongodb.AggregationOutput;
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
@@ -50,7 +52,7 @@ import java.util.Map;
  *
  * @author jtoledo@google.com (Julian Toledo)
  */
-public class MongoEntityPersister implements EntityPersister {
+public class MongoEntityPersister implements ReportBatchPersister {
 
   private MongoClient mongoClient;
   private DB db;
@@ -377,6 +379,51 @@ public class MongoEntityPersister implements EntityPersister {
     this.save(reportEntities);
   }
 
+  /**
+   * Saves the rows of the batch as the documents {@link #save(List)} creates from their entities,
+   * built straight from the columns instead of going through their JSON.
+   *
+   * @see com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister#
+   * persistReportBatch(RowBatch)
+   */
+  @Override
+  public void persistReportBatch(RowBatch<? extends Report> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    DBCollection collection = getCollection(batch.getReportClass());
+    List<RowBatch.BatchColumn> columns = batch.getColumns();
+    for (int row = 0; row < batch.size(); row++) {
+      BasicDBObject dbObject = new BasicDBObject();
+      for (RowBatch.BatchColumn column : columns) {
+        if (!column.isNull(row)) {
+          dbObject.put(column.getFieldName(), toDbValue(column, row));
+        }
+      }
+      dbObject.put("_id", batch.getId(row));
+      collection.save(dbObject);
+    }
+  }
+
+  /**
+   * Converts a value of the batch to the type its JSON gets in the document: the decimals are
+   * doubles, and the dates are formatted as in {@link GsonUtil}.
+   */
+  private static Object toDbValue(RowBatch.BatchColumn column, int row) {
+    switch (column.getType()) {
+      case DECIMAL:
+        return column.getBigDecimal(row).doubleValue();
+      case STRING:
+        return column.getString(row);
+      default:
+        Object value = column.getValue(row);
+        if (value instanceof Date) {
+          return DateUtil.formatYearMonthDayNoDash((Date) value);
+        }
+        return value;
+    }
+  }
+
   /**
    * @see com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister#
    * listReports(java.lang.Class)
@@ -496,6 +543,47 @@ public class MongoEntityPersister implements EntityPersister {
     }
   }
 
+  @Override
+  public <T extends ReportBase> Map<Long, Date> getMinDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, "$min");
+  }
+
+  @Override
+  public <T extends ReportBase> Map<Long, Date> getMaxDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, "$max");
+  }
+
+  /**
+   * Groups the documents of the MCC by account. The dates are kept in the sortable report format
+   * (yyyyMMdd), so the min and max of the strings are the min and max dates.
+   *
+   * @param operator the $min or $max group operator.
+   */
+  private <T> Map<Long, Date> getDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey, String operator) {
+    BasicDBObject query = new BasicDBObject();
+    query.put(ReportBase.TOP_ACCOUNT_ID, topAccountId);
+    query.put(dateKey, new BasicDBObject("$ne", null));
+
+    BasicDBObject group = new BasicDBObject("_id", "$" + ReportBase.ACCOUNT_ID);
+    group.put(dateKey, new BasicDBObject(operator, "$" + dateKey));
+
+    AggregationOutput output = getCollection(classT).aggregate(
+        new BasicDBObject("$match", query), new BasicDBObject("$group", group));
+
+    Map<Long, Date> dateByAccount = Maps.newHashMap();
+    for (DBObject dbObject : output.results()) {
+      Object accountId = dbObject.get("_id");
+      DateTime date = DateUtil.parseDateTime(String.valueOf(dbObject.get(dateKey)));
+      if (accountId instanceof Number && date != null) {
+        dateByAccount.put(((Number) accountId).longValue(), date.toDate());
+      }
+    }
+    return dateByAccount;
+  }
+
   /**
    * Checks if the account exists in the datastore.  This method does NOT validate an CID against AdWords.
    * @param topAccountId
@@ -0,0 +1,403 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch.BatchColumn;
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Loads the rows of the reports into MySQL with {@code LOAD DATA LOCAL INFILE}, the native bulk
+ * loader of MySQL, which is much faster than the inserts for large loads such as backfills.
+ *
+ *  The rows of a batch are streamed as tab separated values into a temporary staging table with
+ * the same columns as the report table, and then inserted or updated in the report table by a
+ * single {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}. The staging tables are temporary,
+ * so each connection has its own ones.
+ *
+ *  The values are streamed straight from the batch to the statement of the MySQL driver, also
+ * when it is wrapped by a pool. The driver is only needed at runtime: its statement is looked up
+ * by name, for Connector/J 8 and 5. If the statement is not the one of the MySQL driver, the values
+ * are written into a temporary file that is loaded instead.
+ *
+ *  When a batch has several rows with the same id, only the last one is loaded.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class MySqlBulkLoader {
+
+  /**
+   * The suffix of the name of the staging tables.
+   */
+  public static final String STAGING_TABLE_SUFFIX = "_STAGING";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * The value of the {@code NULL} values in the loaded data.
+   */
+  static final String NULL_VALUE = "\\N";
+
+  /**
+   * The statements of the MySQL drivers with {@code setLocalInfileInputStream(InputStream)}, of
+   * Connector/J 8 and 5, the ones in the class path.
+   */
+  private static final List<Class<?>> DRIVER_STATEMENT_CLASSES =
+      loadClasses("com.mysql.cj.jdbc.JdbcStatement", "com.mysql.jdbc.Statement");
+
+  /**
+   * Loads the rows of the batch, in the transaction of the connection.
+   *
+   * @param connection the connection to the MySQL data base.
+   * @param batch the rows to load.
+   * @return the number of rows loaded.
+   * @throws SQLException error loading the rows.
+   */
+  public int load(Connection connection, RowBatch<? extends Report> batch) throws SQLException {
+
+    int[] rows = SqlReportBatchWriter.distinctRows(batch);
+    if (rows.length == 0) {
+      return 0;
+    }
+    List<BatchColumn> columns = SqlReportBatchWriter.getColumns(batch);
+    String tableName = SqlReportBatchWriter.getTableName(batch.getReportClass());
+    String stagingTableName = tableName + STAGING_TABLE_SUFFIX;
+
+    Statement statement = connection.createStatement();
+    try {
+      statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + stagingTableName + " LIKE "
+          + tableName);
+      statement.execute("DELETE FROM " + stagingTableName);
+
+      loadValues(statement, columns, rows, stagingTableName, false);
+      statement.executeUpdate(buildUpsertStatement(tableName, stagingTableName, columns));
+    } finally {
+      statement.close();
+    }
+    return rows.length;
+  }
+
+  /**
+   * Loads the rows of the batch into a table with the columns of the report table, such as a
+   * staging table, replacing the rows of the table with the same ids.
+   *
+   * @param connection the connection to the MySQL data base.
+   * @param batch the rows to load.
+   * @param tableName the table to load the rows into.
+   * @return the number of rows loaded.
+   * @throws SQLException error loading the rows.
+   */
+  public int loadInto(Connection connection, RowBatch<? extends Report> batch, String tableName)
+      throws SQLException {
+
+    int[] rows = SqlReportBatchWriter.distinctRows(batch);
+    if (rows.length == 0) {
+      return 0;
+    }
+    Statement statement = connection.createStatement();
+    try {
+      loadValues(statement, SqlReportBatchWriter.getColumns(batch), rows, tableName, true);
+    } finally {
+      statement.close();
+    }
+    return rows.length;
+  }
+
+  private static void loadValues(Statement statement, List<BatchColumn> columns, int[] rows,
+      String tableName, boolean replace) throws SQLException {
+
+    InputStream values = new TsvInputStream(columns, rows);
+    Class<?> driverStatementClass = findDriverStatementClass(statement);
+    if (driverStatementClass != null) {
+      Object driverStatement = driverStatementClass.isInstance(statement)
+          ? statement : statement.unwrap(driverStatementClass);
+      setLocalInfileInputStream(driverStatementClass, driverStatement, values);
+      try {
+        statement.execute(buildLoadStatement("stream", tableName, columns, replace));
+      } finally {
+        setLocalInfileInputStream(driverStatementClass, driverStatement, null);
+      }
+    } else {
+      File file = writeTemporaryFile(values);
+      try {
+        statement.execute(buildLoadStatement(
+            file.getAbsolutePath().replace('\\', '/'), tableName, columns, replace));
+      } finally {
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * Finds the statement of the MySQL driver that the statement is or wraps.
+   *
+   * @param statement the statement of the connection.
+   * @return the class of the statement of the driver, {@code null} if it is not one of MySQL.
+   */
+  static Class<?> findDriverStatementClass(Statement statement) {
+    for (Class<?> driverStatementClass : DRIVER_STATEMENT_CLASSES) {
+      if (driverStatementClass.isInstance(statement)) {
+        return driverStatementClass;
+      }
+    }
+    for (Class<?> driverStatementClass : DRIVER_STATEMENT_CLASSES) {
+      try {
+        if (statement.isWrapperFor(driverStatementClass)) {
+          return driverStatementClass;
+        }
+      } catch (SQLException e) {
+        // Not a wrapper of the statement of the driver
+      } catch (AbstractMethodError e) {
+        // A statement of a JDBC 3 driver, not a wrapper
+      }
+    }
+    return null;
+  }
+
+  private static void setLocalInfileInputStream(
+      Class<?> driverStatementClass, Object driverStatement, InputStream values)
+      throws SQLException {
+    try {
+      Method setter =
+          driverStatementClass.getMethod("setLocalInfileInputStream", InputStream.class);
+      setter.invoke(driverStatement, values);
+    } catch (NoSuchMethodException e) {
+      throw new SQLException("The MySQL driver cannot stream the rows to load", e);
+    } catch (IllegalAccessException e) {
+      throw new SQLException("The MySQL driver cannot stream the rows to load", e);
+    } catch (InvocationTargetException e) {
+      throw new SQLException("Could not stream the rows to load: " + e.getCause(), e.getCause());
+    }
+  }
+
+  private static List<Class<?>> loadClasses(String... classNames) {
+    ImmutableList.Builder<Class<?>> classes = ImmutableList.builder();
+    for (String className : classNames) {
+      try {
+        classes.add(Class.forName(className, false, MySqlBulkLoader.class.getClassLoader()));
+      } catch (ClassNotFoundException e) {
+        // Another version of the driver, or no MySQL driver
+      }
+    }
+    return classes.build();
+  }
+
+  /**
+   * Builds the statement that loads the values into the staging table.
+   */
+  static String buildLoadStatement(
+      String fileName, String stagingTableName, List<BatchColumn> columns) {
+    return buildLoadStatement(fileName, stagingTableName, columns, false);
+  }
+
+  /**
+   * Builds the statement that loads the values into a table, replacing the rows with the same ids
+   * if {@code replace} is set.
+   */
+  static String buildLoadStatement(
+      String fileName, String tableName, List<BatchColumn> columns, boolean replace) {
+
+    StringBuilder sql = new StringBuilder("LOAD DATA LOCAL INFILE '").append(fileName)
+        .append(replace ? "' REPLACE INTO TABLE " : "' INTO TABLE ").append(tableName)
+        .append(" CHARACTER SET utf8 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'")
+        .append(" LINES TERMINATED BY '\\n' (");
+    appendColumnNames(sql, columns);
+    return sql.append(')').toString();
+  }
+
+  /**
+   * Builds the statement that inserts or updates the rows of the staging table in the report table.
+   */
+  static String buildUpsertStatement(
+      String tableName, String stagingTableName, List<BatchColumn> columns) {
+
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+    appendColumnNames(sql, columns);
+    sql.append(") SELECT ");
+    appendColumnNames(sql, columns);
+    sql.append(" FROM ").append(stagingTableName).append(" ON DUPLICATE KEY UPDATE ");
+    // The id is the first column
+    for (int i = 1; i < columns.size(); i++) {
+      String columnName = columns.get(i).getColumnName();
+      if (i > 1) {
+        sql.append(", ");
+      }
+      sql.append(columnName).append(" = VALUES(").append(columnName).append(')');
+    }
+    return sql.toString();
+  }
+
+  private static void appendColumnNames(StringBuilder sql, List<BatchColumn> columns) {
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(columns.get(i).getColumnName());
+    }
+  }
+
+  private static File writeTemporaryFile(InputStream values) throws SQLException {
+    try {
+      File file = File.createTempFile("aw-report-load", ".tsv");
+      OutputStream out = new FileOutputStream(file);
+      try {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = values.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+      } finally {
+        out.close();
+      }
+      return file;
+    } catch (IOException e) {
+      throw new SQLException("Could not write the rows to load: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Streams the rows of a batch as tab separated values, one row at a time.
+   *
+   *  The values are escaped as {@code LOAD DATA} expects them: the {@code NULL} values are
+   * {@code \N}, the dates are {@code yyyy-MM-dd HH:mm:ss.SSS} in the default time zone as the JDBC
+   * timestamps, the booleans are 1 or 0, and the backslashes, tabs and line breaks of the strings
+   * are escaped with a backslash.
+   */
+  static class TsvInputStream extends InputStream {
+
+    private final List<BatchColumn> columns;
+    private final int[] rows;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private final StringBuilder line = new StringBuilder(1024);
+    private int nextRow;
+    private byte[] buffer = new byte[0];
+    private int position;
+
+    TsvInputStream(List<BatchColumn> columns, int[] rows) {
+      this.columns = columns;
+      this.rows = rows;
+    }
+
+    @Override
+    public int read() {
+      if (!this.fill()) {
+        return -1;
+      }
+      return this.buffer[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!this.fill()) {
+        return -1;
+      }
+      int count = Math.min(length, this.buffer.length - this.position);
+      System.arraycopy(this.buffer, this.position, bytes, offset, count);
+      this.position += count;
+      return count;
+    }
+
+    /**
+     * Encodes the next row once the current one is read.
+     *
+     * @return false if all the rows are read.
+     */
+    private boolean fill() {
+      while (this.position == this.buffer.length) {
+        if (this.nextRow == this.rows.length) {
+          return false;
+        }
+        this.line.setLength(0);
+        int row = this.rows[this.nextRow++];
+        for (int i = 0; i < this.columns.size(); i++) {
+          if (i > 0) {
+            this.line.append('\t');
+          }
+          this.appendValue(this.columns.get(i), row);
+        }
+        this.line.append('\n');
+        this.buffer = this.line.toString().getBytes(UTF_8);
+        this.position = 0;
+      }
+      return true;
+    }
+
+    private void appendValue(BatchColumn column, int row) {
+      if (column.isNull(row)) {
+        this.line.append(NULL_VALUE);
+        return;
+      }
+      Class<?> valueClass = column.getValueClass();
+      switch (column.getType()) {
+        case LONG:
+          if (valueClass == Date.class) {
+            this.line.append(this.dateFormat.format(new Date(column.getLong(row))));
+          } else {
+            this.line.append(column.getLong(row));
+          }
+          break;
+        case DECIMAL:
+          this.line.append(column.getBigDecimal(row).toPlainString());
+          break;
+        default:
+          this.appendEscaped(String.valueOf(column.getValue(row)));
+      }
+    }
+
+    private void appendEscaped(String value) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '\\':
+            this.line.append("\\\\");
+            break;
+          case '\t':
+            this.line.append("\\t");
+            break;
+          case '\n':
+            this.line.append("\\n");
+            break;
+          case '\r':
+            this.line.append("\\r");
+            break;
+          case '\0':
+            this.line.append("\\0");
+            break;
+          default:
+            this.line.append(c);
+        }
+      }
+    }
+  }
+}
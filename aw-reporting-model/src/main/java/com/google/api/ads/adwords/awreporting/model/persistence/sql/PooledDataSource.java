@@ -0,0 +1,651 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.common.collect.Lists;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of JDBC connections, configured as the {@link DriverManagerDataSource} it replaces.
+ *
+ *  The connections are opened by the driver manager and kept open once closed by their users, so
+ * the processor threads do not open a new connection for each transaction. At most
+ * {@code maxSize} connections are open at the same time, the other threads wait up to
+ * {@code maxWaitMillis} for one to be closed. The connections idle for more than
+ * {@code validationIdleMillis} are validated before they are handed out again, as the data base
+ * may have closed them.
+ *
+ *  Each connection caches the last {@code statementCacheSize} statements prepared with
+ * {@link Connection#prepareStatement(String)}, so the statements of the persisters are only
+ * prepared once by connection. The other statements are not cached, and are the ones of the driver.
+ *
+ *  The pool counts the connections active and idle, the time waited for them and the timeouts. The
+ * connections set by {@code minIdle} are opened by {@link #warmUp()} when the pool starts.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class PooledDataSource extends DriverManagerDataSource {
+
+  private static final Logger LOGGER = Logger.getLogger(PooledDataSource.class.getCanonicalName());
+
+  public static final int DEFAULT_MAX_SIZE = 20;
+
+  public static final int DEFAULT_MIN_IDLE = 2;
+
+  public static final long DEFAULT_MAX_WAIT_MILLIS = 30000;
+
+  public static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+
+  public static final long DEFAULT_VALIDATION_IDLE_MILLIS = 30000;
+
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+  private int maxSize = DEFAULT_MAX_SIZE;
+
+  private int minIdle = DEFAULT_MIN_IDLE;
+
+  private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+
+  private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+  private long validationIdleMillis = DEFAULT_VALIDATION_IDLE_MILLIS;
+
+  private final BlockingDeque<PooledConnection> idleConnections =
+      new LinkedBlockingDeque<PooledConnection>();
+
+  private volatile Semaphore permits;
+
+  private volatile boolean closed;
+
+  private final AtomicInteger activeConnections = new AtomicInteger();
+
+  private final AtomicInteger totalConnections = new AtomicInteger();
+
+  private final AtomicLong connectionRequests = new AtomicLong();
+
+  private final AtomicLong waitNanos = new AtomicLong();
+
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private final AtomicLong timeouts = new AtomicLong();
+
+  private final AtomicLong statementCacheHits = new AtomicLong();
+
+  private final AtomicLong statementCacheMisses = new AtomicLong();
+
+  /**
+   * @param maxSize the most connections open at the same time.
+   */
+  public void setMaxSize(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The pool size must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @param minIdle the connections opened when the pool starts.
+   */
+  public void setMinIdle(int minIdle) {
+    this.minIdle = minIdle;
+  }
+
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  /**
+   * @param maxWaitMillis the most time waited for a connection before failing.
+   */
+  public void setMaxWaitMillis(long maxWaitMillis) {
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  public long getMaxWaitMillis() {
+    return maxWaitMillis;
+  }
+
+  /**
+   * @param statementCacheSize the prepared statements cached by connection, 0 to cache none.
+   */
+  public void setStatementCacheSize(int statementCacheSize) {
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  /**
+   * @param validationIdleMillis the time a connection can be idle before it is validated.
+   */
+  public void setValidationIdleMillis(long validationIdleMillis) {
+    this.validationIdleMillis = validationIdleMillis;
+  }
+
+  public long getValidationIdleMillis() {
+    return validationIdleMillis;
+  }
+
+  /**
+   * Opens the {@code minIdle} connections, so the first threads do not wait for them and a wrong
+   * configuration is reported at start up. The errors are only logged, as the connections are also
+   * opened when needed.
+   */
+  public void warmUp() {
+    List<Connection> connections = Lists.newArrayList();
+    try {
+      for (int i = 0; i < Math.min(minIdle, maxSize); i++) {
+        connections.add(this.getConnection());
+      }
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not open the connections of the pool: " + e.getMessage(), e);
+    } finally {
+      for (Connection connection : connections) {
+        try {
+          connection.close();
+        } catch (SQLException e) {
+          // Not possible for a pooled connection
+        }
+      }
+    }
+    LOGGER.info("Connection pool started: " + this);
+  }
+
+  /**
+   * Closes the idle connections, and the active ones once they are closed by their users.
+   */
+  public void close() {
+    this.closed = true;
+    this.closeIdleConnections();
+    LOGGER.info("Connection pool closed: " + this);
+  }
+
+  /**
+   * Gets a connection of the pool, waiting for one if they are all active.
+   *
+   * @return the connection, that goes back to the pool once closed.
+   * @throws SQLException error opening the connection, or no connection closed in time.
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (this.closed) {
+      throw new SQLException("The connection pool is closed");
+    }
+    Semaphore permits = this.getPermits();
+    this.connectionRequests.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      if (!permits.tryAcquire(this.maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        this.timeouts.incrementAndGet();
+        this.recordWait(System.nanoTime() - start);
+        throw new SQLTransientConnectionException("No connection available after "
+            + this.maxWaitMillis + " ms: " + this);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for a connection", e);
+    }
+    this.recordWait(System.nanoTime() - start);
+
+    try {
+      PooledConnection connection = this.takeIdleConnection();
+      if (connection == null) {
+        connection = new PooledConnection(super.getConnection());
+        this.totalConnections.incrementAndGet();
+      }
+      this.activeConnections.incrementAndGet();
+      return connection.lease();
+    } catch (SQLException e) {
+      permits.release();
+      throw e;
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the connections used.
+   */
+  public int getActiveConnections() {
+    return activeConnections.get();
+  }
+
+  /**
+   * @return the connections open and not used.
+   */
+  public int getIdleConnections() {
+    return idleConnections.size();
+  }
+
+  /**
+   * @return the connections open.
+   */
+  public int getTotalConnections() {
+    return totalConnections.get();
+  }
+
+  /**
+   * @return an estimate of the threads waiting for a connection.
+   */
+  public int getWaitingThreads() {
+    Semaphore permits = this.permits;
+    return permits == null ? 0 : permits.getQueueLength();
+  }
+
+  /**
+   * @return the connections requested.
+   */
+  public long getConnectionRequests() {
+    return connectionRequests.get();
+  }
+
+  /**
+   * @return the time waited for the connections by all the threads.
+   */
+  public long getTotalWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+  }
+
+  /**
+   * @return the longest time waited for a connection.
+   */
+  public long getLongestWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+  }
+
+  /**
+   * @return the connection requests that failed as no connection was closed in time.
+   */
+  public long getTimeouts() {
+    return timeouts.get();
+  }
+
+  /**
+   * @return the statements found in the cache of their connection.
+   */
+  public long getStatementCacheHits() {
+    return statementCacheHits.get();
+  }
+
+  /**
+   * @return the statements prepared by the driver.
+   */
+  public long getStatementCacheMisses() {
+    return statementCacheMisses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "active=" + this.getActiveConnections()
+        + ", idle=" + this.getIdleConnections()
+        + ", total=" + this.getTotalConnections()
+        + ", max=" + this.maxSize
+        + ", waiting=" + this.getWaitingThreads()
+        + ", requests=" + this.getConnectionRequests()
+        + ", waitMillis=" + this.getTotalWaitMillis()
+        + ", longestWaitMillis=" + this.getLongestWaitMillis()
+        + ", timeouts=" + this.getTimeouts()
+        + ", statementCacheHits=" + this.getStatementCacheHits()
+        + ", statementCacheMisses=" + this.getStatementCacheMisses();
+  }
+
+  private Semaphore getPermits() {
+    Semaphore permits = this.permits;
+    if (permits == null) {
+      synchronized (this) {
+        if (this.permits == null) {
+          // Fair, so the threads get the connections in the order they asked for them
+          this.permits = new Semaphore(this.maxSize, true);
+        }
+        permits = this.permits;
+      }
+    }
+    return permits;
+  }
+
+  private void recordWait(long nanos) {
+    this.waitNanos.addAndGet(nanos);
+    long max = this.maxWaitNanos.get();
+    while (nanos > max && !this.maxWaitNanos.compareAndSet(max, nanos)) {
+      max = this.maxWaitNanos.get();
+    }
+  }
+
+  /**
+   * Takes the most recently used idle connection, validating it if it was idle for long.
+   */
+  private PooledConnection takeIdleConnection() {
+    PooledConnection connection;
+    while ((connection = this.idleConnections.pollFirst()) != null) {
+      if (System.currentTimeMillis() - connection.lastUsed <= this.validationIdleMillis
+          || connection.isValid()) {
+        return connection;
+      }
+      this.discard(connection);
+    }
+    return null;
+  }
+
+  /**
+   * Takes back a connection closed by its user.
+   */
+  private void release(PooledConnection connection) {
+    this.activeConnections.decrementAndGet();
+    try {
+      if (!this.closed && connection.reset()) {
+        this.idleConnections.offerFirst(connection);
+        if (this.closed) {
+          // Closed while the connection was reset
+          this.closeIdleConnections();
+        }
+      } else {
+        this.discard(connection);
+      }
+    } finally {
+      this.getPermits().release();
+    }
+  }
+
+  private void closeIdleConnections() {
+    PooledConnection connection;
+    while ((connection = this.idleConnections.pollFirst()) != null) {
+      this.discard(connection);
+    }
+  }
+
+  private void discard(PooledConnection connection) {
+    this.totalConnections.decrementAndGet();
+    connection.closePhysically();
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * A connection of the driver, with its cache of statements. It is used by one thread at a time,
+   * through the handle of its current lease.
+   */
+  private class PooledConnection {
+
+    private final Connection connection;
+
+    private final Map<String, PreparedStatement> statements;
+
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    PooledConnection(Connection connection) {
+      this.connection = connection;
+      this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+          if (size() > statementCacheSize) {
+            closeQuietly(eldest.getValue());
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    Connection lease() {
+      return (Connection) Proxy.newProxyInstance(PooledDataSource.class.getClassLoader(),
+          new Class<?>[] {Connection.class}, new ConnectionHandle(this));
+    }
+
+    PreparedStatement takeStatement(String sql) throws SQLException {
+      PreparedStatement statement = this.statements.remove(sql);
+      if (statement != null) {
+        statementCacheHits.incrementAndGet();
+        return statement;
+      }
+      statementCacheMisses.incrementAndGet();
+      return this.connection.prepareStatement(sql);
+    }
+
+    void returnStatement(String sql, PreparedStatement statement) {
+      if (this.statements.containsKey(sql)) {
+        // The same statement was prepared twice in the lease
+        closeQuietly(statement);
+        return;
+      }
+      try {
+        statement.clearParameters();
+        statement.clearBatch();
+        statement.clearWarnings();
+        this.statements.put(sql, statement);
+      } catch (SQLException e) {
+        closeQuietly(statement);
+      }
+    }
+
+    boolean isValid() {
+      try {
+        return this.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Rolls back what the user left uncommitted, so the next user starts as with a new connection.
+     *
+     * @return false if the connection can not be used again.
+     */
+    boolean reset() {
+      try {
+        if (this.connection.isClosed()) {
+          return false;
+        }
+        if (!this.connection.getAutoCommit()) {
+          this.connection.rollback();
+          this.connection.setAutoCommit(true);
+        }
+        this.connection.clearWarnings();
+        this.lastUsed = System.currentTimeMillis();
+        return true;
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    void closePhysically() {
+      for (PreparedStatement statement : this.statements.values()) {
+        closeQuietly(statement);
+      }
+      this.statements.clear();
+      try {
+        this.connection.close();
+      } catch (SQLException e) {
+        LOGGER.fine("Error closing a pooled connection: " + e.getMessage());
+      }
+    }
+  }
+
+  private static void closeQuietly(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      LOGGER.fine("Error closing a pooled statement: " + e.getMessage());
+    }
+  }
+
+  /**
+   * The connection handed to a user. Once closed, it gives the connection back to the pool, and
+   * closes the statements the user left open.
+   */
+  private class ConnectionHandle implements InvocationHandler {
+
+    private final PooledConnection pooledConnection;
+
+    private final List<StatementHandle> openStatements = Lists.newArrayList();
+
+    private final List<Statement> driverStatements = Lists.newArrayList();
+
+    private boolean closed;
+
+    ConnectionHandle(PooledConnection pooledConnection) {
+      this.pooledConnection = pooledConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.equals("equals")) {
+        return proxy == args[0];
+      } else if (name.equals("hashCode")) {
+        return System.identityHashCode(proxy);
+      } else if (name.equals("toString")) {
+        return "Pooled " + this.pooledConnection.connection;
+      } else if (name.equals("isClosed")) {
+        return this.closed;
+      } else if (name.equals("close")) {
+        this.close();
+        return null;
+      } else if (this.closed) {
+        throw new SQLException("The connection is closed");
+      } else if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+        Class<?> type = (Class<?>) args[0];
+        if (type.isInstance(this.pooledConnection.connection)) {
+          return name.equals("unwrap") ? this.pooledConnection.connection : true;
+        }
+      } else if (name.equals("prepareStatement") && args.length == 1 && statementCacheSize > 0) {
+        String sql = (String) args[0];
+        PreparedStatement statement = this.pooledConnection.takeStatement(sql);
+        StatementHandle handle = new StatementHandle(this, (Connection) proxy, sql, statement);
+        this.openStatements.add(handle);
+        return Proxy.newProxyInstance(PooledDataSource.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, handle);
+      } else if (name.equals("createStatement") || name.equals("prepareStatement")
+          || name.equals("prepareCall")) {
+        // The statements of the driver, as some users need them
+        Statement statement = (Statement) PooledDataSource.invoke(
+            this.pooledConnection.connection, method, args);
+        this.driverStatements.add(statement);
+        return statement;
+      }
+      return PooledDataSource.invoke(this.pooledConnection.connection, method, args);
+    }
+
+    void closeStatement(StatementHandle handle) {
+      this.openStatements.remove(handle);
+      if (this.closed) {
+        closeQuietly(handle.statement);
+      } else {
+        this.pooledConnection.returnStatement(handle.sql, handle.statement);
+      }
+    }
+
+    private void close() {
+      if (this.closed) {
+        return;
+      }
+      for (StatementHandle handle : this.openStatements) {
+        handle.closed = true;
+        closeQuietly(handle.statement);
+      }
+      this.openStatements.clear();
+      for (Statement statement : this.driverStatements) {
+        closeQuietly(statement);
+      }
+      this.driverStatements.clear();
+      this.closed = true;
+      release(this.pooledConnection);
+    }
+  }
+
+  /**
+   * A cached statement handed to a user. Once closed, it goes back to the cache of its connection.
+   */
+  private static class StatementHandle implements InvocationHandler {
+
+    private final ConnectionHandle connectionHandle;
+
+    private final Connection connection;
+
+    private final String sql;
+
+    private final PreparedStatement statement;
+
+    private boolean closed;
+
+    StatementHandle(ConnectionHandle connectionHandle, Connection connection, String sql,
+        PreparedStatement statement) {
+      this.connectionHandle = connectionHandle;
+      this.connection = connection;
+      this.sql = sql;
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.equals("equals")) {
+        return proxy == args[0];
+      } else if (name.equals("hashCode")) {
+        return System.identityHashCode(proxy);
+      } else if (name.equals("toString")) {
+        return "Pooled " + this.statement;
+      } else if (name.equals("isClosed")) {
+        return this.closed;
+      } else if (name.equals("close")) {
+        if (!this.closed) {
+          this.closed = true;
+          this.connectionHandle.closeStatement(this);
+        }
+        return null;
+      } else if (this.closed) {
+        throw new SQLException("The statement is closed");
+      } else if (name.equals("getConnection")) {
+        return this.connection;
+      }
+      return PooledDataSource.invoke(this.statement, method, args);
+    }
+  }
+}
@@ -0,0 +1,373 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch.BatchColumn;
+import com.google.common.collect.Lists;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.Table;
+
+/**
+ * Writes the rows of the reports with plain JDBC, in multi-row upsert statements.
+ *
+ *  The statements are built from the {@code Table} and {@code Column} annotations of the report
+ * entities, so they write the same tables and columns as Hibernate does, but without the select of
+ * each row that {@code saveOrUpdate} needs for the entities with assigned ids. Each statement
+ * inserts or updates many rows:
+ * <ul>
+ * <li>MySQL: {@code INSERT ... VALUES (...), (...) ON DUPLICATE KEY UPDATE ...}</li>
+ * <li>H2: {@code MERGE INTO ... KEY (ROW_ID) VALUES (...), (...)}</li>
+ * <li>Any other data base: {@code MERGE INTO ... USING (VALUES (...), (...)) ...}</li>
+ * </ul>
+ *
+ *  When a batch has several rows with the same id, only the last one is written.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class SqlReportBatchWriter {
+
+  /**
+   * The upsert statement of each kind of data base.
+   */
+  public enum Dialect {
+    MYSQL(65535),
+    H2(65535),
+    MERGE(2000);
+
+    private final int maxParameters;
+
+    private Dialect(int maxParameters) {
+      this.maxParameters = maxParameters;
+    }
+
+    /**
+     * @return the most parameters in one statement.
+     */
+    public int getMaxParameters() {
+      return maxParameters;
+    }
+
+    /**
+     * Finds the dialect of a data base from its product name.
+     *
+     * @param databaseProductName the name from the JDBC meta data of the data base.
+     * @return the dialect of the data base.
+     */
+    public static Dialect forProductName(String databaseProductName) {
+      if (databaseProductName != null) {
+        String name = databaseProductName.toUpperCase();
+        if (name.contains("MYSQL") || name.contains("MARIADB")) {
+          return MYSQL;
+        }
+        if (name.equals("H2")) {
+          return H2;
+        }
+      }
+      return MERGE;
+    }
+  }
+
+  private final int rowsPerStatement;
+
+  private final Map<String, String> statements = new ConcurrentHashMap<String, String>();
+
+  /**
+   * C'tor
+   *
+   * @param rowsPerStatement the most rows written by each statement, fewer if the statement would
+   *        have too many parameters for the data base.
+   */
+  public SqlReportBatchWriter(int rowsPerStatement) {
+    if (rowsPerStatement <= 0) {
+      throw new IllegalArgumentException(
+          "The rows per statement must be positive: " + rowsPerStatement);
+    }
+    this.rowsPerStatement = rowsPerStatement;
+  }
+
+  /**
+   * @return the most rows written by each statement.
+   */
+  public int getRowsPerStatement() {
+    return rowsPerStatement;
+  }
+
+  /**
+   * Inserts or updates the rows of the batch, in the transaction of the connection.
+   *
+   * @param connection the connection to the data base.
+   * @param dialect the dialect of the data base.
+   * @param batch the rows to write.
+   * @return the number of rows written.
+   * @throws SQLException error writing the rows.
+   */
+  public int write(Connection connection, Dialect dialect, RowBatch<? extends Report> batch)
+      throws SQLException {
+    return this.write(connection, dialect, batch, getTableName(batch.getReportClass()));
+  }
+
+  /**
+   * Inserts or updates the rows of the batch in a table with the columns of the report table, such
+   * as a staging table, in the transaction of the connection.
+   *
+   * @param connection the connection to the data base.
+   * @param dialect the dialect of the data base.
+   * @param batch the rows to write.
+   * @param tableName the table to write the rows into.
+   * @return the number of rows written.
+   * @throws SQLException error writing the rows.
+   */
+  public int write(Connection connection, Dialect dialect, RowBatch<? extends Report> batch,
+      String tableName) throws SQLException {
+
+    int[] rows = distinctRows(batch);
+    if (rows.length == 0) {
+      return 0;
+    }
+    List<BatchColumn> columns = getColumns(batch);
+    int rowsPerStatement = Math.max(1,
+        Math.min(this.rowsPerStatement, dialect.getMaxParameters() / columns.size()));
+
+    int fullStatements = rows.length / rowsPerStatement;
+    if (fullStatements > 0) {
+      PreparedStatement statement = connection.prepareStatement(
+          this.getStatement(dialect, tableName, columns, rowsPerStatement));
+      try {
+        for (int i = 0; i < fullStatements; i++) {
+          bindRows(statement, columns, rows, i * rowsPerStatement, rowsPerStatement);
+          if (fullStatements == 1) {
+            statement.executeUpdate();
+          } else {
+            statement.addBatch();
+          }
+        }
+        if (fullStatements > 1) {
+          statement.executeBatch();
+        }
+      } finally {
+        statement.close();
+      }
+    }
+
+    int lastRows = rows.length % rowsPerStatement;
+    if (lastRows > 0) {
+      PreparedStatement statement = connection.prepareStatement(
+          this.getStatement(dialect, tableName, columns, lastRows));
+      try {
+        bindRows(statement, columns, rows, rows.length - lastRows, lastRows);
+        statement.executeUpdate();
+      } finally {
+        statement.close();
+      }
+    }
+    return rows.length;
+  }
+
+  /**
+   * Gets the rows to write, the last row of each id.
+   */
+  static int[] distinctRows(RowBatch<? extends Report> batch) {
+    Map<String, Integer> rowsById = new HashMap<String, Integer>(batch.size() * 2);
+    int[] rows = new int[batch.size()];
+    int count = 0;
+    for (int row = 0; row < batch.size(); row++) {
+      String id = batch.getId(row);
+      Integer position = rowsById.get(id);
+      if (position == null) {
+        rowsById.put(id, count);
+        rows[count++] = row;
+      } else {
+        // Replaces the previous row of the id, keeping its position
+        rows[position] = row;
+      }
+    }
+    if (count == rows.length) {
+      return rows;
+    }
+    int[] distinct = new int[count];
+    System.arraycopy(rows, 0, distinct, 0, count);
+    return distinct;
+  }
+
+  /**
+   * Gets the columns of the batch mapped to the data base, with the id first.
+   */
+  static List<BatchColumn> getColumns(RowBatch<? extends Report> batch) {
+    List<BatchColumn> columns = Lists.newArrayList();
+    columns.add(batch.getColumn(Report.ID));
+    for (BatchColumn column : batch.getColumns()) {
+      if (column.getColumnName() != null && !column.getFieldName().equals(Report.ID)) {
+        columns.add(column);
+      }
+    }
+    return columns;
+  }
+
+  private String getStatement(
+      Dialect dialect, String tableName, List<BatchColumn> columns, int rows) {
+    String key = dialect + ":" + tableName + ":" + rows;
+    String statement = this.statements.get(key);
+    if (statement == null) {
+      statement = buildStatement(dialect, tableName, columns, rows);
+      this.statements.put(key, statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Builds the upsert statement of the rows, the id being the first column.
+   */
+  static String buildStatement(
+      Dialect dialect, String tableName, List<BatchColumn> columns, int rows) {
+
+    StringBuilder columnNames = new StringBuilder();
+    StringBuilder placeholders = new StringBuilder("(");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        columnNames.append(", ");
+        placeholders.append(", ");
+      }
+      columnNames.append(columns.get(i).getColumnName());
+      placeholders.append('?');
+    }
+    placeholders.append(')');
+
+    StringBuilder values = new StringBuilder();
+    for (int row = 0; row < rows; row++) {
+      if (row > 0) {
+        values.append(", ");
+      }
+      values.append(placeholders);
+    }
+
+    String idColumn = columns.get(0).getColumnName();
+    StringBuilder sql = new StringBuilder();
+    switch (dialect) {
+      case MYSQL:
+        sql.append("INSERT INTO ").append(tableName).append(" (").append(columnNames)
+            .append(") VALUES ").append(values).append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 1; i < columns.size(); i++) {
+          String columnName = columns.get(i).getColumnName();
+          if (i > 1) {
+            sql.append(", ");
+          }
+          sql.append(columnName).append(" = VALUES(").append(columnName).append(')');
+        }
+        break;
+      case H2:
+        sql.append("MERGE INTO ").append(tableName).append(" (").append(columnNames)
+            .append(") KEY (").append(idColumn).append(") VALUES ").append(values);
+        break;
+      default:
+        sql.append("MERGE INTO ").append(tableName).append(" T USING (VALUES ").append(values)
+            .append(") AS S (").append(columnNames).append(") ON T.").append(idColumn)
+            .append(" = S.").append(idColumn).append(" WHEN MATCHED THEN UPDATE SET ");
+        for (int i = 1; i < columns.size(); i++) {
+          String columnName = columns.get(i).getColumnName();
+          if (i > 1) {
+            sql.append(", ");
+          }
+          sql.append(columnName).append(" = S.").append(columnName);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnNames).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+          if (i > 0) {
+            sql.append(", ");
+          }
+          sql.append("S.").append(columns.get(i).getColumnName());
+        }
+        sql.append(')');
+    }
+    return sql.toString();
+  }
+
+  private static void bindRows(PreparedStatement statement, List<BatchColumn> columns,
+      int[] rows, int from, int count) throws SQLException {
+    int parameter = 1;
+    for (int i = from; i < from + count; i++) {
+      int row = rows[i];
+      for (BatchColumn column : columns) {
+        bindValue(statement, parameter++, column, row);
+      }
+    }
+  }
+
+  private static void bindValue(PreparedStatement statement, int parameter, BatchColumn column,
+      int row) throws SQLException {
+    Class<?> valueClass = column.getValueClass();
+    boolean isNull = column.isNull(row);
+    switch (column.getType()) {
+      case LONG:
+        if (valueClass == Date.class) {
+          if (isNull) {
+            statement.setNull(parameter, Types.TIMESTAMP);
+          } else {
+            statement.setTimestamp(parameter, new Timestamp(column.getLong(row)));
+          }
+        } else if (valueClass == Boolean.class || valueClass == boolean.class) {
+          if (isNull) {
+            statement.setNull(parameter, Types.BOOLEAN);
+          } else {
+            statement.setBoolean(parameter, column.getLong(row) != 0);
+          }
+        } else if (valueClass == Long.class || valueClass == long.class) {
+          if (isNull) {
+            statement.setNull(parameter, Types.BIGINT);
+          } else {
+            statement.setLong(parameter, column.getLong(row));
+          }
+        } else {
+          if (isNull) {
+            statement.setNull(parameter, Types.INTEGER);
+          } else {
+            statement.setInt(parameter, (int) column.getLong(row));
+          }
+        }
+        break;
+      case DECIMAL:
+        statement.setBigDecimal(parameter, column.getBigDecimal(row));
+        break;
+      case STRING:
+        statement.setString(parameter, column.getString(row));
+        break;
+      default:
+        statement.setObject(parameter, column.getValue(row));
+    }
+  }
+
+  /**
+   * Gets the name of the table of the report entity, as set by its {@code Table} annotation.
+   */
+  static String getTableName(Class<?> reportClass) {
+    Table table = reportClass.getAnnotation(Table.class);
+    if (table == null || table.name().length() == 0) {
+      throw new IllegalArgumentException("No table for " + reportClass.getName());
+    }
+    return table.name();
+  }
+}
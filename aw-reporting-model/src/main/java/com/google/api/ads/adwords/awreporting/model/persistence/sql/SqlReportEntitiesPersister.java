@@ -17,30 +17,41 @@ package com.google.api.ads.adwords.awreporting.model.persistence.sql;
 import com.google.api.ads.adwords.awreporting.model.entities.AuthMcc;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
-import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlice;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlicePersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
 import com.google.common.collect.Maps;
 
 import org.hibernate.Criteria;
+import org.hibernate.JDBCException;
 import org.hibernate.SQLQuery;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.jdbc.Work;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.logging.Logger;
 
 import javax.persistence.Column;
 import javax.persistence.Table;
+import javax.sql.DataSource;
 
 /**
  * This is the basic implementation of the persistence layer to communicate with a SQL data base.
@@ -50,16 +61,51 @@ import javax.persistence.Table;
  * to communicate in the best way possible to a SQL data base, so don't count in the use of the
  * {@code SessionFactory} when implementing your client class.
  *
+ *  The report rows are not saved through the {@code Session}, but written with the
+ * {@link SqlReportBatchWriter} in multi-row upsert statements, in the transaction of the session.
+ * For MySQL, they can also be loaded with the {@link MySqlBulkLoader}, as set by the
+ * {@link WriteMode}.
+ *
+ *  The rows of a report slice can also be replaced at once, see {@link SqlSliceReplacement}.
+ *
  * @author gustavomoreira@google.com (Gustavo Moreira)
  */
 @Component
 @Qualifier("sqlEntitiesPersister")
-public class SqlReportEntitiesPersister implements EntityPersister {
-  
-  private static final int BATCH_SIZE = 50;
+public class SqlReportEntitiesPersister implements ReportSlicePersister {
+
+  /**
+   * The default number of rows written by each upsert statement.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  private static final Logger LOGGER =
+      Logger.getLogger(SqlReportEntitiesPersister.class.getCanonicalName());
+
+  /**
+   * How the report rows are written.
+   */
+  public enum WriteMode {
+    /** Multi-row upsert statements, for any data base. */
+    UPSERT,
+    /** {@code LOAD DATA LOCAL INFILE} into a staging table, for MySQL only. */
+    LOAD_DATA
+  }
 
   private SessionFactory sessionFactory;
 
+  private SqlReportBatchWriter batchWriter = new SqlReportBatchWriter(DEFAULT_BATCH_SIZE);
+
+  private final MySqlBulkLoader bulkLoader = new MySqlBulkLoader();
+
+  private WriteMode writeMode = WriteMode.UPSERT;
+
+  private volatile SqlReportBatchWriter.Dialect dialect;
+
+  private DataSource dataSource;
+
+  private volatile boolean unstagedReplacementLogged;
+
   /**
    * C'tor
    *
@@ -70,29 +116,151 @@ public class SqlReportEntitiesPersister implements EntityPersister {
     this.sessionFactory = sessionFactory;
   }
 
+  /**
+   * Sets the number of rows written by each upsert statement.
+   *
+   * @param batchSize the number of rows, fewer if a statement would have too many parameters.
+   */
+  @Value("${aw.report.model.db.sql.batch.size:" + DEFAULT_BATCH_SIZE + "}")
+  public void setBatchSize(int batchSize) {
+    this.batchWriter = new SqlReportBatchWriter(batchSize);
+  }
+
+  /**
+   * Sets the data source of the connections used to replace the report slices, the one of the
+   * {@code SessionFactory}.
+   *
+   * @param dataSource the data source.
+   */
+  @Autowired(required = false)
+  public void setDataSource(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Sets how the report rows are written.
+   *
+   * @param writeMode the name of the {@link WriteMode}.
+   */
+  @Value("${aw.report.model.db.sql.write.mode:UPSERT}")
+  public void setWriteMode(String writeMode) {
+    this.writeMode = WriteMode.valueOf(writeMode.trim().toUpperCase());
+  }
+
   /**
    * Persists all the given entities into the DB configured in the {@code SessionFactory}
    */
   @Override
   @Transactional
+  @SuppressWarnings("unchecked")
   public void persistReportEntities(List<? extends Report> reportEntities) {
 
-    int batchFlush = 0;
+    RowBatch<Report> batch = null;
+    for (int i = 0; i < reportEntities.size(); i++) {
+      Report report = reportEntities.get(i);
+      // The processors set the id already, and it may be hashed
+      if (report.getId() == null) {
+        report.setId();
+      }
+      if (batch != null && batch.getReportClass() != report.getClass()) {
+        this.writeBatch(batch);
+        batch = null;
+      }
+      if (batch == null) {
+        batch = new RowBatch<Report>(
+            (Class<Report>) report.getClass(), reportEntities.size() - i);
+      }
+      batch.add(report);
+    }
+    if (batch != null) {
+      this.writeBatch(batch);
+    }
+  }
 
-    Session session = this.sessionFactory.getCurrentSession();
+  /**
+   * Persists the rows of the batch into the DB configured in the {@code SessionFactory}, without
+   * creating their entities.
+   */
+  @Override
+  @Transactional
+  public void persistReportBatch(RowBatch<? extends Report> batch) {
 
-    for (Report report : reportEntities) {
-      report.setId();
-      session.saveOrUpdate(report);
-      batchFlush++;
+    if (!batch.isEmpty()) {
+      this.writeBatch(batch);
+    }
+  }
 
-      if (batchFlush == BATCH_SIZE) {
-        session.flush();
-        session.clear();
+  /**
+   * Starts the replacement of the rows of a slice, with its own connection of the data source, so
+   * the rows are staged apart from the transactions of the sessions.
+   */
+  @Override
+  public Replacement beginReplacement(ReportSlice slice) {
+
+    if (this.dataSource == null) {
+      throw new IllegalStateException("No data source to replace the rows of " + slice);
+    }
+    Connection connection = null;
+    try {
+      connection = this.dataSource.getConnection();
+      SqlReportBatchWriter.Dialect dialect = this.getDialect(connection);
+      if (!SqlSliceReplacement.isStaged(dialect) && !this.unstagedReplacementLogged) {
+        this.unstagedReplacementLogged = true;
+        LOGGER.warning("The report slices can only be replaced in MySQL and H2, the rows will be"
+            + " written with " + WriteMode.UPSERT + " statements.");
+      }
+      return new SqlSliceReplacement(slice, connection, dialect, this.batchWriter,
+          this.writeMode == WriteMode.LOAD_DATA ? this.bulkLoader : null);
+    } catch (SQLException e) {
+      if (connection != null) {
+        try {
+          connection.close();
+        } catch (SQLException closeError) {
+          LOGGER.warning("Error closing the connection: " + closeError.getMessage());
+        }
       }
+      throw new JDBCException("Error starting the replacement of " + slice, e);
     }
   }
 
+  /**
+   * Writes the rows with the connection of the current session.
+   *
+   * @param batch the rows to write.
+   */
+  private void writeBatch(final RowBatch<? extends Report> batch) {
+
+    Session session = this.sessionFactory.getCurrentSession();
+    session.doWork(new Work() {
+      @Override
+      public void execute(Connection connection) throws SQLException {
+        SqlReportBatchWriter.Dialect dialect = getDialect(connection);
+        if (writeMode == WriteMode.LOAD_DATA && dialect == SqlReportBatchWriter.Dialect.MYSQL) {
+          bulkLoader.load(connection, batch);
+        } else {
+          batchWriter.write(connection, dialect, batch);
+        }
+      }
+    });
+  }
+
+  /**
+   * Gets the dialect of the data base, the first time from the meta data of the connection.
+   */
+  private SqlReportBatchWriter.Dialect getDialect(Connection connection) throws SQLException {
+
+    if (this.dialect == null) {
+      this.dialect = SqlReportBatchWriter.Dialect.forProductName(
+          connection.getMetaData().getDatabaseProductName());
+      if (this.writeMode == WriteMode.LOAD_DATA
+          && this.dialect != SqlReportBatchWriter.Dialect.MYSQL) {
+        LOGGER.warning("The " + WriteMode.LOAD_DATA + " write mode is only for MySQL, the rows"
+            + " will be written with " + WriteMode.UPSERT + " statements.");
+      }
+    }
+    return this.dialect;
+  }
+
   /**
    * Lists all the report entities persisted so far.
    *
@@ -613,6 +781,42 @@ public class SqlReportEntitiesPersister implements EntityPersister {
     }
   }
 
+  @Override
+  @Transactional
+  public <T extends ReportBase> Map<Long, Date> getMinDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, Projections.min(dateKey));
+  }
+
+  @Override
+  @Transactional
+  public <T extends ReportBase> Map<Long, Date> getMaxDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, Projections.max(dateKey));
+  }
+
+  /**
+   * Groups the rows of the MCC by account, in one query for all the accounts.
+   *
+   * @param dateProjection the min or max of the date column.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> Map<Long, Date> getDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey, Projection dateProjection) {
+    Criteria criteria = this.createCriteria(classT);
+    criteria.add(Restrictions.eq(Report.TOP_ACCOUNT_ID, topAccountId));
+    criteria.add(Restrictions.isNotNull(dateKey));
+    criteria.setProjection(Projections.projectionList()
+        .add(Projections.groupProperty(Report.ACCOUNT_ID))
+        .add(dateProjection));
+
+    Map<Long, Date> dateByAccount = Maps.newHashMap();
+    for (Object[] row : (List<Object[]>) criteria.list()) {
+      dateByAccount.put((Long) row[0], (Date) row[1]);
+    }
+    return dateByAccount;
+  }
+
   /**
    * Checks if the account exists in the datastore.  This method does NOT validate an CID against AdWords.
    * @param topAccountId
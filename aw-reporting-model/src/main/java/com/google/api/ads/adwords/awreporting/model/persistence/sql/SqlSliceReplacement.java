@@ -0,0 +1,351 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlice;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlicePersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch.BatchColumn;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.SqlReportBatchWriter.Dialect;
+import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
+import com.google.common.collect.Lists;
+
+import org.hibernate.JDBCException;
+import org.joda.time.DateTime;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Replaces the rows of a {@link ReportSlice} in a SQL data base, with its own connection.
+ *
+ *  The new rows are written into a temporary staging table of the connection, with the columns of
+ * the report table. Once committed, the stored rows of the slice are deleted and the rows of the
+ * staging table are upserted in a single transaction, so the readers never see the slice half
+ * replaced. The rows are upserted as the ids of the rows segmented by day do not have the date
+ * range, so the rows stored for another date range with the same days have the same ids.
+ *
+ *  The stored rows of the slice are the ones of its accounts and exact date range. When the new
+ * rows are segmented by day, they are instead the rows of its accounts whose day is within the
+ * dates of the slice, whatever date range they were downloaded for. A slice without new rows only
+ * deletes the rows of its exact date range.
+ *
+ *  The staging tables are created for MySQL and H2 only. The other data bases get no replacement
+ * at all: the rows are inserted or updated straight into the report table as with the regular
+ * persistence, and the stored rows no longer in the report are never deleted.
+ *
+ * @author agent@google.com (Agent)
+ */
+class SqlSliceReplacement implements ReportSlicePersister.Replacement {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(SqlSliceReplacement.class.getCanonicalName());
+
+  /**
+   * The suffix of the name of the staging tables.
+   */
+  static final String STAGING_TABLE_SUFFIX = "_SLICE";
+
+  /**
+   * The columns of the report tables keying the slices.
+   */
+  private static final String[] SLICE_COLUMNS = {
+      "TOP_ACCOUNT_ID", "ACCOUNT_ID", "DATE_RANGE_TYPE", "DATE_START", "DATE_END"};
+
+  /**
+   * The columns of the report tables keying the slices of the rows segmented by day, along with
+   * the DAY column.
+   */
+  private static final String[] DAY_SLICE_COLUMNS = {"TOP_ACCOUNT_ID", "ACCOUNT_ID"};
+
+  private final ReportSlice slice;
+
+  private final Connection connection;
+
+  private final Dialect dialect;
+
+  private final SqlReportBatchWriter batchWriter;
+
+  private final MySqlBulkLoader bulkLoader;
+
+  private final String tableName;
+
+  private final String stagingTableName;
+
+  private boolean daySegmented;
+
+  private boolean finished;
+
+  /**
+   * C'tor, creating the staging table.
+   *
+   * @param slice the slice to replace.
+   * @param connection the connection used by this replacement only, closed once it finishes.
+   * @param dialect the dialect of the data base.
+   * @param batchWriter the writer of the rows.
+   * @param bulkLoader the loader of the rows for MySQL, {@code null} to write them.
+   * @throws SQLException error creating the staging table.
+   */
+  SqlSliceReplacement(ReportSlice slice, Connection connection, Dialect dialect,
+      SqlReportBatchWriter batchWriter, MySqlBulkLoader bulkLoader) throws SQLException {
+    this.slice = slice;
+    this.connection = connection;
+    this.dialect = dialect;
+    this.batchWriter = batchWriter;
+    this.bulkLoader = bulkLoader;
+    this.tableName = SqlReportBatchWriter.getTableName(slice.getReportClass());
+    this.stagingTableName = isStaged(dialect) ? tableName + STAGING_TABLE_SUFFIX : null;
+
+    connection.setAutoCommit(true);
+    if (this.stagingTableName != null) {
+      Statement statement = connection.createStatement();
+      try {
+        statement.execute(buildCreateStagingStatement(dialect, tableName, stagingTableName));
+        statement.execute("DELETE FROM " + stagingTableName);
+      } finally {
+        statement.close();
+      }
+    }
+  }
+
+  /**
+   * @return true if the slices are replaced through a staging table in the data base.
+   */
+  static boolean isStaged(Dialect dialect) {
+    return dialect == Dialect.MYSQL || dialect == Dialect.H2;
+  }
+
+  @Override
+  public void add(RowBatch<? extends Report> batch) {
+    this.checkNotFinished();
+    if (!this.daySegmented && !batch.isEmpty()) {
+      BatchColumn day = batch.getColumn(ReportBase.DAY);
+      this.daySegmented = day != null && !day.isNull(0);
+    }
+    try {
+      String targetTableName = this.stagingTableName != null ? this.stagingTableName : tableName;
+      if (this.bulkLoader != null && this.dialect == Dialect.MYSQL) {
+        this.bulkLoader.loadInto(this.connection, batch, targetTableName);
+      } else {
+        this.batchWriter.write(this.connection, this.dialect, batch, targetTableName);
+      }
+    } catch (SQLException e) {
+      this.abort();
+      throw new JDBCException("Error staging the rows of " + this.slice, e);
+    }
+  }
+
+  @Override
+  public void commit() {
+    this.checkNotFinished();
+    if (this.stagingTableName == null) {
+      this.finish();
+      return;
+    }
+    try {
+      List<BatchColumn> columns = SqlReportBatchWriter.getColumns(
+          new RowBatch<Report>(castReportClass(this.slice.getReportClass()), 1));
+      Timestamp[] days = this.daySegmented ? getDays(this.slice) : null;
+      this.connection.setAutoCommit(false);
+      PreparedStatement delete = this.connection.prepareStatement(buildDeleteStatement(
+          tableName, this.slice, days != null));
+      int deleted;
+      int inserted;
+      try {
+        bindSlice(delete, this.slice, days);
+        deleted = delete.executeUpdate();
+      } finally {
+        delete.close();
+      }
+      Statement statement = this.connection.createStatement();
+      try {
+        inserted = statement.executeUpdate(
+            buildInsertStatement(this.dialect, tableName, this.stagingTableName, columns));
+      } finally {
+        statement.close();
+      }
+      this.connection.commit();
+      LOGGER.fine("Replaced " + deleted + " rows by " + inserted + " rows: " + this.slice);
+    } catch (SQLException e) {
+      try {
+        this.connection.rollback();
+      } catch (SQLException rollbackError) {
+        LOGGER.warning("Error rolling back the replacement: " + rollbackError.getMessage());
+      }
+      throw new JDBCException("Error replacing the rows of " + this.slice, e);
+    } finally {
+      this.finish();
+    }
+  }
+
+  @Override
+  public void abort() {
+    if (!this.finished) {
+      this.finish();
+    }
+  }
+
+  private void checkNotFinished() {
+    if (this.finished) {
+      throw new IllegalStateException("The replacement is finished: " + this.slice);
+    }
+  }
+
+  /**
+   * Drops the staging table and closes the connection.
+   */
+  private void finish() {
+    this.finished = true;
+    try {
+      if (this.stagingTableName != null) {
+        this.connection.setAutoCommit(true);
+        Statement statement = this.connection.createStatement();
+        try {
+          statement.execute(buildDropStagingStatement(this.dialect, this.stagingTableName));
+        } finally {
+          statement.close();
+        }
+      }
+    } catch (SQLException e) {
+      LOGGER.warning("Error dropping the staging table: " + e.getMessage());
+    } finally {
+      try {
+        this.connection.close();
+      } catch (SQLException e) {
+        LOGGER.warning("Error closing the connection: " + e.getMessage());
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Class<Report> castReportClass(Class<? extends Report> reportClass) {
+    return (Class<Report>) reportClass;
+  }
+
+  /**
+   * Builds the statement creating the staging table, with the columns of the report table.
+   */
+  static String buildCreateStagingStatement(
+      Dialect dialect, String tableName, String stagingTableName) {
+    if (dialect == Dialect.MYSQL) {
+      return "CREATE TEMPORARY TABLE IF NOT EXISTS " + stagingTableName + " LIKE " + tableName;
+    }
+    return "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS " + stagingTableName
+        + " AS SELECT * FROM " + tableName + " WHERE 1 = 0";
+  }
+
+  private static String buildDropStagingStatement(Dialect dialect, String stagingTableName) {
+    if (dialect == Dialect.MYSQL) {
+      return "DROP TEMPORARY TABLE IF EXISTS " + stagingTableName;
+    }
+    return "DROP TABLE IF EXISTS " + stagingTableName;
+  }
+
+  /**
+   * Builds the statement deleting the stored rows of the slice.
+   *
+   * @param byDay true to delete the rows of the days of the slice, instead of the rows of its
+   *        exact date range.
+   */
+  static String buildDeleteStatement(String tableName, ReportSlice slice, boolean byDay) {
+    StringBuilder sql = new StringBuilder("DELETE FROM ").append(tableName).append(" WHERE ");
+    List<Object> values = getSliceValues(slice, byDay);
+    String[] columns = byDay ? DAY_SLICE_COLUMNS : SLICE_COLUMNS;
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        sql.append(" AND ");
+      }
+      sql.append(columns[i]).append(values.get(i) == null ? " IS NULL" : " = ?");
+    }
+    if (byDay) {
+      sql.append(" AND DAY BETWEEN ? AND ?");
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Builds the statement upserting the rows of the staging table into the report table, the id
+   * being the first column.
+   */
+  static String buildInsertStatement(
+      Dialect dialect, String tableName, String stagingTableName, List<BatchColumn> columns) {
+    StringBuilder columnNames = new StringBuilder();
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        columnNames.append(", ");
+      }
+      columnNames.append(columns.get(i).getColumnName());
+    }
+    String select = " SELECT " + columnNames + " FROM " + stagingTableName;
+    if (dialect == Dialect.H2) {
+      return "MERGE INTO " + tableName + " (" + columnNames + ") KEY ("
+          + columns.get(0).getColumnName() + ")" + select;
+    }
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (")
+        .append(columnNames).append(')').append(select).append(" ON DUPLICATE KEY UPDATE ");
+    for (int i = 1; i < columns.size(); i++) {
+      String columnName = columns.get(i).getColumnName();
+      if (i > 1) {
+        sql.append(", ");
+      }
+      sql.append(columnName).append(" = VALUES(").append(columnName).append(')');
+    }
+    return sql.toString();
+  }
+
+  private static List<Object> getSliceValues(ReportSlice slice, boolean byDay) {
+    if (byDay) {
+      return Lists.<Object>newArrayList(slice.getTopAccountId(), slice.getAccountId());
+    }
+    return Lists.<Object>newArrayList(slice.getTopAccountId(), slice.getAccountId(),
+        slice.getDateRangeType(), slice.getDateStart(), slice.getDateEnd());
+  }
+
+  /**
+   * Gets the first and last days of the slice, as the DAY column stores them.
+   *
+   * @return the days, or {@code null} if the slice does not have both dates.
+   */
+  private static Timestamp[] getDays(ReportSlice slice) {
+    DateTime dateStart = DateUtil.parseDateTime(slice.getDateStart());
+    DateTime dateEnd = DateUtil.parseDateTime(slice.getDateEnd());
+    if (dateStart == null || dateEnd == null) {
+      return null;
+    }
+    return new Timestamp[] {
+        new Timestamp(dateStart.getMillis()), new Timestamp(dateEnd.getMillis())};
+  }
+
+  private static void bindSlice(PreparedStatement statement, ReportSlice slice, Timestamp[] days)
+      throws SQLException {
+    int parameter = 1;
+    for (Object value : getSliceValues(slice, days != null)) {
+      if (value != null) {
+        statement.setObject(parameter++, value);
+      }
+    }
+    if (days != null) {
+      statement.setTimestamp(parameter++, days[0]);
+      statement.setTimestamp(parameter, days[1]);
+    }
+  }
+}
@@ -31,6 +31,18 @@ public class BigDecimalUtil {
 
   private static final DecimalFormat humanReadableFormat = new DecimalFormat("#0.00");
 
+  private static final BigDecimal MILLION = new BigDecimal(1000000);
+
+  /**
+   * The most digits that always fit in a {@code long}.
+   */
+  private static final int MAX_LONG_DIGITS = 18;
+
+  /**
+   * The significant digits of the numbers parsed from their {@code double} value.
+   */
+  private static final MathContext DOUBLE_DIGITS = new MathContext(12);
+
   /**
    * Private constructor.
    */
@@ -41,7 +53,13 @@ public class BigDecimalUtil {
    * {@code BigDecimal} format.
    *
    *  The passed number can contain white spaces of any sort, and can have the default separators
-   * such as ',' and '.'.
+   * such as ',' and '.'. The one whose first occurrence comes after the first occurrence of the
+   * other is the decimal separator, and the '%' is ignored. The number is read in one pass up to
+   * the first character that is not part of it, as the {@code NumberFormat} does, so values like
+   * "--" or "< 10%" are not recognized. The result is the exact decimal of the digits read,
+   * without the trailing zeros of the fraction, so the same number is always the same
+   * {@code BigDecimal}. Only the numbers with exponents or more than 18 significant digits go
+   * through {@link #parseWithNumberFormat}, with 12 significant digits.
    *
    * @param numberString the number in {@code String} format
    * @return the {@code BigDecimal} that was parsed from the {@code String}. If the number format is
@@ -49,43 +67,194 @@ public class BigDecimalUtil {
    */
   public static BigDecimal parseFromNumberString(String numberString) {
 
-    if (numberString != null) {
+    if (numberString == null) {
+      return null;
+    }
 
-      String nonSpacedString =
-          numberString.replaceAll("[ \\t\\n\\x0B\\f\\r]", "").replaceAll("%", "");
+    // The separator that first appears later is the decimal one, and the other one is ignored
+    char decimalSeparator = '.';
+    char groupingSeparator = ',';
+    if (numberString.indexOf(',') > numberString.indexOf('.')) {
+      decimalSeparator = ',';
+      groupingSeparator = '.';
+    }
 
-      int indexOfComma = nonSpacedString.indexOf(',');
-      int indexOfDot = nonSpacedString.indexOf('.');
-      NumberFormat format = null;
+    long unscaledValue = 0;
+    int scale = 0;
+    int digits = 0;
+    boolean negative = false;
+    boolean started = false;
+    boolean sawDecimalSeparator = false;
+    boolean sawDigit = false;
+    for (int i = 0; i < numberString.length(); i++) {
+      char c = numberString.charAt(i);
+      if (isIgnoredInNumber(c) || c == groupingSeparator) {
+        continue;
+      }
+      if (c >= '0' && c <= '9') {
+        if (digits == MAX_LONG_DIGITS) {
+          return parseWithNumberFormat(numberString);
+        }
+        if (unscaledValue != 0 || c != '0') {
+          digits++;
+        }
+        unscaledValue = unscaledValue * 10 + (c - '0');
+        if (sawDecimalSeparator) {
+          scale++;
+        }
+        sawDigit = true;
+      } else if (c == decimalSeparator && !sawDecimalSeparator) {
+        sawDecimalSeparator = true;
+      } else if (c == '-' && !started && !sawDigit && !sawDecimalSeparator) {
+        negative = true;
+      } else if (c == 'E' || c > 0x7f) {
+        // Exponents and non ASCII digits, that the number formats also know
+        return parseWithNumberFormat(numberString);
+      } else {
+        // The number formats parse up to the first character that is not part of the number
+        break;
+      }
+      started = true;
+    }
+    if (!sawDigit) {
+      return null;
+    }
+    while (scale > 0 && unscaledValue % 10 == 0) {
+      unscaledValue /= 10;
+      scale--;
+    }
+    return BigDecimal.valueOf(negative ? -unscaledValue : unscaledValue, scale);
+  }
 
-      if (indexOfComma < indexOfDot) {
-        nonSpacedString = nonSpacedString.replaceAll("[,]", "");
+  /**
+   * The white spaces and the '%' are not part of the numbers of the reports.
+   */
+  private static boolean isIgnoredInNumber(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r'
+        || c == '%';
+  }
 
+  /**
+   * Parses the number with a {@code NumberFormat}, for the numbers that {@code
+   * parseFromNumberString} does not read by itself, like the ones with exponents or too many
+   * digits. The result has 12 significant digits.
+   *
+   * @param numberString the number in {@code String} format
+   * @return the parsed number, or {@code null} if the number format is not recognized.
+   */
+  static BigDecimal parseWithNumberFormat(String numberString) {
 
-        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
-        otherSymbols.setDecimalSeparator('.');
-        format = new DecimalFormat("##.#", otherSymbols);
+    String nonSpacedString =
+        numberString.replaceAll("[ \\t\\n\\x0B\\f\\r]", "").replaceAll("%", "");
 
-      } else if (indexOfComma > indexOfDot) {
-        nonSpacedString = nonSpacedString.replaceAll("[.]", "");
+    int indexOfComma = nonSpacedString.indexOf(',');
+    int indexOfDot = nonSpacedString.indexOf('.');
+    NumberFormat format = null;
 
-        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
-        otherSymbols.setDecimalSeparator(',');
-        format = new DecimalFormat("##,#", otherSymbols);
+    if (indexOfComma < indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[,]", "");
 
-      } else {
-        format = new DecimalFormat();
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator('.');
+      format = new DecimalFormat("##.#", otherSymbols);
+
+    } else if (indexOfComma > indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[.]", "");
+
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator(',');
+      format = new DecimalFormat("##,#", otherSymbols);
+
+    } else {
+      format = new DecimalFormat();
+    }
+
+    try {
+      return new BigDecimal(format.parse(nonSpacedString).doubleValue(), DOUBLE_DIGITS);
+
+    } catch (ParseException e) {
+      // unrecognized number format
+      return null;
+    }
+  }
+
+  /**
+   * Parses a money value in micros, as the AW reports have them, to a regular decimal.
+   *
+   *  Only the digits and the '.' of the value are read, so the white spaces, the signs and any
+   * other character are ignored, and a value without digits is zero. The result is the same as
+   * dividing the {@code BigDecimal} of the read characters by a million, but the digits are
+   * accumulated in a {@code long} in one pass, without building any intermediate {@code String}.
+   *
+   * @param micros the money value in micros
+   * @return the money value, or {@code null} if the value is {@code null}
+   * @throws NumberFormatException if the value has more than one '.', or a '.' and no digits
+   */
+  public static BigDecimal parseFromMicros(CharSequence micros) {
+    if (micros == null) {
+      return null;
+    }
+
+    long unscaledValue = 0;
+    boolean anyDigit = false;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean decimalPoint = false;
+    for (int i = 0; i < micros.length(); i++) {
+      char c = micros.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (digits == MAX_LONG_DIGITS) {
+          return parseFromMicrosSlowly(micros);
+        }
+        anyDigit = true;
+        // Leading zeros do not count, so long values with zeros do not take the slow path
+        if (unscaledValue != 0 || c != '0') {
+          digits++;
+        }
+        unscaledValue = unscaledValue * 10 + (c - '0');
+        if (decimalPoint) {
+          fractionDigits++;
+        }
+      } else if (c == '.') {
+        if (decimalPoint) {
+          return parseFromMicrosSlowly(micros);
+        }
+        decimalPoint = true;
       }
+    }
+    if (decimalPoint && !anyDigit) {
+      return parseFromMicrosSlowly(micros);
+    }
 
-      try {
-        return new BigDecimal(format.parse(nonSpacedString).doubleValue(), new MathContext(12));
+    // The same scale as the exact division by a million: the smallest scale that represents the
+    // result, but not smaller than the scale of the micros
+    int scale = fractionDigits + 6;
+    if (unscaledValue == 0) {
+      scale = fractionDigits;
+    }
+    while (scale > fractionDigits && unscaledValue % 10 == 0) {
+      unscaledValue /= 10;
+      scale--;
+    }
+    return BigDecimal.valueOf(unscaledValue, scale);
+  }
 
-      } catch (ParseException e) {
-        // unrecognized number format
-        return null;
+  /**
+   * Parses the micros with a {@code BigDecimal}, for the values that do not fit in a {@code long},
+   * and the malformed ones.
+   */
+  private static BigDecimal parseFromMicrosSlowly(CharSequence micros) {
+    StringBuilder cleaned = new StringBuilder(micros.length());
+    for (int i = 0; i < micros.length(); i++) {
+      char c = micros.charAt(i);
+      if ((c >= '0' && c <= '9') || c == '.') {
+        cleaned.append(c);
       }
     }
-    return null;
+    if (cleaned.length() == 0) {
+      return BigDecimal.ZERO;
+    }
+    return new BigDecimal(cleaned.toString()).divide(MILLION);
   }
 
   /**
@@ -50,7 +50,7 @@ public class CsvParserIterator<T> extends AbstractIterator<T> {
   protected T computeNext() {
 
     try {
-      String[] line = this.csv.readNext();
+      String[] line = this.csvToBean.readLine(this.mapper, this.csv);
       if (line != null) {
         return this.csvToBean.processLine(this.mapper, line);
       } else {
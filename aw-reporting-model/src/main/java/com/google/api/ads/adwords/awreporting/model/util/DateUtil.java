@@ -23,6 +23,8 @@ import org.joda.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for Dates.
@@ -57,6 +59,37 @@ public final class DateUtil {
     formatters.add(dfYearMonthDayNoDash);
   }
 
+  /**
+   * The maximum number of values kept by each of the caches. A report has only a handful of
+   * distinct dates, so a full cache is simply cleared.
+   */
+  private static final int MAX_CACHED_DATES = 1024;
+
+  private static final Object NOT_A_DATE = new Object();
+
+  private static final Map<String, Object> parsedDateTimes =
+      new ConcurrentHashMap<String, Object>();
+
+  private static final Map<Long, FormattedDate> formattedYearMonthDays =
+      new ConcurrentHashMap<Long, FormattedDate>();
+
+  private static final Map<Long, FormattedDate> formattedYearMonths =
+      new ConcurrentHashMap<Long, FormattedDate>();
+
+  /**
+   * A formatted date, with the time zone it was formatted in.
+   */
+  private static final class FormattedDate {
+
+    private final DateTimeZone zone;
+    private final String formatted;
+
+    private FormattedDate(DateTimeZone zone, String formatted) {
+      this.zone = zone;
+      this.formatted = formatted;
+    }
+  }
+
   /**
    * Private constructor.
    */
@@ -89,7 +122,7 @@ public final class DateUtil {
    * @return the {@code String} that represents the date in ISO format
    */
   public static String formatYearMonthDay(Date date) {
-    return DateUtil.formatYearMonthDay(new DateTime(date));
+    return DateUtil.format(date, DateUtil.dfYearMonthDay, DateUtil.formattedYearMonthDays);
   }
 
   /**
@@ -109,7 +142,7 @@ public final class DateUtil {
    * @return the {@code String} that represents the date in ISO format
    */
   public static String formatYearMonth(Date date) {
-    return DateUtil.formatYearMonth(new DateTime(date));
+    return DateUtil.format(date, DateUtil.dfYearMonth, DateUtil.formattedYearMonths);
   }
 
   /**
@@ -146,8 +179,10 @@ public final class DateUtil {
    * Attempts to parse the given {@code String} to a {@code DateTime} using one of the known
    * formatters.
    *
-   * The attempt falls back to all the formatters, and if the format is unknown, {@code null} is
-   * returned.
+   * The formatter is chosen by the length and the dashes of the {@code String}, and the attempt
+   * only falls back to all the formatters when the shape is not one of the known formats. If the
+   * format is unknown, {@code null} is returned. The results are cached, as the reports have the
+   * same few dates on all their rows.
    *
    * @param timestamp the time stamp in {@code String} format.
    * @return the parsed {@code DateTime}, or {@code null} in case that the format is unknown.
@@ -156,19 +191,99 @@ public final class DateUtil {
 
     if (timestamp != null) {
 
-      for (DateTimeFormatter formatter : DateUtil.formatters) {
-        try {
-          LocalDateTime localDateTime = formatter.parseLocalDateTime(timestamp);
-          return localDateTime.plusHours(12).toDateTime(DateTimeZone.UTC);
+      Object parsed = DateUtil.parsedDateTimes.get(timestamp);
+      if (parsed == null) {
+        DateTime dateTime = DateUtil.parseDateTimeUncached(timestamp);
+        parsed = dateTime != null ? dateTime : DateUtil.NOT_A_DATE;
+        DateUtil.putBounded(DateUtil.parsedDateTimes, timestamp, parsed);
+      }
+      if (parsed != DateUtil.NOT_A_DATE) {
+        return (DateTime) parsed;
+      }
+    }
+    return null;
+  }
+
+  private static DateTime parseDateTimeUncached(String timestamp) {
 
-        } catch (IllegalArgumentException e) {
-          // silently skips to the next formatter
-        }
+    DateTimeFormatter formatter = DateUtil.formatterForShape(timestamp);
+    if (formatter != null) {
+      try {
+        return DateUtil.parse(formatter, timestamp);
+      } catch (IllegalArgumentException e) {
+        // none of the other formatters can parse this shape
+        return null;
+      }
+    }
+
+    for (DateTimeFormatter fallbackFormatter : DateUtil.formatters) {
+      try {
+        return DateUtil.parse(fallbackFormatter, timestamp);
+
+      } catch (IllegalArgumentException e) {
+        // silently skips to the next formatter
       }
     }
     return null;
   }
 
+  private static DateTime parse(DateTimeFormatter formatter, String timestamp) {
+    LocalDateTime localDateTime = formatter.parseLocalDateTime(timestamp);
+    return localDateTime.plusHours(12).toDateTime(DateTimeZone.UTC);
+  }
+
+  /**
+   * Finds the formatter of the usual shapes of the dates: yyyy-MM-dd, yyyy-MM and yyyyMMdd.
+   *
+   * @return the formatter for the shape, or {@code null} if the shape is not one of them.
+   */
+  private static DateTimeFormatter formatterForShape(String timestamp) {
+    switch (timestamp.length()) {
+      case 10:
+        return DateUtil.isDigitsAndDashes(timestamp, 4, 7) ? DateUtil.dfYearMonthDay : null;
+      case 7:
+        return DateUtil.isDigitsAndDashes(timestamp, 4, -1) ? DateUtil.dfYearMonth : null;
+      case 8:
+        return DateUtil.isDigitsAndDashes(timestamp, -1, -1) ? DateUtil.dfYearMonthDayNoDash : null;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isDigitsAndDashes(String timestamp, int firstDash, int secondDash) {
+    for (int i = 0; i < timestamp.length(); i++) {
+      char c = timestamp.charAt(i);
+      if (i == firstDash || i == secondDash ? c != '-' : c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Formats the date in the default time zone, reusing the {@code String} of a previous call for
+   * the same instant.
+   */
+  private static String format(Date date, DateTimeFormatter formatter,
+      Map<Long, FormattedDate> formattedDates) {
+
+    DateTimeZone zone = DateTimeZone.getDefault();
+    Long instant = date.getTime();
+    FormattedDate formattedDate = formattedDates.get(instant);
+    if (formattedDate == null || !formattedDate.zone.equals(zone)) {
+      formattedDate = new FormattedDate(zone, formatter.print(new DateTime(date, zone)));
+      DateUtil.putBounded(formattedDates, instant, formattedDate);
+    }
+    return formattedDate.formatted;
+  }
+
+  private static <K, V> void putBounded(Map<K, V> cache, K key, V value) {
+    if (cache.size() >= DateUtil.MAX_CACHED_DATES) {
+      cache.clear();
+    }
+    cache.put(key, value);
+  }
+
   /**
    * Create a {@code DateTime} that represents the last month, and formats it to the yyyy-MM format.
    *
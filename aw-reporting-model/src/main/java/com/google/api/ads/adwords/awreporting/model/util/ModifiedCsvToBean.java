@@ -15,6 +15,7 @@
 package com.google.api.ads.adwords.awreporting.model.util;
 
 import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
+import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
 
 import au.com.bytecode.opencsv.CSVReader;
 import au.com.bytecode.opencsv.bean.CsvToBean;
@@ -22,9 +23,9 @@ import au.com.bytecode.opencsv.bean.MappingStrategy;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -66,7 +67,7 @@ public class ModifiedCsvToBean<T> extends CsvToBean<T> implements Serializable{
       mapper.captureHeader(csv);
       String[] line;
       List<T> list = new ArrayList<T>();
-      while (null != (line = csv.readNext())) {
+      while (null != (line = this.readLine(mapper, csv))) {
         try {
           T obj = processLine(mapper, line);
           if (obj != null) {
@@ -83,15 +84,38 @@ public class ModifiedCsvToBean<T> extends CsvToBean<T> implements Serializable{
     }
   }
 
+  /**
+   * Reads the next line of the CSV file. With an {@code AwReportCsvReader} and an
+   * {@code AnnotationBasedMappingStrategy} only the columns mapped to the bean are read, and the
+   * returned array is reused by the next line. The values of the interned columns are the
+   * canonical instances of the dictionary of the run.
+   *
+   * @param mapper the mapping strategy for the file
+   * @param csv the CSV file reader
+   * @return the values of the line, or {@code null} at the end of the file
+   * @throws IOException error reading the file
+   */
+  protected String[] readLine(MappingStrategy<T> mapper, CSVReader csv) throws IOException {
+    if (csv instanceof AwReportCsvReader && mapper instanceof AnnotationBasedMappingStrategy) {
+      AnnotationBasedMappingStrategy<?> strategy = (AnnotationBasedMappingStrategy<?>) mapper;
+      return ((AwReportCsvReader) csv).readNext(
+          strategy.getMappedColumns(), strategy.getColumnDictionaries());
+    }
+    return csv.readNext();
+  }
+
   /**
    * @see au.com.bytecode.opencsv.bean.CsvToBean
    *      #processLine(au.com.bytecode.opencsv.bean.MappingStrategy, java.lang.String[])
    */
-  @SuppressWarnings("rawtypes")
   @Override
   protected T processLine(MappingStrategy<T> mapper, String[] line) throws IllegalAccessException,
       InvocationTargetException, InstantiationException, IntrospectionException {
 
+    if (mapper instanceof AnnotationBasedMappingStrategy) {
+      return this.processLineWithSetters((AnnotationBasedMappingStrategy<?>) mapper, line);
+    }
+
     T bean = mapper.createBean();
     int col;
     for (col = 0; col < line.length; col++) {
@@ -103,19 +127,6 @@ public class ModifiedCsvToBean<T> extends CsvToBean<T> implements Serializable{
             value = value.replaceAll("-", "");
           }
           Object obj = this.convertValue(value, prop);
-
-          // Convert Money values to regular Decimals by dividing by a Million
-          if (mapper instanceof AnnotationBasedMappingStrategy && 
-              ((AnnotationBasedMappingStrategy) mapper).isMoneyField(prop.getName())) {
-
-            String cleanedString = ((String) obj).replaceAll("[^\\d.]", "");
-            if (cleanedString == null || cleanedString.length() == 0) {
-              cleanedString = "0";
-            }
-            BigDecimal bigDecimal = new BigDecimal(cleanedString);
-            obj = bigDecimal.divide(new BigDecimal(1000000));
-          }
-
           prop.getWriteMethod().invoke(bean, obj);
 
         }
@@ -128,6 +139,39 @@ public class ModifiedCsvToBean<T> extends CsvToBean<T> implements Serializable{
     return bean;
   }
 
+  /**
+   * Processes the line with the binder generated for the report entity, or with the setters
+   * resolved by the mapping strategy when the header was captured if there is no binder, so each
+   * cell is only converted and set into the bean.
+   *
+   * @param mapper the mapping strategy for the file
+   * @param line the values of the line
+   * @return the bean with the values of the line
+   */
+  @SuppressWarnings("unchecked")
+  private T processLineWithSetters(AnnotationBasedMappingStrategy<?> mapper, String[] line)
+      throws IllegalAccessException, InstantiationException, IntrospectionException {
+
+    if (mapper.hasRowBinder()) {
+      return (T) mapper.bindRow(line);
+    }
+
+    T bean = (T) mapper.createBean();
+    for (int col = 0; col < line.length; col++) {
+      AnnotationBasedMappingStrategy.ColumnSetter setter = mapper.getColumnSetter(col);
+      if (null != setter) {
+        try {
+          setter.set(bean, line[col]);
+        } catch (Exception e) {
+          System.err.println("Error Parsing column # " + col + " with contents: " + line[col]);
+          System.err.println("Error Parsing PropertyDescriptor: " + setter);
+          throw new RuntimeException(e);
+        }
+      }
+    }
+    return bean;
+  }
+
   /**
    * Trims the property if it is of type String
    *
@@ -0,0 +1,140 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Builds the row ids of the report entities.
+ *
+ *  The ids are the values that make a row unique joined by {@code '-'}. Each thread reuses one
+ * builder, so an id is built in a single buffer and only turned into a {@code String} once,
+ * instead of creating a new {@code String} for every part added.
+ *
+ *  A builder is only valid until the next call to {@link #start()} in the same thread.
+ *
+ * @author agent@google.com (Agent)
+ */
+public final class RowIdBuilder {
+
+  /**
+   * The separator of the parts of the ids.
+   */
+  public static final char SEPARATOR = '-';
+
+  /**
+   * The length of the hashed ids.
+   */
+  public static final int HASHED_ID_LENGTH = 32;
+
+  private static final HashFunction ID_HASH_FUNCTION = Hashing.murmur3_128();
+
+  private static final ThreadLocal<RowIdBuilder> BUILDERS = new ThreadLocal<RowIdBuilder>() {
+    @Override
+    protected RowIdBuilder initialValue() {
+      return new RowIdBuilder();
+    }
+  };
+
+  private final StringBuilder buffer = new StringBuilder(128);
+
+  private RowIdBuilder() {}
+
+  /**
+   * Starts a new id, with the builder of the current thread.
+   *
+   * @return the empty builder.
+   */
+  public static RowIdBuilder start() {
+    RowIdBuilder builder = BUILDERS.get();
+    builder.buffer.setLength(0);
+    return builder;
+  }
+
+  /**
+   * Appends a value as it is, {@code "null"} for a {@code null} value.
+   */
+  public RowIdBuilder append(Object value) {
+    if (value instanceof Long) {
+      this.buffer.append(((Long) value).longValue());
+    } else {
+      this.buffer.append(value);
+    }
+    return this;
+  }
+
+  /**
+   * Appends a character as it is.
+   */
+  public RowIdBuilder append(char value) {
+    this.buffer.append(value);
+    return this;
+  }
+
+  /**
+   * Appends the separator and a value, {@code "null"} for a {@code null} value.
+   */
+  public RowIdBuilder appendPart(Object value) {
+    this.buffer.append(SEPARATOR);
+    return this.append(value);
+  }
+
+  /**
+   * Appends the separator and a value, only if the value is not {@code null}.
+   */
+  public RowIdBuilder appendPartIfNotNull(Object value) {
+    if (value != null) {
+      this.appendPart(value);
+    }
+    return this;
+  }
+
+  /**
+   * Appends the separator and a value, only if the value is not {@code null} nor empty.
+   */
+  public RowIdBuilder appendPartIfNotEmpty(String value) {
+    if (value != null && value.length() > 0) {
+      this.appendPart(value);
+    }
+    return this;
+  }
+
+  /**
+   * Appends the SHA-1 hash of a URL, as created by {@link UrlHashUtil#createUrlHash(String)}.
+   */
+  public RowIdBuilder appendUrlHash(String url) {
+    UrlHashUtil.appendUrlHash(this.buffer, url);
+    return this;
+  }
+
+  /**
+   * @return the id built.
+   */
+  public String build() {
+    return this.buffer.toString();
+  }
+
+  /**
+   * Hashes an id into a fixed width id of {@link #HASHED_ID_LENGTH} hexadecimal characters, the
+   * 128 bits of its murmur3 hash. The same id always gets the same hash.
+   *
+   * @param id the id to hash.
+   * @return the hashed id.
+   */
+  public static String hash(CharSequence id) {
+    return ID_HASH_FUNCTION.hashUnencodedChars(id).toString();
+  }
+}
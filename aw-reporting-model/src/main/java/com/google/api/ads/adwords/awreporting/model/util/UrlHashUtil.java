@@ -14,39 +14,58 @@
 
 package com.google.api.ads.adwords.awreporting.model.util;
 
-import org.apache.commons.codec.binary.Hex;
+import com.google.common.base.Charsets;
 
-import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
  * Util class for creating a Sha1 for URLs
  *
+ *  Each thread keeps its own {@code MessageDigest}, as getting one from the security providers is
+ * far slower than hashing a URL.
+ *
  * @author jtoledo@google.com (Julian Toledo)
  */
 public class UrlHashUtil {
 
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final ThreadLocal<MessageDigest> SHA1_DIGESTS = new ThreadLocal<MessageDigest>() {
+    @Override
+    protected MessageDigest initialValue() {
+      try {
+        return MessageDigest.getInstance("SHA-1");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-1 is not available", e);
+      }
+    }
+  };
+
   /**
    * Creates a SHA-1 Hash of the url
    * 
    * @param url the url that needs to be hashed
-   * @return a Stri g with a SHA-1 hash of the URL
+   * @return a String with a SHA-1 hash of the URL
    */
   public static String createUrlHash(String url) {
-    String hash = null;
-    MessageDigest messageDigest;
-    try {
-      messageDigest = MessageDigest.getInstance("SHA-1");
-      messageDigest.reset();
-      messageDigest.update(url.getBytes("UTF-8"));
-      final byte[] resultByte = messageDigest.digest();
-      hash = new String(Hex.encodeHex(resultByte));
-    } catch (NoSuchAlgorithmException e) {
-      e.printStackTrace();
-    } catch (UnsupportedEncodingException e) {
-      e.printStackTrace();
+    StringBuilder hash = new StringBuilder(40);
+    appendUrlHash(hash, url);
+    return hash.toString();
+  }
+
+  /**
+   * Appends the SHA-1 Hash of the url, in lower case hexadecimal, to a buffer.
+   *
+   * @param buffer the buffer to append the hash to
+   * @param url the url that needs to be hashed
+   */
+  public static void appendUrlHash(StringBuilder buffer, String url) {
+    MessageDigest messageDigest = SHA1_DIGESTS.get();
+    messageDigest.reset();
+    byte[] resultByte = messageDigest.digest(url.getBytes(Charsets.UTF_8));
+    for (byte b : resultByte) {
+      buffer.append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
     }
-    return hash;
   }
 }
@@ -0,0 +1,93 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.benchmark;
+
+import java.util.Locale;
+
+/**
+ * Minimal harness for the micro benchmarks of the model.
+ *
+ *  Each benchmark is warmed up before it is measured, and the results of the operations are kept
+ * in a sink so the JIT can not drop them. The benchmarks are run from their {@code main} method,
+ * they are not part of the tests:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.api.ads.adwords.awreporting.model.benchmark.MoneyParsingBenchmark
+ * </pre>
+ *
+ * @author agent@google.com (Agent)
+ */
+public final class MicroBenchmark {
+
+  private static final int WARM_UP_ROUNDS = 5;
+
+  private static final int MEASURED_ROUNDS = 10;
+
+  private static volatile Object sink;
+
+  /**
+   * An operation to measure.
+   */
+  public interface Operation {
+
+    /**
+     * Runs the operation once over the given input.
+     *
+     * @param index the index of the run, to pick the input.
+     * @return the result of the operation.
+     */
+    Object run(int index) throws Exception;
+  }
+
+  private MicroBenchmark() {}
+
+  /**
+   * Measures an operation and prints the average time of each run.
+   *
+   * @param name the name of the operation.
+   * @param runsPerRound the runs of the operation in each round.
+   * @param operation the operation.
+   * @return the average nanoseconds of each run.
+   * @throws Exception error running the operation.
+   */
+  public static double measure(String name, int runsPerRound, Operation operation)
+      throws Exception {
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      runRound(runsPerRound, operation);
+    }
+    long bestNanos = Long.MAX_VALUE;
+    long totalNanos = 0;
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      long nanos = runRound(runsPerRound, operation);
+      bestNanos = Math.min(bestNanos, nanos);
+      totalNanos += nanos;
+    }
+    double average = (double) totalNanos / MEASURED_ROUNDS / runsPerRound;
+    System.out.println(String.format(Locale.US, "%-50s %10.1f ns/op (best %10.1f ns/op)", name,
+        average, (double) bestNanos / runsPerRound));
+    return average;
+  }
+
+  private static long runRound(int runsPerRound, Operation operation) throws Exception {
+    long start = System.nanoTime();
+    Object last = null;
+    for (int i = 0; i < runsPerRound; i++) {
+      last = operation.run(i);
+    }
+    long nanos = System.nanoTime() - start;
+    sink = last;
+    return nanos;
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.benchmark;
+
+import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Compares the parsing of the money values in micros by {@link BigDecimalUtil#parseFromMicros}
+ * with the regular expression and {@code BigDecimal} division it replaced.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class MoneyParsingBenchmark {
+
+  private static final int VALUES = 1024;
+
+  private static final BigDecimal MILLION = new BigDecimal(1000000);
+
+  public static void main(String[] args) throws Exception {
+
+    // Costs, CPCs and CPMs as they come in the reports
+    final String[] values = new String[VALUES];
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = i % 10 == 0 ? "0" : String.valueOf(random.nextInt(100000) * 10000L);
+    }
+
+    MicroBenchmark.measure("regex + BigDecimal.divide", 1000000, new MicroBenchmark.Operation() {
+      @Override
+      public Object run(int index) {
+        String value = values[index & (VALUES - 1)].trim().replaceAll("-", "");
+        String cleanedString = value.replaceAll("[^\\d.]", "");
+        if (cleanedString.length() == 0) {
+          cleanedString = "0";
+        }
+        return new BigDecimal(cleanedString).divide(MILLION);
+      }
+    });
+
+    MicroBenchmark.measure("BigDecimalUtil.parseFromMicros", 1000000,
+        new MicroBenchmark.Operation() {
+          @Override
+          public Object run(int index) {
+            return BigDecimalUtil.parseFromMicros(values[index & (VALUES - 1)]);
+          }
+        });
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.benchmark;
+
+import com.google.api.ads.adwords.awreporting.model.util.BigDecimalUtil;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Random;
+
+/**
+ * Compares the parsing of the numbers of the reports by
+ * {@link BigDecimalUtil#parseFromNumberString} with the regular expressions and {@code DecimalFormat} parsing it replaced.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class NumberParsingBenchmark {
+
+  private static final int VALUES = 1024;
+
+  public static void main(String[] args) throws Exception {
+
+    // Impressions, CTRs, positions and quality scores as they come in the reports
+    final String[] values = new String[VALUES];
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      switch (i % 5) {
+        case 0:
+          values[i] = String.format("%,d", random.nextInt(10000000));
+          break;
+        case 1:
+          values[i] = String.format("%d.%02d%%", random.nextInt(100), random.nextInt(100));
+          break;
+        case 2:
+          values[i] = String.format("%d.%d", 1 + random.nextInt(10), random.nextInt(10));
+          break;
+        case 3:
+          values[i] = String.valueOf(random.nextInt(11));
+          break;
+        default:
+          values[i] = i % 2 == 0 ? "--" : "< 10%";
+      }
+    }
+
+    MicroBenchmark.measure("regex + DecimalFormat", 100000, new MicroBenchmark.Operation() {
+      @Override
+      public Object run(int index) {
+        return parseWithDecimalFormat(values[index & (VALUES - 1)]);
+      }
+    });
+
+    MicroBenchmark.measure("BigDecimalUtil.parseFromNumberString", 1000000,
+        new MicroBenchmark.Operation() {
+          @Override
+          public Object run(int index) {
+            return BigDecimalUtil.parseFromNumberString(values[index & (VALUES - 1)]);
+          }
+        });
+  }
+
+  private static BigDecimal parseWithDecimalFormat(String numberString) {
+    String nonSpacedString =
+        numberString.replaceAll("[ \\t\\n\\x0B\\f\\r]", "").replaceAll("%", "");
+    int indexOfComma = nonSpacedString.indexOf(',');
+    int indexOfDot = nonSpacedString.indexOf('.');
+    NumberFormat format = null;
+    if (indexOfComma < indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[,]", "");
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator('.');
+      format = new DecimalFormat("##.#", otherSymbols);
+    } else if (indexOfComma > indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[.]", "");
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator(',');
+      format = new DecimalFormat("##,#", otherSymbols);
+    } else {
+      format = new DecimalFormat();
+    }
+    try {
+      return new BigDecimal(format.parse(nonSpacedString).doubleValue(), new MathContext(12));
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+}
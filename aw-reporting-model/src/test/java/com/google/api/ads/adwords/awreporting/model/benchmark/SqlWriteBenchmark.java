@@ -0,0 +1,172 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.benchmark;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.MySqlBulkLoader;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.SqlReportBatchWriter;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.SqlReportBatchWriter.Dialect;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Compares the ways of writing the rows of a keywords report into MySQL: one upsert statement per
+ * row, the multi-row upserts of {@link SqlReportBatchWriter}, and the bulk load of
+ * {@link MySqlBulkLoader}.
+ *
+ *  The benchmark needs a MySQL data base with the {@code AW_ReportKeyword} table, as created by
+ * any run of AwReporting, and writes rows of the account 0 into it. The arguments are the JDBC URL,
+ * the user and the password:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.api.ads.adwords.awreporting.model.benchmark.SqlWriteBenchmark \
+ *     -Dexec.args="jdbc:mysql://localhost:3306/AWReports user password"
+ * </pre>
+ *
+ * @author agent@google.com (Agent)
+ */
+public class SqlWriteBenchmark {
+
+  private static final int ROWS = 20000;
+
+  private static final int ROWS_SET_SIZE = 1000;
+
+  private static final int MEASURED_RUNS = 3;
+
+  private interface Writer {
+    void write(Connection connection, RowBatch<ReportKeyword> batch) throws SQLException;
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    String url = args.length > 0 ? args[0] : "jdbc:mysql://localhost:3306/AWReports";
+    String user = args.length > 1 ? args[1] : "user";
+    String password = args.length > 2 ? args[2] : "";
+
+    final SqlReportBatchWriter batchWriter = new SqlReportBatchWriter(500);
+    final MySqlBulkLoader bulkLoader = new MySqlBulkLoader();
+    final RowBatch<ReportKeyword> singleRow = new RowBatch<ReportKeyword>(ReportKeyword.class, 1);
+
+    Connection connection = DriverManager.getConnection(url, user, password);
+    try {
+      connection.setAutoCommit(false);
+
+      measure("one upsert per row", connection, new Writer() {
+        @Override
+        public void write(Connection connection, RowBatch<ReportKeyword> batch)
+            throws SQLException {
+          for (ReportKeyword report : batch.toReports()) {
+            singleRow.clear();
+            singleRow.add(report);
+            batchWriter.write(connection, Dialect.MYSQL, singleRow);
+          }
+        }
+      });
+
+      measure("SqlReportBatchWriter, 500 rows per upsert", connection, new Writer() {
+        @Override
+        public void write(Connection connection, RowBatch<ReportKeyword> batch)
+            throws SQLException {
+          batchWriter.write(connection, Dialect.MYSQL, batch);
+        }
+      });
+
+      measure("MySqlBulkLoader", connection, new Writer() {
+        @Override
+        public void write(Connection connection, RowBatch<ReportKeyword> batch)
+            throws SQLException {
+          bulkLoader.load(connection, batch);
+        }
+      });
+
+      connection.createStatement().executeUpdate(
+          "DELETE FROM AW_ReportKeyword WHERE ACCOUNT_ID = 0");
+      connection.commit();
+    } finally {
+      connection.close();
+    }
+  }
+
+  /**
+   * Writes the rows once to warm up, then measures the runs that insert them again, and the runs
+   * that update them.
+   */
+  private static void measure(String name, Connection connection, Writer writer)
+      throws SQLException {
+    connection.createStatement().executeUpdate(
+        "DELETE FROM AW_ReportKeyword WHERE ACCOUNT_ID = 0");
+    connection.commit();
+    writeRows(connection, writer, 0);
+
+    long insertNanos = 0;
+    long updateNanos = 0;
+    for (int run = 1; run <= MEASURED_RUNS; run++) {
+      connection.createStatement().executeUpdate(
+          "DELETE FROM AW_ReportKeyword WHERE ACCOUNT_ID = 0");
+      connection.commit();
+      insertNanos += writeRows(connection, writer, run);
+      updateNanos += writeRows(connection, writer, run + 1);
+    }
+    System.out.println(String.format(Locale.US, "%-45s insert %8.0f rows/s, update %8.0f rows/s",
+        name, rowsPerSecond(insertNanos), rowsPerSecond(updateNanos)));
+  }
+
+  private static double rowsPerSecond(long nanos) {
+    return (double) ROWS * MEASURED_RUNS / nanos * 1e9;
+  }
+
+  /**
+   * Writes the rows in sets of rows, committing each set as the persisters do.
+   *
+   * @return the nanoseconds of the writes.
+   */
+  private static long writeRows(Connection connection, Writer writer, int run)
+      throws SQLException {
+    RowBatch<ReportKeyword> batch = new RowBatch<ReportKeyword>(ReportKeyword.class, ROWS_SET_SIZE);
+    long nanos = 0;
+    for (int i = 0; i < ROWS; i++) {
+      batch.add(newReport(i, run));
+      if (batch.isFull() || i == ROWS - 1) {
+        long start = System.nanoTime();
+        writer.write(connection, batch);
+        connection.commit();
+        nanos += System.nanoTime() - start;
+        batch.clear();
+      }
+    }
+    return nanos;
+  }
+
+  private static ReportKeyword newReport(int index, int run) {
+    ReportKeyword report = new ReportKeyword(0L, 0L);
+    report.setCampaignId((long) index / 1000);
+    report.setAdGroupId((long) index / 50);
+    report.setKeywordId((long) index);
+    report.setKeywordText("keyword " + index);
+    report.setKeywordMatchType(index % 3 == 0 ? "Exact" : "Broad");
+    report.setDay("2015-02-01");
+    report.setAdNetwork("Search Network");
+    report.setImpressions(100L + run);
+    report.setClicks(10L + run);
+    report.setCost(BigDecimal.valueOf(index % 1000 * 10000L + run, 6));
+    report.setId();
+    return report;
+  }
+}
@@ -24,9 +24,11 @@ import org.junit.Test;
 import au.com.bytecode.opencsv.CSVReader;
 import junit.framework.Assert;
 
+import java.beans.PropertyDescriptor;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.util.Iterator;
 import java.util.List;
@@ -181,4 +183,35 @@ public class AnnotationBasedMappingStrategyTest {
 
   }
 
+  /**
+   * Tests that the column setters are resolved once from the header and convert the values.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testColumnSetters() throws Exception {
+
+    CSVReader csvReader = new AwReportCsvReader(
+        new StringReader("Cost,Clicks,CTR,Unknown\n"), ',', '\"', 0);
+
+    AnnotationBasedMappingStrategy<ReportAd> mappingStrategy =
+        new AnnotationBasedMappingStrategy<ReportAd>(ReportAd.class);
+    mappingStrategy.captureHeader(csvReader);
+
+    PropertyDescriptor costDescriptor = mappingStrategy.findDescriptor(0);
+    Assert.assertEquals("cost", costDescriptor.getName());
+    Assert.assertSame(costDescriptor, mappingStrategy.findDescriptor(0));
+    Assert.assertTrue(mappingStrategy.getColumnSetter(0).isMoney());
+    Assert.assertFalse(mappingStrategy.getColumnSetter(1).isMoney());
+    Assert.assertNull(mappingStrategy.getColumnSetter(3));
+    Assert.assertNull(mappingStrategy.getColumnSetter(4));
+
+    ReportAd reportAd = mappingStrategy.createBean();
+    mappingStrategy.getColumnSetter(0).set(reportAd, "9390000");
+    mappingStrategy.getColumnSetter(1).set(reportAd, " 32 ");
+    mappingStrategy.getColumnSetter(2).set(reportAd, "2.54%");
+    Assert.assertEquals(9.39, reportAd.getCost().doubleValue());
+    Assert.assertEquals(32L, reportAd.getClicks().longValue());
+    Assert.assertEquals("2.54", reportAd.getCtr());
+  }
 }
@@ -0,0 +1,140 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import au.com.bytecode.opencsv.CSVReader;
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * Test case for the {@link AwReportCsvTokenizer} and its use by the {@link AwReportCsvReader}.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class AwReportCsvTokenizerTest {
+
+  /**
+   * Tests the quoting, the empty cells and the line breaks.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testNextRow() throws IOException {
+
+    AwReportCsvTokenizer tokenizer = new AwReportCsvTokenizer(new StringReader(
+        "Report title\n"
+        + "a,\"b,c\",,\"d \"\"e\"\"\"\r\n"
+        + "\"multi\nline\",f\"g\n"
+        + "\n"
+        + "last"), ',', '"', 1);
+
+    Assert.assertTrue(tokenizer.nextRow());
+    Assert.assertEquals(4, tokenizer.getCellCount());
+    Assert.assertEquals("a", tokenizer.getString(0));
+    Assert.assertEquals("b,c", tokenizer.getString(1));
+    Assert.assertEquals("", tokenizer.getString(2));
+    Assert.assertEquals("d \"e\"", tokenizer.getCell(3).toString());
+
+    Assert.assertTrue(tokenizer.nextRow());
+    Assert.assertEquals(2, tokenizer.getCellCount());
+    Assert.assertEquals("multi\nline", tokenizer.getString(0));
+    Assert.assertEquals("f\"g", tokenizer.getString(1));
+
+    Assert.assertTrue(tokenizer.nextRow());
+    Assert.assertEquals(1, tokenizer.getCellCount());
+    Assert.assertEquals(0, tokenizer.getCell(0).length());
+
+    Assert.assertTrue(tokenizer.nextRow());
+    Assert.assertEquals("last", tokenizer.getString(0));
+    Assert.assertFalse(tokenizer.nextRow());
+  }
+
+  /**
+   * Tests the case insensitive comparison of the cells.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testCellEqualsIgnoreCase() throws IOException {
+
+    AwReportCsvTokenizer tokenizer =
+        new AwReportCsvTokenizer(new StringReader("ToTaL,Totals"), ',', '"', 0);
+
+    Assert.assertTrue(tokenizer.nextRow());
+    Assert.assertTrue(tokenizer.cellEqualsIgnoreCase(0, "total"));
+    Assert.assertFalse(tokenizer.cellEqualsIgnoreCase(1, "total"));
+  }
+
+  /**
+   * Tests that the reader stops at the total line, and only reads the asked columns.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testReadNext() throws IOException {
+
+    AwReportCsvReader csvReader = new AwReportCsvReader(new StringReader(
+        "Report title\nDay,Cost,Clicks\n2013-05-01,10,1\n2013-05-02,20,2\nTotal,30,3\n"),
+        ',', '"', 1);
+
+    Assert.assertTrue(Arrays.equals(
+        new String[] {"Day", "Cost", "Clicks"}, csvReader.readNext()));
+    Assert.assertTrue(Arrays.equals(new String[] {"2013-05-01", null, "1"},
+        csvReader.readNext(new boolean[] {true, false, true})));
+    Assert.assertTrue(Arrays.equals(new String[] {"2013-05-02", "20", null},
+        csvReader.readNext(new boolean[] {true, true})));
+    Assert.assertNull(csvReader.readNext());
+    csvReader.close();
+  }
+
+  /**
+   * Tests that the report files are read as with the {@code CSVParser}.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testReadNext_sameAsCsvParser() throws IOException {
+
+    File[] files = new File("src/test/resources/csv").listFiles();
+    Assert.assertTrue(files.length > 0);
+    for (File file : files) {
+      CSVReader expectedReader = new CSVReader(
+          new InputStreamReader(new FileInputStream(file), "UTF-8"), ',', '\"', 1);
+      AwReportCsvReader csvReader = new AwReportCsvReader(
+          new InputStreamReader(new FileInputStream(file), "UTF-8"), ',', '\"', 1);
+      try {
+        String[] expected = expectedReader.readNext();
+        String[] actual = csvReader.readNext();
+        while (expected != null && !expected[0].toLowerCase().equals("total")) {
+          Assert.assertEquals(file.getName(), Arrays.asList(expected), Arrays.asList(actual));
+          expected = expectedReader.readNext();
+          actual = csvReader.readNext();
+        }
+        Assert.assertNull(file.getName(), actual);
+      } finally {
+        expectedReader.close();
+        csvReader.close();
+      }
+    }
+  }
+}
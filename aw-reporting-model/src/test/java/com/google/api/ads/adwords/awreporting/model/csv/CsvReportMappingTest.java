@@ -0,0 +1,95 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAd;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
+
+import au.com.bytecode.opencsv.CSVReader;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+/**
+ * Test case for the {@link CsvReportMapping} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class CsvReportMappingTest {
+
+  /**
+   * Tests that the mapping of a class is shared, and maps the annotated fields.
+   */
+  @Test
+  public void testForClass() throws Exception {
+
+    CsvReportMapping<ReportAd> mapping = CsvReportMapping.forClass(ReportAd.class);
+    Assert.assertSame(mapping, CsvReportMapping.forClass(ReportAd.class));
+    Assert.assertNotSame(mapping, CsvReportMapping.forClass(ReportKeyword.class));
+
+    Assert.assertEquals(ReportAd.class, mapping.getReportEntityClass());
+    Assert.assertEquals("cost", mapping.getFieldsByCsvName().get("Cost"));
+    Assert.assertEquals("accountId", mapping.getFieldsByCsvName().get("Customer ID"));
+    Assert.assertTrue(mapping.isMoneyField("cost"));
+    Assert.assertFalse(mapping.isMoneyField("clicks"));
+    Assert.assertSame(mapping.getDescriptor("cost"), mapping.getDescriptor("cost"));
+    Assert.assertSame(CsvRowBinder.forClass(ReportAd.class), mapping.getRowBinder());
+  }
+
+  /**
+   * Tests that the headers are mapped once, by the names of their columns.
+   */
+  @Test
+  public void testMapHeader() {
+
+    CsvReportMapping<ReportAd> mapping = CsvReportMapping.forClass(ReportAd.class);
+    CsvReportMapping.Header header = mapping.mapHeader(new String[] {"Cost", "Unknown", "Clicks"});
+
+    Assert.assertSame(header, mapping.mapHeader(new String[] {"Cost", "Unknown", "Clicks"}));
+    Assert.assertNotSame(header, mapping.mapHeader(new String[] {"Clicks", "Unknown", "Cost"}));
+
+    Assert.assertEquals(3, header.getColumnCount());
+    Assert.assertEquals("cost", header.getFieldName(0));
+    Assert.assertNull(header.getFieldName(1));
+    Assert.assertNull(header.getFieldName(3));
+    Assert.assertTrue(header.getMappedColumns()[2]);
+    Assert.assertFalse(header.getMappedColumns()[1]);
+    Assert.assertEquals(-1, header.getBinderColumns()[1]);
+  }
+
+  /**
+   * Tests that the mapping strategies of a class share the descriptors of the mapping.
+   */
+  @Test
+  public void testMappingStrategies() throws Exception {
+
+    CsvReportMapping<ReportAd> mapping = CsvReportMapping.forClass(ReportAd.class);
+    AnnotationBasedMappingStrategy<ReportAd> first =
+        new AnnotationBasedMappingStrategy<ReportAd>(mapping);
+    AnnotationBasedMappingStrategy<ReportAd> second =
+        new AnnotationBasedMappingStrategy<ReportAd>(ReportAd.class);
+    CSVReader firstReader = new AwReportCsvReader(new StringReader("Clicks,Cost\n"), ',', '\"', 0);
+    CSVReader secondReader = new AwReportCsvReader(new StringReader("Cost\n"), ',', '\"', 0);
+    first.captureHeader(firstReader);
+    second.captureHeader(secondReader);
+
+    Assert.assertSame(first.findDescriptor(1), second.findDescriptor(0));
+    Assert.assertTrue(first.hasRowBinder());
+    Assert.assertTrue(second.isMoneyField("cost"));
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAd;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAdGroup;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportCampaign;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
+import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Test case for the {@link CsvRowBinder} classes generated for the report entities.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class CsvRowBinderTest {
+
+  /**
+   * Tests that the binders are generated for the report entities.
+   */
+  @Test
+  public void testForClass() {
+
+    Assert.assertNotNull(CsvRowBinder.forClass(ReportAd.class));
+    Assert.assertNotNull(CsvRowBinder.forClass(ReportKeyword.class));
+    Assert.assertSame(CsvRowBinder.forClass(ReportAd.class), CsvRowBinder.forClass(ReportAd.class));
+    Assert.assertEquals(ReportAd.class,
+        CsvRowBinder.forClass(ReportAd.class).getReportEntityClass());
+
+    Assert.assertNull(CsvRowBinder.forClass(Report.class));
+  }
+
+  /**
+   * Tests that the binders create the same beans as the reflection.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testBindRow_sameAsReflection() throws Exception {
+
+    Locale.setDefault(Locale.US);
+
+    this.assertSameAsReflection(ReportAccount.class, "src/test/resources/csv/account.csv");
+    this.assertSameAsReflection(ReportCampaign.class, "src/test/resources/csv/campaign.csv");
+    this.assertSameAsReflection(ReportAdGroup.class, "src/test/resources/csv/ad-group.csv");
+    this.assertSameAsReflection(ReportAd.class, "src/test/resources/csv/ad-performance.csv");
+    this.assertSameAsReflection(ReportKeyword.class, "src/test/resources/csv/keyword.csv");
+  }
+
+  /**
+   * Tests that a column the reflection can not set fails with the binder as well.
+   */
+  @Test
+  public void testBindRow_unbindableProperty() {
+
+    CsvRowBinder<ReportAd> binder = CsvRowBinder.forClass(ReportAd.class);
+    int[] columns = binder.bindHeader(new String[] {"Ad ID", "Cost/conversion ACE indicator"});
+
+    ReportAd reportAd = binder.bindRow(new String[] {"123"}, columns);
+    Assert.assertEquals(123L, reportAd.getAdId().longValue());
+
+    try {
+      binder.bindRow(new String[] {"123", "1.0"}, columns);
+      Assert.fail("The property has no setter.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("column # 1"));
+    }
+  }
+
+  private <R extends Report> void assertSameAsReflection(Class<R> reportBeanClass, String file)
+      throws Exception {
+
+    List<R> reflectionBeans = this.parse(
+        new AnnotationBasedMappingStrategy<R>(reportBeanClass, null), file);
+    List<R> binderBeans = this.parse(new AnnotationBasedMappingStrategy<R>(
+        reportBeanClass, CsvRowBinder.forClass(reportBeanClass)), file);
+
+    Assert.assertFalse(reflectionBeans.isEmpty());
+    Assert.assertEquals(reflectionBeans.size(), binderBeans.size());
+    for (int i = 0; i < reflectionBeans.size(); i++) {
+      for (Method method : reportBeanClass.getMethods()) {
+        if ((method.getName().startsWith("get") || method.getName().startsWith("is"))
+            && method.getParameterTypes().length == 0
+            && !Modifier.isStatic(method.getModifiers())
+            && method.getDeclaringClass() != Object.class
+            // The time the bean was created
+            && !method.getName().equals("getTimestamp")) {
+          Object expected = method.invoke(reflectionBeans.get(i));
+          Object actual = method.invoke(binderBeans.get(i));
+          // The getters that depend on the current time
+          if (expected != null && !expected.equals(method.invoke(reflectionBeans.get(i)))) {
+            continue;
+          }
+          Assert.assertEquals(
+              reportBeanClass.getSimpleName() + "." + method.getName(), expected, actual);
+        }
+      }
+    }
+  }
+
+  private <R extends Report> List<R> parse(AnnotationBasedMappingStrategy<R> mappingStrategy,
+      String file) throws Exception {
+
+    AwReportCsvReader csvReader = new AwReportCsvReader(
+        new InputStreamReader(new FileInputStream(file), "UTF-8"), ',', '\"', 1);
+    try {
+      return new ModifiedCsvToBean<R>().parse(mappingStrategy, csvReader);
+    } finally {
+      csvReader.close();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.csv;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * Test case for the {@link StringDictionary} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class StringDictionaryTest {
+
+  /**
+   * Tests that the same value gets the same instance, and the accounting of the savings.
+   */
+  @Test
+  public void testIntern() {
+
+    StringDictionary dictionary = new StringDictionary();
+    StringDictionary.Column column = dictionary.forColumn("status");
+    Assert.assertSame(column, dictionary.forColumn("status"));
+
+    String enabled = column.intern(new StringBuilder("ENABLED"));
+    Assert.assertEquals("ENABLED", enabled);
+    Assert.assertSame(enabled, column.intern(new StringBuilder("ENABLED")));
+    Assert.assertSame(enabled, column.intern("ENABLED"));
+    Assert.assertNotSame(enabled, column.intern("PAUSED"));
+    Assert.assertEquals("", column.intern(""));
+
+    Assert.assertEquals(3, column.getSize());
+    Assert.assertEquals(2, column.getHits());
+    Assert.assertEquals(2, dictionary.getHits());
+    Assert.assertTrue(dictionary.getSavedBytes() > 2 * "ENABLED".length() * 2);
+
+    // Other columns do not share the values
+    Assert.assertNotSame(enabled, dictionary.forColumn("other").intern("ENABLED"));
+  }
+
+  /**
+   * Tests that the values over the bound are not kept.
+   */
+  @Test
+  public void testIntern_bounded() {
+
+    StringDictionary.Column column = new StringDictionary().forColumn("name");
+    for (int i = 0; i < StringDictionary.MAX_VALUES_PER_COLUMN; i++) {
+      column.intern("value" + i);
+    }
+    Assert.assertEquals(StringDictionary.MAX_VALUES_PER_COLUMN, column.getSize());
+
+    String overflow = column.intern(new StringBuilder("overflow"));
+    Assert.assertEquals("overflow", overflow);
+    Assert.assertNotSame(overflow, column.intern(new StringBuilder("overflow")));
+    Assert.assertEquals(StringDictionary.MAX_VALUES_PER_COLUMN, column.getSize());
+    Assert.assertSame(column.intern("value1"), column.intern("value1"));
+  }
+
+  /**
+   * Tests that the beans parsed with a dictionary share the values of the interned columns.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testParse_sharedValues() throws Exception {
+
+    StringDictionary dictionary = new StringDictionary();
+    AnnotationBasedMappingStrategy<ReportAccount> mappingStrategy =
+        new AnnotationBasedMappingStrategy<ReportAccount>(
+            ReportAccount.class, CsvRowBinder.forClass(ReportAccount.class));
+    mappingStrategy.setStringDictionary(dictionary);
+
+    AwReportCsvReader csvReader = new AwReportCsvReader(new InputStreamReader(
+        new FileInputStream("src/test/resources/csv/account.csv"), "UTF-8"), ',', '\"', 1);
+    List<ReportAccount> beans;
+    try {
+      beans = new ModifiedCsvToBean<ReportAccount>().parse(mappingStrategy, csvReader);
+    } finally {
+      csvReader.close();
+    }
+
+    Assert.assertTrue(beans.size() > 1);
+    ReportAccount first = beans.get(0);
+    ReportAccount second = beans.get(1);
+    Assert.assertEquals("Test Le Test", first.getAccountDescriptiveName());
+    Assert.assertSame(first.getAccountDescriptiveName(), second.getAccountDescriptiveName());
+    Assert.assertSame(first.getCurrencyCode(), second.getCurrencyCode());
+    Assert.assertTrue(dictionary.forColumn("accountDescriptiveName").getHits() > 0);
+    Assert.assertTrue(dictionary.forColumn("currencyCode").getHits() > 0);
+  }
+}
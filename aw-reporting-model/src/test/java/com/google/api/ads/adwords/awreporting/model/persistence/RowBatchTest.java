@@ -0,0 +1,194 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence;
+
+import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
+import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportPlaceholderFeedItem;
+import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.common.collect.Lists;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Test case for the {@link RowBatch} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class RowBatchTest {
+
+  /**
+   * Tests that the entities of the rows are the same as the ones added.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testToReports_sameAsAdded() throws Exception {
+
+    Locale.setDefault(Locale.US);
+    AwReportCsvReader csvReader = new AwReportCsvReader(new InputStreamReader(
+        new FileInputStream("src/test/resources/csv/keyword.csv"), "UTF-8"), ',', '\"', 1);
+    List<ReportKeyword> reports;
+    try {
+      reports = new ModifiedCsvToBean<ReportKeyword>().parse(
+          new AnnotationBasedMappingStrategy<ReportKeyword>(ReportKeyword.class), csvReader);
+    } finally {
+      csvReader.close();
+    }
+    Assert.assertTrue(reports.size() > 2);
+
+    RowBatch<ReportKeyword> batch = new RowBatch<ReportKeyword>(ReportKeyword.class, 2);
+    for (int i = 0; i < reports.size(); i += 2) {
+      batch.clear();
+      for (int j = i; j < Math.min(i + 2, reports.size()); j++) {
+        ReportKeyword report = reports.get(j);
+        report.setTopAccountId(1L);
+        report.setId();
+        batch.add(report);
+      }
+      List<ReportKeyword> batchReports = batch.toReports();
+      Assert.assertEquals(batch.size(), batchReports.size());
+      for (int row = 0; row < batch.size(); row++) {
+        assertSameFields(reports.get(i + row), batchReports.get(row));
+        Assert.assertEquals(reports.get(i + row).getId(), batch.getId(row));
+      }
+    }
+  }
+
+  /**
+   * Tests the columns of the batch.
+   */
+  @Test
+  public void testColumns() {
+
+    RowBatch<ReportKeyword> batch = new RowBatch<ReportKeyword>(ReportKeyword.class, 3);
+    Assert.assertTrue(batch.isEmpty());
+    for (int i = 0; i < 3; i++) {
+      ReportKeyword report = new ReportKeyword(1L, 2L);
+      report.setKeywordId(i == 1 ? null : 10L + i);
+      report.setCost(new BigDecimal("1.5").multiply(BigDecimal.valueOf(i)));
+      report.setKeywordMatchType(i == 2 ? "Broad" : "Exact");
+      batch.add(report);
+    }
+    Assert.assertTrue(batch.isFull());
+
+    RowBatch.BatchColumn keywordId = batch.getColumn("keywordId");
+    Assert.assertEquals(RowBatch.ColumnType.LONG, keywordId.getType());
+    Assert.assertEquals(10L, keywordId.getLong(0));
+    Assert.assertTrue(keywordId.isNull(1));
+    Assert.assertEquals(0L, keywordId.getLong(1));
+    Assert.assertEquals(Long.valueOf(12L), keywordId.getValue(2));
+
+    RowBatch.BatchColumn cost = batch.getColumn("cost");
+    Assert.assertEquals(RowBatch.ColumnType.DECIMAL, cost.getType());
+    Assert.assertEquals(new BigDecimal("3.0"), cost.getBigDecimal(2));
+    Assert.assertEquals("COST", cost.getColumnName());
+
+    RowBatch.BatchColumn matchType = batch.getColumn("keywordMatchType");
+    Assert.assertEquals(RowBatch.ColumnType.STRING, matchType.getType());
+    Assert.assertEquals(2, matchType.getDictionary().size());
+    Assert.assertEquals(matchType.getCode(0), matchType.getCode(1));
+    Assert.assertEquals("Broad", matchType.getString(2));
+
+    try {
+      batch.add(new ReportKeyword());
+      Assert.fail("The batch is full.");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+
+    batch.clear();
+    Assert.assertTrue(batch.isEmpty());
+    Assert.assertTrue(matchType.getDictionary().isEmpty());
+  }
+
+  /**
+   * Tests the primitive fields.
+   */
+  @Test
+  public void testPrimitiveFields() {
+
+    RowBatch<ReportPlaceholderFeedItem> batch =
+        new RowBatch<ReportPlaceholderFeedItem>(ReportPlaceholderFeedItem.class, 1);
+    ReportPlaceholderFeedItem report = new ReportPlaceholderFeedItem(1L, 2L);
+    report.setFeedPlaceholderType(7);
+    batch.add(report);
+
+    Assert.assertEquals(7, batch.getReport(0).getFeedPlaceholderType());
+    Assert.assertEquals(report.getTimestamp(), batch.getReport(0).getTimestamp());
+  }
+
+  /**
+   * Tests the rows added from other batches.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testAddAll() throws Exception {
+
+    RowBatch<ReportKeyword> first = new RowBatch<ReportKeyword>(ReportKeyword.class, 2);
+    RowBatch<ReportKeyword> second = new RowBatch<ReportKeyword>(ReportKeyword.class, 2);
+    List<ReportKeyword> reports = Lists.newArrayList();
+    for (int i = 0; i < 4; i++) {
+      ReportKeyword report = new ReportKeyword(1L, 2L);
+      report.setKeywordId(i == 1 ? null : 10L + i);
+      report.setCost(new BigDecimal("1.5").multiply(BigDecimal.valueOf(i)));
+      report.setKeywordMatchType(i % 2 == 0 ? "Exact" : "Broad");
+      report.setId();
+      reports.add(report);
+      (i < 2 ? first : second).add(report);
+    }
+
+    RowBatch<ReportKeyword> batch = new RowBatch<ReportKeyword>(ReportKeyword.class, 4);
+    batch.addAll(first);
+    batch.addAll(second);
+    Assert.assertTrue(batch.isFull());
+    Assert.assertEquals(2, first.size());
+    for (int row = 0; row < 4; row++) {
+      assertSameFields(reports.get(row), batch.getReport(row));
+    }
+    Assert.assertEquals(2, batch.getColumn("keywordMatchType").getDictionary().size());
+
+    try {
+      batch.addAll(first);
+      Assert.fail("The batch is full.");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+  }
+
+  private static void assertSameFields(Object expected, Object actual) throws Exception {
+    for (Class<?> clazz = expected.getClass(); clazz != Object.class;
+        clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          field.setAccessible(true);
+          Assert.assertEquals(field.getName(), field.get(expected), field.get(actual));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,245 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch.BatchColumn;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Test case for the {@code MySqlBulkLoader} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class MySqlBulkLoaderTest {
+
+  /**
+   * Tests the values streamed to the bulk loader.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testTsvInputStream() throws Exception {
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 3);
+    Date timestamp = new Date(1422748800000L);
+    batch.add(newReport(1L, "tab\there", "1.5", timestamp));
+    batch.add(newReport(2L, "line\nbreak \\ é", null, timestamp));
+    // Replaces the first row
+    batch.add(newReport(1L, "updated", "2.50", timestamp));
+    List<BatchColumn> columns = Lists.newArrayList(batch.getColumn("id"),
+        batch.getColumn("accountId"), batch.getColumn("accountDescriptiveName"),
+        batch.getColumn("cost"), batch.getColumn("timestamp"), batch.getColumn("clicks"));
+
+    String values = new String(ByteStreams.toByteArray(new MySqlBulkLoader.TsvInputStream(
+        columns, SqlReportBatchWriter.distinctRows(batch))), "UTF-8");
+
+    String date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(timestamp);
+    Assert.assertEquals(
+        batch.getId(0) + "\t1\tupdated\t2.50\t" + date + "\t\\N\n"
+        + batch.getId(1) + "\t2\tline\\nbreak \\\\ é\t\\N\t" + date + "\t\\N\n",
+        values);
+  }
+
+  /**
+   * Tests the statements of the bulk loader.
+   */
+  @Test
+  public void testStatements() {
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 1);
+    List<BatchColumn> columns = Lists.newArrayList(batch.getColumn("id"),
+        batch.getColumn("accountId"), batch.getColumn("cost"));
+
+    Assert.assertEquals("LOAD DATA LOCAL INFILE 'stream' INTO TABLE AW_ReportAccount_STAGING "
+        + "CHARACTER SET utf8 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' "
+        + "LINES TERMINATED BY '\\n' (ROW_ID, ACCOUNT_ID, COST)",
+        MySqlBulkLoader.buildLoadStatement("stream", "AW_ReportAccount_STAGING", columns));
+    Assert.assertEquals("INSERT INTO AW_ReportAccount (ROW_ID, ACCOUNT_ID, COST) "
+        + "SELECT ROW_ID, ACCOUNT_ID, COST FROM AW_ReportAccount_STAGING "
+        + "ON DUPLICATE KEY UPDATE ACCOUNT_ID = VALUES(ACCOUNT_ID), COST = VALUES(COST)",
+        MySqlBulkLoader.buildUpsertStatement(
+            "AW_ReportAccount", "AW_ReportAccount_STAGING", columns));
+  }
+
+  /**
+   * Tests that the values are streamed to the statement of the MySQL driver, which is only in the
+   * runtime class path.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testLoadInto_driverStatement() throws Exception {
+
+    RecordingStatement driverStatement = new RecordingStatement(null);
+    Statement statement = driverStatement.newProxy(Class.forName("com.mysql.jdbc.Statement"));
+    RowBatch<ReportAccount> batch = newBatch();
+
+    Assert.assertEquals(1, new MySqlBulkLoader().loadInto(newConnection(statement), batch, "T"));
+
+    Assert.assertEquals(1, driverStatement.executed.size());
+    Assert.assertTrue(driverStatement.executed.get(0).startsWith(
+        "LOAD DATA LOCAL INFILE 'stream' REPLACE INTO TABLE T "));
+    Assert.assertEquals(Lists.newArrayList(values(batch), null),
+        driverStatement.streamed);
+  }
+
+  /**
+   * Tests that the values are streamed to the statement of the MySQL driver wrapped by another one.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testLoadInto_wrappedDriverStatement() throws Exception {
+
+    RecordingStatement driverStatement = new RecordingStatement(null);
+    Class<?> driverStatementClass = Class.forName("com.mysql.jdbc.Statement");
+    RecordingStatement wrapper =
+        new RecordingStatement(driverStatement.newProxy(driverStatementClass));
+    RowBatch<ReportAccount> batch = newBatch();
+
+    Assert.assertEquals(driverStatementClass,
+        MySqlBulkLoader.findDriverStatementClass(wrapper.newProxy(Statement.class)));
+    new MySqlBulkLoader().loadInto(
+        newConnection(wrapper.newProxy(Statement.class)), batch, "T");
+
+    Assert.assertEquals(1, wrapper.executed.size());
+    Assert.assertTrue(wrapper.executed.get(0).startsWith("LOAD DATA LOCAL INFILE 'stream' "));
+    Assert.assertEquals(Lists.newArrayList(values(batch), null),
+        driverStatement.streamed);
+  }
+
+  /**
+   * Tests that the values are loaded from a temporary file by the statements of other drivers.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testLoadInto_otherStatement() throws Exception {
+
+    RecordingStatement statement = new RecordingStatement(null);
+    RowBatch<ReportAccount> batch = newBatch();
+
+    Assert.assertNull(
+        MySqlBulkLoader.findDriverStatementClass(statement.newProxy(Statement.class)));
+    new MySqlBulkLoader().loadInto(newConnection(statement.newProxy(Statement.class)), batch, "T");
+
+    Assert.assertEquals(1, statement.executed.size());
+    Assert.assertFalse(statement.executed.get(0).startsWith("LOAD DATA LOCAL INFILE 'stream' "));
+    Assert.assertEquals(Lists.newArrayList(values(batch)), statement.loaded);
+    Assert.assertFalse(new File(statement.loadedFileName).exists());
+  }
+
+  private static RowBatch<ReportAccount> newBatch() {
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 1);
+    batch.add(newReport(1L, "name", "1.5", new Date(1422748800000L)));
+    return batch;
+  }
+
+  private static String values(RowBatch<ReportAccount> batch) throws Exception {
+    return RecordingStatement.read(new MySqlBulkLoader.TsvInputStream(
+        SqlReportBatchWriter.getColumns(batch), SqlReportBatchWriter.distinctRows(batch)));
+  }
+
+  private static Connection newConnection(final Statement statement) {
+    return (Connection) Proxy.newProxyInstance(MySqlBulkLoaderTest.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            return method.getName().equals("createStatement") ? statement : null;
+          }
+        });
+  }
+
+  /**
+   * Records the statements executed, and the values streamed or loaded from a file.
+   */
+  private static class RecordingStatement implements InvocationHandler {
+
+    private final Object wrapped;
+    private final List<String> executed = Lists.newArrayList();
+    private final List<String> streamed = Lists.newArrayList();
+    private final List<String> loaded = Lists.newArrayList();
+    private String loadedFileName;
+
+    RecordingStatement(Object wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    Statement newProxy(Class<?> statementClass) {
+      return (Statement) Proxy.newProxyInstance(MySqlBulkLoaderTest.class.getClassLoader(),
+          new Class<?>[] {statementClass}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+      String name = method.getName();
+      if (name.equals("setLocalInfileInputStream")) {
+        this.streamed.add(args[0] == null ? null : read((InputStream) args[0]));
+      } else if (name.equals("execute")) {
+        String sql = (String) args[0];
+        this.executed.add(sql);
+        if (!sql.startsWith("LOAD DATA LOCAL INFILE 'stream' ")) {
+          this.loadedFileName = sql.substring(sql.indexOf('\'') + 1, sql.indexOf('\'', 24));
+          this.loaded.add(read(new FileInputStream(this.loadedFileName)));
+        }
+        return false;
+      } else if (name.equals("isWrapperFor")) {
+        return ((Class<?>) args[0]).isInstance(this.wrapped);
+      } else if (name.equals("unwrap")) {
+        return this.wrapped;
+      }
+      return null;
+    }
+
+    private static String read(InputStream in) throws Exception {
+      try {
+        return new String(ByteStreams.toByteArray(in), "UTF-8");
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  private static ReportAccount newReport(
+      long accountId, String name, String cost, Date timestamp) {
+    ReportAccount report = new ReportAccount(123L, accountId);
+    report.setAccountDescriptiveName(name);
+    report.setCost(cost == null ? null : new BigDecimal(cost));
+    report.setTimestamp(timestamp);
+    report.setDay("2015-02-01");
+    report.setId();
+    return report;
+  }
+}
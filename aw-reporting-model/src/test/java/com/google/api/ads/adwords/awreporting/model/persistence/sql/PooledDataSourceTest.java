@@ -0,0 +1,195 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Test case for the {@code PooledDataSource} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class PooledDataSourceTest {
+
+  private PooledDataSource dataSource;
+
+  @Before
+  public void setUp() throws Exception {
+    dataSource = new PooledDataSource();
+    dataSource.setDriverClassName("org.h2.Driver");
+    dataSource.setUrl("jdbc:h2:mem:PooledDataSourceTest;DB_CLOSE_DELAY=-1");
+    dataSource.setUsername("sa");
+    dataSource.setPassword("");
+    dataSource.setMaxSize(2);
+    dataSource.setMaxWaitMillis(100);
+
+    Connection connection = dataSource.getConnection();
+    try {
+      connection.createStatement().execute(
+          "CREATE TABLE IF NOT EXISTS POOL_TEST (ID INT PRIMARY KEY)");
+      connection.createStatement().execute("DELETE FROM POOL_TEST");
+    } finally {
+      connection.close();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    dataSource.close();
+  }
+
+  /**
+   * Tests that the closed connections are handed out again.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testReusesConnections() throws Exception {
+
+    Connection first = dataSource.getConnection();
+    Connection driverConnection = first.unwrap(Connection.class);
+    Assert.assertEquals(1, dataSource.getActiveConnections());
+    first.close();
+    Assert.assertTrue(first.isClosed());
+    Assert.assertEquals(0, dataSource.getActiveConnections());
+    Assert.assertEquals(1, dataSource.getIdleConnections());
+
+    Connection second = dataSource.getConnection();
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(driverConnection, second.unwrap(Connection.class));
+    Assert.assertEquals(1, dataSource.getTotalConnections());
+    second.close();
+
+    try {
+      first.createStatement();
+      Assert.fail("The closed connection must not be used");
+    } catch (SQLException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Tests the prepared statements cached by connection.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testCachesStatements() throws Exception {
+
+    for (int i = 0; i < 3; i++) {
+      Connection connection = dataSource.getConnection();
+      PreparedStatement statement =
+          connection.prepareStatement("INSERT INTO POOL_TEST (ID) VALUES (?)");
+      statement.setInt(1, i);
+      Assert.assertEquals(1, statement.executeUpdate());
+      Assert.assertSame(connection, statement.getConnection());
+      statement.close();
+      Assert.assertTrue(statement.isClosed());
+      connection.close();
+    }
+    Assert.assertEquals(2, dataSource.getStatementCacheHits());
+    Assert.assertEquals(1, dataSource.getStatementCacheMisses());
+
+    // The statements left open are closed with their connection
+    Connection connection = dataSource.getConnection();
+    PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM POOL_TEST");
+    Statement driverStatement = connection.createStatement();
+    connection.close();
+    Assert.assertTrue(statement.isClosed());
+    Assert.assertTrue(driverStatement.isClosed());
+  }
+
+  /**
+   * Tests that the transactions left open are rolled back.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testRollsBackTransactions() throws Exception {
+
+    Connection connection = dataSource.getConnection();
+    connection.setAutoCommit(false);
+    connection.createStatement().executeUpdate("INSERT INTO POOL_TEST (ID) VALUES (10)");
+    connection.close();
+
+    connection = dataSource.getConnection();
+    try {
+      Assert.assertTrue(connection.getAutoCommit());
+      ResultSet resultSet =
+          connection.createStatement().executeQuery("SELECT COUNT(*) FROM POOL_TEST");
+      resultSet.next();
+      Assert.assertEquals(0, resultSet.getInt(1));
+    } finally {
+      connection.close();
+    }
+  }
+
+  /**
+   * Tests the wait for a connection when they are all active.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testTimeout() throws Exception {
+
+    Connection first = dataSource.getConnection();
+    Connection second = dataSource.getConnection();
+    try {
+      dataSource.getConnection();
+      Assert.fail("No connection should be available");
+    } catch (SQLException e) {
+      // Expected
+    }
+    Assert.assertEquals(1, dataSource.getTimeouts());
+    Assert.assertTrue(dataSource.getLongestWaitMillis() >= 100);
+    Assert.assertEquals(2, dataSource.getActiveConnections());
+
+    second.close();
+    first.close();
+    Assert.assertEquals(2, dataSource.getIdleConnections());
+    dataSource.getConnection().close();
+    Assert.assertEquals(1, dataSource.getTimeouts());
+  }
+
+  /**
+   * Tests the connections opened when the pool starts.
+   */
+  @Test
+  public void testWarmUp() {
+
+    dataSource.close();
+    dataSource = new PooledDataSource();
+    dataSource.setDriverClassName("org.h2.Driver");
+    dataSource.setUrl("jdbc:h2:mem:PooledDataSourceTest;DB_CLOSE_DELAY=-1");
+    dataSource.setUsername("sa");
+    dataSource.setMinIdle(3);
+
+    dataSource.warmUp();
+
+    Assert.assertEquals(3, dataSource.getIdleConnections());
+    Assert.assertEquals(3, dataSource.getTotalConnections());
+    Assert.assertEquals(0, dataSource.getActiveConnections());
+  }
+}
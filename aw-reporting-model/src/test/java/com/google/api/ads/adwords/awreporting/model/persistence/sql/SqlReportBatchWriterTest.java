@@ -0,0 +1,165 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch.BatchColumn;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.SqlReportBatchWriter.Dialect;
+import com.google.common.collect.Lists;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Test case for the {@code SqlReportBatchWriter} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:aw-report-model-test-beans.xml")
+public class SqlReportBatchWriterTest {
+
+  @Autowired
+  private EntityPersister reportEntitiesPersister;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Before
+  @After
+  public void cleanDB() {
+
+    List<ReportAccount> reports = this.reportEntitiesPersister.listReports(ReportAccount.class);
+    this.reportEntitiesPersister.remove(reports);
+  }
+
+  /**
+   * Tests the dialects of the data bases.
+   */
+  @Test
+  public void testDialect() {
+
+    Assert.assertEquals(Dialect.MYSQL, Dialect.forProductName("MySQL"));
+    Assert.assertEquals(Dialect.H2, Dialect.forProductName("H2"));
+    Assert.assertEquals(Dialect.MERGE, Dialect.forProductName("Microsoft SQL Server"));
+    Assert.assertEquals(Dialect.MERGE, Dialect.forProductName(null));
+  }
+
+  /**
+   * Tests the upsert statements of each dialect.
+   */
+  @Test
+  public void testBuildStatement() {
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 1);
+    List<BatchColumn> columns = Lists.newArrayList(batch.getColumn("id"),
+        batch.getColumn("accountId"), batch.getColumn("cost"));
+
+    Assert.assertEquals("INSERT INTO AW_ReportAccount (ROW_ID, ACCOUNT_ID, COST) VALUES "
+        + "(?, ?, ?), (?, ?, ?) ON DUPLICATE KEY UPDATE ACCOUNT_ID = VALUES(ACCOUNT_ID), "
+        + "COST = VALUES(COST)",
+        SqlReportBatchWriter.buildStatement(Dialect.MYSQL, "AW_ReportAccount", columns, 2));
+    Assert.assertEquals("MERGE INTO AW_ReportAccount (ROW_ID, ACCOUNT_ID, COST) KEY (ROW_ID) "
+        + "VALUES (?, ?, ?)",
+        SqlReportBatchWriter.buildStatement(Dialect.H2, "AW_ReportAccount", columns, 1));
+    Assert.assertEquals("MERGE INTO AW_ReportAccount T USING (VALUES (?, ?, ?)) "
+        + "AS S (ROW_ID, ACCOUNT_ID, COST) ON T.ROW_ID = S.ROW_ID WHEN MATCHED THEN UPDATE SET "
+        + "ACCOUNT_ID = S.ACCOUNT_ID, COST = S.COST WHEN NOT MATCHED THEN INSERT "
+        + "(ROW_ID, ACCOUNT_ID, COST) VALUES (S.ROW_ID, S.ACCOUNT_ID, S.COST)",
+        SqlReportBatchWriter.buildStatement(Dialect.MERGE, "AW_ReportAccount", columns, 1));
+  }
+
+  /**
+   * Tests that the rows are inserted and updated, in several statements.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testWrite() throws Exception {
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 10);
+    for (long accountId = 1; accountId <= 5; accountId++) {
+      batch.add(newReport(accountId, "account" + accountId));
+    }
+    // The last row of an id is the one written
+    batch.add(newReport(2L, "updated"));
+
+    SqlReportBatchWriter writer = new SqlReportBatchWriter(2);
+    Connection connection = this.dataSource.getConnection();
+    try {
+      Assert.assertEquals(5, writer.write(connection, Dialect.H2, batch));
+    } finally {
+      connection.close();
+    }
+
+    List<ReportAccount> reports = this.reportEntitiesPersister.get(ReportAccount.class);
+    Assert.assertEquals(5, reports.size());
+    for (ReportAccount report : reports) {
+      String name = report.getAccountId() == 2L ? "updated" : "account" + report.getAccountId();
+      Assert.assertEquals(name, report.getAccountDescriptiveName());
+      Assert.assertEquals(0, new BigDecimal("1.25").compareTo(report.getCost()));
+      Assert.assertEquals(Long.valueOf(10L), report.getClicks());
+      Assert.assertNull(report.getImpressions());
+      Assert.assertNotNull(report.getTimestamp());
+    }
+  }
+
+  /**
+   * Tests that the persister writes the batches.
+   */
+  @Test
+  public void testPersistReportBatch() {
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 2);
+    batch.add(newReport(1L, "account1"));
+    batch.add(newReport(2L, "account2"));
+    ((ReportBatchPersister) this.reportEntitiesPersister).persistReportBatch(batch);
+
+    batch.clear();
+    batch.add(newReport(2L, "updated"));
+    ((ReportBatchPersister) this.reportEntitiesPersister).persistReportBatch(batch);
+
+    Assert.assertEquals("account1", this.reportEntitiesPersister.get(
+        ReportAccount.class, "accountId", 1L).get(0).getAccountDescriptiveName());
+    Assert.assertEquals("updated", this.reportEntitiesPersister.get(
+        ReportAccount.class, "accountId", 2L).get(0).getAccountDescriptiveName());
+  }
+
+  private static ReportAccount newReport(long accountId, String name) {
+    ReportAccount report = new ReportAccount(123L, accountId);
+    report.setAccountDescriptiveName(name);
+    report.setCost(new BigDecimal("1.25"));
+    report.setClicks(10L);
+    report.setDay("2015-02-01");
+    report.setId();
+    return report;
+  }
+}
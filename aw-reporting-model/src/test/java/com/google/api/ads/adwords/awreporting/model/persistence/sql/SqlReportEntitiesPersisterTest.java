@@ -97,6 +97,29 @@ public class SqlReportEntitiesPersisterTest {
     this.reportEntitiesPersister.remove(reportAccountList);
   }
 
+  /**
+   * Tests that the hashed ids of the reports are kept when they are persisted.
+   */
+  @Test
+  public void testPersistReportEntities_hashedId() {
+    ReportBase report = new ReportAccount(123L, 456L);
+    report.setAccountDescriptiveName("testAccount");
+    report.setId();
+    String regularId = report.getId();
+    report.hashId();
+    String hashedId = report.getId();
+    Assert.assertFalse(hashedId.equals(regularId));
+
+    List<Report> reportList = Lists.newArrayList();
+    reportList.add(report);
+    reportEntitiesPersister.persistReportEntities(reportList);
+
+    List<ReportAccount> reportAccountList =
+        reportEntitiesPersister.listReports(ReportAccount.class);
+    Assert.assertEquals(1, reportAccountList.size());
+    Assert.assertEquals(hashedId, reportAccountList.get(0).getId());
+  }
+
   /**
    * Tests the gets methods.
    */
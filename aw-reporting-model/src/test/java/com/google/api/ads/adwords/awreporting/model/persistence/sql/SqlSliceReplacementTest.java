@@ -0,0 +1,255 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.persistence.sql;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlice;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlicePersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.SqlReportBatchWriter.Dialect;
+import com.google.common.collect.Lists;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Test case for the {@code SqlSliceReplacement} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:aw-report-model-test-beans.xml")
+public class SqlSliceReplacementTest {
+
+  @Autowired
+  private EntityPersister reportEntitiesPersister;
+
+  @Before
+  @After
+  public void cleanDB() {
+
+    List<ReportAccount> reports = this.reportEntitiesPersister.listReports(ReportAccount.class);
+    this.reportEntitiesPersister.remove(reports);
+  }
+
+  /**
+   * Tests the statements of the replacement.
+   */
+  @Test
+  public void testBuildStatements() {
+
+    Assert.assertEquals("CREATE TEMPORARY TABLE IF NOT EXISTS AW_ReportAccount_SLICE LIKE "
+        + "AW_ReportAccount", SqlSliceReplacement.buildCreateStagingStatement(
+            Dialect.MYSQL, "AW_ReportAccount", "AW_ReportAccount_SLICE"));
+    Assert.assertEquals("CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS AW_ReportAccount_SLICE AS "
+        + "SELECT * FROM AW_ReportAccount WHERE 1 = 0",
+        SqlSliceReplacement.buildCreateStagingStatement(
+            Dialect.H2, "AW_ReportAccount", "AW_ReportAccount_SLICE"));
+
+    Assert.assertEquals("DELETE FROM AW_ReportAccount WHERE TOP_ACCOUNT_ID = ? AND ACCOUNT_ID = ? "
+        + "AND DATE_RANGE_TYPE = ? AND DATE_START IS NULL AND DATE_END IS NULL",
+        SqlSliceReplacement.buildDeleteStatement("AW_ReportAccount", new ReportSlice(
+            ReportAccount.class, 123L, 1L, "LAST_7_DAYS", null, null), false));
+    Assert.assertEquals("DELETE FROM AW_ReportAccount WHERE TOP_ACCOUNT_ID = ? AND ACCOUNT_ID = ? "
+        + "AND DAY BETWEEN ? AND ?",
+        SqlSliceReplacement.buildDeleteStatement("AW_ReportAccount", new ReportSlice(
+            ReportAccount.class, 123L, 1L, "CUSTOM_DATE", "20150201", "20150204"), true));
+
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 1);
+    List<RowBatch.BatchColumn> columns = Lists.newArrayList(batch.getColumn("id"),
+        batch.getColumn("accountId"), batch.getColumn("cost"));
+    Assert.assertEquals("INSERT INTO AW_ReportAccount (ROW_ID, ACCOUNT_ID, COST) SELECT ROW_ID, "
+        + "ACCOUNT_ID, COST FROM AW_ReportAccount_SLICE ON DUPLICATE KEY UPDATE "
+        + "ACCOUNT_ID = VALUES(ACCOUNT_ID), COST = VALUES(COST)",
+        SqlSliceReplacement.buildInsertStatement(
+            Dialect.MYSQL, "AW_ReportAccount", "AW_ReportAccount_SLICE", columns));
+    Assert.assertEquals("MERGE INTO AW_ReportAccount (ROW_ID, ACCOUNT_ID, COST) KEY (ROW_ID) "
+        + "SELECT ROW_ID, ACCOUNT_ID, COST FROM AW_ReportAccount_SLICE",
+        SqlSliceReplacement.buildInsertStatement(
+            Dialect.H2, "AW_ReportAccount", "AW_ReportAccount_SLICE", columns));
+  }
+
+  /**
+   * Tests that the rows of the slice are replaced, and the rows of the other slices stay.
+   */
+  @Test
+  public void testReplace() {
+
+    ReportSlicePersister persister = (ReportSlicePersister) this.reportEntitiesPersister;
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 4);
+    batch.add(newReport(1L, "2015-02-01", "old"));
+    batch.add(newReport(1L, "2015-02-02", "old"));
+    batch.add(newReport(1L, "2015-02-03", "old"));
+    batch.add(newReport(2L, "2015-02-01", "other"));
+    persister.persistReportBatch(batch);
+
+    ReportSlicePersister.Replacement replacement =
+        persister.beginReplacement(ReportSlice.forReport(newReport(1L, "2015-02-01", "new")));
+    batch.clear();
+    batch.add(newReport(1L, "2015-02-02", "new"));
+    replacement.add(batch);
+    batch.clear();
+    batch.add(newReport(1L, "2015-02-04", "new"));
+    replacement.add(batch);
+
+    // Not visible until committed
+    Assert.assertEquals(3, this.reportEntitiesPersister.get(
+        ReportAccount.class, "accountId", 1L).size());
+    replacement.commit();
+
+    List<ReportAccount> reports =
+        this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 1L);
+    Assert.assertEquals(2, reports.size());
+    for (ReportAccount report : reports) {
+      Assert.assertEquals("new", report.getAccountDescriptiveName());
+      Assert.assertTrue(report.getDay().equals("2015-02-02")
+          || report.getDay().equals("2015-02-04"));
+      Assert.assertEquals(0, new BigDecimal("1.25").compareTo(report.getCost()));
+    }
+    reports = this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 2L);
+    Assert.assertEquals(1, reports.size());
+    Assert.assertEquals("other", reports.get(0).getAccountDescriptiveName());
+  }
+
+  /**
+   * Tests the replacement of a slice overlapping the date range of the stored rows, whose rows
+   * segmented by day have the same ids.
+   */
+  @Test
+  public void testReplace_overlappingRanges() {
+
+    ReportSlicePersister persister = (ReportSlicePersister) this.reportEntitiesPersister;
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 4);
+    for (int day = 1; day <= 4; day++) {
+      batch.add(newReport(1L, "2015-02-0" + day, "old", "20150201", "20150204"));
+    }
+    persister.persistReportBatch(batch);
+
+    batch.clear();
+    for (int day = 3; day <= 6; day++) {
+      batch.add(newReport(1L, "2015-02-0" + day, "new", "20150203", "20150206"));
+    }
+    ReportSlicePersister.Replacement replacement =
+        persister.beginReplacement(ReportSlice.forReport(batch.getReport(0)));
+    replacement.add(batch);
+    replacement.commit();
+
+    List<ReportAccount> reports =
+        this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 1L);
+    Assert.assertEquals(6, reports.size());
+    for (ReportAccount report : reports) {
+      boolean restated = report.getDay().compareTo("2015-02-03") >= 0;
+      Assert.assertEquals(restated ? "new" : "old", report.getAccountDescriptiveName());
+      Assert.assertEquals(restated ? "20150203" : "20150201", report.getDateStart());
+    }
+  }
+
+  /**
+   * Tests that the replacement of rows segmented by day deletes the stored rows of its days that
+   * were downloaded for another date range and are no longer in the report.
+   */
+  @Test
+  public void testReplace_daysOfOtherRanges() {
+
+    ReportSlicePersister persister = (ReportSlicePersister) this.reportEntitiesPersister;
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 5);
+    for (int day = 1; day <= 4; day++) {
+      batch.add(newReport(1L, "2015-02-0" + day, "old", "20150201", "20150204"));
+    }
+    batch.add(newReport(2L, "2015-02-03", "other", "20150201", "20150204"));
+    persister.persistReportBatch(batch);
+
+    // The days 3 and 4 are gone from the report
+    batch.clear();
+    for (int day = 5; day <= 6; day++) {
+      batch.add(newReport(1L, "2015-02-0" + day, "new", "20150203", "20150206"));
+    }
+    ReportSlicePersister.Replacement replacement =
+        persister.beginReplacement(ReportSlice.forReport(batch.getReport(0)));
+    replacement.add(batch);
+    replacement.commit();
+
+    List<ReportAccount> reports =
+        this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 1L);
+    Assert.assertEquals(4, reports.size());
+    for (ReportAccount report : reports) {
+      boolean restated = report.getDay().compareTo("2015-02-03") >= 0;
+      Assert.assertTrue(!restated || report.getDay().compareTo("2015-02-05") >= 0);
+      Assert.assertEquals(restated ? "new" : "old", report.getAccountDescriptiveName());
+    }
+    reports = this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 2L);
+    Assert.assertEquals(1, reports.size());
+    Assert.assertEquals("other", reports.get(0).getAccountDescriptiveName());
+  }
+
+  /**
+   * Tests that an aborted replacement leaves the stored rows of the slice.
+   */
+  @Test
+  public void testAbort() {
+
+    ReportSlicePersister persister = (ReportSlicePersister) this.reportEntitiesPersister;
+    RowBatch<ReportAccount> batch = new RowBatch<ReportAccount>(ReportAccount.class, 1);
+    batch.add(newReport(1L, "2015-02-01", "old"));
+    persister.persistReportBatch(batch);
+
+    ReportSlicePersister.Replacement replacement =
+        persister.beginReplacement(ReportSlice.forReport(batch.getReport(0)));
+    batch.clear();
+    batch.add(newReport(1L, "2015-02-02", "new"));
+    replacement.add(batch);
+    replacement.abort();
+    replacement.abort();
+
+    try {
+      replacement.commit();
+      Assert.fail("The replacement is aborted.");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+    List<ReportAccount> reports =
+        this.reportEntitiesPersister.get(ReportAccount.class, "accountId", 1L);
+    Assert.assertEquals(1, reports.size());
+    Assert.assertEquals("old", reports.get(0).getAccountDescriptiveName());
+  }
+
+  private static ReportAccount newReport(long accountId, String day, String name) {
+    return newReport(accountId, day, name, "20150201", "20150204");
+  }
+
+  private static ReportAccount newReport(
+      long accountId, String day, String name, String dateStart, String dateEnd) {
+    ReportAccount report = new ReportAccount(123L, accountId);
+    report.setAccountDescriptiveName(name);
+    report.setCost(new BigDecimal("1.25"));
+    report.setDay(day);
+    report.setDateRangeType("CUSTOM_DATE");
+    report.setDateStart(dateStart);
+    report.setDateEnd(dateEnd);
+    report.setId();
+    return report;
+  }
+}
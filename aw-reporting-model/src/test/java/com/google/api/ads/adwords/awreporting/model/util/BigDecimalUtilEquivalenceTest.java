@@ -0,0 +1,153 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.util;
+
+import junit.framework.Assert;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Tests that {@link BigDecimalUtil#parseFromNumberString} parses the numbers of the reports to the
+ * same values as the {@code NumberFormat} parsing it replaced, or to their exact decimal when the
+ * {@code double} of the {@code NumberFormat} rounded them.
+ *
+ * @author agent@google.com (Agent)
+ */
+@RunWith(Parameterized.class)
+public class BigDecimalUtilEquivalenceTest {
+
+  private static Locale defaultLocale;
+
+  private final String numberString;
+
+  private final String exactValue;
+
+  public BigDecimalUtilEquivalenceTest(String numberString, String exactValue) {
+    this.numberString = numberString;
+    this.exactValue = exactValue;
+  }
+
+  /**
+   * The numbers, and their exact decimal if the {@code NumberFormat} parsing rounds them.
+   */
+  @Parameters
+  public static Collection<Object[]> numberStrings() {
+    return Arrays.asList(new Object[][] {
+        // Grouping and decimal separators
+        {"1,200,300.10", null}, {"1.200.300,10", null}, {"1 200 300.10", null},
+        {"1 200 300,10", null}, {"1,234", null}, {"1.234", null}, {"0,39", null},
+        {"33.33", null}, {"0.1", null}, {"1.10", null}, {"100", null}, {"100.00", null},
+        {"0", null}, {"0.0", null}, {"1.5.6", null}, {"1,5,6", null}, {"1.200,300.5", null},
+        {"1,200.300,5", null}, {".5", null}, {",5", null}, {"5.", null}, {" 1 234.5\t", null},
+        // Signs
+        {"-1.5", null}, {"-1,5", null}, {"-0", null}, {"-.5", null}, {"-1,200,300.10", null},
+        {"+5", null}, {"5-", null},
+        // Not numbers
+        {"--", null}, {"-", null}, {".", null}, {",", null}, {"", null}, {" ", null},
+        {"abc", null}, {"12abc", null}, {"< 10%", null}, {"> 90%", null},
+        // Percentages
+        {"10%", null}, {"10.5%", null}, {"99,99%", null},
+        // More digits than a double holds, exact up to the digits of a long
+        {"1234567890123456789012", null}, {"0.1234567890123456789", null},
+        {"123456789012345678", "123456789012345678"},
+        {"12345678901234567.5", "12345678901234567.5"},
+        {"9007199254740993", "9007199254740993"}, {"9007199254740992", "9007199254740992"},
+        {"0.000000000000000000000001", null}, {"1234567.891234567", "1234567.891234567"},
+        {"99999999999999.99", "99999999999999.99"},
+        // Exponents
+        {"1.5E3", null}, {"1.5e3", null}, {"1E-3", null}, {"2,5E2", null},
+    });
+  }
+
+  @BeforeClass
+  public static void setUpLocale() {
+    defaultLocale = Locale.getDefault();
+    Locale.setDefault(Locale.US);
+  }
+
+  @AfterClass
+  public static void restoreLocale() {
+    Locale.setDefault(defaultLocale);
+  }
+
+  /**
+   * Tests that the number has the same value as with the {@code NumberFormat} parsing, or its
+   * exact value.
+   */
+  @Test
+  public void testParseFromNumberString() {
+
+    BigDecimal expected = this.exactValue != null
+        ? new BigDecimal(this.exactValue) : parseWithNumberFormat(this.numberString);
+    BigDecimal parsed = BigDecimalUtil.parseFromNumberString(this.numberString);
+    String message = "Parsing \"" + this.numberString + "\": " + parsed;
+    if (expected == null) {
+      Assert.assertNull(message, parsed);
+    } else {
+      Assert.assertNotNull(message, parsed);
+      Assert.assertEquals(message, 0, expected.compareTo(parsed));
+    }
+  }
+
+  /**
+   * The {@code NumberFormat} parsing that {@link BigDecimalUtil#parseFromNumberString} replaced.
+   */
+  private static BigDecimal parseWithNumberFormat(String numberString) {
+
+    String nonSpacedString =
+        numberString.replaceAll("[ \\t\\n\\x0B\\f\\r]", "").replaceAll("%", "");
+
+    int indexOfComma = nonSpacedString.indexOf(',');
+    int indexOfDot = nonSpacedString.indexOf('.');
+    NumberFormat format = null;
+
+    if (indexOfComma < indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[,]", "");
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator('.');
+      format = new DecimalFormat("##.#", otherSymbols);
+
+    } else if (indexOfComma > indexOfDot) {
+      nonSpacedString = nonSpacedString.replaceAll("[.]", "");
+      DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+      otherSymbols.setDecimalSeparator(',');
+      format = new DecimalFormat("##,#", otherSymbols);
+
+    } else {
+      format = new DecimalFormat();
+    }
+
+    try {
+      return new BigDecimal(format.parse(nonSpacedString).doubleValue(), new MathContext(12));
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+}
@@ -100,4 +100,34 @@ public class BigDecimalUtilTest {
     Assert.assertEquals(
         "The parsed value is not the expected.", 33.33, parsed.doubleValue());
   }
+
+  /**
+   * Tests that the micros are parsed as the division of the cleaned value by a million.
+   */
+  @Test
+  public void testParseFromMicros() {
+
+    String[] values = {"9390000", "0", "", " 10000000 ", "--", "-1234567", "1.5", "10.0", "0.",
+        "000000123", "1234567890123456789012", "12,345,678", "€ 1 000 000"};
+    for (String value : values) {
+      String cleanedString = value.replaceAll("[^\\d.]", "");
+      if (cleanedString.length() == 0) {
+        cleanedString = "0";
+      }
+      BigDecimal expected = new BigDecimal(cleanedString).divide(new BigDecimal(1000000));
+      BigDecimal parsed = BigDecimalUtil.parseFromMicros(value);
+
+      Assert.assertEquals(value, expected, parsed);
+      Assert.assertEquals(value, expected.scale(), parsed.scale());
+    }
+
+    Assert.assertEquals(new BigDecimal("9.39"), BigDecimalUtil.parseFromMicros("9390000"));
+    Assert.assertNull(BigDecimalUtil.parseFromMicros(null));
+    try {
+      BigDecimalUtil.parseFromMicros("1.2.3");
+      Assert.fail("The value has two decimal points.");
+    } catch (NumberFormatException e) {
+      Assert.assertTrue(true);
+    }
+  }
 }
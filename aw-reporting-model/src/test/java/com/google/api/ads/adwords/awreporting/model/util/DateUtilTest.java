@@ -19,6 +19,7 @@ import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
 import junit.framework.Assert;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.junit.Test;
 
 import java.util.Calendar;
@@ -166,4 +167,37 @@ public class DateUtilTest {
 
   }
 
+  /**
+   * Tests that the parsed dates are cached, and that the unusual shapes are still parsed.
+   */
+  @Test
+  public void testParseDateTime_cached() {
+
+    DateTime dateTime = DateUtil.parseDateTime("2014-03-09");
+    Assert.assertEquals(new DateTime(2014, 3, 9, 12, 0, DateTimeZone.UTC), dateTime);
+    Assert.assertSame(dateTime, DateUtil.parseDateTime(new String("2014-03-09")));
+
+    Assert.assertEquals(dateTime, DateUtil.parseDateTime("2014-3-9"));
+    Assert.assertEquals(dateTime, DateUtil.parseDateTime("20140309"));
+    Assert.assertEquals(new DateTime(2014, 3, 1, 12, 0, DateTimeZone.UTC),
+        DateUtil.parseDateTime("2014-03"));
+
+    Assert.assertNull(DateUtil.parseDateTime("2014-13-09"));
+    Assert.assertNull(DateUtil.parseDateTime("2014-13-09"));
+    Assert.assertNull(DateUtil.parseDateTime(" --"));
+    Assert.assertNull(DateUtil.parseDateTime(null));
+  }
+
+  /**
+   * Tests that the formatted dates are reused for the same instant.
+   */
+  @Test
+  public void testFormat_cached() {
+
+    Date date = new DateTime(2012, 12, 31, 12, 0).toDate();
+    String formatted = DateUtil.formatYearMonthDay(date);
+    Assert.assertEquals("2012-12-31", formatted);
+    Assert.assertSame(formatted, DateUtil.formatYearMonthDay(new Date(date.getTime())));
+    Assert.assertEquals("2012-12", DateUtil.formatYearMonth(date));
+  }
 }
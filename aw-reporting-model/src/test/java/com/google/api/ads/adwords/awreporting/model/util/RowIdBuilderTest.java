@@ -0,0 +1,108 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.model.util;
+
+import com.google.api.ads.adwords.awreporting.model.entities.ReportCampaign;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Test case for the {@link RowIdBuilder} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class RowIdBuilderTest {
+
+  /**
+   * Tests the parts of the ids.
+   */
+  @Test
+  public void testBuild() {
+
+    Assert.assertEquals("123-456-null-a", RowIdBuilder.start().append(123L).appendPart(456L)
+        .appendPart(null).appendPartIfNotNull(null).appendPartIfNotEmpty("")
+        .appendPartIfNotEmpty("a").build());
+
+    // The builder is reused
+    Assert.assertEquals("null", RowIdBuilder.start().append((Object) null).build());
+    Assert.assertEquals("", RowIdBuilder.start().build());
+  }
+
+  /**
+   * Tests that the URL hashes are the SHA-1 of the URLs.
+   */
+  @Test
+  public void testAppendUrlHash() {
+
+    String sha1 = "738ddf35b3a85a7a6ba7b232bd3d5f1e4d284ad1";
+    Assert.assertEquals(sha1, UrlHashUtil.createUrlHash("http://www.google.com"));
+    Assert.assertEquals("1-" + sha1 + "-",
+        RowIdBuilder.start().append(1L).append(RowIdBuilder.SEPARATOR)
+            .appendUrlHash("http://www.google.com").append(RowIdBuilder.SEPARATOR).build());
+  }
+
+  /**
+   * Tests the fixed width hashes of the ids.
+   */
+  @Test
+  public void testHash() {
+
+    String hash = RowIdBuilder.hash("1-2-3-4-2013-05-01");
+    Assert.assertEquals(RowIdBuilder.HASHED_ID_LENGTH, hash.length());
+    Assert.assertEquals(hash, RowIdBuilder.hash(new StringBuilder("1-2-3-4-2013-05-01")));
+    Assert.assertFalse(hash.equals(RowIdBuilder.hash("1-2-3-4-2013-05-02")));
+    Assert.assertEquals(RowIdBuilder.HASHED_ID_LENGTH, RowIdBuilder.hash("").length());
+  }
+
+  /**
+   * Tests the ids of the report entities.
+   */
+  @Test
+  public void testReportIds() {
+
+    ReportKeyword keyword = new ReportKeyword(1L, 2L);
+    keyword.setCampaignId(3L);
+    keyword.setAdGroupId(4L);
+    keyword.setKeywordId(5L);
+    keyword.setDay("2013-05-01");
+    keyword.setAdNetwork("Search Network");
+    keyword.setDevice("");
+    keyword.setId();
+    Assert.assertEquals("2-3-4-5-2013-05-01-Search Network", keyword.getId());
+
+    keyword.hashId();
+    Assert.assertEquals(RowIdBuilder.hash("2-3-4-5-2013-05-01-Search Network"), keyword.getId());
+
+    // The dates of the date range type are set in the report
+    ReportCampaign campaign = new ReportCampaign(1L, 2L);
+    campaign.setCampaignId(3L);
+    campaign.setDateRangeType("LAST_MONTH");
+    campaign.setId();
+    Assert.assertNotNull(campaign.getDateStart());
+    Assert.assertNotNull(campaign.getMonth());
+    Assert.assertEquals(
+        "2-3-" + campaign.getMonth().substring(0, 7) + "-01", campaign.getId().substring(0, 14));
+
+    ReportCampaign otherCampaign = new ReportCampaign(1L, 2L);
+    otherCampaign.setCampaignId(3L);
+    otherCampaign.setDateRangeType("LAST_7_DAYS");
+    otherCampaign.setId();
+    Assert.assertEquals("2-3-" + otherCampaign.getDateStart() + "-" + otherCampaign.getDateEnd(),
+        otherCampaign.getId());
+  }
+}
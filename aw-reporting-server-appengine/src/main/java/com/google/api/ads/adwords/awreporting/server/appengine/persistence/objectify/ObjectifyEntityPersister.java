@@ -19,6 +19,7 @@ import static com.googlecode.objectify.ObjectifyService.ofy;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
 import com.google.api.ads.adwords.awreporting.server.appengine.model.UserToken;
 import com.google.common.collect.Maps;
 
@@ -407,6 +408,41 @@ public class ObjectifyEntityPersister implements EntityPersister, Serializable {
     return ofy().load().type(classT).order("-" + dateKey).filter(ReportBase.TOP_ACCOUNT_ID, topAccountId).first().now();
   }
 
+  @Override
+  public <T extends ReportBase> Map<Long, Date> getMinDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, false);
+  }
+
+  @Override
+  public <T extends ReportBase> Map<Long, Date> getMaxDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey) {
+    return getDateByAccount(classT, topAccountId, dateKey, true);
+  }
+
+  /**
+   * The Datastore has no group by, so the reports of the MCC are scanned once.
+   */
+  private <T extends ReportBase> Map<Long, Date> getDateByAccount(
+      Class<T> classT, long topAccountId, String dateKey, boolean max) {
+    Map<Long, Date> dateByAccount = Maps.newHashMap();
+    for (T report : ofy().load().type(classT).filter(ReportBase.TOP_ACCOUNT_ID, topAccountId)) {
+      Date date = null;
+      if (dateKey.equalsIgnoreCase(ReportBase.MONTH) && report.getMonth() != null) {
+        date = report.getMonthDateTime().toDate();
+      } else if (dateKey.equalsIgnoreCase(ReportBase.DAY) && report.getDay() != null) {
+        date = DateUtil.parseDateTime(report.getDay()).toDate();
+      }
+      if (date != null) {
+        Date previous = dateByAccount.get(report.getAccountId());
+        if (previous == null || (max ? date.after(previous) : date.before(previous))) {
+          dateByAccount.put(report.getAccountId(), date);
+        }
+      }
+    }
+    return dateByAccount;
+  }
+
   /**
    * Checks if the account exists in the datastore.  This method does NOT validate an CID against AdWords.
    * @param topAccountId
@@ -14,6 +14,7 @@
 
 package com.google.api.ads.adwords.awreporting.server.appengine.processors;
 
+import com.google.api.ads.adwords.awreporting.downloader.ReportRateLimiter;
 import com.google.api.ads.adwords.awreporting.server.appengine.RestServer;
 import com.google.api.ads.adwords.awreporting.server.appengine.util.MccTaskCounter;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
@@ -23,6 +24,7 @@ import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
 import com.google.api.ads.adwords.awreporting.model.util.CsvParserIterator;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.lib.client.AdWordsSession;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
 import com.google.api.ads.adwords.lib.utils.v201502.ReportDownloader;
@@ -188,7 +190,8 @@ public class TaskProcessorOnMemory<R extends Report> implements DeferredTask {
   }
 
   /**
-   * Downloads the file from the API into an InputStream.
+   * Downloads the file from the API into an InputStream, paced by the {@link ReportRateLimiter} of
+   * the application context.
    *
    * @return the InputStream from the online report
    * @throws ValidationException API validation error
@@ -202,8 +205,18 @@ public class TaskProcessorOnMemory<R extends Report> implements DeferredTask {
 
     InputStream inputStream = null;
 
-    ReportDownloader reportDownloader = new ReportDownloader(
-        RestServer.getAdWordsSessionBuilderSynchronizer(mccAccountId).getAdWordsSessionCopy(accountId));
+    AdWordsSession adWordsSession =
+        RestServer.getAdWordsSessionBuilderSynchronizer(mccAccountId).getAdWordsSessionCopy(accountId);
+
+    try {
+      RestServer.getApplicationContext().getBean(ReportRateLimiter.class)
+          .acquire(adWordsSession.getDeveloperToken(), mccAccountId);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ReportException("Interrupted while waiting for the rate limiter", e);
+    }
+
+    ReportDownloader reportDownloader = new ReportDownloader(adWordsSession);
 
     ReportDownloadResponse reportDownloadResponse = reportDownloader.downloadReport(reportDefinition);
 
@@ -16,6 +16,8 @@ package com.google.api.ads.adwords.awreporting;
 
 import com.google.api.ads.adwords.awreporting.authentication.Authenticator;
 import com.google.api.ads.adwords.awreporting.exporter.ReportExporterLocal;
+import com.google.api.ads.adwords.awreporting.model.persistence.sql.PooledDataSource;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
 import com.google.api.ads.adwords.awreporting.processors.ReportProcessor;
 import com.google.api.ads.adwords.awreporting.processors.onfile.ReportProcessorOnFile;
 import com.google.api.ads.adwords.awreporting.proxy.JaxWsProxySelector;
@@ -85,6 +87,12 @@ import java.util.Set;
    */
   private static final String AW_REPORT_PROCESSOR_TYPE = "aw.report.processor.type";
 
+  /**
+   * The checkpoint journal file key specified in the properties file.
+   */
+  private static final String AW_REPORT_PROCESSOR_JOURNAL_FILE =
+      "aw.report.processor.journal.file";
+
   /**
    * The Spring application context used to get all the beans.
    */
@@ -149,9 +157,17 @@ import java.util.Set;
       LOGGER.debug("Creating ReportProcessor bean...");
       ReportProcessor processor = createReportProcessor();
       LOGGER.debug("... success.");
+      if (!checkConnectionPoolSize(processor)) {
+        System.exit(1);
+      }
 
       String mccAccountId = properties.getProperty("mccAccountId").replaceAll("-", "");
 
+      CheckpointJournal checkpointJournal = createCheckpointJournal(
+          properties, mccAccountId, cmdLine.hasOption("resume"));
+      processor.setCheckpointJournal(checkpointJournal);
+      processor.setIncremental(cmdLine.hasOption("incremental"));
+
      
        if (cmdLine.hasOption("startDate") && cmdLine.hasOption("endDate")) {
         // Generate Reports
@@ -236,13 +252,41 @@ import java.util.Set;
       e.printStackTrace();
     }
 
+    logConnectionPoolStats();
+
     if (errors) {
+      LOGGER.info("Run again with -resume to skip the reports already completed.");
       System.exit(1);
     } else {
       System.exit(0);
     }
   }
 
+  /**
+   * Opens the journal of the reports completed, in the file of the properties or in the temporary
+   * directory by default. Without {@code resume} the journal of the previous run is discarded.
+   *
+   * @param properties the properties.
+   * @param mccAccountId the top account ID.
+   * @param resume true to skip the reports completed by the previous run.
+   * @return the journal.
+   * @throws IOException error opening the journal file.
+   */
+  private static CheckpointJournal createCheckpointJournal(
+      Properties properties, String mccAccountId, boolean resume) throws IOException {
+
+    String journalFileName = properties.getProperty(AW_REPORT_PROCESSOR_JOURNAL_FILE);
+    File journalFile;
+    if (journalFileName != null && journalFileName.trim().length() > 0) {
+      journalFile = new File(journalFileName.trim());
+    } else {
+      journalFile = new File(System.getProperty("java.io.tmpdir"),
+          "AwReporting-journal-" + mccAccountId + ".tsv");
+    }
+    LOGGER.info("Using checkpoint journal: " + journalFile.getAbsolutePath());
+    return new CheckpointJournal(journalFile, resume);
+  }
+
   /**
    * Reads the account ids from the file, and adds them to the given set.
    *
@@ -268,6 +312,39 @@ import java.util.Set;
     }
   }
 
+  /**
+   * Logs the metrics of the connection pool of the SQL data base, if it is used.
+   */
+  private static void logConnectionPoolStats() {
+    if (appCtx != null) {
+      for (PooledDataSource dataSource : appCtx.getBeansOfType(PooledDataSource.class).values()) {
+        LOGGER.info("Connection pool: " + dataSource);
+      }
+    }
+  }
+
+  /**
+   * Checks that the connection pool of the SQL data base, if it is used, has a connection for each
+   * thread of the processor that can hold one at the same time, so the threads do not fail
+   * waiting for the connections of the others.
+   *
+   * @param processor the processor of the reports.
+   * @return true if the pool is large enough, or there is no pool.
+   */
+  private static boolean checkConnectionPoolSize(ReportProcessor processor) {
+    int connections = processor.getMaxConcurrentConnections();
+    for (PooledDataSource dataSource : appCtx.getBeansOfType(PooledDataSource.class).values()) {
+      if (dataSource.getMaxSize() < connections) {
+        LOGGER.error("The connection pool has " + dataSource.getMaxSize() + " connections, but "
+            + "the processor threads, writer threads and slice replacements can hold "
+            + connections + " at once. Set 'aw.report.model.db.sql.pool.size' to at least "
+            + connections + ".");
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Creates the {@link ReportProcessor} autowiring all the dependencies.
    *
@@ -344,6 +421,21 @@ import java.util.Set;
     OptionBuilder.isRequired(false);
     options.addOption(OptionBuilder.create("debug"));
 
+    OptionBuilder.withArgName("resume");
+    OptionBuilder.hasArg(false);
+    OptionBuilder.withDescription("Skips the reports already completed by the previous run with "
+        + "the same dates, recorded in the checkpoint journal.");
+    OptionBuilder.isRequired(false);
+    options.addOption(OptionBuilder.create("resume"));
+
+    OptionBuilder.withArgName("incremental");
+    OptionBuilder.hasArg(false);
+    OptionBuilder.withDescription("Downloads only the days of the CUSTOM_DATE range missing in the "
+        + "data base for each account, plus the last days of the range set in "
+        + "'aw.report.processor.incremental.restatement.days'.");
+    OptionBuilder.isRequired(false);
+    options.addOption(OptionBuilder.create("incremental"));
+
     OptionBuilder.withArgName("onFileReport");
     OptionBuilder.hasArg(true);
     OptionBuilder.withDescription("This is an experimental argument, where you can specify "
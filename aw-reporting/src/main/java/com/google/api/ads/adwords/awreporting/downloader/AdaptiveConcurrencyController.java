@@ -0,0 +1,205 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of downloads in flight using an AIMD (additive increase, multiplicative
+ * decrease) policy.
+ *
+ *  Every healthy response raises the limit by {@code 1 / limit}, so the limit grows by about one
+ * download per round of successful downloads. A rate limit or server error multiplies the limit by
+ * the decrease factor, backing off quickly when the API pushes back. The limit always stays
+ * between the minimum and maximum given in the constructor.
+ *
+ *  Download threads call {@code acquire} before each request, and {@code release} with the
+ * {@link Outcome} of the request afterwards.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class AdaptiveConcurrencyController {
+
+  private static final Logger LOGGER = Logger.getLogger(AdaptiveConcurrencyController.class);
+
+  private static final double DEFAULT_DECREASE_FACTOR = 0.5;
+
+  /**
+   * Weight of the last response in the error rate moving average.
+   */
+  private static final double ERROR_RATE_WEIGHT = 0.05;
+
+  /**
+   * The outcome of a download, reported when releasing the permit.
+   */
+  public enum Outcome {
+    /** The report was downloaded. */
+    SUCCESS,
+    /** The API answered with a rate limit or server error, the limit is decreased. */
+    THROTTLED,
+    /** Any other error, counted in the error rate without changing the limit. */
+    FAILURE
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permitAvailable = lock.newCondition();
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double decreaseFactor;
+
+  private double limit;
+  private int inFlight = 0;
+  private double errorRate = 0;
+
+  /**
+   * C'tor.
+   *
+   * @param initialLimit the number of downloads allowed in flight at the start.
+   * @param minLimit the lowest limit, at least 1.
+   * @param maxLimit the highest limit, usually the size of the download thread pool.
+   */
+  public AdaptiveConcurrencyController(int initialLimit, int minLimit, int maxLimit) {
+    this(initialLimit, minLimit, maxLimit, DEFAULT_DECREASE_FACTOR);
+  }
+
+  /**
+   * C'tor.
+   *
+   * @param initialLimit the number of downloads allowed in flight at the start.
+   * @param minLimit the lowest limit, at least 1.
+   * @param maxLimit the highest limit, usually the size of the download thread pool.
+   * @param decreaseFactor the factor applied to the limit on a throttled response, between 0 and 1.
+   */
+  public AdaptiveConcurrencyController(
+      int initialLimit, int minLimit, int maxLimit, double decreaseFactor) {
+
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          "Invalid concurrency limits, min: " + minLimit + " max: " + maxLimit);
+    }
+    if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+      throw new IllegalArgumentException("The decrease factor must be between 0 and 1.");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.decreaseFactor = decreaseFactor;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Waits until the number of downloads in flight is below the current limit, and takes a permit.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void acquire() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (inFlight >= (int) limit) {
+        permitAvailable.await();
+      }
+      inFlight++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the permit taken by {@code acquire}, adjusting the limit to the outcome.
+   *
+   * @param outcome the outcome of the download.
+   */
+  public void release(Outcome outcome) {
+    lock.lock();
+    try {
+      inFlight--;
+      int previousLimit = (int) limit;
+
+      switch (outcome) {
+        case SUCCESS:
+          limit = Math.min(maxLimit, limit + 1 / limit);
+          errorRate = (1 - ERROR_RATE_WEIGHT) * errorRate;
+          break;
+        case THROTTLED:
+          limit = Math.max(minLimit, limit * decreaseFactor);
+          errorRate = (1 - ERROR_RATE_WEIGHT) * errorRate + ERROR_RATE_WEIGHT;
+          break;
+        default:
+          errorRate = (1 - ERROR_RATE_WEIGHT) * errorRate + ERROR_RATE_WEIGHT;
+      }
+
+      if ((int) limit != previousLimit) {
+        LOGGER.debug("Download concurrency limit changed from " + previousLimit + " to "
+            + (int) limit + " (error rate " + getErrorRate() + ")");
+      }
+      permitAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of downloads currently allowed in flight.
+   */
+  public int getCurrentLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of downloads currently in flight.
+   */
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the moving average of the failed downloads, between 0 and 1.
+   */
+  public double getErrorRate() {
+    lock.lock();
+    try {
+      return errorRate;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the lowest limit.
+   */
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  /**
+   * @return the highest limit.
+   */
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+}
@@ -0,0 +1,483 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import com.google.api.ads.adwords.lib.utils.v201502.ReportDownloader;
+import com.google.common.collect.Maps;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the report downloads from hanging forever.
+ *
+ *  Each download attempt is registered with {@code start} and {@code finish}. A checker thread
+ * looks at the attempts in flight every second:
+ * <ul>
+ * <li>An attempt running longer than {@code timeoutMillis} is cancelled: its response stream is
+ * closed and its thread interrupted, so the attempt fails and the downloader retries it. The
+ * attempts whose timeout was stopped with {@code stopTimeout} are not cancelled.</li>
+ * <li>With hedging enabled, an attempt running longer than the 95th percentile of the downloads of
+ * its report type gets a second, speculative download. The first one to finish is kept.</li>
+ * </ul>
+ *
+ *  The {@code readTimeoutMillis} is set on the {@link ReportDownloader}, so a connection that
+ * stops sending bytes fails on its own without waiting for the overall timeout.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class DownloadWatchdog {
+
+  private static final Logger LOGGER = Logger.getLogger(DownloadWatchdog.class);
+
+  private static final long CHECK_INTERVAL_MILLIS = 1000;
+
+  private static final double HEDGING_PERCENTILE = 0.95;
+
+  /**
+   * Downloads of a report type observed before hedging starts, so the percentile means something.
+   */
+  private static final int MIN_HEDGING_SAMPLES = 20;
+
+  /**
+   * Durations kept per report type, the oldest ones are replaced.
+   */
+  private static final int MAX_DURATION_SAMPLES = 1000;
+
+  private static final int HEDGING_THREADS = 4;
+
+  private static final long PROGRESS_LOG_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private long timeoutMillis = 0;
+
+  private int readTimeoutMillis = 0;
+
+  private boolean hedging = false;
+
+  private int hedgingThreads = HEDGING_THREADS;
+
+  private final Set<Attempt> attempts =
+      Collections.newSetFromMap(new ConcurrentHashMap<Attempt, Boolean>());
+
+  private final ThreadLocal<Attempt> currentAttempt = new ThreadLocal<Attempt>();
+
+  private final Map<String, DurationSamples> durations = Maps.newHashMap();
+
+  private final AtomicInteger timedOutCount = new AtomicInteger();
+
+  private final AtomicInteger hedgedCount = new AtomicInteger();
+
+  private ScheduledExecutorService checkerService;
+
+  private ExecutorService hedgingService;
+
+  /**
+   * A download attempt in flight.
+   */
+  public static final class Attempt {
+
+    private final String reportType;
+    private final Long accountId;
+    private final Thread thread;
+    private final long startMillis;
+    private final Runnable hedge;
+
+    private Closeable stream;
+    private boolean untimed = false;
+    private boolean finished = false;
+    private boolean timedOut = false;
+    private boolean hedged = false;
+
+    private Attempt(String reportType, Long accountId, long startMillis, Runnable hedge) {
+      this.reportType = reportType;
+      this.accountId = accountId;
+      this.thread = Thread.currentThread();
+      this.startMillis = startMillis;
+      this.hedge = hedge;
+    }
+
+    /**
+     * @return true if the attempt was cancelled for running longer than the timeout.
+     */
+    public synchronized boolean isTimedOut() {
+      return timedOut;
+    }
+
+    /**
+     * @return true if a speculative download was started for the attempt.
+     */
+    public synchronized boolean isHedged() {
+      return hedged;
+    }
+
+    /**
+     * Closes the response stream of the attempt, so it stops downloading. Used when another
+     * download of the same report already finished.
+     */
+    public synchronized void abort() {
+      if (!finished && stream != null) {
+        closeQuietly(stream);
+      }
+    }
+
+    private synchronized void setStream(Closeable stream) {
+      this.stream = stream;
+      if (finished || timedOut) {
+        closeQuietly(stream);
+      }
+    }
+
+    private synchronized void stopTimeout() {
+      untimed = true;
+    }
+
+    private synchronized boolean cancel() {
+      if (finished || timedOut || untimed) {
+        return false;
+      }
+      timedOut = true;
+      if (stream != null) {
+        closeQuietly(stream);
+      }
+      thread.interrupt();
+      return true;
+    }
+
+    private synchronized boolean startHedge() {
+      if (finished || hedged || hedge == null) {
+        return false;
+      }
+      hedged = true;
+      return true;
+    }
+
+    private synchronized void finish() {
+      finished = true;
+    }
+
+    private static void closeQuietly(Closeable stream) {
+      try {
+        stream.close();
+      } catch (IOException e) {
+        // The download fails anyway
+      }
+    }
+  }
+
+  /**
+   * The last durations of the downloads of a report type.
+   */
+  private static final class DurationSamples {
+
+    private final long[] samples = new long[MAX_DURATION_SAMPLES];
+    private int count = 0;
+
+    private void add(long durationMillis) {
+      samples[count % MAX_DURATION_SAMPLES] = durationMillis;
+      count++;
+    }
+
+    private long getPercentile(double percentile) {
+      int size = Math.min(count, MAX_DURATION_SAMPLES);
+      long[] sorted = Arrays.copyOf(samples, size);
+      Arrays.sort(sorted);
+      return sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+    }
+  }
+
+  /**
+   * Registers a download attempt of the current thread.
+   *
+   * @param reportType the report type.
+   * @param accountId the account ID.
+   * @param hedge the speculative download to start if the attempt is slow, {@code null} if the
+   *        attempt can not be hedged.
+   * @return the attempt, to be passed to {@code finish}.
+   */
+  public Attempt start(String reportType, Long accountId, Runnable hedge) {
+    Attempt attempt = new Attempt(reportType, accountId, System.currentTimeMillis(),
+        hedging ? hedge : null);
+    currentAttempt.set(attempt);
+    attempts.add(attempt);
+    startChecker();
+    return attempt;
+  }
+
+  /**
+   * Registers the response stream of the attempt of the current thread, to be closed if the
+   * attempt is cancelled.
+   *
+   * @param stream the response stream.
+   */
+  public void watchStream(Closeable stream) {
+    Attempt attempt = currentAttempt.get();
+    if (attempt != null && stream != null) {
+      attempt.setStream(stream);
+    }
+  }
+
+  /**
+   * Stops the timeout of the attempt of the current thread, that is no longer cancelled for
+   * running too long. Used once a streamed report is open, as its rows are parsed and persisted
+   * while it downloads. The read timeout still fails a connection that stops sending bytes.
+   */
+  public void stopTimeout() {
+    Attempt attempt = currentAttempt.get();
+    if (attempt != null) {
+      attempt.stopTimeout();
+    }
+  }
+
+  /**
+   * Unregisters the attempt. The interrupt of a cancelled attempt is cleared, so the thread can
+   * go on with the retries.
+   *
+   * @param attempt the attempt returned by {@code start}.
+   * @param success true if the report was downloaded.
+   */
+  public void finish(Attempt attempt, boolean success) {
+    attempt.finish();
+    attempts.remove(attempt);
+    if (currentAttempt.get() == attempt) {
+      currentAttempt.remove();
+    }
+    if (attempt.isTimedOut()) {
+      Thread.interrupted();
+    } else if (success) {
+      synchronized (durations) {
+        DurationSamples samples = durations.get(attempt.reportType);
+        if (samples == null) {
+          samples = new DurationSamples();
+          durations.put(attempt.reportType, samples);
+        }
+        samples.add(System.currentTimeMillis() - attempt.startMillis);
+      }
+    }
+  }
+
+  /**
+   * Sets the read timeout of the downloader, if one was configured.
+   *
+   * @param reportDownloader the downloader.
+   */
+  public void configure(ReportDownloader reportDownloader) {
+    if (readTimeoutMillis > 0) {
+      reportDownloader.setReportDownloadTimeout(readTimeoutMillis);
+    }
+  }
+
+  /**
+   * @param reportType the report type.
+   * @return the duration after which a download of the report type is hedged, -1 if there are
+   *         not enough downloads observed yet.
+   */
+  public long getHedgingThreshold(String reportType) {
+    synchronized (durations) {
+      DurationSamples samples = durations.get(reportType);
+      if (samples == null || samples.count < MIN_HEDGING_SAMPLES) {
+        return -1;
+      }
+      return samples.getPercentile(HEDGING_PERCENTILE);
+    }
+  }
+
+  /**
+   * Cancels the attempts past the timeout and hedges the slow ones.
+   *
+   * @param nowMillis the current time.
+   */
+  void check(long nowMillis) {
+    for (Attempt attempt : attempts) {
+      long elapsedMillis = nowMillis - attempt.startMillis;
+      if (timeoutMillis > 0 && elapsedMillis > timeoutMillis) {
+        if (attempt.cancel()) {
+          timedOutCount.incrementAndGet();
+          LOGGER.warn("Cancelling download of account " + attempt.accountId + " "
+              + attempt.reportType + " after " + (elapsedMillis / 1000) + " seconds.");
+        }
+      } else if (attempt.hedge != null) {
+        long threshold = getHedgingThreshold(attempt.reportType);
+        if (threshold >= 0 && elapsedMillis > threshold && attempt.startHedge()) {
+          hedgedCount.incrementAndGet();
+          LOGGER.debug("Hedging download of account " + attempt.accountId + " "
+              + attempt.reportType + " after " + elapsedMillis + " ms.");
+          getHedgingService().execute(attempt.hedge);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of attempts cancelled for running longer than the timeout.
+   */
+  public int getTimedOutCount() {
+    return timedOutCount.get();
+  }
+
+  /**
+   * @return the number of speculative downloads started.
+   */
+  public int getHedgedCount() {
+    return hedgedCount.get();
+  }
+
+  /**
+   * @return the most time to wait for a hedged download, or for any download to finish.
+   */
+  public long getMaxWaitMillis() {
+    return timeoutMillis > 0 ? timeoutMillis : TimeUnit.HOURS.toMillis(1);
+  }
+
+  /**
+   * Waits for the latch, logging the work still pending every minute. Gives up when none of the
+   * pending work finished for {@code maxStallMillis}, so one hung task can not stall the run
+   * forever.
+   *
+   * @param latch the latch counting the pending work.
+   * @param description the description of the work for the logs.
+   * @param maxStallMillis the most time to wait without progress, 0 to wait as long as needed.
+   * @return true if all the work finished, false if the wait gave up.
+   * @throws InterruptedException error waiting for the latch.
+   */
+  public static boolean await(CountDownLatch latch, String description, long maxStallMillis)
+      throws InterruptedException {
+    long lastCount = latch.getCount();
+    long lastProgressMillis = System.currentTimeMillis();
+    long waitMillis = PROGRESS_LOG_INTERVAL_MILLIS;
+    if (maxStallMillis > 0) {
+      waitMillis = Math.min(waitMillis, maxStallMillis);
+    }
+    while (!latch.await(waitMillis, TimeUnit.MILLISECONDS)) {
+      long count = latch.getCount();
+      long nowMillis = System.currentTimeMillis();
+      if (count != lastCount) {
+        lastCount = count;
+        lastProgressMillis = nowMillis;
+      } else if (maxStallMillis > 0 && nowMillis - lastProgressMillis >= maxStallMillis) {
+        LOGGER.error("Giving up waiting for " + count + " " + description + ", none finished in "
+            + ((nowMillis - lastProgressMillis) / 1000) + " seconds.");
+        return false;
+      }
+      LOGGER.info(" Waiting for " + count + " " + description + "...");
+    }
+    return true;
+  }
+
+  /**
+   * Stops the checker and the hedging threads.
+   */
+  public synchronized void shutdown() {
+    if (checkerService != null) {
+      checkerService.shutdownNow();
+      checkerService = null;
+    }
+    if (hedgingService != null) {
+      hedgingService.shutdownNow();
+      hedgingService = null;
+    }
+  }
+
+  private synchronized void startChecker() {
+    if (checkerService != null || (timeoutMillis <= 0 && !hedging)) {
+      return;
+    }
+    checkerService = Executors.newSingleThreadScheduledExecutor(
+        new DaemonThreadFactory("DownloadWatchdog"));
+    checkerService.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          check(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+          LOGGER.error("Error checking the downloads: " + e.getMessage());
+        }
+      }
+    }, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized ExecutorService getHedgingService() {
+    if (hedgingService == null) {
+      hedgingService = Executors.newFixedThreadPool(
+          Math.max(1, hedgingThreads), new DaemonThreadFactory("DownloadHedge"));
+    }
+    return hedgingService;
+  }
+
+  /**
+   * Creates daemon threads, so the watchdog never keeps the process alive.
+   */
+  private static final class DaemonThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private DaemonThreadFactory(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * @param timeoutMillis the most time a download attempt can take before it is cancelled and
+   *        retried, 0 for no limit. Default value = 0
+   */
+  public void setTimeoutMillis(long timeoutMillis) {
+    this.timeoutMillis = Math.max(0, timeoutMillis);
+  }
+
+  /**
+   * @param readTimeoutMillis the most time waiting for the connection or for the next bytes of
+   *        the response, 0 for the default of the AdWords library. Default value = 0
+   */
+  public void setReadTimeoutMillis(int readTimeoutMillis) {
+    this.readTimeoutMillis = Math.max(0, readTimeoutMillis);
+  }
+
+  /**
+   * @param hedging true to start a second download of the reports slower than the 95th
+   *        percentile, keeping the first one to finish. Default value = false
+   */
+  public void setHedging(boolean hedging) {
+    this.hedging = hedging;
+  }
+
+  /**
+   * @param hedgingThreads the most speculative downloads running at the same time.
+   *        Default value = 4
+   */
+  public void setHedgingThreads(int hedgingThreads) {
+    this.hedgingThreads = hedgingThreads;
+  }
+}
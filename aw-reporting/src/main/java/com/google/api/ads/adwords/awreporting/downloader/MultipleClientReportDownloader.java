@@ -23,12 +23,18 @@ import com.google.common.base.Stopwatch;
 import org.apache.log4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,6 +45,20 @@ import java.util.concurrent.TimeUnit;
  * necessary to call {@code finalizeExecutorService} after all the downloads are done, and the
  * downloader will not be used again.
  *
+ * The number of downloads in flight is driven by an {@link AdaptiveConcurrencyController}: it
+ * starts at {@code numThreads}, grows up to {@code maxThreads} while the API answers normally, and
+ * is cut back on rate limit or server errors.
+ *
+ * The accounts are submitted largest first, by the sizes of their previous downloads kept in the
+ * {@link ReportStatsStore}, so the longest reports do not end up running alone at the end.
+ *
+ * The {@link DownloadWatchdog} cancels the attempts running past the timeout, so they are retried,
+ * and stops waiting for the downloads when none of them finishes for a long time.
+ *
+ * Several report types can be downloaded at the same time over the shared executor. The downloads
+ * of a report type can be capped with {@code setReportTypeMaxDownloads}, so a huge report type
+ * does not fill the executor queue while the small ones wait.
+ *
  * @author gustavomoreira@google.com (Gustavo Moreira)
  * @author jtoledo@google.com (Julian Toledo)
  */
@@ -54,16 +74,33 @@ public class MultipleClientReportDownloader {
 
   private static final int BUF_SIZE = 0x1000;
 
+  private static final int LARGEST_ACCOUNTS_LOGGED = 5;
+
   private ExecutorService executorService;
 
   private int numThreads = NUM_THREADS;
 
+  private int maxThreads = 0;
+
+  private boolean adaptiveConcurrency = true;
+
+  private AdaptiveConcurrencyController concurrencyController;
+
   private int retriesCount = RETRIES_COUNT;
 
   private int backoffInterval = BACKOFF_INTERVAL;
 
   private int bufferSize = BUF_SIZE;
 
+  private ReportStatsStore reportStatsStore = new ReportStatsStore();
+
+  private DownloadWatchdog downloadWatchdog = new DownloadWatchdog();
+
+  private ReportRateLimiter rateLimiter = new ReportRateLimiter();
+
+  private final Map<String, Semaphore> reportTypePermits =
+      new ConcurrentHashMap<String, Semaphore>();
+
   /**
    * Downloads the specified report for all specified CIDs. Prints out list of failed CIDs. Returns
    * List<File> for all successful downloads.
@@ -77,6 +114,61 @@ public class MultipleClientReportDownloader {
   public Collection<File> downloadReports(final AdWordsSessionBuilderSynchronizer sessionBuilder,
       final ReportDefinition reportDefinition, final Set<Long> accountIds) throws InterruptedException, ValidationException {
 
+    return this.downloadReports(sessionBuilder, reportDefinition, accountIds, null, null, null);
+  }
+
+  /**
+   * Downloads the specified report for all specified CIDs, and also puts each file into the
+   * {@code downloadedFiles} queue as soon as its download finishes, so the files can be processed
+   * while the rest are still downloading. When the queue is full the download threads wait for
+   * space, slowing down the downloads to the pace of the processing.
+   *
+   * @param reportDefinition Report to download.
+   * @param cids CIDs to download the report for.
+   * @param downloadedFiles the queue that receives each file when its download is finished.
+   * @return Collection of File objects reports have been downloaded to.
+   * @throws InterruptedException error trying to stop downloader thread.
+   * @throws ValidationException
+   */
+  public Collection<File> downloadReports(final AdWordsSessionBuilderSynchronizer sessionBuilder,
+      final ReportDefinition reportDefinition, final Set<Long> accountIds,
+      final BlockingQueue<File> downloadedFiles) throws InterruptedException, ValidationException {
+
+    return this.downloadReports(
+        sessionBuilder, reportDefinition, accountIds, downloadedFiles, null, null);
+  }
+
+  /**
+   * Downloads the specified report for all specified CIDs, handing each report to the
+   * {@code ReportStreamProcessor} while it is being downloaded instead of saving it to the file
+   * system. Prints out list of failed CIDs.
+   *
+   * @param reportDefinition Report to download.
+   * @param cids CIDs to download the report for.
+   * @param reportStreamProcessor the processor for the decompressed report content.
+   * @param auditDirectory the directory to keep a copy of the compressed reports, can be
+   *        {@code null}.
+   * @return Collection of the audit copies of the compressed reports, empty if no audit directory
+   *         was given.
+   * @throws InterruptedException error trying to stop downloader thread.
+   * @throws ValidationException
+   */
+  public Collection<File> downloadAndProcessReports(
+      final AdWordsSessionBuilderSynchronizer sessionBuilder,
+      final ReportDefinition reportDefinition, final Set<Long> accountIds,
+      final ReportStreamProcessor reportStreamProcessor, final File auditDirectory)
+      throws InterruptedException, ValidationException {
+
+    return this.downloadReports(
+        sessionBuilder, reportDefinition, accountIds, null, reportStreamProcessor, auditDirectory);
+  }
+
+  private Collection<File> downloadReports(final AdWordsSessionBuilderSynchronizer sessionBuilder,
+      final ReportDefinition reportDefinition, final Set<Long> accountIds,
+      final BlockingQueue<File> downloadedFiles, final ReportStreamProcessor reportStreamProcessor,
+      final File auditDirectory)
+      throws InterruptedException, ValidationException {
+
     final Collection<Long> failed = new ConcurrentSkipListSet<Long>();
     final Collection<File> results = new ConcurrentSkipListSet<File>();
 
@@ -85,7 +177,13 @@ public class MultipleClientReportDownloader {
 
     Stopwatch stopwatch = Stopwatch.createStarted();
 
-    for (final Long accountId : accountIds) {
+    String mccAccountId = sessionBuilder.getClientCustomerId();
+    String reportType = reportDefinition.getReportType().value();
+
+    Semaphore typePermits = this.reportTypePermits.get(reportType);
+
+    List<Long> sortedAccountIds = this.reportStatsStore.sortLargestFirst(accountIds, reportType);
+    for (final Long accountId : sortedAccountIds) {
       
       // We create a copy of the AdWordsSession specific for the Account
       AdWordsSession adWordsSession = sessionBuilder.getAdWordsSessionCopy(accountId);
@@ -98,11 +196,29 @@ public class MultipleClientReportDownloader {
           adWordsSession,
           results);
       downloader.setFailed(failed);
+      downloader.setDownloadedFiles(downloadedFiles);
+      downloader.setConcurrencyController(concurrencyController);
+      downloader.setRateLimiterBucket(
+          this.rateLimiter.getBucket(adWordsSession.getDeveloperToken(), mccAccountId));
+      downloader.setReportStreamProcessor(reportStreamProcessor);
+      downloader.setAuditDirectory(auditDirectory);
+      downloader.setReportStatsStore(this.reportStatsStore);
+      downloader.setDownloadWatchdog(this.downloadWatchdog);
+      if (typePermits != null) {
+        // Released by the downloader when it finishes
+        typePermits.acquire();
+        downloader.setReportTypePermits(typePermits);
+      }
       executeRunnableDownloader(downloader, latch);
     }
 
-    latch.await();
+    if (!DownloadWatchdog.await(latch, reportType + " downloads",
+        this.downloadWatchdog.getMaxWaitMillis())) {
+      LOGGER.error("Some downloads of " + reportType + " never finished, their accounts are "
+          + "missing from the results.");
+    }
     stopwatch.stop();
+    this.saveReportStats(reportType);
     return this.printResultsAndReturn(
         results, stopwatch.elapsed(TimeUnit.MILLISECONDS), failed, accountIds);
   }
@@ -113,6 +229,23 @@ public class MultipleClientReportDownloader {
     this.executorService.execute(runnableDownloader);
   }
 
+  /**
+   * Saves the stats of the downloads and logs the largest accounts of the report type.
+   *
+   * @param reportType the report type.
+   */
+  private void saveReportStats(String reportType) {
+    try {
+      this.reportStatsStore.save();
+    } catch (IOException e) {
+      LOGGER.error("Error saving the report stats: " + e.getMessage());
+    }
+    for (ReportStatsStore.ReportStats stats :
+        this.reportStatsStore.getLargestAccounts(reportType, LARGEST_ACCOUNTS_LOGGED)) {
+      LOGGER.debug(" Largest account: " + stats);
+    }
+  }
+
   /**
    * Prints the results and return the list.
    *
@@ -126,6 +259,16 @@ public class MultipleClientReportDownloader {
       final Collection<Long> failed, final Set<Long> cids) {
     LOGGER.info("\n Downloaded reports for " + cids.size() + " accounts in " + (elapsedTime / 1000)
         + " s. " + failed.size() + " failures:\n");
+    int timedOut = this.downloadWatchdog.getTimedOutCount();
+    int hedged = this.downloadWatchdog.getHedgedCount();
+    if (timedOut > 0 || hedged > 0) {
+      LOGGER.info(" Downloads timed out so far: " + timedOut
+          + ", speculative downloads: " + hedged);
+    }
+    if (this.concurrencyController != null) {
+      LOGGER.info(" Download concurrency limit: " + this.concurrencyController.getCurrentLimit()
+          + ", error rate: " + String.format("%.3f", this.concurrencyController.getErrorRate()));
+    }
     for (Long failure : failed) {
       LOGGER.error(failure);
     }
@@ -144,8 +287,68 @@ public class MultipleClientReportDownloader {
    */
   public void initializeExecutorService() {
     // The ExecutorService will process all Runnables passed to it via .execute in
-    // the order they are received with up to numThreads processing concurrently.
-    this.executorService = Executors.newFixedThreadPool(this.numThreads);
+    // the order they are received with up to maxThreads processing concurrently.
+    // The concurrency controller decides how many of them are actually downloading.
+    int poolSize = Math.max(this.numThreads, this.maxThreads);
+    this.executorService = Executors.newFixedThreadPool(poolSize);
+    if (this.adaptiveConcurrency) {
+      this.concurrencyController =
+          new AdaptiveConcurrencyController(this.numThreads, 1, poolSize);
+    } else {
+      this.concurrencyController = null;
+    }
+  }
+
+  /**
+   * @return the controller of the downloads in flight, {@code null} if the adaptive concurrency
+   *         is disabled or the executor was not initialized.
+   */
+  public AdaptiveConcurrencyController getConcurrencyController() {
+    return this.concurrencyController;
+  }
+
+  /**
+   * @return the store with the size of the downloads of each account.
+   */
+  public ReportStatsStore getReportStatsStore() {
+    return this.reportStatsStore;
+  }
+
+  /**
+   * @param reportStatsStore the store with the size of the downloads of each account, used to
+   *        download the largest accounts first.
+   */
+  public void setReportStatsStore(ReportStatsStore reportStatsStore) {
+    this.reportStatsStore = reportStatsStore;
+  }
+
+  /**
+   * Caps the downloads of a report type in flight at the same time.
+   *
+   * @param reportType the report type.
+   * @param maxDownloads the most downloads of the report type at once, 0 for no cap other than
+   *        the number of threads.
+   */
+  public void setReportTypeMaxDownloads(String reportType, int maxDownloads) {
+    if (maxDownloads > 0) {
+      this.reportTypePermits.put(reportType, new Semaphore(maxDownloads));
+    } else {
+      this.reportTypePermits.remove(reportType);
+    }
+  }
+
+  /**
+   * @return the watchdog of the downloads.
+   */
+  public DownloadWatchdog getDownloadWatchdog() {
+    return this.downloadWatchdog;
+  }
+
+  /**
+   * @param downloadWatchdog the watchdog with the timeouts of the downloads.
+   */
+  public void setDownloadWatchdog(DownloadWatchdog downloadWatchdog) {
+    this.downloadWatchdog = downloadWatchdog;
   }
 
   /**
@@ -155,6 +358,37 @@ public class MultipleClientReportDownloader {
     this.numThreads = numThreads;
   }
 
+  /**
+   * @param maxThreads the highest number of downloads in flight the adaptive concurrency can grow
+   *        to. Values below numThreads mean numThreads. Default value = 0
+   */
+  public void setMaxThreads(int maxThreads) {
+    this.maxThreads = maxThreads;
+  }
+
+  /**
+   * @param adaptiveConcurrency true to adjust the downloads in flight to the API responses, false
+   *        to always run numThreads downloads. Default value = true
+   */
+  public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+    this.adaptiveConcurrency = adaptiveConcurrency;
+  }
+
+  /**
+   * @return the rate limiter of the downloads.
+   */
+  public ReportRateLimiter getRateLimiter() {
+    return this.rateLimiter;
+  }
+
+  /**
+   * @param rateLimiter the rate limiter pacing the downloads of each developer token and MCC,
+   *        shared with the other download paths.
+   */
+  public void setRateLimiter(ReportRateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
   /**
    * @param retriesCount the retriesCount to set. Default value = 5
    */
@@ -0,0 +1,198 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets that pace the report download requests.
+ *
+ *  There is one bucket per developer token and MCC, shared by all the download paths that use this
+ * limiter, so the requests of the concurrent downloaders of an MCC add up to the configured rate.
+ * Each bucket holds up to {@code burst} permits and refills at {@code permitsPerSecond}. A rate of
+ * zero or less disables the pacing, which is the default.
+ *
+ *  Changing the rate or the burst affects the existing buckets of the limiter too.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportRateLimiter {
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+  private volatile double permitsPerSecond = 0;
+
+  private volatile int burst = 1;
+
+  /**
+   * Gets the bucket shared by all the downloads of the developer token and MCC.
+   *
+   * @param developerToken the developer token of the session.
+   * @param mccAccountId the MCC the reports are downloaded for, with or without dashes.
+   * @return the bucket.
+   */
+  public Bucket getBucket(String developerToken, String mccAccountId) {
+    String key = developerToken + "|"
+        + (mccAccountId == null ? "" : mccAccountId.replaceAll("-", ""));
+
+    Bucket bucket = this.buckets.get(key);
+    if (bucket == null) {
+      bucket = new Bucket(key);
+      Bucket existing = this.buckets.putIfAbsent(key, bucket);
+      if (existing != null) {
+        bucket = existing;
+      }
+    }
+    return bucket;
+  }
+
+  /**
+   * Takes a permit from the bucket of the developer token and MCC, waiting until it has one
+   * available.
+   *
+   * @param developerToken the developer token of the session.
+   * @param mccAccountId the MCC the reports are downloaded for, with or without dashes.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void acquire(String developerToken, String mccAccountId) throws InterruptedException {
+    this.getBucket(developerToken, mccAccountId).acquire();
+  }
+
+  /**
+   * @param permitsPerSecond the download requests per second for each developer token and MCC,
+   *        zero or less to disable the pacing. Default value = 0
+   */
+  public void setPermitsPerSecond(double permitsPerSecond) {
+    this.permitsPerSecond = permitsPerSecond;
+  }
+
+  /**
+   * @return the download requests per second for each developer token and MCC.
+   */
+  public double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  /**
+   * @param burst the requests that can be sent at once after an idle period, at least 1.
+   *        Default value = 1
+   */
+  public void setBurst(int burst) {
+    this.burst = Math.max(1, burst);
+  }
+
+  /**
+   * @return the requests that can be sent at once after an idle period.
+   */
+  public int getBurst() {
+    return burst;
+  }
+
+  /**
+   * Token bucket of a developer token and MCC, paced by the rate and burst of its limiter.
+   */
+  public class Bucket {
+
+    private final String key;
+
+    private boolean started = false;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    private long acquiredPermits = 0;
+    private long waitNanos = 0;
+
+    /**
+     * C'tor.
+     *
+     * @param key the developer token and MCC of the bucket.
+     */
+    private Bucket(String key) {
+      this.key = key;
+    }
+
+    /**
+     * Takes a permit, waiting until the bucket has one available.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+      long waitTime = this.reserve();
+      if (waitTime > 0) {
+        TimeUnit.NANOSECONDS.sleep(waitTime);
+      }
+    }
+
+    /**
+     * Reserves the next permit. When the bucket is empty the permit is taken on credit, and the
+     * caller must wait for the bucket to refill the debt.
+     *
+     * @return the time to wait in nanoseconds before using the permit.
+     */
+    private synchronized long reserve() {
+      this.acquiredPermits++;
+
+      double rate = permitsPerSecond;
+      if (rate <= 0) {
+        return 0;
+      }
+
+      long now = System.nanoTime();
+      int maxPermits = burst;
+      if (!this.started) {
+        this.started = true;
+        this.storedPermits = maxPermits;
+      } else {
+        this.storedPermits = Math.min(maxPermits,
+            this.storedPermits + (now - this.lastRefillNanos) * rate / NANOS_PER_SECOND);
+      }
+      this.lastRefillNanos = now;
+
+      this.storedPermits -= 1;
+      if (this.storedPermits >= 0) {
+        return 0;
+      }
+      long waitTime = (long) (-this.storedPermits / rate * NANOS_PER_SECOND);
+      this.waitNanos += waitTime;
+      return waitTime;
+    }
+
+    /**
+     * @return the developer token and MCC of the bucket.
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * @return the number of permits taken from this bucket.
+     */
+    public synchronized long getAcquiredPermits() {
+      return acquiredPermits;
+    }
+
+    /**
+     * @return the total time the downloads waited for a permit, in milliseconds.
+     */
+    public synchronized long getWaitTimeMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+  }
+}
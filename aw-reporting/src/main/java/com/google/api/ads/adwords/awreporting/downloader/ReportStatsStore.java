@@ -0,0 +1,333 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the size of the reports downloaded for each account and report type: compressed bytes,
+ * rows and time taken. The values are smoothed over the runs, so one unusual day does not reorder
+ * the accounts.
+ *
+ *  The downloads are scheduled largest account first with {@code sortLargestFirst}, so the long
+ * reports start early instead of being the last ones running while the other threads are idle.
+ *
+ *  When a stats file is set, the stats are loaded from it at start up and written back with
+ * {@code save}. The file has one tab separated line per account and report type, so it can also be
+ * read with any spreadsheet to find the accounts that drive the run time.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportStatsStore {
+
+  private static final Logger LOGGER = Logger.getLogger(ReportStatsStore.class);
+
+  private static final String SEPARATOR = "\t";
+
+  private static final String HEADER =
+      "#accountId\treportType\tbytes\trows\tdurationMillis\tsamples";
+
+  /**
+   * Weight of the last run in the smoothed values.
+   */
+  private static final double LAST_RUN_WEIGHT = 0.5;
+
+  private final Map<String, ReportStats> stats = Maps.newHashMap();
+
+  private File statsFile;
+
+  /**
+   * The smoothed size of the report of an account.
+   */
+  public static final class ReportStats {
+
+    private final Long accountId;
+    private final String reportType;
+    private final long bytes;
+    private final long rows;
+    private final long durationMillis;
+    private final int samples;
+
+    /**
+     * C'tor.
+     *
+     * @param accountId the account ID.
+     * @param reportType the report type.
+     * @param bytes the compressed size of the report.
+     * @param rows the rows in the report.
+     * @param durationMillis the time taken by the download.
+     * @param samples the number of downloads the values are smoothed over.
+     */
+    public ReportStats(Long accountId, String reportType, long bytes, long rows,
+        long durationMillis, int samples) {
+      this.accountId = accountId;
+      this.reportType = reportType;
+      this.bytes = bytes;
+      this.rows = rows;
+      this.durationMillis = durationMillis;
+      this.samples = samples;
+    }
+
+    public Long getAccountId() {
+      return accountId;
+    }
+
+    public String getReportType() {
+      return reportType;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    public int getSamples() {
+      return samples;
+    }
+
+    @Override
+    public String toString() {
+      return accountId + " " + reportType + " (" + bytes + " bytes, " + rows + " rows, "
+          + durationMillis + " ms)";
+    }
+  }
+
+  /**
+   * Orders the reports by expected duration, then by bytes and rows.
+   */
+  private static final Comparator<ReportStats> LARGEST_FIRST = new Comparator<ReportStats>() {
+    @Override
+    public int compare(ReportStats stats1, ReportStats stats2) {
+      if (stats1.getDurationMillis() != stats2.getDurationMillis()) {
+        return stats1.getDurationMillis() > stats2.getDurationMillis() ? -1 : 1;
+      }
+      if (stats1.getBytes() != stats2.getBytes()) {
+        return stats1.getBytes() > stats2.getBytes() ? -1 : 1;
+      }
+      if (stats1.getRows() != stats2.getRows()) {
+        return stats1.getRows() > stats2.getRows() ? -1 : 1;
+      }
+      return 0;
+    }
+  };
+
+  /**
+   * Records a successful download.
+   *
+   * @param accountId the account ID.
+   * @param reportType the report type.
+   * @param bytes the compressed size of the report.
+   * @param durationMillis the time taken by the download.
+   */
+  public synchronized void recordDownload(
+      Long accountId, String reportType, long bytes, long durationMillis) {
+    ReportStats previous = stats.get(getKey(accountId, reportType));
+    if (previous == null) {
+      put(new ReportStats(accountId, reportType, bytes, 0, durationMillis, 1));
+    } else {
+      put(new ReportStats(accountId, reportType,
+          smooth(previous.getBytes(), bytes),
+          previous.getRows(),
+          smooth(previous.getDurationMillis(), durationMillis),
+          previous.getSamples() + 1));
+    }
+  }
+
+  /**
+   * Records the rows parsed from a report.
+   *
+   * @param accountId the account ID.
+   * @param reportType the report type.
+   * @param rows the rows in the report.
+   */
+  public synchronized void recordRows(Long accountId, String reportType, long rows) {
+    ReportStats previous = stats.get(getKey(accountId, reportType));
+    if (previous == null) {
+      put(new ReportStats(accountId, reportType, 0, rows, 0, 0));
+    } else {
+      long smoothedRows = previous.getRows() == 0 ? rows : smooth(previous.getRows(), rows);
+      put(new ReportStats(accountId, reportType, previous.getBytes(), smoothedRows,
+          previous.getDurationMillis(), previous.getSamples()));
+    }
+  }
+
+  /**
+   * @param accountId the account ID.
+   * @param reportType the report type.
+   * @return the stats of the report, {@code null} if it was never downloaded.
+   */
+  public synchronized ReportStats getStats(Long accountId, String reportType) {
+    return stats.get(getKey(accountId, reportType));
+  }
+
+  /**
+   * @param reportType the report type.
+   * @param limit the maximum number of accounts returned.
+   * @return the stats of the largest accounts for the report type, largest first.
+   */
+  public synchronized List<ReportStats> getLargestAccounts(String reportType, int limit) {
+    List<ReportStats> reportStats = Lists.newArrayList();
+    for (ReportStats accountStats : stats.values()) {
+      if (accountStats.getReportType().equals(reportType)) {
+        reportStats.add(accountStats);
+      }
+    }
+    Collections.sort(reportStats, LARGEST_FIRST);
+    return reportStats.subList(0, Math.min(limit, reportStats.size()));
+  }
+
+  /**
+   * Sorts the accounts by the expected size of their reports, largest first. The accounts without
+   * stats go first, since any of them could be the largest.
+   *
+   * @param accountIds the account IDs.
+   * @param reportType the report type.
+   * @return the account IDs in the order their reports should be downloaded.
+   */
+  public synchronized List<Long> sortLargestFirst(
+      Collection<Long> accountIds, String reportType) {
+    List<Long> unknownAccounts = Lists.newArrayList();
+    List<ReportStats> knownAccounts = Lists.newArrayList();
+    for (Long accountId : accountIds) {
+      ReportStats accountStats = stats.get(getKey(accountId, reportType));
+      if (accountStats == null) {
+        unknownAccounts.add(accountId);
+      } else {
+        knownAccounts.add(accountStats);
+      }
+    }
+    Collections.sort(knownAccounts, LARGEST_FIRST);
+
+    List<Long> sortedAccountIds = Lists.newArrayList(unknownAccounts);
+    for (ReportStats accountStats : knownAccounts) {
+      sortedAccountIds.add(accountStats.getAccountId());
+    }
+    return sortedAccountIds;
+  }
+
+  /**
+   * Loads the stats file, if one was set and it exists.
+   *
+   * @throws IOException error reading the file.
+   */
+  public synchronized void load() throws IOException {
+    if (statsFile == null || !statsFile.exists()) {
+      return;
+    }
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(statsFile), "UTF-8"));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] fields = line.split(SEPARATOR);
+        try {
+          put(new ReportStats(Long.valueOf(fields[0]), fields[1], Long.parseLong(fields[2]),
+              Long.parseLong(fields[3]), Long.parseLong(fields[4]), Integer.parseInt(fields[5])));
+        } catch (RuntimeException e) {
+          LOGGER.warn("Ignoring invalid line in " + statsFile.getAbsolutePath() + ": " + line);
+        }
+      }
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+    LOGGER.debug("Loaded " + stats.size() + " report stats from " + statsFile.getAbsolutePath());
+  }
+
+  /**
+   * Writes the stats to the stats file, if one was set. The file is replaced at once, so a crash
+   * while saving keeps the previous stats.
+   *
+   * @throws IOException error writing the file.
+   */
+  public synchronized void save() throws IOException {
+    if (statsFile == null) {
+      return;
+    }
+    File tempFile = new File(statsFile.getAbsolutePath() + ".tmp");
+    BufferedWriter writer =
+        new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+    try {
+      writer.write(HEADER);
+      writer.newLine();
+      for (ReportStats accountStats : stats.values()) {
+        writer.write(accountStats.getAccountId() + SEPARATOR + accountStats.getReportType()
+            + SEPARATOR + accountStats.getBytes() + SEPARATOR + accountStats.getRows()
+            + SEPARATOR + accountStats.getDurationMillis() + SEPARATOR
+            + accountStats.getSamples());
+        writer.newLine();
+      }
+    } finally {
+      writer.close();
+    }
+    if (statsFile.exists() && !statsFile.delete()) {
+      throw new IOException("Could not replace the stats file " + statsFile.getAbsolutePath());
+    }
+    if (!tempFile.renameTo(statsFile)) {
+      throw new IOException("Could not write the stats file " + statsFile.getAbsolutePath());
+    }
+  }
+
+  /**
+   * @param statsFile the path of the file to keep the stats between runs, empty to keep them only
+   *        in memory.
+   */
+  public synchronized void setStatsFile(String statsFile) {
+    if (statsFile == null || statsFile.trim().isEmpty()) {
+      this.statsFile = null;
+    } else {
+      this.statsFile = new File(statsFile.trim());
+    }
+  }
+
+  private void put(ReportStats accountStats) {
+    stats.put(getKey(accountStats.getAccountId(), accountStats.getReportType()), accountStats);
+  }
+
+  private static long smooth(long previous, long last) {
+    return Math.round((1 - LAST_RUN_WEIGHT) * previous + LAST_RUN_WEIGHT * last);
+  }
+
+  private static String getKey(Long accountId, String reportType) {
+    return accountId + SEPARATOR + reportType;
+  }
+}
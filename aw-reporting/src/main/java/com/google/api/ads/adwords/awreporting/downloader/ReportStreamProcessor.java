@@ -0,0 +1,38 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes the content of a report while it is being downloaded by a {@link RunnableDownloader}.
+ *
+ * Implementations are shared by all the download threads of a report type, so they must be thread
+ * safe.
+ *
+ * @author agent@google.com (Agent)
+ */
+public interface ReportStreamProcessor {
+
+  /**
+   * Processes the already decompressed CSV content of the report for one account.
+   *
+   * @param accountId the account the report was downloaded for.
+   * @param reportStream the decompressed report content.
+   * @throws IOException error reading the stream, the download will be retried.
+   */
+  void process(Long accountId, InputStream reportStream) throws IOException;
+}
@@ -14,8 +14,9 @@
 
 package com.google.api.ads.adwords.awreporting.downloader;
 
+import com.google.api.ads.adwords.awreporting.downloader.AdaptiveConcurrencyController.Outcome;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
-import com.google.api.ads.adwords.awreporting.util.FileUtil;
+import com.google.api.ads.adwords.awreporting.util.TeeInputStream;
 import com.google.api.ads.adwords.lib.client.AdWordsSession;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
 import com.google.api.ads.adwords.lib.utils.ReportDownloadResponse;
@@ -24,7 +25,10 @@ import com.google.api.ads.adwords.lib.utils.ReportException;
 import com.google.api.ads.adwords.lib.utils.v201502.DetailedReportDownloadResponseException;
 import com.google.api.ads.adwords.lib.utils.v201502.ReportDownloader;
 import com.google.api.ads.common.lib.exception.ValidationException;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.CountingInputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import java.io.BufferedOutputStream;
@@ -36,7 +40,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 /**
  * This {@link Runnable} implements the core logic to download the report file from the AdWords API.
@@ -47,12 +55,27 @@ import java.util.concurrent.CountDownLatch;
  * Also the {@link AdWordsSessionBuilderSynchronizer} is kept by the client class, and should handle
  * all the concurrent threads.
  *
+ * When a {@link ReportStreamProcessor} is set, the report is not saved to the file system: the
+ * response is decompressed and handed to the processor while it arrives. In that mode a copy of
+ * the compressed bytes can still be kept in an audit directory.
+ *
+ * When a {@link DownloadWatchdog} is set, each attempt is cancelled and retried if it runs past
+ * the timeout, and a slow download to the file system can be raced by a speculative copy. A
+ * streamed report is only timed until its response is open, as the time parsing and persisting
+ * its rows is not download time; the read timeout still fails a stalled connection.
+ *
  * @author gustavomoreira@google.com (Gustavo Moreira)
  * @author jtoledo@google.com (Julian Toledo)
  */
 public class RunnableDownloader implements Runnable {
 
   private static final Logger LOGGER = Logger.getLogger(RunnableDownloader.class);
+
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+  private static final String RATE_EXCEEDED = "RATE_EXCEEDED";
+
+  private static final int MAX_BACKOFF_EXPONENT = 6;
   
   private final AdWordsSession adWordsSession;
 
@@ -68,6 +91,25 @@ public class RunnableDownloader implements Runnable {
   private Collection<Long> failed;
   private CountDownLatch latch;
 
+  private BlockingQueue<File> downloadedFiles;
+
+  private ReportStreamProcessor reportStreamProcessor;
+  private File auditDirectory;
+
+  private AdaptiveConcurrencyController concurrencyController;
+
+  private ReportRateLimiter.Bucket rateLimiterBucket;
+
+  private ReportStatsStore reportStatsStore;
+
+  private Semaphore reportTypePermits;
+
+  private DownloadWatchdog downloadWatchdog;
+
+  private long downloadedBytes;
+
+  private File downloadedFile;
+
   /**
    * C'tor.
    *
@@ -106,19 +148,44 @@ public class RunnableDownloader implements Runnable {
    *  There is also a retry logic implemented by this method, where the times retried depends on the
    * value given in the constructor.
    *
+   *  Each attempt takes a permit from the {@link AdaptiveConcurrencyController}, if one was set,
+   * and reports back whether the API answered normally or pushed back.
+   *
+   *  The size and time of the successful download are recorded in the {@link ReportStatsStore},
+   * if one was set, to schedule the largest accounts first in the next runs.
+   *
+   *  The downloaded file is handed to the queue of downloaded files, if one was set, once the
+   * attempt is finished and its permits are released, so the wait for space in the queue is never
+   * cancelled as a slow download.
+   *
+   *  The account is added to the failed accounts, if they were set, when no attempt succeeded or
+   * its file could not be queued.
+   *
    * @see java.lang.Runnable#run()
    */
   @Override
   public void run() {
 
+    boolean downloaded = false;
     try {
-      File reportFile = null;
       for (int i = 1; i <= this.retriesCount; i++) {
 
+        if (!this.acquirePermit()) {
+          break;
+        }
+        Outcome outcome = Outcome.FAILURE;
+        HedgedDownload hedgedDownload = null;
+        if (this.downloadWatchdog != null && this.reportStreamProcessor == null) {
+          // A streamed report is persisted while it arrives, so it can not be raced
+          hedgedDownload = new HedgedDownload();
+        }
+        DownloadWatchdog.Attempt attempt = this.startAttempt(hedgedDownload);
         try {
-          reportFile = this.downloadFileToFileSystem();
-          if (reportFile != null) {
-            this.handleReportFileResult(reportFile);
+          Stopwatch stopwatch = Stopwatch.createStarted();
+          if (this.downloadReport(hedgedDownload)) {
+            outcome = Outcome.SUCCESS;
+            downloaded = true;
+            this.recordStats(stopwatch.elapsed(TimeUnit.MILLISECONDS));
             LOGGER.trace(".");
             break;
           }
@@ -133,36 +200,316 @@ public class RunnableDownloader implements Runnable {
           System.out.println("\n(Error: " + e.getMessage() + " " + e.getCause() + " Retry# " + i
               + "/" + retriesCount + ")");
         } catch (ReportDownloadResponseException e) {
+          if (isThrottled(e)) {
+            outcome = Outcome.THROTTLED;
+          }
           if (e instanceof DetailedReportDownloadResponseException) {
             DetailedReportDownloadResponseException detailedException =
                 (DetailedReportDownloadResponseException) e;
             System.out.println("\n(Error: " + detailedException.getType() + " Trigger:"
                 + detailedException.getTrigger() + ")");
-            // Not retrying DetailedReportDownloadResponseException errors.
-            break;
+            // Not retrying DetailedReportDownloadResponseException errors, except rate limits.
+            if (outcome != Outcome.THROTTLED) {
+              break;
+            }
           } else {
             System.out.println("\n(Error: " + e.getMessage() + " " + e.getCause() + " Retry# " + i
                 + "/" + retriesCount + ")");
           }
+        } catch (RuntimeException e) {
+          if (attempt != null && attempt.isTimedOut()) {
+            System.out.println("\n(Error: download timed out " + e.getMessage() + " Retry# " + i
+                + "/" + retriesCount + ")");
+          } else {
+            // Not retrying errors parsing or persisting the streamed report.
+            LOGGER.error("Error processing report for account: " + this.cid, e);
+            break;
+          }
+        } finally {
+          this.releasePermit(outcome);
+          if (attempt != null) {
+            this.downloadWatchdog.finish(attempt, outcome == Outcome.SUCCESS);
+          }
         }
 
-        // If we haven't succeeded, slow down the rate of requests
-        // increasingly to avoid running into rate limits.
+        // If we haven't succeeded, slow down the rate of requests exponentially to avoid running
+        // into rate limits. The jitter keeps the retries of the other accounts apart.
         try {
-          Thread.sleep(this.backoffInterval * (i + 1));
+          Thread.sleep(this.getBackoffTime(i));
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt();
           break;
         }
       }
 
+      if (downloaded && this.downloadedFile != null && this.downloadedFiles != null) {
+        downloaded = this.queueDownloadedFile(this.downloadedFile);
+      }
+
     } finally {
+      if (!downloaded && this.failed != null) {
+        this.failed.add(this.cid);
+      }
+      if (this.reportTypePermits != null) {
+        this.reportTypePermits.release();
+      }
       if (this.latch != null) {
         this.latch.countDown();
       }
     }
   }
 
+  /**
+   * Downloads the report once, to the file system or to the {@link ReportStreamProcessor}.
+   *
+   * @param hedgedDownload the race with the speculative download, {@code null} if the download
+   *        is not hedged.
+   * @return true if the report was downloaded.
+   */
+  private boolean downloadReport(HedgedDownload hedgedDownload) throws ValidationException,
+      ReportException,
+      ReportDownloadResponseException,
+      IOException {
+
+    if (this.reportStreamProcessor != null) {
+      return this.downloadAndProcessStream();
+    }
+    File reportFile;
+    if (hedgedDownload != null) {
+      reportFile = this.downloadFileHedged(hedgedDownload);
+    } else {
+      reportFile = this.downloadFileToFileSystem();
+    }
+    if (reportFile != null) {
+      this.downloadedBytes = reportFile.length();
+      this.downloadedFile = reportFile;
+      this.handleReportFileResult(reportFile);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Downloads the file while the {@link DownloadWatchdog} can start a speculative copy of the
+   * download. The first file to finish is kept, and the other download is aborted.
+   *
+   * @param hedgedDownload the race with the speculative download.
+   * @return the report file, downloaded by this thread or by the speculative download.
+   */
+  private File downloadFileHedged(HedgedDownload hedgedDownload) throws ValidationException,
+      ReportException,
+      ReportDownloadResponseException,
+      IOException {
+
+    File reportFile;
+    try {
+      reportFile = this.downloadFileToFileSystem();
+    } catch (IOException e) {
+      // The stream is closed when the speculative download finishes first
+      File hedgedFile = hedgedDownload.awaitHedge(this.downloadWatchdog.getMaxWaitMillis());
+      if (hedgedFile != null) {
+        return hedgedFile;
+      }
+      throw e;
+    }
+    if (reportFile == null) {
+      return hedgedDownload.awaitHedge(this.downloadWatchdog.getMaxWaitMillis());
+    }
+    if (hedgedDownload.claim(reportFile)) {
+      hedgedDownload.abortHedge();
+      return reportFile;
+    }
+    reportFile.delete();
+    return hedgedDownload.getWinner();
+  }
+
+  /**
+   * Registers the attempt with the {@link DownloadWatchdog}, if one was set.
+   *
+   * @param hedgedDownload the race with the speculative download, {@code null} if the download
+   *        can not be hedged.
+   * @return the attempt, {@code null} if there is no watchdog.
+   */
+  private DownloadWatchdog.Attempt startAttempt(final HedgedDownload hedgedDownload) {
+    if (this.downloadWatchdog == null) {
+      return null;
+    }
+    final String reportType = this.reportDefinition.getReportType().value();
+    Runnable hedge = null;
+    if (hedgedDownload != null) {
+      hedge = new Runnable() {
+        @Override
+        public void run() {
+          DownloadWatchdog.Attempt hedgeAttempt = downloadWatchdog.start(reportType, cid, null);
+          hedgedDownload.setHedgeAttempt(hedgeAttempt);
+          File hedgedFile = null;
+          try {
+            hedgedFile = downloadFileToFileSystem();
+          } catch (Exception e) {
+            LOGGER.debug("Speculative download failed for account: " + cid + " " + e.getMessage());
+          } finally {
+            downloadWatchdog.finish(hedgeAttempt, hedgedFile != null);
+            hedgedDownload.hedgeFinished(hedgedFile);
+          }
+        }
+      };
+    }
+    DownloadWatchdog.Attempt attempt = this.downloadWatchdog.start(reportType, this.cid, hedge);
+    if (hedgedDownload != null) {
+      hedgedDownload.setPrimaryAttempt(attempt);
+    }
+    return attempt;
+  }
+
+  /**
+   * The race between a download to the file system and its speculative copy: the first file
+   * claimed is kept, and the other download is aborted.
+   */
+  private static final class HedgedDownload {
+
+    private final CountDownLatch hedgeLatch = new CountDownLatch(1);
+
+    private DownloadWatchdog.Attempt primaryAttempt;
+    private DownloadWatchdog.Attempt hedgeAttempt;
+    private File winner;
+    private boolean closed = false;
+
+    private synchronized void setPrimaryAttempt(DownloadWatchdog.Attempt primaryAttempt) {
+      this.primaryAttempt = primaryAttempt;
+    }
+
+    private synchronized void setHedgeAttempt(DownloadWatchdog.Attempt hedgeAttempt) {
+      this.hedgeAttempt = hedgeAttempt;
+    }
+
+    private synchronized boolean claim(File file) {
+      if (winner != null || closed) {
+        return false;
+      }
+      winner = file;
+      return true;
+    }
+
+    private synchronized File getWinner() {
+      return winner;
+    }
+
+    private synchronized void abortHedge() {
+      if (hedgeAttempt != null) {
+        hedgeAttempt.abort();
+      }
+    }
+
+    /**
+     * Called by the speculative download when it is done, with the file if it succeeded.
+     */
+    private void hedgeFinished(File hedgedFile) {
+      if (hedgedFile != null) {
+        if (claim(hedgedFile)) {
+          synchronized (this) {
+            if (primaryAttempt != null) {
+              primaryAttempt.abort();
+            }
+          }
+        } else {
+          hedgedFile.delete();
+        }
+      }
+      hedgeLatch.countDown();
+    }
+
+    /**
+     * Waits for the speculative download, if one was started, once this thread failed.
+     *
+     * @return the file of the speculative download, {@code null} if it failed or never started.
+     */
+    private File awaitHedge(long maxWaitMillis) {
+      boolean hedged;
+      synchronized (this) {
+        hedged = primaryAttempt != null && primaryAttempt.isHedged();
+      }
+      if (hedged) {
+        try {
+          hedgeLatch.await(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      synchronized (this) {
+        closed = true;
+        return winner;
+      }
+    }
+  }
+
+  /**
+   * @param durationMillis the time taken by the successful download.
+   */
+  private void recordStats(long durationMillis) {
+    if (this.reportStatsStore != null) {
+      this.reportStatsStore.recordDownload(this.cid,
+          this.reportDefinition.getReportType().value(), this.downloadedBytes, durationMillis);
+    }
+  }
+
+  /**
+   * Waits for the {@link AdaptiveConcurrencyController} to allow one more download in flight.
+   *
+   * @return false if the thread was interrupted while waiting.
+   */
+  private boolean acquirePermit() {
+    if (this.concurrencyController != null) {
+      try {
+        this.concurrencyController.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param outcome the outcome of the download attempt.
+   */
+  private void releasePermit(Outcome outcome) {
+    if (this.concurrencyController != null) {
+      this.concurrencyController.release(outcome);
+    }
+  }
+
+  /**
+   * Checks if the error means the API is overloaded or limiting the rate of requests: HTTP 429,
+   * HTTP 5xx or a rate exceeded error.
+   *
+   * @param e the error.
+   * @return true if the download concurrency should be decreased.
+   */
+  static boolean isThrottled(ReportDownloadResponseException e) {
+    int httpStatus = e.getHttpStatus();
+    if (httpStatus == HTTP_TOO_MANY_REQUESTS
+        || httpStatus >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+      return true;
+    }
+    if (e instanceof DetailedReportDownloadResponseException) {
+      String type = ((DetailedReportDownloadResponseException) e).getType();
+      return type != null && type.toUpperCase().contains(RATE_EXCEEDED);
+    }
+    return false;
+  }
+
+  /**
+   * Exponential backoff with jitter: a random time between half and all of
+   * {@code backoffInterval * 2^(retry - 1)}.
+   *
+   * @param retry the number of the retry, starting in 1.
+   * @return the time to sleep in milliseconds.
+   */
+  private long getBackoffTime(int retry) {
+    long backoff = ((long) this.backoffInterval) << Math.min(retry - 1, MAX_BACKOFF_EXPONENT);
+    return backoff / 2 + (long) (Math.random() * (backoff / 2));
+  }
+
   /**
    * Downloads the file from the API, and copies it to the file system.
    *
@@ -182,26 +529,137 @@ public class RunnableDownloader implements Runnable {
 
     File reportFile = null;
 
+    InputStream reportStream = this.downloadReportStream();
+    if (reportStream != null) {
+      File tempFile = this.createTempFile(
+          this.cid, this.reportDefinition.getReportType().value(), null);
+      BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile));
+      boolean copied = false;
+      try {
+        copy(reportStream, output);
+        copied = true;
+      } finally {
+        output.close();
+        if (copied) {
+          reportStream.close();
+        } else {
+          IOUtils.closeQuietly(reportStream);
+          tempFile.delete();
+        }
+      }
+      reportFile = tempFile;
+    }
+    return reportFile;
+  }
+
+  /**
+   * Downloads the report from the API and hands the decompressed content to the
+   * {@link ReportStreamProcessor} while it arrives, so nothing is written to the file system
+   * besides the optional audit copy of the compressed bytes.
+   *
+   * @return true if the report was downloaded and processed.
+   * @throws ValidationException API validation error
+   * @throws ReportException error in the report
+   * @throws ReportDownloadResponseException error in the response format
+   * @throws IOException error reading the response or writing the audit copy
+   */
+  protected boolean downloadAndProcessStream()
+      throws ValidationException,
+      ReportException,
+      ReportDownloadResponseException,
+      IOException {
+
+    InputStream responseStream = this.downloadReportStream();
+    if (responseStream == null) {
+      return false;
+    }
+    if (this.downloadWatchdog != null) {
+      // The processor parses and persists the rows while they arrive
+      this.downloadWatchdog.stopTimeout();
+    }
+    CountingInputStream countingStream = new CountingInputStream(responseStream);
+    InputStream reportStream = countingStream;
+
+    File auditFile = null;
+    if (this.auditDirectory != null) {
+      auditFile = this.createTempFile(
+          this.cid, this.reportDefinition.getReportType().value(), this.auditDirectory);
+      reportStream = new TeeInputStream(reportStream,
+          new BufferedOutputStream(new FileOutputStream(auditFile), this.bufferSize));
+    }
+
+    boolean processed = false;
+    try {
+      // Report Input Streams comes GZipped
+      GZIPInputStream gZipStream = new GZIPInputStream(reportStream, this.bufferSize);
+      this.reportStreamProcessor.process(this.cid, gZipStream);
+      processed = true;
+    } finally {
+      if (processed) {
+        reportStream.close();
+      } else {
+        IOUtils.closeQuietly(reportStream);
+        if (auditFile != null) {
+          auditFile.delete();
+        }
+      }
+    }
+
+    this.downloadedBytes = countingStream.getCount();
+    if (auditFile != null) {
+      this.results.add(auditFile);
+    }
+    return true;
+  }
+
+  /**
+   * Calls the API to download the report, after taking a permit from the bucket of the
+   * {@link ReportRateLimiter} if one was set.
+   *
+   * @return the response stream with the compressed report, or {@code null} if the API did not
+   *         answer with HTTP OK.
+   * @throws ValidationException API validation error
+   * @throws ReportException error in the report
+   * @throws ReportDownloadResponseException error in the response format
+   */
+  protected InputStream downloadReportStream()
+      throws ValidationException, ReportException, ReportDownloadResponseException {
+
+    InputStream reportStream = null;
+
+    if (this.rateLimiterBucket != null) {
+      try {
+        this.rateLimiterBucket.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ReportException("Interrupted while waiting for the rate limiter", e);
+      }
+    }
+
     ReportDownloader reportDownloader = new ReportDownloader(adWordsSession);
+    if (this.downloadWatchdog != null) {
+      this.downloadWatchdog.configure(reportDownloader);
+    }
     ReportDownloadResponse reportDownloadResponse =
         reportDownloader.downloadReport(this.reportDefinition);
 
     if (reportDownloadResponse.getHttpStatus() == HttpURLConnection.HTTP_OK) {
-      File tempFile = this.createTempFile(this.cid, this.reportDefinition.getReportType().value());
-      BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile));
-      copy(reportDownloadResponse.getInputStream(), output);
-      output.close();
-      reportFile = tempFile;
+      reportStream = reportDownloadResponse.getInputStream();
+      if (this.downloadWatchdog != null) {
+        this.downloadWatchdog.watchStream(reportStream);
+      }
 
     } else {
       System.out.println("getHttpStatus():" + reportDownloadResponse.getHttpStatus());
       System.out.println(
           "getHttpResponseMessage():" + reportDownloadResponse.getHttpResponseMessage());
     }
-    return reportFile;
+    return reportStream;
   }
 
   /**
+   * The downloaded file is kept compressed, the processors decompress it while parsing.
+   *
    * @param reportFile the report file.
    */
   private void handleReportFileResult(File reportFile) {
@@ -209,25 +667,50 @@ public class RunnableDownloader implements Runnable {
     if (reportFile == null && this.failed != null) {
       this.failed.add(this.cid);
     } else {
-      File gUnzipFile = new File(reportFile.getAbsolutePath() + ".gunzip");
-      try {
-        // gUnzips downloeded file
-        FileUtil.gUnzip(reportFile, gUnzipFile);
-        this.results.add(reportFile);
-      } catch (IOException e) {
-        LOGGER.info("Ignoring file (Error when UnZipping): " + reportFile.getAbsolutePath());
+      this.results.add(reportFile);
+    }
+  }
+
+  /**
+   * Hands the downloaded file to the queue of downloaded files, waiting for space when the
+   * processing of the files is falling behind. With a {@link DownloadWatchdog} the wait is as long
+   * as the wait for the downloads, as the files queued later are never processed.
+   *
+   * @param reportFile the report file.
+   * @return true if the file was queued, false if it was removed from the results and deleted.
+   */
+  private boolean queueDownloadedFile(File reportFile) {
+
+    boolean queued = false;
+    try {
+      if (this.downloadWatchdog != null) {
+        queued = this.downloadedFiles.offer(
+            reportFile, this.downloadWatchdog.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+      } else {
+        this.downloadedFiles.put(reportFile);
+        queued = true;
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queued) {
+      LOGGER.error("Could not queue the file of account " + this.cid + " for processing: "
+          + reportFile.getAbsolutePath());
+      this.results.remove(reportFile);
+      reportFile.delete();
     }
+    return queued;
   }
 
   /**
    * Creates a temporary file for storing the results of the report (assumes CSV).
    *
+   * @param directory the directory for the file, or {@code null} for the default temp directory.
    * @return {@link File} Object referencing the written file.
    * @throws IOException
    */
-  private File createTempFile(Long cid, String name) throws IOException {
-    return File.createTempFile("reportDownload-" + name + "-" + cid + "-", ".report");
+  private File createTempFile(Long cid, String name, File directory) throws IOException {
+    return File.createTempFile("reportDownload-" + name + "-" + cid + "-", ".report", directory);
   }
 
   /**
@@ -259,4 +742,67 @@ public class RunnableDownloader implements Runnable {
   public void setLatch(CountDownLatch latch) {
     this.latch = latch;
   }
+
+  /**
+   * @param reportTypePermits the permit of the report type taken when this download was
+   *        submitted, released when it finishes. Can be {@code null}.
+   */
+  public void setReportTypePermits(Semaphore reportTypePermits) {
+    this.reportTypePermits = reportTypePermits;
+  }
+
+  /**
+   * @param downloadWatchdog the watchdog cancelling the attempts past the timeout, can be
+   *        {@code null}.
+   */
+  public void setDownloadWatchdog(DownloadWatchdog downloadWatchdog) {
+    this.downloadWatchdog = downloadWatchdog;
+  }
+
+  /**
+   * @param concurrencyController the controller limiting the downloads in flight, can be
+   *        {@code null}.
+   */
+  public void setConcurrencyController(AdaptiveConcurrencyController concurrencyController) {
+    this.concurrencyController = concurrencyController;
+  }
+
+  /**
+   * @param rateLimiterBucket the rate limiter bucket shared by the downloads of the MCC, can be
+   *        {@code null}.
+   */
+  public void setRateLimiterBucket(ReportRateLimiter.Bucket rateLimiterBucket) {
+    this.rateLimiterBucket = rateLimiterBucket;
+  }
+
+  /**
+   * @param reportStatsStore the store recording the size of the downloads, can be {@code null}.
+   */
+  public void setReportStatsStore(ReportStatsStore reportStatsStore) {
+    this.reportStatsStore = reportStatsStore;
+  }
+
+  /**
+   * @param downloadedFiles the queue that receives each file as soon as it is downloaded, can be
+   *        {@code null}.
+   */
+  public void setDownloadedFiles(BlockingQueue<File> downloadedFiles) {
+    this.downloadedFiles = downloadedFiles;
+  }
+
+  /**
+   * @param reportStreamProcessor the processor for the streamed report, {@code null} to download
+   *        the report to the file system.
+   */
+  public void setReportStreamProcessor(ReportStreamProcessor reportStreamProcessor) {
+    this.reportStreamProcessor = reportStreamProcessor;
+  }
+
+  /**
+   * @param auditDirectory the directory to keep a copy of the compressed streamed reports,
+   *        {@code null} to keep no copy.
+   */
+  public void setAuditDirectory(File auditDirectory) {
+    this.auditDirectory = auditDirectory;
+  }
 }
@@ -0,0 +1,215 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
+import com.google.common.collect.Sets;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * Append only journal of the reports already persisted, so an interrupted run can be resumed
+ * without downloading them again.
+ *
+ *  Each line of the journal file is one unit of work: the top account, the account, the report
+ * type and the date range. A line is appended and synced to disk once all the rows of the report
+ * are persisted, so a unit is never marked as completed before its rows are in the data base. A
+ * last line cut by a crash is truncated when the run is resumed, so the next lines are not
+ * appended to it.
+ *
+ *  Relative date ranges (like LAST_7_DAYS) are recorded by name, so a run should be resumed on the
+ * same day it was started.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class CheckpointJournal {
+
+  private static final Logger LOGGER = Logger.getLogger(CheckpointJournal.class);
+
+  private static final String SEPARATOR = "\t";
+
+  /**
+   * Ends every complete line, so a line cut by a crash is not taken as completed.
+   */
+  private static final String END_OF_UNIT = SEPARATOR + "DONE";
+
+  private final File journalFile;
+
+  private final Set<String> completedUnits = Sets.newHashSet();
+
+  private final FileOutputStream journalStream;
+  private final Writer journalWriter;
+
+  /**
+   * C'tor.
+   *
+   * @param journalFile the journal file, created if it does not exist.
+   * @param resume true to keep the units completed by the previous run, false to start over.
+   * @throws IOException error reading or creating the journal file.
+   */
+  public CheckpointJournal(File journalFile, boolean resume) throws IOException {
+    this.journalFile = journalFile;
+    if (resume) {
+      this.load();
+    }
+    this.journalStream = new FileOutputStream(journalFile, resume);
+    this.journalWriter = new OutputStreamWriter(journalStream, "UTF-8");
+  }
+
+  /**
+   * Builds the key shared by the units of a report type and date range.
+   *
+   * @param mccAccountId the top account ID.
+   * @param reportType the report type.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date, can be {@code null} for relative date ranges.
+   * @param dateEnd the end date, can be {@code null} for relative date ranges.
+   * @return the key of the report.
+   */
+  public static String getReportKey(String mccAccountId, String reportType,
+      ReportDefinitionDateRangeType dateRangeType, String dateStart, String dateEnd) {
+    return mccAccountId.replaceAll("-", "") + SEPARATOR + reportType + SEPARATOR
+        + dateRangeType.value() + SEPARATOR + dateStart + SEPARATOR + dateEnd;
+  }
+
+  /**
+   * @param reportKey the key of the report, from {@code getReportKey}.
+   * @param accountId the account ID.
+   * @return true if the report of the account is already persisted.
+   */
+  public synchronized boolean isCompleted(String reportKey, Long accountId) {
+    return completedUnits.contains(getUnit(reportKey, accountId));
+  }
+
+  /**
+   * @param reportKey the key of the report, from {@code getReportKey}.
+   * @param accountIds the account IDs.
+   * @return the accounts whose report is not persisted yet.
+   */
+  public synchronized Set<Long> getPendingAccounts(String reportKey, Set<Long> accountIds) {
+    Set<Long> pendingAccounts = Sets.newHashSet();
+    for (Long accountId : accountIds) {
+      if (!completedUnits.contains(getUnit(reportKey, accountId))) {
+        pendingAccounts.add(accountId);
+      }
+    }
+    return pendingAccounts;
+  }
+
+  /**
+   * Appends the unit to the journal, once all its rows are persisted.
+   *
+   * @param reportKey the key of the report, from {@code getReportKey}.
+   * @param accountId the account ID.
+   */
+  public synchronized void markCompleted(String reportKey, Long accountId) {
+    String unit = getUnit(reportKey, accountId);
+    if (!completedUnits.add(unit)) {
+      return;
+    }
+    try {
+      journalWriter.write(unit + END_OF_UNIT + "\n");
+      journalWriter.flush();
+      journalStream.getFD().sync();
+    } catch (IOException e) {
+      // The report is persisted anyway, it would only be downloaded again on resume
+      LOGGER.error("Error writing to the journal " + journalFile.getAbsolutePath() + ": "
+          + e.getMessage());
+    }
+  }
+
+  /**
+   * @return the number of units completed, including the ones of the resumed run.
+   */
+  public synchronized int getCompletedCount() {
+    return completedUnits.size();
+  }
+
+  /**
+   * @return the journal file.
+   */
+  public File getJournalFile() {
+    return journalFile;
+  }
+
+  /**
+   * Closes the journal file.
+   */
+  public synchronized void close() {
+    IOUtils.closeQuietly(journalWriter);
+  }
+
+  private void load() throws IOException {
+    if (!journalFile.exists()) {
+      return;
+    }
+    this.truncateCutLine();
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), "UTF-8"));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.endsWith(END_OF_UNIT)) {
+          completedUnits.add(line.substring(0, line.length() - END_OF_UNIT.length()));
+        }
+      }
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+    LOGGER.info("Resuming run, " + completedUnits.size() + " reports already completed in: "
+        + journalFile.getAbsolutePath());
+  }
+
+  /**
+   * Truncates the last line of the journal file if it has no end of line.
+   */
+  private void truncateCutLine() throws IOException {
+    RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+    try {
+      long length = file.length();
+      long end = length;
+      while (end > 0) {
+        file.seek(end - 1);
+        if (file.read() == '\n') {
+          break;
+        }
+        end--;
+      }
+      if (end < length) {
+        LOGGER.warn("Discarding the last " + (length - end) + " bytes of the journal, cut by a "
+            + "previous run: " + journalFile.getAbsolutePath());
+        file.setLength(end);
+      }
+    } finally {
+      file.close();
+    }
+  }
+
+  private static String getUnit(String reportKey, Long accountId) {
+    return reportKey + SEPARATOR + accountId;
+  }
+}
@@ -0,0 +1,186 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlice;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlicePersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * Buffers the parsed rows of a report, and persists them in sets of rows.
+ *
+ *  The rows are kept in a {@link RowBatch} for the persisters that implement
+ * {@link ReportBatchPersister}, so their entities can be discarded as soon as they are added, and
+ * in a list of entities for the other persisters. A buffer is used by one thread.
+ *
+ *  With a {@link ReportWriteStage}, the full sets of rows are handed to the writer threads of the
+ * stage instead of being persisted by the thread of the buffer, and {@link #flush()} waits for all
+ * of them to be persisted.
+ *
+ *  When the slices are replaced and the persister implements {@link ReportSlicePersister}, the
+ * rows of the report replace the stored rows of its {@link ReportSlice}, taken from the first row,
+ * once the buffer is flushed. The buffer must then hold the rows of a single report download, and
+ * be closed if it is not flushed. A report without rows leaves the stored rows of its slice as
+ * they were.
+ *
+ * @author agent@google.com (Agent)
+ *
+ * @param <R> type of sub Report.
+ */
+public class ReportBuffer<R extends Report> {
+
+  private final EntityPersister entityPersister;
+
+  private final int reportRowsSetSize;
+
+  private final ReportWriteStage writeStage;
+
+  private final ReportWriteStage.Tracker tracker = new ReportWriteStage.Tracker();
+
+  private List<R> reports = Lists.newArrayList();
+
+  private RowBatch<R> batch;
+
+  private boolean replaceSlices;
+
+  private ReportSlicePersister.Replacement replacement;
+
+  /**
+   * C'tor
+   *
+   * @param entityPersister the persister of the rows.
+   * @param reportRowsSetSize the number of rows persisted at once.
+   */
+  public ReportBuffer(EntityPersister entityPersister, int reportRowsSetSize) {
+    this(entityPersister, reportRowsSetSize, null);
+  }
+
+  /**
+   * C'tor
+   *
+   * @param entityPersister the persister of the rows.
+   * @param reportRowsSetSize the number of rows persisted at once.
+   * @param writeStage the stage persisting the rows on its own threads, {@code null} to persist
+   *        them on the thread of the buffer.
+   */
+  public ReportBuffer(
+      EntityPersister entityPersister, int reportRowsSetSize, ReportWriteStage writeStage) {
+    this.entityPersister = entityPersister;
+    this.reportRowsSetSize = Math.max(1, reportRowsSetSize);
+    this.writeStage = writeStage;
+  }
+
+  /**
+   * Sets whether the rows replace the stored rows of their slice, for the persisters implementing
+   * {@link ReportSlicePersister}. The rows are then persisted on the thread of the buffer.
+   *
+   * @param replaceSlices true to replace the slice of the rows.
+   */
+  public void setReplaceSlices(boolean replaceSlices) {
+    this.replaceSlices = replaceSlices;
+  }
+
+  /**
+   * Adds a row, and persists the buffered rows once there are enough of them.
+   *
+   * @param report the report entity of the row, with its id set.
+   * @throws InterruptedException interrupted while waiting for the write stage.
+   */
+  @SuppressWarnings("unchecked")
+  public void add(R report) throws InterruptedException {
+    if (this.entityPersister instanceof ReportBatchPersister) {
+      if (this.batch == null) {
+        this.batch = new RowBatch<R>((Class<R>) report.getClass(), this.reportRowsSetSize);
+        if (this.replaceSlices && this.entityPersister instanceof ReportSlicePersister) {
+          this.replacement = ((ReportSlicePersister) this.entityPersister).beginReplacement(
+              ReportSlice.forReport(report));
+        }
+      }
+      this.batch.add(report);
+      if (this.batch.isFull()) {
+        this.persistBuffered();
+      }
+    } else {
+      this.reports.add(report);
+      if (this.reports.size() >= this.reportRowsSetSize) {
+        this.persistBuffered();
+      }
+    }
+  }
+
+  /**
+   * Persists the buffered rows, and waits for the rows handed to the write stage to be persisted.
+   *
+   * @throws InterruptedException interrupted while waiting for the write stage.
+   * @throws RuntimeException error persisting the rows.
+   */
+  public void flush() throws InterruptedException {
+    this.persistBuffered();
+    if (this.replacement != null) {
+      ReportSlicePersister.Replacement committed = this.replacement;
+      this.replacement = null;
+      committed.commit();
+    }
+    if (this.writeStage != null) {
+      this.tracker.await();
+    }
+  }
+
+  /**
+   * Discards the replacement of the slice if the buffer was not flushed, leaving the stored rows
+   * of the slice as they were. Does nothing once flushed.
+   */
+  public void close() {
+    if (this.replacement != null) {
+      ReportSlicePersister.Replacement aborted = this.replacement;
+      this.replacement = null;
+      aborted.abort();
+    }
+  }
+
+  private void persistBuffered() throws InterruptedException {
+    if (this.batch != null && !this.batch.isEmpty()) {
+      if (this.replacement != null) {
+        this.replacement.add(this.batch);
+        this.batch.clear();
+      } else if (this.writeStage != null) {
+        // The stage keeps the batch, the next rows go to a new one
+        RowBatch<R> submitted = this.batch;
+        this.batch = null;
+        this.writeStage.submit(
+            (ReportBatchPersister) this.entityPersister, submitted, this.tracker);
+      } else {
+        ((ReportBatchPersister) this.entityPersister).persistReportBatch(this.batch);
+        this.batch.clear();
+      }
+    }
+    if (this.reports.size() > 0) {
+      // A new list, as the persister may keep the one it got
+      List<R> persisted = this.reports;
+      this.reports = Lists.newArrayList();
+      if (this.writeStage != null) {
+        this.writeStage.submit(this.entityPersister, persisted, this.tracker);
+      } else {
+        this.entityPersister.persistReportEntities(persisted);
+      }
+    }
+  }
+}
@@ -15,8 +15,16 @@
 package com.google.api.ads.adwords.awreporting.processors;
 
 import com.google.api.ads.adwords.awreporting.authentication.Authenticator;
+import com.google.api.ads.adwords.awreporting.downloader.DownloadWatchdog;
+import com.google.api.ads.adwords.awreporting.downloader.ReportRateLimiter;
+import com.google.api.ads.adwords.awreporting.downloader.ReportStatsStore;
+import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
 import com.google.api.ads.adwords.awreporting.model.csv.CsvReportEntitiesMapping;
+import com.google.api.ads.adwords.awreporting.model.csv.StringDictionary;
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
 import com.google.api.ads.adwords.awreporting.util.CustomerDelegate;
 import com.google.api.ads.adwords.awreporting.util.ManagedCustomerDelegate;
 import com.google.api.ads.adwords.jaxws.v201502.mcm.ApiException;
@@ -33,12 +41,17 @@ import com.google.api.ads.common.lib.exception.OAuthException;
 import com.google.api.ads.common.lib.exception.ValidationException;
 import com.google.api.client.util.Sets;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import org.apache.log4j.Logger;
+import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -59,6 +72,9 @@ public abstract class ReportProcessor {
 
   private static final int REPORT_BUFFER_DB = 1000;
   private static final int NUMBER_OF_REPORT_PROCESSORS = 20;
+  private static final int RESTATEMENT_DAYS = 3;
+
+  private static final String DATE_REPORT_FIELD = "Date";
 
   protected static final String REPORT_PREFIX = "AwReporting-";
 
@@ -68,12 +84,58 @@ public abstract class ReportProcessor {
 
   protected Authenticator authenticator;
 
+  protected ReportStatsStore reportStatsStore;
+
+  protected CheckpointJournal checkpointJournal;
+
+  protected DownloadWatchdog downloadWatchdog;
+
+  protected ReportRateLimiter rateLimiter;
+
+  protected boolean incremental = false;
+
+  protected int restatementDays = RESTATEMENT_DAYS;
+
   protected int reportRowsSetSize = REPORT_BUFFER_DB;
 
   protected int numberOfReportProcessors = NUMBER_OF_REPORT_PROCESSORS;
 
+  protected int concurrentReportTypes = 1;
+
+  protected boolean hashRowIds = false;
+
+  protected int writerThreads = 0;
+
+  protected Integer writerQueueSize;
+
+  protected Integer writerCoalescedRows;
+
+  protected boolean replaceSlices = false;
+
+  private ReportWriteStage writeStage;
+
+  /**
+   * The dictionary of the repeated values of the reports, replaced at the start of each run.
+   */
+  protected StringDictionary stringDictionary = new StringDictionary();
+
   abstract protected void cacheAccounts(Set<Long> accountIdsSet);
 
+  /**
+   * Creates the mapping strategy of the CSV rows of the report entity, with the shared mapping of
+   * the entity and the string dictionary of the run.
+   *
+   * @param reportBeanClass the class of the report entity.
+   * @return the mapping strategy, to be used by one thread.
+   */
+  protected <R extends Report> AnnotationBasedMappingStrategy<R> createMappingStrategy(
+      Class<R> reportBeanClass) {
+    AnnotationBasedMappingStrategy<R> mappingStrategy = new AnnotationBasedMappingStrategy<R>(
+        this.csvReportEntitiesMapping.getReportMapping(reportBeanClass));
+    mappingStrategy.setStringDictionary(this.stringDictionary);
+    return mappingStrategy;
+  }
+
   abstract public void generateReportsForMCC(String mccAccountId,
       ReportDefinitionDateRangeType dateRangeType,
       String dateStart,
@@ -83,6 +145,129 @@ public abstract class ReportProcessor {
       ReportDefinitionReportType reportType,
       List<String> reportFieldsToInclude) throws Exception;
 
+  /**
+   * Removes the accounts whose report is already completed in the {@link CheckpointJournal}.
+   *
+   * @param mccAccountId the top account ID.
+   * @param reportType the report type.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date.
+   * @param dateEnd the ending date.
+   * @param accountIds the account IDs.
+   * @return the accounts still pending, all of them if there is no journal.
+   */
+  protected Set<Long> getPendingAccounts(String mccAccountId,
+      ReportDefinitionReportType reportType,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd,
+      Set<Long> accountIds) {
+
+    if (this.checkpointJournal == null) {
+      return accountIds;
+    }
+    Set<Long> pendingAccounts = this.checkpointJournal.getPendingAccounts(CheckpointJournal
+        .getReportKey(mccAccountId, reportType.value(), dateRangeType, dateStart, dateEnd),
+        accountIds);
+    if (pendingAccounts.size() < accountIds.size()) {
+      LOGGER.info(" Skipping " + (accountIds.size() - pendingAccounts.size())
+          + " accounts already completed.");
+    }
+    return pendingAccounts;
+  }
+
+  /**
+   * Groups the accounts by the date range still to be downloaded.
+   *
+   *  Outside the incremental mode, or when the report is not segmented by day, all the accounts
+   * download the whole range. In the incremental mode each account downloads from the day after
+   * the last one in the data base, also pulling again the last {@code restatementDays} days of the
+   * range for conversions reported late. The accounts missing days at the start of the range, or
+   * without data, download the whole range. The days between the first and the last stored days
+   * are taken as complete.
+   *
+   * @param mccAccountId the top account ID.
+   * @param reportType the report type.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date.
+   * @param dateEnd the ending date.
+   * @param accountIds the account IDs.
+   * @param reportDefinitionKey the key of the report in the properties.
+   * @param properties the properties resource.
+   * @return the accounts for each start date, all the ranges end on {@code dateEnd}. The accounts
+   *         already up to date are left out.
+   */
+  protected Map<String, Set<Long>> getDateRangesToDownload(String mccAccountId,
+      ReportDefinitionReportType reportType,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd,
+      Set<Long> accountIds,
+      String reportDefinitionKey,
+      Properties properties) {
+
+    Map<String, Set<Long>> dateRanges = Maps.newLinkedHashMap();
+    Class<? extends Report> reportBeanClass =
+        this.csvReportEntitiesMapping.getReportBeanClass(reportType);
+
+    if (!this.incremental
+        || !dateRangeType.equals(ReportDefinitionDateRangeType.CUSTOM_DATE)
+        || reportType.equals(
+            ReportDefinitionReportType.CAMPAIGN_NEGATIVE_KEYWORDS_PERFORMANCE_REPORT)
+        || reportBeanClass == null || !ReportBase.class.isAssignableFrom(reportBeanClass)
+        || !this.csvReportEntitiesMapping.retrievePropertiesToSelect(reportType)
+            .contains(DATE_REPORT_FIELD)
+        || !this.getReportInclusions(reportDefinitionKey, properties).contains(DATE_REPORT_FIELD)) {
+      dateRanges.put(dateStart, accountIds);
+      return dateRanges;
+    }
+
+    LocalDate start = DateUtil.parseDateTime(dateStart).toLocalDate();
+    LocalDate end = DateUtil.parseDateTime(dateEnd).toLocalDate();
+    LocalDate restatementStart = end.minusDays(this.restatementDays - 1);
+
+    long topAccountId = Long.parseLong(mccAccountId.replaceAll("-", ""));
+    Class<? extends ReportBase> reportBaseClass = reportBeanClass.asSubclass(ReportBase.class);
+    Map<Long, Date> firstDays =
+        this.persister.getMinDateByAccount(reportBaseClass, topAccountId, ReportBase.DAY);
+    Map<Long, Date> lastDays =
+        this.persister.getMaxDateByAccount(reportBaseClass, topAccountId, ReportBase.DAY);
+
+    int upToDate = 0;
+    for (Long accountId : accountIds) {
+      Date firstDay = firstDays.get(accountId);
+      Date lastDay = lastDays.get(accountId);
+
+      LocalDate accountStart = start;
+      if (firstDay != null && lastDay != null && !new LocalDate(firstDay).isAfter(start)) {
+        LocalDate missingStart = new LocalDate(lastDay).plusDays(1);
+        if (restatementStart.isBefore(missingStart)) {
+          missingStart = restatementStart;
+        }
+        if (missingStart.isAfter(start)) {
+          accountStart = missingStart;
+        }
+      }
+
+      if (accountStart.isAfter(end)) {
+        upToDate++;
+      } else {
+        String accountDateStart =
+            DateUtil.formatYearMonthDayNoDash(accountStart.toDateTimeAtStartOfDay());
+        Set<Long> rangeAccountIds = dateRanges.get(accountDateStart);
+        if (rangeAccountIds == null) {
+          rangeAccountIds = Sets.newHashSet();
+          dateRanges.put(accountDateStart, rangeAccountIds);
+        }
+        rangeAccountIds.add(accountId);
+      }
+    }
+
+    LOGGER.info(" Incremental download: " + dateRanges.size() + " date ranges, " + upToDate
+        + " accounts up to date.");
+    return dateRanges;
+  }
+
   /**
    * Uses the API to retrieve the managed accounts, and extract their IDs.
    *
@@ -243,6 +428,9 @@ public abstract class ReportProcessor {
    * Adjusts the date range in case of a custom date type. The adjustment do not apply for the
    * {@code CAMPAIGN_NEGATIVE_KEYWORDS_PERFORMANCE_REPORT}.
    *
+   *  In the incremental mode the start date is already narrowed to the days missing in the data
+   * base, see {@code getDateRangesToDownload}.
+   *
    * @param reportDefinitionReportType the report type.
    * @param dateRangeType the date range type.
    * @param dateStart the start.
@@ -321,6 +509,58 @@ public abstract class ReportProcessor {
     return Lists.newArrayListWithCapacity(0);
   }
 
+  /**
+   * Creates the scheduler running the report types of an MCC, sharing the
+   * {@code numberOfReportProcessors} threads among them.
+   *
+   * @param properties the properties with the priority and cap of each report type.
+   * @return the scheduler.
+   */
+  protected ReportTypeScheduler createReportTypeScheduler(Properties properties) {
+    return new ReportTypeScheduler(concurrentReportTypes, numberOfReportProcessors, properties);
+  }
+
+  /**
+   * Gets the most connections to the data base the processing can hold at the same time: one for
+   * each processor thread and writer thread, and one more for each processor thread replacing the
+   * rows of a report on its own connection.
+   *
+   * @return the number of connections.
+   */
+  public int getMaxConcurrentConnections() {
+    return numberOfReportProcessors * (replaceSlices ? 2 : 1) + writerThreads;
+  }
+
+  /**
+   * Gets the stage persisting the rows on its own threads, created the first time.
+   *
+   * @return the stage, {@code null} if the rows are persisted by the processor threads.
+   */
+  protected synchronized ReportWriteStage getWriteStage() {
+    if (writeStage == null && writerThreads > 0) {
+      int queueSize = writerQueueSize != null && writerQueueSize > 0
+          ? writerQueueSize : writerThreads * 2;
+      int coalescedRows = writerCoalescedRows != null && writerCoalescedRows > 0
+          ? writerCoalescedRows : reportRowsSetSize * 5;
+      LOGGER.info("Persisting the rows with " + writerThreads + " writer threads, "
+          + queueSize + " sets of rows queued by table, up to " + coalescedRows
+          + " rows at once.");
+      writeStage = new ReportWriteStage(writerThreads, queueSize, coalescedRows);
+    }
+    return writeStage;
+  }
+
+  /**
+   * Stops the writer threads of the stage persisting the rows, once the rows already submitted are
+   * persisted. Called at the end of a run, the next run creates a new stage.
+   */
+  protected synchronized void shutdownWriteStage() {
+    if (writeStage != null) {
+      writeStage.shutdown();
+      writeStage = null;
+    }
+  }
+
   /**
    * @param csvReportEntitiesMapping the csvReportEntitiesMapping to set
    */
@@ -344,4 +584,109 @@ public abstract class ReportProcessor {
   public void setAuthentication(Authenticator authenticator) {
     this.authenticator = authenticator;
   }
+
+  /**
+   * @param reportStatsStore the store with the size of the reports of each account, used to
+   *        process the largest accounts first.
+   */
+  @Autowired(required = false)
+  public void setReportStatsStore(ReportStatsStore reportStatsStore) {
+    this.reportStatsStore = reportStatsStore;
+  }
+
+  /**
+   * @param downloadWatchdog the watchdog with the timeouts of the downloads, can be {@code null}.
+   */
+  @Autowired(required = false)
+  public void setDownloadWatchdog(DownloadWatchdog downloadWatchdog) {
+    this.downloadWatchdog = downloadWatchdog;
+  }
+
+  /**
+   * @param rateLimiter the rate limiter pacing the downloads of each developer token and MCC, can
+   *        be {@code null}.
+   */
+  @Autowired(required = false)
+  public void setRateLimiter(ReportRateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  /**
+   * @param checkpointJournal the journal of the reports already persisted, {@code null} to
+   *        process all the accounts.
+   */
+  public void setCheckpointJournal(CheckpointJournal checkpointJournal) {
+    this.checkpointJournal = checkpointJournal;
+  }
+
+  /**
+   * @param incremental true to download only the days missing in the data base, and the last
+   *        {@code restatementDays} days of the range.
+   */
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  /**
+   * @param restatementDays the days at the end of the range downloaded again in the incremental
+   *        mode, to get the conversions reported late.
+   */
+  @Value(value = "${aw.report.processor.incremental.restatement.days:3}")
+  public void setRestatementDays(int restatementDays) {
+    this.restatementDays = Math.max(0, restatementDays);
+  }
+
+  /**
+   * @param concurrentReportTypes the number of report types downloaded and processed at the same
+   *        time, see {@link ReportTypeScheduler}.
+   */
+  @Value(value = "${aw.report.processor.report.types.concurrent:1}")
+  public void setConcurrentReportTypes(int concurrentReportTypes) {
+    this.concurrentReportTypes = Math.max(1, concurrentReportTypes);
+  }
+
+  /**
+   * @param hashRowIds true to store the row ids as their fixed width hash, see
+   *        {@link Report#hashId()}.
+   */
+  @Value(value = "${aw.report.processor.rowid.hashed:false}")
+  public void setHashRowIds(boolean hashRowIds) {
+    this.hashRowIds = hashRowIds;
+  }
+
+  /**
+   * @param writerThreads the threads persisting the rows apart from the processor threads, see
+   *        {@link ReportWriteStage}, 0 to persist them on the processor threads.
+   */
+  @Value(value = "${aw.report.processor.writer.threads:0}")
+  public void setWriterThreads(int writerThreads) {
+    this.writerThreads = Math.max(0, writerThreads);
+  }
+
+  /**
+   * @param writerQueueSize the sets of rows waiting for the writer threads for each table before
+   *        the processor threads wait, {@code null} for twice the number of writer threads.
+   */
+  @Value(value = "${aw.report.processor.writer.queue.size:}")
+  public void setWriterQueueSize(Integer writerQueueSize) {
+    this.writerQueueSize = writerQueueSize;
+  }
+
+  /**
+   * @param writerCoalescedRows the most rows persisted at once by the writer threads,
+   *        {@code null} for five sets of rows.
+   */
+  @Value(value = "${aw.report.processor.writer.coalesced.rows:}")
+  public void setWriterCoalescedRows(Integer writerCoalescedRows) {
+    this.writerCoalescedRows = writerCoalescedRows;
+  }
+
+  /**
+   * @param replaceSlices true to replace the stored rows of the account and date range of each
+   *        report with its rows, for the persisters implementing {@code ReportSlicePersister}.
+   */
+  @Value(value = "${aw.report.processor.replace.slices:false}")
+  public void setReplaceSlices(boolean replaceSlices) {
+    this.replaceSlices = replaceSlices;
+  }
 }
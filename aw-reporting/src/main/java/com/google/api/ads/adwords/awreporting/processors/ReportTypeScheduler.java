@@ -0,0 +1,290 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the report types of a run, several of them at once, over a shared processing budget.
+ *
+ *  The report types are started by priority, highest first, and up to
+ * {@code concurrentReportTypes} of them run at the same time. All of them share
+ * {@code sharedThreads} permits, so running several report types does not multiply the processor
+ * threads, and each report type can be capped to a number of permits so a huge report does not
+ * take all of them while the small ones wait.
+ *
+ *  The priority and the cap of each report type are read from the properties file:
+ * <pre>
+ * aw.report.processor.report.priority.KEYWORDS_PERFORMANCE_REPORT=10
+ * aw.report.processor.report.threads.KEYWORDS_PERFORMANCE_REPORT=5
+ * </pre>
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportTypeScheduler {
+
+  private static final Logger LOGGER = Logger.getLogger(ReportTypeScheduler.class);
+
+  public static final String PRIORITY_PROPERTY_PREFIX = "aw.report.processor.report.priority.";
+
+  public static final String THREADS_PROPERTY_PREFIX = "aw.report.processor.report.threads.";
+
+  private final int concurrentReportTypes;
+
+  private final Properties properties;
+
+  private final Semaphore sharedPermits;
+
+  private final Map<ReportDefinitionReportType, Semaphore> reportTypePermits = Maps.newHashMap();
+
+  private final List<ScheduledReportType> scheduledReportTypes = Lists.newArrayList();
+
+  /**
+   * A report type waiting to be run.
+   */
+  private static final class ScheduledReportType {
+
+    private final ReportDefinitionReportType reportType;
+    private final int priority;
+    private final Runnable task;
+
+    private ScheduledReportType(ReportDefinitionReportType reportType, int priority,
+        Runnable task) {
+      this.reportType = reportType;
+      this.priority = priority;
+      this.task = task;
+    }
+  }
+
+  /**
+   * Orders the report types by priority, highest first.
+   */
+  private static final Comparator<ScheduledReportType> HIGHEST_PRIORITY_FIRST =
+      new Comparator<ScheduledReportType>() {
+        @Override
+        public int compare(ScheduledReportType scheduled1, ScheduledReportType scheduled2) {
+          if (scheduled1.priority == scheduled2.priority) {
+            return 0;
+          }
+          return scheduled1.priority > scheduled2.priority ? -1 : 1;
+        }
+      };
+
+  /**
+   * C'tor.
+   *
+   * @param concurrentReportTypes the number of report types run at the same time.
+   * @param sharedThreads the permits shared by all the report types.
+   * @param properties the properties with the priority and cap of each report type.
+   */
+  public ReportTypeScheduler(int concurrentReportTypes, int sharedThreads,
+      Properties properties) {
+    this.concurrentReportTypes = Math.max(1, concurrentReportTypes);
+    this.sharedPermits = new Semaphore(Math.max(1, sharedThreads));
+    this.properties = properties;
+  }
+
+  /**
+   * @param reportType the report type.
+   * @return the priority of the report type, 0 if not set.
+   */
+  public int getPriority(ReportDefinitionReportType reportType) {
+    return getIntProperty(PRIORITY_PROPERTY_PREFIX + reportType.name());
+  }
+
+  /**
+   * @param reportType the report type.
+   * @return the most permits the report type can hold at once, 0 if it is not capped.
+   */
+  public int getMaxThreads(ReportDefinitionReportType reportType) {
+    return Math.max(0, getIntProperty(THREADS_PROPERTY_PREFIX + reportType.name()));
+  }
+
+  /**
+   * Adds a report type to be run by {@code runAll}.
+   *
+   * @param reportType the report type.
+   * @param task the task downloading and processing the report type.
+   */
+  public synchronized void schedule(ReportDefinitionReportType reportType, Runnable task) {
+    scheduledReportTypes.add(
+        new ScheduledReportType(reportType, getPriority(reportType), task));
+  }
+
+  /**
+   * Runs the scheduled report types by priority and waits for all of them to finish. With one
+   * concurrent report type they are run one after the other in the calling thread.
+   *
+   * @throws InterruptedException error waiting for the report types.
+   */
+  public void runAll() throws InterruptedException {
+    List<ScheduledReportType> toRun;
+    synchronized (this) {
+      toRun = Lists.newArrayList(scheduledReportTypes);
+      scheduledReportTypes.clear();
+    }
+    // The sort is stable, so the report types with the same priority keep their order
+    Collections.sort(toRun, HIGHEST_PRIORITY_FIRST);
+
+    if (concurrentReportTypes == 1 || toRun.size() <= 1) {
+      for (ScheduledReportType scheduled : toRun) {
+        scheduled.task.run();
+      }
+      return;
+    }
+
+    LOGGER.info("Running " + toRun.size() + " report types, " + concurrentReportTypes
+        + " at the same time.");
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(Math.min(concurrentReportTypes, toRun.size()));
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (ScheduledReportType scheduled : toRun) {
+        futures.add(executorService.submit(scheduled.task));
+      }
+      RuntimeException firstFailure = null;
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          LOGGER.error("Error running report type: " + e.getCause().getMessage());
+          if (firstFailure == null) {
+            firstFailure = e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+          }
+        }
+      }
+      if (firstFailure != null) {
+        throw firstFailure;
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Executes the runnable once a shared permit, and a permit of the report type if it is capped,
+   * are free. The calling thread waits for the permits, so the executor queue does not fill up
+   * with work of a single report type.
+   *
+   * @param executorService the executor running the runnable.
+   * @param reportType the report type whose cap applies, {@code null} to use only the shared
+   *        permits.
+   * @param runnable the work to run.
+   * @throws InterruptedException error waiting for the permits.
+   */
+  public void execute(ExecutorService executorService,
+      final ReportDefinitionReportType reportType, final Runnable runnable)
+      throws InterruptedException {
+    acquire(reportType);
+    try {
+      executorService.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            runnable.run();
+          } finally {
+            release(reportType);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      release(reportType);
+      throw e;
+    }
+  }
+
+  /**
+   * Runs the runnable in the calling thread once a shared permit is free.
+   *
+   * @param runnable the work to run.
+   * @throws InterruptedException error waiting for the permit.
+   */
+  public void runWithPermit(Runnable runnable) throws InterruptedException {
+    acquire(null);
+    try {
+      runnable.run();
+    } finally {
+      release(null);
+    }
+  }
+
+  private void acquire(ReportDefinitionReportType reportType) throws InterruptedException {
+    Semaphore typePermits = getReportTypePermits(reportType);
+    if (typePermits != null) {
+      typePermits.acquire();
+    }
+    try {
+      sharedPermits.acquire();
+    } catch (InterruptedException e) {
+      if (typePermits != null) {
+        typePermits.release();
+      }
+      throw e;
+    }
+  }
+
+  private void release(ReportDefinitionReportType reportType) {
+    sharedPermits.release();
+    Semaphore typePermits = getReportTypePermits(reportType);
+    if (typePermits != null) {
+      typePermits.release();
+    }
+  }
+
+  private synchronized Semaphore getReportTypePermits(ReportDefinitionReportType reportType) {
+    if (reportType == null) {
+      return null;
+    }
+    Semaphore typePermits = reportTypePermits.get(reportType);
+    if (typePermits == null) {
+      int maxThreads = getMaxThreads(reportType);
+      if (maxThreads == 0) {
+        return null;
+      }
+      typePermits = new Semaphore(maxThreads);
+      reportTypePermits.put(reportType, typePermits);
+    }
+    return typePermits;
+  }
+
+  private int getIntProperty(String key) {
+    String value = properties == null ? null : properties.getProperty(key);
+    if (value == null || value.trim().isEmpty()) {
+      return 0;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      LOGGER.warn("Ignoring invalid value of " + key + ": " + value);
+      return 0;
+    }
+  }
+}
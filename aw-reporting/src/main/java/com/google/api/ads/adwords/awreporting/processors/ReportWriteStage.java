@@ -0,0 +1,343 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persists the rows of the reports on its own threads, so the threads parsing the reports do not
+ * wait for the data base.
+ *
+ *  The {@link ReportBuffer}s hand their full sets of rows to a bounded queue of the report table,
+ * and the parsing threads only wait when the queue is full, which keeps the parsing at the pace of
+ * the data base. The queues are drained by a pool of writer threads sized apart from the parsing
+ * threads. A writer takes the sets of rows waiting in a queue up to {@code coalescedRows} rows,
+ * and persists them at once, so the small sets of the small reports are written in large batches.
+ *
+ *  Each buffer tracks its own sets of rows, so it can wait for them to be persisted and get the
+ * error of any of them before the report is marked as completed.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportWriteStage {
+
+  private static final Logger LOGGER = Logger.getLogger(ReportWriteStage.class);
+
+  private final int writerThreads;
+
+  private final int queueSize;
+
+  private final int coalescedRows;
+
+  private final ExecutorService executorService;
+
+  private final ConcurrentMap<List<Object>, TableQueue> queues = Maps.newConcurrentMap();
+
+  /**
+   * The rows persisted by a {@link ReportBuffer}, pending or failed.
+   */
+  public static class Tracker {
+
+    private int pending;
+
+    private Throwable error;
+
+    private synchronized void submitted() {
+      this.pending++;
+    }
+
+    private synchronized void completed(Throwable error) {
+      this.pending--;
+      if (error != null && this.error == null) {
+        this.error = error;
+      }
+      this.notifyAll();
+    }
+
+    /**
+     * Waits for all the rows to be persisted.
+     *
+     * @throws RuntimeException the first error persisting the rows.
+     * @throws InterruptedException interrupted while waiting.
+     */
+    public synchronized void await() throws InterruptedException {
+      while (this.pending > 0) {
+        this.wait();
+      }
+      if (this.error instanceof RuntimeException) {
+        throw (RuntimeException) this.error;
+      }
+      if (this.error instanceof Error) {
+        throw (Error) this.error;
+      }
+      if (this.error != null) {
+        throw new IllegalStateException("Error persisting the rows", this.error);
+      }
+    }
+  }
+
+  /**
+   * C'tor
+   *
+   * @param writerThreads the threads persisting the rows.
+   * @param queueSize the sets of rows waiting to be persisted for each table.
+   * @param coalescedRows the most rows persisted at once by coalescing the sets of rows.
+   */
+  public ReportWriteStage(int writerThreads, int queueSize, int coalescedRows) {
+    this.writerThreads = Math.max(1, writerThreads);
+    this.queueSize = Math.max(1, queueSize);
+    this.coalescedRows = Math.max(1, coalescedRows);
+    this.executorService =
+        Executors.newFixedThreadPool(this.writerThreads, new WriterThreadFactory());
+  }
+
+  /**
+   * Hands a set of rows to the queue of its table, waiting while the queue is full.
+   *
+   * @param persister the persister of the rows.
+   * @param batch the rows, that must not be changed once submitted.
+   * @param tracker the tracker of the buffer of the rows.
+   * @throws InterruptedException interrupted while waiting.
+   * @throws RejectedExecutionException if the stage is shut down.
+   */
+  public void submit(ReportBatchPersister persister, RowBatch<? extends Report> batch,
+      Tracker tracker) throws InterruptedException {
+    this.submit(new PendingWrite(persister, batch, null, tracker), batch.getReportClass());
+  }
+
+  /**
+   * Hands a set of report entities to the queue of their table, waiting while the queue is full.
+   *
+   * @param persister the persister of the rows.
+   * @param reports the report entities, all of the same class, that must not be changed once
+   *        submitted.
+   * @param tracker the tracker of the buffer of the rows.
+   * @throws InterruptedException interrupted while waiting.
+   * @throws RejectedExecutionException if the stage is shut down.
+   */
+  public void submit(EntityPersister persister, List<? extends Report> reports, Tracker tracker)
+      throws InterruptedException {
+    this.submit(new PendingWrite(persister, null, reports, tracker), reports.get(0).getClass());
+  }
+
+  /**
+   * Stops the writer threads once the rows already submitted are persisted.
+   */
+  public void shutdown() {
+    this.executorService.shutdown();
+  }
+
+  /**
+   * @return true if the writer threads are stopped or stopping.
+   */
+  public boolean isShutdown() {
+    return this.executorService.isShutdown();
+  }
+
+  private void submit(PendingWrite write, Class<?> reportClass) throws InterruptedException {
+    List<Object> key = Arrays.<Object>asList(write.persister, reportClass);
+    TableQueue queue = this.queues.get(key);
+    if (queue == null) {
+      TableQueue newQueue = new TableQueue();
+      queue = this.queues.putIfAbsent(key, newQueue);
+      if (queue == null) {
+        queue = newQueue;
+      }
+    }
+    write.tracker.submitted();
+    try {
+      queue.writes.put(write);
+    } catch (InterruptedException e) {
+      write.tracker.completed(null);
+      throw e;
+    }
+    queue.startWriters();
+  }
+
+  /**
+   * A set of rows waiting to be persisted, as a batch or as a list of entities.
+   */
+  private static class PendingWrite {
+
+    private final EntityPersister persister;
+    private final RowBatch<? extends Report> batch;
+    private final List<? extends Report> reports;
+    private final Tracker tracker;
+
+    PendingWrite(EntityPersister persister, RowBatch<? extends Report> batch,
+        List<? extends Report> reports, Tracker tracker) {
+      this.persister = persister;
+      this.batch = batch;
+      this.reports = reports;
+      this.tracker = tracker;
+    }
+
+    int size() {
+      return this.batch != null ? this.batch.size() : this.reports.size();
+    }
+  }
+
+  /**
+   * The rows waiting to be persisted into a table, and the writers draining them.
+   */
+  private class TableQueue implements Runnable {
+
+    private final BlockingQueue<PendingWrite> writes =
+        new LinkedBlockingQueue<PendingWrite>(queueSize);
+
+    private final AtomicInteger writers = new AtomicInteger();
+
+    /**
+     * Starts a writer if there are more sets of rows waiting than writers, and threads left.
+     *
+     * @throws RejectedExecutionException if the stage is shut down, after failing the sets of
+     *         rows waiting so that their buffers do not wait for them.
+     */
+    void startWriters() {
+      int running = this.writers.get();
+      while (running < writerThreads && running < this.writes.size()) {
+        if (this.writers.compareAndSet(running, running + 1)) {
+          try {
+            executorService.execute(this);
+          } catch (RejectedExecutionException e) {
+            this.writers.decrementAndGet();
+            this.failWrites(e);
+            throw e;
+          }
+          return;
+        }
+        running = this.writers.get();
+      }
+    }
+
+    /**
+     * Drops the sets of rows waiting, completing them with the error.
+     */
+    private void failWrites(Throwable error) {
+      PendingWrite write = this.writes.poll();
+      while (write != null) {
+        write.tracker.completed(error);
+        write = this.writes.poll();
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<PendingWrite> coalesced = this.takeWrites();
+        while (!coalesced.isEmpty()) {
+          persist(coalesced);
+          coalesced = this.takeWrites();
+        }
+      } finally {
+        this.writers.decrementAndGet();
+        // Rows added while the writer was stopping
+        try {
+          this.startWriters();
+        } catch (RejectedExecutionException e) {
+          LOGGER.error("Rows submitted after the write stage was shut down: " + e.getMessage());
+        }
+      }
+    }
+
+    /**
+     * Takes the sets of rows waiting, up to {@code coalescedRows} rows.
+     */
+    private List<PendingWrite> takeWrites() {
+      List<PendingWrite> coalesced = Lists.newArrayList();
+      int rows = 0;
+      PendingWrite write;
+      while (rows < coalescedRows && (write = this.writes.poll()) != null) {
+        coalesced.add(write);
+        rows += write.size();
+      }
+      return coalesced;
+    }
+  }
+
+  /**
+   * Persists the coalesced sets of rows in one call to the persister, and reports the result to
+   * the trackers of all of them.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void persist(List<PendingWrite> coalesced) {
+    PendingWrite first = coalesced.get(0);
+    Throwable error = null;
+    try {
+      if (first.batch != null) {
+        RowBatch batch = first.batch;
+        if (coalesced.size() > 1) {
+          int rows = 0;
+          for (PendingWrite write : coalesced) {
+            rows += write.size();
+          }
+          batch = new RowBatch(first.batch.getReportClass(), rows);
+          for (PendingWrite write : coalesced) {
+            batch.addAll(write.batch);
+          }
+        }
+        ((ReportBatchPersister) first.persister).persistReportBatch(batch);
+      } else {
+        List reports = first.reports;
+        if (coalesced.size() > 1) {
+          reports = Lists.newArrayList();
+          for (PendingWrite write : coalesced) {
+            reports.addAll(write.reports);
+          }
+        }
+        first.persister.persistReportEntities(reports);
+      }
+    } catch (Throwable e) {
+      LOGGER.error("Error persisting " + coalesced.size() + " sets of rows: " + e.getMessage());
+      error = e;
+    }
+    for (PendingWrite write : coalesced) {
+      write.tracker.completed(error);
+    }
+  }
+
+  /**
+   * Creates daemon threads, so the writers never keep the process alive.
+   */
+  private static final class WriterThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "ReportWriter-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
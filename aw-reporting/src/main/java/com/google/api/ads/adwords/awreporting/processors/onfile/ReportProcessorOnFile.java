@@ -14,12 +14,17 @@
 
 package com.google.api.ads.adwords.awreporting.processors.onfile;
 
+import com.google.api.ads.adwords.awreporting.downloader.DownloadWatchdog;
 import com.google.api.ads.adwords.awreporting.downloader.MultipleClientReportDownloader;
-import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
+import com.google.api.ads.adwords.awreporting.model.csv.StringDictionary;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
 import com.google.api.ads.adwords.awreporting.processors.ReportProcessor;
+import com.google.api.ads.adwords.awreporting.processors.ReportTypeScheduler;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
+import com.google.api.ads.adwords.awreporting.util.CsvFileSplitter;
+import com.google.api.ads.adwords.awreporting.util.FileUtil;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
@@ -42,9 +47,14 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -65,8 +75,46 @@ public class ReportProcessorOnFile extends ReportProcessor {
 
   private static final DateFormat TIMESTAMPFORMAT = new SimpleDateFormat("yyyy-MM-dd-HH_mm");
 
+  /**
+   * Marks the end of the downloads in the pipeline queue, one per processor thread.
+   */
+  private static final File END_OF_DOWNLOADS = new File("");
+
+  /**
+   * How often the end of the downloads is offered again while the pipeline queue is full.
+   */
+  private static final long END_OF_DOWNLOADS_RETRY_MILLIS = 1000;
+
   private MultipleClientReportDownloader multipleClientReportDownloader;
 
+  private boolean streaming = false;
+
+  private File auditDirectory;
+
+  private boolean pipelined = false;
+
+  private Integer pipelineQueueSize;
+
+  private Long splitSize;
+
+  /**
+   * A file parsed in ranges of rows by several threads.
+   */
+  private static final class SplitFile<R extends Report> {
+
+    private final File file;
+
+    // The decompressed copy of the file, null if the file was not compressed
+    private final File plainFile;
+
+    private final List<RunnableProcessorOnFile<R>> rangeProcessors = Lists.newArrayList();
+
+    private SplitFile(File file, File plainFile) {
+      this.file = file;
+      this.plainFile = plainFile;
+    }
+  }
+
   /**
    * Constructor.
    *
@@ -88,12 +136,13 @@ public class ReportProcessorOnFile extends ReportProcessor {
 
   private <R extends Report> void processFiles(String mccAccountId,
       Class<R> reportBeanClass,
+      String reportTypeName,
       Collection<File> localFiles,
       ReportDefinitionDateRangeType dateRangeType,
       String dateStart,
-      String dateEnd) {
+      String dateEnd,
+      ReportTypeScheduler scheduler) {
 
-    final CountDownLatch latch = new CountDownLatch(localFiles.size());
     ExecutorService executorService = Executors.newFixedThreadPool(numberOfReportProcessors);
 
     // Processing Report Local Files
@@ -101,45 +150,190 @@ public class ReportProcessorOnFile extends ReportProcessor {
 
     Stopwatch stopwatch = Stopwatch.createStarted();
 
+    List<RunnableProcessorOnFile<R>> runnableProcessors = Lists.newArrayList();
+    List<SplitFile<R>> splitFiles = Lists.newArrayList();
     for (File file : localFiles) {
+      if (splitSize != null && splitSize > 0 && file.length() >= splitSize) {
+        try {
+          SplitFile<R> splitFile = this.splitFile(mccAccountId, reportBeanClass, reportTypeName,
+              file, dateRangeType, dateStart, dateEnd);
+          splitFiles.add(splitFile);
+          runnableProcessors.addAll(splitFile.rangeProcessors);
+          continue;
+        } catch (IOException e) {
+          LOGGER.error("Could not split the file, processing it as a whole: "
+              + file.getAbsolutePath());
+          e.printStackTrace();
+        }
+      }
+      runnableProcessors.add(this.createRunnableProcessorOnFile(mccAccountId, reportBeanClass,
+          reportTypeName, file, dateRangeType, dateStart, dateEnd));
+    }
+
+    final CountDownLatch latch = new CountDownLatch(runnableProcessors.size());
+    for (RunnableProcessorOnFile<R> runnableProcesor : runnableProcessors) {
       LOGGER.trace(".");
       try {
 
-        // We need to create a csvToBean and mappingStrategy for each thread
-        ModifiedCsvToBean<R> csvToBean = new ModifiedCsvToBean<R>();
-        MappingStrategy<R> mappingStrategy = new AnnotationBasedMappingStrategy<R>(reportBeanClass);
-
-        LOGGER.debug("Parsing file: " + file.getAbsolutePath());
-        RunnableProcessorOnFile<R> runnableProcesor = new RunnableProcessorOnFile<R>(file,
-            csvToBean,
-            mappingStrategy,
-            dateRangeType,
-            dateStart,
-            dateEnd,
-            mccAccountId,
-            persister,
-            reportRowsSetSize);
         runnableProcesor.setLatch(latch);
-        executorService.execute(runnableProcesor);
-
+        if (scheduler != null) {
+          // The processing threads are shared with the other report types running
+          scheduler.execute(executorService, null, runnableProcesor);
+        } else {
+          executorService.execute(runnableProcesor);
+        }
+
+      } catch (InterruptedException e) {
+        LOGGER.error("Ignoring file (Interrupted before processing): "
+            + runnableProcesor.getFile().getAbsolutePath());
+        latch.countDown();
+        Thread.currentThread().interrupt();
       } catch (Exception e) {
-        LOGGER.error("Ignoring file (Error when processing): " + file.getAbsolutePath());
+        LOGGER.error("Ignoring file (Error when processing): "
+            + runnableProcesor.getFile().getAbsolutePath());
         e.printStackTrace();
       }
     }
 
     try {
-      latch.await();
+      // The files are local, so the wait only logs the progress without giving up
+      DownloadWatchdog.await(latch, "files of " + reportTypeName, 0);
     } catch (InterruptedException e) {
       LOGGER.error(e.getMessage());
       e.printStackTrace();
     }
     executorService.shutdown();
+    for (SplitFile<R> splitFile : splitFiles) {
+      this.completeSplitFile(splitFile, mccAccountId, reportTypeName, dateRangeType, dateStart,
+          dateEnd);
+    }
     stopwatch.stop();
     LOGGER.info("*** Finished processing all reports in "
         + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***\n");
   }
 
+  /**
+   * Creates the {@code RunnableProcessorOnFile} that parses and persists one file.
+   */
+  private <R extends Report> RunnableProcessorOnFile<R> createRunnableProcessorOnFile(
+      String mccAccountId,
+      Class<R> reportBeanClass,
+      String reportTypeName,
+      File file,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd) {
+
+    // We need to create a csvToBean and mappingStrategy for each thread
+    ModifiedCsvToBean<R> csvToBean = new ModifiedCsvToBean<R>();
+    MappingStrategy<R> mappingStrategy = this.createMappingStrategy(reportBeanClass);
+
+    LOGGER.debug("Parsing file: " + file.getAbsolutePath());
+    RunnableProcessorOnFile<R> runnableProcessor = new RunnableProcessorOnFile<R>(file,
+        csvToBean,
+        mappingStrategy,
+        dateRangeType,
+        dateStart,
+        dateEnd,
+        mccAccountId,
+        persister,
+        reportRowsSetSize);
+    runnableProcessor.setReportStats(reportStatsStore, reportTypeName);
+    runnableProcessor.setHashRowIds(hashRowIds);
+    runnableProcessor.setWriteStage(getWriteStage());
+    runnableProcessor.setReplaceSlices(replaceSlices);
+    runnableProcessor.setCheckpoint(checkpointJournal, CheckpointJournal.getReportKey(
+        mccAccountId, reportTypeName, dateRangeType, dateStart, dateEnd));
+    return runnableProcessor;
+  }
+
+  /**
+   * Splits a large file in ranges of rows, each one parsed and persisted by its own
+   * {@code RunnableProcessorOnFile}. A compressed file is decompressed first, as the ranges are
+   * read straight from the plain file. The title and header rows are read once, and parsed again
+   * before each range.
+   */
+  private <R extends Report> SplitFile<R> splitFile(String mccAccountId,
+      Class<R> reportBeanClass,
+      String reportTypeName,
+      File file,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd) throws IOException {
+
+    File plainFile = null;
+    if (FileUtil.isGZipped(file)) {
+      plainFile = File.createTempFile(file.getName(), ".csv", file.getParentFile());
+      FileUtil.gUnzip(file, plainFile);
+    }
+    SplitFile<R> splitFile = new SplitFile<R>(file, plainFile);
+
+    try {
+      CsvFileSplitter splitter =
+          new CsvFileSplitter(plainFile != null ? plainFile : file, ',', '\"');
+      // The title and the header of the report
+      long[] boundaries = splitter.split(2, splitSize);
+      byte[] head = splitter.readHead(boundaries[0]);
+      for (int i = 0; i + 1 < boundaries.length; i++) {
+        RunnableProcessorOnFile<R> rangeProcessor = this.createRunnableProcessorOnFile(
+            mccAccountId, reportBeanClass, reportTypeName, file, dateRangeType, dateStart,
+            dateEnd);
+        rangeProcessor.setRange(splitter, head, boundaries[i], boundaries[i + 1]);
+        // The rows and the checkpoint are recorded once all the ranges are done
+        rangeProcessor.setReportStats(null, null);
+        rangeProcessor.setCheckpoint(null, null);
+        splitFile.rangeProcessors.add(rangeProcessor);
+      }
+    } catch (IOException e) {
+      if (plainFile != null) {
+        plainFile.delete();
+      }
+      throw e;
+    }
+
+    LOGGER.debug("Split file in " + splitFile.rangeProcessors.size() + " ranges: "
+        + file.getAbsolutePath());
+    return splitFile;
+  }
+
+  /**
+   * Records the rows of a split file and marks it as completed, if all its ranges succeeded, and
+   * deletes its decompressed copy.
+   */
+  private <R extends Report> void completeSplitFile(SplitFile<R> splitFile,
+      String mccAccountId,
+      String reportTypeName,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd) {
+
+    if (splitFile.plainFile != null) {
+      splitFile.plainFile.delete();
+    }
+
+    long rows = 0;
+    Long accountId = null;
+    for (RunnableProcessorOnFile<R> rangeProcessor : splitFile.rangeProcessors) {
+      if (rangeProcessor.getError() != null) {
+        LOGGER.error("Error processing some of the rows of file: "
+            + splitFile.file.getAbsolutePath());
+        return;
+      }
+      rows += rangeProcessor.getRows();
+      if (rangeProcessor.getAccountId() != null) {
+        accountId = rangeProcessor.getAccountId();
+      }
+    }
+
+    if (reportStatsStore != null && accountId != null) {
+      reportStatsStore.recordRows(accountId, reportTypeName, rows);
+    }
+    if (checkpointJournal != null && accountId != null) {
+      checkpointJournal.markCompleted(CheckpointJournal.getReportKey(
+          mccAccountId, reportTypeName, dateRangeType, dateStart, dateEnd), accountId);
+    }
+  }
+
   /**
    * Caches the accounts into a temporary file.
    *
@@ -179,12 +373,12 @@ public class ReportProcessorOnFile extends ReportProcessor {
    * @throws Exception error reaching the API.
    */
   @Override
-  public void generateReportsForMCC(String mccAccountId,
-      ReportDefinitionDateRangeType dateRangeType,
-      String dateStart,
-      String dateEnd,
+  public void generateReportsForMCC(final String mccAccountId,
+      final ReportDefinitionDateRangeType dateRangeType,
+      final String dateStart,
+      final String dateEnd,
       Set<Long> accountIdsSet,
-      Properties properties,
+      final Properties properties,
       ReportDefinitionReportType onDemandReportType,
       List<String> reportFieldsToInclude) throws Exception {
 
@@ -196,36 +390,56 @@ public class ReportProcessorOnFile extends ReportProcessor {
       LOGGER.info("Accounts loaded from file.");
     }
 
-    AdWordsSessionBuilderSynchronizer sessionBuilder = new AdWordsSessionBuilderSynchronizer(
+    final AdWordsSessionBuilderSynchronizer sessionBuilder = new AdWordsSessionBuilderSynchronizer(
         authenticator.authenticate(mccAccountId, false));
+    this.stringDictionary = new StringDictionary();
 
     LOGGER.info("*** Generating Reports for " + accountIdsSet.size() + " accounts ***");
 
     Stopwatch stopwatch = Stopwatch.createStarted();
 
     Set<ReportDefinitionReportType> reports = this.csvReportEntitiesMapping.getDefinedReports();
+    final Set<Long> accountIds = accountIdsSet;
+    final ReportTypeScheduler scheduler = this.createReportTypeScheduler(properties);
 
     // reports
     Set<Object> propertiesKeys = properties.keySet();
     for (Object key : propertiesKeys) {
 
-      String reportDefinitionKey = key.toString();
-      ReportDefinitionReportType reportType = this.extractReportTypeFromKey(reportDefinitionKey);
+      final String reportDefinitionKey = key.toString();
+      final ReportDefinitionReportType reportType =
+          this.extractReportTypeFromKey(reportDefinitionKey);
       if (reportType != null && reports.contains(reportType)) {
-        this.downloadAndProcess(mccAccountId,
-            sessionBuilder,
-            reportType,
-            dateRangeType,
-            dateStart,
-            dateEnd,
-            accountIdsSet,
-            reportDefinitionKey,
-            properties);
+        this.multipleClientReportDownloader.setReportTypeMaxDownloads(
+            reportType.value(), scheduler.getMaxThreads(reportType));
+        scheduler.schedule(reportType, new Runnable() {
+          @Override
+          public void run() {
+            Map<String, Set<Long>> dateRanges = getDateRangesToDownload(mccAccountId,
+                reportType, dateRangeType, dateStart, dateEnd, accountIds, reportDefinitionKey,
+                properties);
+            for (Entry<String, Set<Long>> dateRange : dateRanges.entrySet()) {
+              downloadAndProcess(mccAccountId,
+                  sessionBuilder,
+                  reportType,
+                  dateRangeType,
+                  dateRange.getKey(),
+                  dateEnd,
+                  dateRange.getValue(),
+                  reportDefinitionKey,
+                  properties,
+                  scheduler);
+            }
+          }
+        });
       }
     }
+    scheduler.runAll();
+    shutdownWriteStage();
 
     this.multipleClientReportDownloader.finalizeExecutorService();
 
+    LOGGER.info(this.stringDictionary);
     stopwatch.stop();
     LOGGER.info("*** Finished processing all reports in "
         + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***\n");
@@ -242,6 +456,7 @@ public class ReportProcessorOnFile extends ReportProcessor {
    * @param dateEnd the ending date.
    * @param acountIdList the account IDs.
    * @param properties the properties resource.
+   * @param scheduler the scheduler sharing the processing threads among the report types.
    */
   private <R extends Report> void downloadAndProcess(String mccAccountId,
       AdWordsSessionBuilderSynchronizer sessionBuilder,
@@ -251,10 +466,19 @@ public class ReportProcessorOnFile extends ReportProcessor {
       String dateEnd,
       Set<Long> acountIdList,
       String reportDefinitionKey,
-      Properties properties) {
+      Properties properties,
+      ReportTypeScheduler scheduler) {
 
     // Download Reports to local files and Generate Report objects
     LOGGER.info("\n\n ** Generating: " + reportType.name() + " **");
+
+    acountIdList = this.getPendingAccounts(
+        mccAccountId, reportType, dateRangeType, dateStart, dateEnd, acountIdList);
+    if (acountIdList.isEmpty()) {
+      LOGGER.info("\n ** Finished: " + reportType.name() + " **");
+      return;
+    }
+
     LOGGER.info(" Downloading reports...");
     Collection<File> localFiles = Lists.newArrayList();
     try {
@@ -266,6 +490,19 @@ public class ReportProcessorOnFile extends ReportProcessor {
           reportDefinitionKey,
           properties);
 
+      if (this.streaming) {
+        this.downloadAndProcessStreams(mccAccountId, sessionBuilder, reportType, reportDefinition,
+            dateRangeType, dateStart, dateEnd, acountIdList);
+        return;
+      }
+
+      if (this.pipelined) {
+        localFiles = this.downloadAndProcessPipelined(mccAccountId, sessionBuilder, reportType,
+            reportDefinition, dateRangeType, dateStart, dateEnd, acountIdList, scheduler);
+        this.deleteTemporaryFiles(localFiles, reportType);
+        return;
+      }
+
       localFiles = this.multipleClientReportDownloader.downloadReports(sessionBuilder,
           reportDefinition, acountIdList);
 
@@ -279,11 +516,186 @@ public class ReportProcessorOnFile extends ReportProcessor {
       return;
     }
 
-    this.processLocalFiles(mccAccountId, reportType, localFiles, dateStart, dateEnd, dateRangeType);
+    this.processLocalFiles(
+        mccAccountId, reportType, localFiles, dateStart, dateEnd, dateRangeType, scheduler);
 
     this.deleteTemporaryFiles(localFiles, reportType);
   }
 
+  /**
+   * Downloads the reports and processes each file as soon as its download finishes.
+   *
+   *  The downloaded files go through a bounded queue drained by {@code numberOfReportProcessors}
+   * threads. When the processing falls behind the queue fills up, and the download threads wait
+   * for space instead of piling up files. If the processor threads die, the end of the downloads
+   * is not waited for, and the files left in the queue are logged as not processed.
+   *
+   * @param sessionBuilder the session builder.
+   * @param reportType the report type.
+   * @param reportDefinition the report definition.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date.
+   * @param dateEnd the ending date.
+   * @param acountIdList the account IDs.
+   * @param scheduler the scheduler sharing the processing threads among the report types.
+   * @return the downloaded files, already processed.
+   * @throws InterruptedException error waiting for the downloads or the processing.
+   * @throws ValidationException error creating the sessions.
+   */
+  private <R extends Report> Collection<File> downloadAndProcessPipelined(
+      final String mccAccountId,
+      AdWordsSessionBuilderSynchronizer sessionBuilder,
+      ReportDefinitionReportType reportType,
+      ReportDefinition reportDefinition,
+      final ReportDefinitionDateRangeType dateRangeType,
+      final String dateStart,
+      final String dateEnd,
+      Set<Long> acountIdList,
+      final ReportTypeScheduler scheduler) throws InterruptedException, ValidationException {
+
+    Stopwatch stopwatch = Stopwatch.createStarted();
+
+    @SuppressWarnings("unchecked")
+    final Class<R> reportBeanClass =
+        (Class<R>) this.csvReportEntitiesMapping.getReportBeanClass(reportType);
+    final String reportTypeName = reportType.value();
+
+    int queueSize = numberOfReportProcessors * 2;
+    if (pipelineQueueSize != null && pipelineQueueSize > 0) {
+      queueSize = pipelineQueueSize;
+    }
+    final BlockingQueue<File> downloadedFiles = new ArrayBlockingQueue<File>(queueSize);
+
+    LOGGER.info(" Downloading and processing reports...");
+    ExecutorService executorService = Executors.newFixedThreadPool(numberOfReportProcessors);
+    final CountDownLatch runningProcessors = new CountDownLatch(numberOfReportProcessors);
+    for (int i = 0; i < numberOfReportProcessors; i++) {
+      executorService.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            File file = downloadedFiles.take();
+            while (file != END_OF_DOWNLOADS) {
+              RunnableProcessorOnFile<R> runnableProcessor = createRunnableProcessorOnFile(
+                  mccAccountId, reportBeanClass, reportTypeName, file, dateRangeType, dateStart,
+                  dateEnd);
+              if (scheduler != null) {
+                scheduler.runWithPermit(runnableProcessor);
+              } else {
+                runnableProcessor.run();
+              }
+              file = downloadedFiles.take();
+            }
+          } catch (InterruptedException e) {
+            LOGGER.error(e.getMessage());
+            Thread.currentThread().interrupt();
+          } finally {
+            runningProcessors.countDown();
+          }
+        }
+      });
+    }
+
+    Collection<File> localFiles;
+    try {
+      localFiles = this.multipleClientReportDownloader.downloadReports(sessionBuilder,
+          reportDefinition, acountIdList, downloadedFiles);
+    } finally {
+      endDownloads(downloadedFiles, runningProcessors);
+      executorService.shutdown();
+      executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      List<File> unprocessedFiles = Lists.newArrayList();
+      downloadedFiles.drainTo(unprocessedFiles);
+      unprocessedFiles.removeAll(Collections.singleton(END_OF_DOWNLOADS));
+      if (!unprocessedFiles.isEmpty()) {
+        LOGGER.error("The processor threads stopped, " + unprocessedFiles.size()
+            + " downloaded files were not processed: " + unprocessedFiles);
+      }
+    }
+
+    stopwatch.stop();
+    LOGGER.info("\n* Download and DB Process finished in "
+        + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***");
+    return localFiles;
+  }
+
+  /**
+   * Queues the end of the downloads for each processor thread still running. A full queue is only
+   * waited for while some processor threads are running, so the run never hangs on dead threads.
+   *
+   * @param downloadedFiles the pipeline queue.
+   * @param runningProcessors the processor threads still running.
+   * @throws InterruptedException error waiting for space in the queue.
+   */
+  private static void endDownloads(BlockingQueue<File> downloadedFiles,
+      CountDownLatch runningProcessors) throws InterruptedException {
+    for (long i = runningProcessors.getCount(); i > 0; i--) {
+      while (!downloadedFiles.offer(
+          END_OF_DOWNLOADS, END_OF_DOWNLOADS_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (runningProcessors.getCount() == 0) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Downloads the reports and parses them while the bytes arrive, so no temporary files are
+   * written besides the optional audit copies of the compressed reports.
+   *
+   * @param sessionBuilder the session builder.
+   * @param reportType the report type.
+   * @param reportDefinition the report definition.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date.
+   * @param dateEnd the ending date.
+   * @param acountIdList the account IDs.
+   * @throws InterruptedException error waiting for the downloads.
+   * @throws ValidationException error creating the sessions.
+   */
+  private <R extends Report> void downloadAndProcessStreams(String mccAccountId,
+      AdWordsSessionBuilderSynchronizer sessionBuilder,
+      ReportDefinitionReportType reportType,
+      ReportDefinition reportDefinition,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd,
+      Set<Long> acountIdList) throws InterruptedException, ValidationException {
+
+    Stopwatch stopwatch = Stopwatch.createStarted();
+
+    @SuppressWarnings("unchecked")
+    Class<R> reportBeanClass =
+        (Class<R>) this.csvReportEntitiesMapping.getReportBeanClass(reportType);
+    ReportStreamProcessorOnFile<R> reportStreamProcessor = new ReportStreamProcessorOnFile<R>(
+        reportBeanClass,
+        dateRangeType,
+        dateStart,
+        dateEnd,
+        mccAccountId,
+        persister,
+        reportRowsSetSize);
+    reportStreamProcessor.setReportStats(reportStatsStore, reportType.value());
+    reportStreamProcessor.setStringDictionary(stringDictionary);
+    reportStreamProcessor.setHashRowIds(hashRowIds);
+    reportStreamProcessor.setWriteStage(getWriteStage());
+    reportStreamProcessor.setReplaceSlices(replaceSlices);
+    reportStreamProcessor.setCheckpoint(checkpointJournal, CheckpointJournal.getReportKey(
+        mccAccountId, reportType.value(), dateRangeType, dateStart, dateEnd));
+
+    Collection<File> auditFiles = this.multipleClientReportDownloader.downloadAndProcessReports(
+        sessionBuilder, reportDefinition, acountIdList, reportStreamProcessor, auditDirectory);
+    if (auditFiles.size() > 0) {
+      LOGGER.info(" Kept " + auditFiles.size() + " compressed reports in: "
+          + auditDirectory.getAbsolutePath());
+    }
+
+    stopwatch.stop();
+    LOGGER.info("\n* Download and DB Process finished in "
+        + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***");
+    LOGGER.info("\n ** Finished: " + reportType.name() + " **");
+  }
+
   /**
    * Process the local files delegating the call to the concrete implementation.
    *
@@ -292,20 +704,23 @@ public class ReportProcessorOnFile extends ReportProcessor {
    * @param dateStart the start date.
    * @param dateEnd the end date.
    * @param dateRangeType the date range type.
+   * @param scheduler the scheduler sharing the processing threads among the report types.
    */
   private <R extends Report> void processLocalFiles(String mccAccountId,
       ReportDefinitionReportType reportType,
       Collection<File> localFiles,
       String dateStart,
       String dateEnd,
-      ReportDefinitionDateRangeType dateRangeType) {
+      ReportDefinitionDateRangeType dateRangeType,
+      ReportTypeScheduler scheduler) {
 
     Stopwatch stopwatch = Stopwatch.createStarted();
 
     @SuppressWarnings("unchecked")
     Class<R> reportBeanClass =
         (Class<R>) this.csvReportEntitiesMapping.getReportBeanClass(reportType);
-    this.processFiles(mccAccountId, reportBeanClass, localFiles, dateRangeType, dateStart, dateEnd);
+    this.processFiles(mccAccountId, reportBeanClass, reportType.value(), localFiles, dateRangeType,
+        dateStart, dateEnd, scheduler);
 
     stopwatch.stop();
     LOGGER.info("\n* DB Process finished in " + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000)
@@ -343,7 +758,9 @@ public class ReportProcessorOnFile extends ReportProcessor {
       throw new IllegalArgumentException("Report type not found: " + reportTypeName);
     }
 
-    this.processFiles(mccAccountId, reportBeanClass, localFiles, dateRangeType, dateStart, dateEnd);
+    this.processFiles(mccAccountId, reportBeanClass, reportTypeName, localFiles, dateRangeType,
+        dateStart, dateEnd, null);
+    shutdownWriteStage();
 
     stopwatch.stop();
     LOGGER.info("\n* DB Process finished in " + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000)
@@ -362,14 +779,66 @@ public class ReportProcessorOnFile extends ReportProcessor {
     // Delete temporary report files
     LOGGER.info("\n Deleting temporary report files after Parsing...");
     for (File file : localFiles) {
-      File gUnzipFile = new File(file.getAbsolutePath() + ".gunzip");
-      gUnzipFile.delete();
       file.delete();
       LOGGER.trace(".");
     }
     LOGGER.info("\n ** Finished: " + reportType.name() + " **");
   }
 
+  /**
+   * @param streaming true to parse the reports while they are downloaded, instead of saving them
+   *        to temporary files first.
+   */
+  @Value(value = "${aw.report.processor.onfile.streaming:false}")
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  /**
+   * @param auditDirectory the directory to keep a copy of the compressed reports when streaming,
+   *        empty to keep no copy.
+   */
+  @Value(value = "${aw.report.processor.onfile.streaming.audit.dir:}")
+  public void setAuditDirectory(String auditDirectory) {
+    if (auditDirectory != null && auditDirectory.trim().length() > 0) {
+      this.auditDirectory = new File(auditDirectory.trim());
+      if (!this.auditDirectory.isDirectory() && !this.auditDirectory.mkdirs()) {
+        throw new IllegalArgumentException(
+            "Could not create the audit directory: " + auditDirectory);
+      }
+    } else {
+      this.auditDirectory = null;
+    }
+  }
+
+  /**
+   * @param pipelined true to process each file as soon as its download finishes, instead of
+   *        waiting for all the downloads of the report type.
+   */
+  @Value(value = "${aw.report.processor.onfile.pipelined:false}")
+  public void setPipelined(boolean pipelined) {
+    this.pipelined = pipelined;
+  }
+
+  /**
+   * @param pipelineQueueSize the number of downloaded files waiting to be processed before the
+   *        downloads wait, empty for twice the number of processor threads.
+   */
+  @Value(value = "${aw.report.processor.onfile.pipeline.queue.size:}")
+  public void setPipelineQueueSize(Integer pipelineQueueSize) {
+    this.pipelineQueueSize = pipelineQueueSize;
+  }
+
+  /**
+   * @param splitSize the size in bytes of the files parsed in ranges by several threads, which is
+   *        also the size of the ranges of the decompressed files, empty to parse each file on one
+   *        thread.
+   */
+  @Value(value = "${aw.report.processor.onfile.split.size:}")
+  public void setSplitSize(Long splitSize) {
+    this.splitSize = splitSize;
+  }
+
   /**
    * @param multipleClientReportDownloader the multipleClientReportDownloader to set
    */
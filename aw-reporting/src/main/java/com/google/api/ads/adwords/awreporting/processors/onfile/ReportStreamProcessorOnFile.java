@@ -0,0 +1,223 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors.onfile;
+
+import com.google.api.ads.adwords.awreporting.downloader.ReportStatsStore;
+import com.google.api.ads.adwords.awreporting.downloader.ReportStreamProcessor;
+import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
+import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
+import com.google.api.ads.adwords.awreporting.model.csv.StringDictionary;
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.util.CsvParserIterator;
+import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
+import com.google.api.ads.adwords.awreporting.processors.ReportBuffer;
+import com.google.api.ads.adwords.awreporting.processors.ReportWriteStage;
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
+
+import org.apache.log4j.Logger;
+
+import au.com.bytecode.opencsv.CSVReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Parses the rows of a report while it is being downloaded, and persists the beans into the data
+ * base in sets of {@code reportRowsSetSize} rows.
+ *
+ *  One instance is shared by all the download threads of a report type, a new {@code CsvToBean}
+ * and mapping strategy is created for each stream.
+ *
+ * @author agent@google.com (Agent)
+ *
+ * @param <R> type of sub Report.
+ */
+public class ReportStreamProcessorOnFile<R extends Report> implements ReportStreamProcessor {
+
+  private static final Logger LOGGER = Logger.getLogger(ReportStreamProcessorOnFile.class);
+
+  private final Class<R> reportBeanClass;
+  private final ReportDefinitionDateRangeType dateRangeType;
+  private final String dateStart;
+  private final String dateEnd;
+  private final String mccAccountId;
+  private final EntityPersister entityPersister;
+  private final int reportRowsSetSize;
+
+  private ReportStatsStore reportStatsStore;
+  private String reportType;
+
+  private CheckpointJournal checkpointJournal;
+  private String reportKey;
+
+  private StringDictionary stringDictionary;
+
+  private boolean hashRowIds = false;
+
+  private ReportWriteStage writeStage;
+
+  private boolean replaceSlices = false;
+
+  /**
+   * C'tor.
+   *
+   * @param reportBeanClass the class of the report beans.
+   * @param dateRangeType the date range type.
+   * @param dateStart the start date.
+   * @param dateEnd the end date.
+   * @param mccAccountId the top account ID.
+   * @param entityPersister the persister for the beans.
+   * @param reportRowsSetSize the size of the set parsed before send to the DB.
+   */
+  public ReportStreamProcessorOnFile(Class<R> reportBeanClass,
+      ReportDefinitionDateRangeType dateRangeType,
+      String dateStart,
+      String dateEnd,
+      String mccAccountId,
+      EntityPersister entityPersister,
+      Integer reportRowsSetSize) {
+    this.reportBeanClass = reportBeanClass;
+    this.dateRangeType = dateRangeType;
+    this.dateStart = dateStart;
+    this.dateEnd = dateEnd;
+    this.mccAccountId = mccAccountId;
+    this.entityPersister = entityPersister;
+    this.reportRowsSetSize = reportRowsSetSize;
+  }
+
+  /**
+   * Parses the decompressed report and persists the rows.
+   *
+   * @see com.google.api.ads.adwords.awreporting.downloader.ReportStreamProcessor
+   *      #process(java.lang.Long, java.io.InputStream)
+   */
+  @Override
+  public void process(Long accountId, InputStream reportStream) throws IOException {
+
+    CSVReader csvReader = new AwReportCsvReader(
+        new InputStreamReader(reportStream, "UTF-8"), ',', '\"', 1);
+
+    try {
+      LOGGER.debug("Starting parse of report rows for account: " + accountId);
+      ModifiedCsvToBean<R> csvToBean = new ModifiedCsvToBean<R>();
+      AnnotationBasedMappingStrategy<R> mappingStrategy =
+          new AnnotationBasedMappingStrategy<R>(this.reportBeanClass);
+      mappingStrategy.setStringDictionary(this.stringDictionary);
+      CsvParserIterator<R> reportRowsList = csvToBean.lazyParse(mappingStrategy, csvReader);
+
+      Long topAccountId = Long.parseLong(this.mccAccountId.replaceAll("-", ""));
+      String dateRangeTypeValue = this.dateRangeType.value();
+      ReportBuffer<R> reportBuffer =
+          new ReportBuffer<R>(this.entityPersister, this.reportRowsSetSize, this.writeStage);
+      reportBuffer.setReplaceSlices(this.replaceSlices);
+      long rows = 0;
+      try {
+        while (reportRowsList.hasNext()) {
+
+          R report = reportRowsList.next();
+          rows++;
+          if (report.getAccountId() == null) {
+            report.setAccountId(accountId);
+          }
+          report.setTopAccountId(topAccountId);
+          report.setDateRangeType(dateRangeTypeValue);
+          report.setDateStart(this.dateStart);
+          report.setDateEnd(this.dateEnd);
+          report.setId();
+          if (this.hashRowIds) {
+            report.hashId();
+          }
+          reportBuffer.add(report);
+        }
+        reportBuffer.flush();
+      } finally {
+        reportBuffer.close();
+      }
+      if (this.reportStatsStore != null) {
+        this.reportStatsStore.recordRows(accountId, this.reportType, rows);
+      }
+      if (this.checkpointJournal != null) {
+        this.checkpointJournal.markCompleted(this.reportKey, accountId);
+      }
+      LOGGER.debug("... success.");
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Interrupted persisting the rows of account: " + accountId, e);
+    } catch (RuntimeException e) {
+      // Errors reading from the connection are retried by the downloader
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() != null && e.getCause().getCause() instanceof IOException) {
+        throw (IOException) e.getCause().getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * @param reportStatsStore the store that records the rows of each report, can be {@code null}.
+   * @param reportType the report type the rows are recorded for.
+   */
+  public void setReportStats(ReportStatsStore reportStatsStore, String reportType) {
+    this.reportStatsStore = reportStatsStore;
+    this.reportType = reportType;
+  }
+
+  /**
+   * @param checkpointJournal the journal to mark the reports as completed in, can be {@code null}.
+   * @param reportKey the key of the report type and date range in the journal.
+   */
+  public void setCheckpoint(CheckpointJournal checkpointJournal, String reportKey) {
+    this.checkpointJournal = checkpointJournal;
+    this.reportKey = reportKey;
+  }
+
+  /**
+   * @param stringDictionary the dictionary of the run for the interned columns, can be
+   *        {@code null}.
+   */
+  public void setStringDictionary(StringDictionary stringDictionary) {
+    this.stringDictionary = stringDictionary;
+  }
+
+  /**
+   * @param hashRowIds true to store the row ids as their fixed width hash.
+   */
+  public void setHashRowIds(boolean hashRowIds) {
+    this.hashRowIds = hashRowIds;
+  }
+
+  /**
+   * @param writeStage the stage persisting the rows on its own threads, {@code null} to persist
+   *        them on the thread of the processor.
+   */
+  public void setWriteStage(ReportWriteStage writeStage) {
+    this.writeStage = writeStage;
+  }
+
+  /**
+   * @param replaceSlices true to replace the stored rows of the account and date range of the
+   *        report with its rows.
+   */
+  public void setReplaceSlices(boolean replaceSlices) {
+    this.replaceSlices = replaceSlices;
+  }
+}
@@ -17,10 +17,9 @@ package com.google.api.ads.adwords.awreporting.processors.onfile;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import org.apache.log4j.Logger;
@@ -28,14 +27,19 @@ import org.apache.log4j.Logger;
 import au.com.bytecode.opencsv.CSVReader;
 import au.com.bytecode.opencsv.bean.MappingStrategy;
 
+import com.google.api.ads.adwords.awreporting.downloader.ReportStatsStore;
 import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
 import com.google.api.ads.adwords.awreporting.model.util.CsvParserIterator;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
+import com.google.api.ads.adwords.awreporting.processors.ReportBuffer;
+import com.google.api.ads.adwords.awreporting.processors.ReportWriteStage;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
+import com.google.api.ads.adwords.awreporting.util.CsvFileSplitter;
+import com.google.api.ads.adwords.awreporting.util.FileUtil;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
-import com.google.common.collect.Lists;
 
 /**
  * This {@link Runnable} implements the core logic to download the report file from the AdWords API.
@@ -69,6 +73,26 @@ public class RunnableProcessorOnFile<R extends Report> implements Runnable {
   private EntityPersister entityPersister;
   private int reportRowsSetSize;
 
+  private ReportStatsStore reportStatsStore;
+  private String reportType;
+
+  private CheckpointJournal checkpointJournal;
+  private String reportKey;
+
+  private CsvFileSplitter rangeSplitter;
+  private byte[] rangeHead;
+  private long rangeStart;
+  private long rangeEnd;
+
+  private boolean hashRowIds = false;
+
+  private ReportWriteStage writeStage;
+
+  private boolean replaceSlices = false;
+
+  private Long accountId = null;
+  private long rows = 0;
+
   private Exception error = null;
 
   /**
@@ -120,33 +144,47 @@ public class RunnableProcessorOnFile<R extends Report> implements Runnable {
       LOGGER.debug("... success.");
 
       LOGGER.debug("Starting report persistence...");
-      List<R> reportBuffer = Lists.newArrayList();
-      while (reportRowsList.hasNext()) {
+      Long topAccountId = Long.parseLong(this.mccAccountId.replaceAll("-", ""));
+      String dateRangeTypeValue = dateRangeType.value();
+      ReportBuffer<R> reportBuffer =
+          new ReportBuffer<R>(this.entityPersister, this.reportRowsSetSize, this.writeStage);
+      // A range holds only part of the rows of the slice
+      reportBuffer.setReplaceSlices(this.replaceSlices && this.rangeSplitter == null);
+      try {
+        while (reportRowsList.hasNext()) {
 
-        R report = reportRowsList.next();
+          R report = reportRowsList.next();
+          rows++;
 
-        // Getting Account Id from File Name for reports that do not have Client Customer Id
-        if (report.getAccountId() == null && file.getName().contains("-")
-            && file.getName().split("-") != null && file.getName().split("-").length > 2
-            && file.getName().split("-")[2].matches("\\d*")) {
-          report.setAccountId(Long.parseLong(file.getName().split("-")[2]));
-        }
-
-        report.setTopAccountId(Long.parseLong(this.mccAccountId.replaceAll("-", "")));
-        report.setDateRangeType(dateRangeType.value());
-        report.setDateStart(dateStart);
-        report.setDateEnd(dateEnd);
-        report.setId();
+          // Getting Account Id from File Name for reports that do not have Client Customer Id
+          if (report.getAccountId() == null) {
+            report.setAccountId(this.getAccountIdFromFileName());
+          }
 
-        reportBuffer.add(report);
+          accountId = report.getAccountId();
 
-        if (reportBuffer.size() >= this.reportRowsSetSize) {
-          this.entityPersister.persistReportEntities(reportBuffer);
-          reportBuffer.clear();
+          report.setTopAccountId(topAccountId);
+          report.setDateRangeType(dateRangeTypeValue);
+          report.setDateStart(dateStart);
+          report.setDateEnd(dateEnd);
+          report.setId();
+          if (this.hashRowIds) {
+            report.hashId();
+          }
+          reportBuffer.add(report);
         }
+        reportBuffer.flush();
+      } finally {
+        reportBuffer.close();
+      }
+      if (accountId == null) {
+        accountId = this.getAccountIdFromFileName();
+      }
+      if (this.reportStatsStore != null && accountId != null) {
+        this.reportStatsStore.recordRows(accountId, this.reportType, rows);
       }
-      if (reportBuffer.size() > 0) {
-        this.entityPersister.persistReportEntities(reportBuffer);
+      if (this.checkpointJournal != null && accountId != null) {
+        this.checkpointJournal.markCompleted(this.reportKey, accountId);
       }
       LOGGER.debug("... success.");
       csvReader.close();
@@ -162,24 +200,99 @@ public class RunnableProcessorOnFile<R extends Report> implements Runnable {
     }
   }
 
+  /**
+   * The downloaded files are named reportDownload-[report type]-[account ID]-[random].report.
+   *
+   * @return the account ID in the file name, {@code null} if the name does not have one.
+   */
+  private Long getAccountIdFromFileName() {
+    String[] fileNameParts = file.getName().split("-");
+    if (fileNameParts.length > 2 && fileNameParts[2].matches("\\d+")) {
+      return Long.parseLong(fileNameParts[2]);
+    }
+    return null;
+  }
+
   /**
    * Creates the proper {@link CSVReader} to parse the AW reports.
    *
+   *  The downloaded files are kept GZipped, so they are decompressed while being read. Plain CSV
+   * files are read as they are.
+   *
    * @param file the CSV file.
    * @return the {@code CSVReader}
-   * @throws UnsupportedEncodingException should not happen.
    * @throws FileNotFoundException in case the file has been deleted before the reading.
+   * @throws IOException error reading the file header.
    */
-  private CSVReader createCsvReader(File file) throws UnsupportedEncodingException,
-      FileNotFoundException {
+  private CSVReader createCsvReader(File file) throws FileNotFoundException, IOException {
 
-    String fileAbsolutePath = file.getAbsolutePath();
-    if (new File(fileAbsolutePath + ".gunzip").exists()) {
-      fileAbsolutePath = fileAbsolutePath + ".gunzip";
+    if (this.rangeSplitter != null) {
+      LOGGER.debug("Creating AwReportCsvReader for bytes " + this.rangeStart + " to "
+          + this.rangeEnd + " of file: " + file.getAbsolutePath());
+      return new AwReportCsvReader(new InputStreamReader(this.rangeSplitter.openRange(
+          this.rangeHead, this.rangeStart, this.rangeEnd), "UTF-8"), ',', '\"', 1);
     }
-    LOGGER.debug("Creating AwReportCsvReader for file: " + fileAbsolutePath);
-    return new AwReportCsvReader(
-        new InputStreamReader(new FileInputStream(fileAbsolutePath), "UTF-8"), ',', '\"', 1);
+    LOGGER.debug("Creating AwReportCsvReader for file: " + file.getAbsolutePath());
+    return new AwReportCsvReader(new InputStreamReader(
+        FileUtil.gUnzipIfCompressed(new FileInputStream(file)), "UTF-8"), ',', '\"', 1);
+  }
+
+  /**
+   * Parses only a range of rows of a plain CSV file, instead of the whole file.
+   *
+   *  The file is still used to find the account ID from its name.
+   *
+   * @param splitter the splitter of the plain CSV file.
+   * @param head the title and header rows of the file, parsed before the range.
+   * @param start the offset of the first byte of the range.
+   * @param end the offset after the last byte of the range.
+   */
+  public void setRange(CsvFileSplitter splitter, byte[] head, long start, long end) {
+    this.rangeSplitter = splitter;
+    this.rangeHead = head;
+    this.rangeStart = start;
+    this.rangeEnd = end;
+  }
+
+  /**
+   * @param reportStatsStore the store that records the rows of each report, can be {@code null}.
+   * @param reportType the report type the rows are recorded for.
+   */
+  public void setReportStats(ReportStatsStore reportStatsStore, String reportType) {
+    this.reportStatsStore = reportStatsStore;
+    this.reportType = reportType;
+  }
+
+  /**
+   * @param checkpointJournal the journal to mark the report as completed in, can be {@code null}.
+   * @param reportKey the key of the report in the journal.
+   */
+  public void setCheckpoint(CheckpointJournal checkpointJournal, String reportKey) {
+    this.checkpointJournal = checkpointJournal;
+    this.reportKey = reportKey;
+  }
+
+  /**
+   * @param hashRowIds true to store the row ids as their fixed width hash.
+   */
+  public void setHashRowIds(boolean hashRowIds) {
+    this.hashRowIds = hashRowIds;
+  }
+
+  /**
+   * @param writeStage the stage persisting the rows on its own threads, {@code null} to persist
+   *        them on the thread of the processor.
+   */
+  public void setWriteStage(ReportWriteStage writeStage) {
+    this.writeStage = writeStage;
+  }
+
+  /**
+   * @param replaceSlices true to replace the stored rows of the account and date range of the
+   *        report with its rows, unless only a range of the file is parsed.
+   */
+  public void setReplaceSlices(boolean replaceSlices) {
+    this.replaceSlices = replaceSlices;
   }
 
   /**
@@ -189,10 +302,31 @@ public class RunnableProcessorOnFile<R extends Report> implements Runnable {
     this.latch = latch;
   }
 
+  /**
+   * @return the CSV file.
+   */
+  public File getFile() {
+    return file;
+  }
+
   public Exception getError() {
     return error;
   }
 
+  /**
+   * @return the account ID of the parsed rows, {@code null} if it is not known.
+   */
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return the number of rows parsed.
+   */
+  public long getRows() {
+    return rows;
+  }
+
   /**
    * @param entityPersister the entityPersister to set
    */
@@ -14,10 +14,13 @@
 
 package com.google.api.ads.adwords.awreporting.processors.onmemory;
 
-import com.google.api.ads.adwords.awreporting.model.csv.AnnotationBasedMappingStrategy;
+import com.google.api.ads.adwords.awreporting.downloader.DownloadWatchdog;
+import com.google.api.ads.adwords.awreporting.model.csv.StringDictionary;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
 import com.google.api.ads.adwords.awreporting.processors.ReportProcessor;
+import com.google.api.ads.adwords.awreporting.processors.ReportTypeScheduler;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
 import com.google.api.ads.adwords.lib.client.AdWordsSession;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
@@ -33,7 +36,11 @@ import org.springframework.stereotype.Component;
 
 import au.com.bytecode.opencsv.bean.MappingStrategy;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -93,12 +100,12 @@ public class ReportProcessorOnMemory extends ReportProcessor {
    * @throws Exception error reaching the API.
    */
   @Override
-  public void generateReportsForMCC(String mccAccountId,
-      ReportDefinitionDateRangeType dateRangeType,
-      String dateStart,
-      String dateEnd,
+  public void generateReportsForMCC(final String mccAccountId,
+      final ReportDefinitionDateRangeType dateRangeType,
+      final String dateStart,
+      final String dateEnd,
       Set<Long> accountIdsSet,
-      Properties properties,
+      final Properties properties,
       ReportDefinitionReportType onDemandReportType,
       List<String> reportFieldsToInclude) throws Exception {
 
@@ -110,8 +117,9 @@ public class ReportProcessorOnMemory extends ReportProcessor {
       LOGGER.info("Accounts loaded from file.");
     }
 
-    AdWordsSessionBuilderSynchronizer sessionBuilder = new AdWordsSessionBuilderSynchronizer(
+    final AdWordsSessionBuilderSynchronizer sessionBuilder = new AdWordsSessionBuilderSynchronizer(
         authenticator.authenticate(mccAccountId, false));
+    this.stringDictionary = new StringDictionary();
 
     LOGGER.info("*** Generating Reports for " + accountIdsSet.size() + " accounts ***");
 
@@ -119,25 +127,42 @@ public class ReportProcessorOnMemory extends ReportProcessor {
 
     // reports
     Set<ReportDefinitionReportType> reports = this.csvReportEntitiesMapping.getDefinedReports();
+    final Set<Long> accountIds = accountIdsSet;
+    final ReportTypeScheduler scheduler = this.createReportTypeScheduler(properties);
 
     Set<Object> propertiesKeys = properties.keySet();
     for (Object key : propertiesKeys) {
 
-      String reportDefinitionKey = key.toString();
-      ReportDefinitionReportType reportType = this.extractReportTypeFromKey(reportDefinitionKey);
+      final String reportDefinitionKey = key.toString();
+      final ReportDefinitionReportType reportType =
+          this.extractReportTypeFromKey(reportDefinitionKey);
       if (reportType != null && reports.contains(reportType)) {
-        this.downloadAndProcess(mccAccountId,
-            sessionBuilder,
-            reportType,
-            dateRangeType,
-            dateStart,
-            dateEnd,
-            accountIdsSet,
-            reportDefinitionKey,
-            properties);
+        scheduler.schedule(reportType, new Runnable() {
+          @Override
+          public void run() {
+            Map<String, Set<Long>> dateRanges = getDateRangesToDownload(mccAccountId,
+                reportType, dateRangeType, dateStart, dateEnd, accountIds, reportDefinitionKey,
+                properties);
+            for (Entry<String, Set<Long>> dateRange : dateRanges.entrySet()) {
+              downloadAndProcess(mccAccountId,
+                  sessionBuilder,
+                  reportType,
+                  dateRangeType,
+                  dateRange.getKey(),
+                  dateEnd,
+                  dateRange.getValue(),
+                  reportDefinitionKey,
+                  properties,
+                  scheduler);
+            }
+          }
+        });
       }
     }
+    scheduler.runAll();
+    shutdownWriteStage();
 
+    LOGGER.info(this.stringDictionary);
     stopwatch.stop();
     LOGGER.info("*** Finished processing all reports in "
         + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***\n");
@@ -154,6 +179,7 @@ public class ReportProcessorOnMemory extends ReportProcessor {
    * @param dateEnd the ending date.
    * @param acountIdList the account IDs.
    * @param properties the properties resource.
+   * @param scheduler the scheduler sharing the processing threads among the report types.
    */
   private <R extends Report> void downloadAndProcess(String mccAccountId,
       AdWordsSessionBuilderSynchronizer sessionBuilder,
@@ -163,10 +189,18 @@ public class ReportProcessorOnMemory extends ReportProcessor {
       String dateEnd,
       Set<Long> acountIdList,
       String reportDefinitionKey,
-      Properties properties) {
+      Properties properties,
+      ReportTypeScheduler scheduler) {
 
     // Download Reports to local files and Generate Report objects
     LOGGER.info("\n\n ** Generating: " + reportType.name() + " **");
+
+    acountIdList = this.getPendingAccounts(
+        mccAccountId, reportType, dateRangeType, dateStart, dateEnd, acountIdList);
+    if (acountIdList.isEmpty()) {
+      return;
+    }
+
     LOGGER.info(" Processing reports...");
 
     ReportDefinition reportDefinition = getReportDefinition(reportType,
@@ -180,12 +214,21 @@ public class ReportProcessorOnMemory extends ReportProcessor {
     Class<R> reportBeanClass =
         (Class<R>) this.csvReportEntitiesMapping.getReportBeanClass(reportType);
 
+    String reportKey = CheckpointJournal.getReportKey(
+        mccAccountId, reportType.value(), dateRangeType, dateStart, dateEnd);
+
     final CountDownLatch latch = new CountDownLatch(acountIdList.size());
     ExecutorService executorService = Executors.newFixedThreadPool(numberOfReportProcessors);
 
     Stopwatch stopwatch = Stopwatch.createStarted();
 
-    for (Long accountId : acountIdList) {
+    // The largest accounts go first, so they are not the last ones running
+    Collection<Long> sortedAccountIds = acountIdList;
+    if (reportStatsStore != null) {
+      sortedAccountIds = reportStatsStore.sortLargestFirst(acountIdList, reportType.value());
+    }
+
+    for (Long accountId : sortedAccountIds) {
       LOGGER.trace(".");
       try {
         LOGGER.debug("Parsing account: " + accountId);
@@ -195,7 +238,7 @@ public class ReportProcessorOnMemory extends ReportProcessor {
 
         // We need to create a csvToBean and mappingStrategy for each thread
         ModifiedCsvToBean<R> csvToBean = new ModifiedCsvToBean<R>();
-        MappingStrategy<R> mappingStrategy = new AnnotationBasedMappingStrategy<R>(reportBeanClass);
+        MappingStrategy<R> mappingStrategy = createMappingStrategy(reportBeanClass);
 
         RunnableProcessorOnMemory<R> runnableProcesor =
             getRunnableProcessorOnMemory(new RunnableProcessorOnMemory<R>(accountId,
@@ -211,8 +254,20 @@ public class ReportProcessorOnMemory extends ReportProcessor {
                 reportRowsSetSize));
 
         runnableProcesor.setLatch(latch);
-        executorService.execute(runnableProcesor);
-
+        runnableProcesor.setReportStatsStore(reportStatsStore);
+        runnableProcesor.setDownloadWatchdog(downloadWatchdog);
+        runnableProcesor.setRateLimiter(rateLimiter);
+        runnableProcesor.setCheckpoint(checkpointJournal, reportKey);
+        runnableProcesor.setHashRowIds(hashRowIds);
+        runnableProcesor.setWriteStage(getWriteStage());
+        runnableProcesor.setReplaceSlices(replaceSlices);
+        // The processing threads are shared with the other report types running
+        scheduler.execute(executorService, reportType, runnableProcesor);
+
+      } catch (InterruptedException e) {
+        LOGGER.error("Ignoring account (Interrupted before processing): " + accountId);
+        latch.countDown();
+        Thread.currentThread().interrupt();
       } catch (Exception e) {
         System.err.println(
             "Ignoring account (Error when processing): " + accountId + " " + e.getMessage());
@@ -221,13 +276,24 @@ public class ReportProcessorOnMemory extends ReportProcessor {
     }
 
     try {
-      latch.await();
+      long maxStallMillis = downloadWatchdog != null ? downloadWatchdog.getMaxWaitMillis() : 0;
+      if (!DownloadWatchdog.await(latch, reportType.value() + " reports", maxStallMillis)) {
+        LOGGER.error("Some reports of " + reportType.value() + " never finished.");
+      }
     } catch (InterruptedException e) {
       LOGGER.error(e.getMessage());
       e.printStackTrace();
     }
     executorService.shutdown();
 
+    if (reportStatsStore != null) {
+      try {
+        reportStatsStore.save();
+      } catch (IOException e) {
+        LOGGER.error("Error saving the report stats: " + e.getMessage());
+      }
+    }
+
     stopwatch.stop();
     LOGGER.info("*** Finished processing all reports in "
         + (stopwatch.elapsed(TimeUnit.MILLISECONDS) / 1000) + " seconds ***\n");
@@ -19,8 +19,8 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.log4j.Logger;
@@ -28,11 +28,17 @@ import org.apache.log4j.Logger;
 import au.com.bytecode.opencsv.CSVReader;
 import au.com.bytecode.opencsv.bean.MappingStrategy;
 
+import com.google.api.ads.adwords.awreporting.downloader.DownloadWatchdog;
+import com.google.api.ads.adwords.awreporting.downloader.ReportRateLimiter;
+import com.google.api.ads.adwords.awreporting.downloader.ReportStatsStore;
 import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
 import com.google.api.ads.adwords.awreporting.model.util.CsvParserIterator;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
+import com.google.api.ads.adwords.awreporting.processors.CheckpointJournal;
+import com.google.api.ads.adwords.awreporting.processors.ReportBuffer;
+import com.google.api.ads.adwords.awreporting.processors.ReportWriteStage;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
 import com.google.api.ads.adwords.lib.client.AdWordsSession;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
@@ -42,7 +48,8 @@ import com.google.api.ads.adwords.lib.utils.ReportDownloadResponseException;
 import com.google.api.ads.adwords.lib.utils.ReportException;
 import com.google.api.ads.adwords.lib.utils.v201502.ReportDownloader;
 import com.google.api.ads.common.lib.exception.ValidationException;
-import com.google.common.collect.Lists;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.CountingInputStream;
 
 /**
  * This {@link Runnable} implements the core logic to download the report file
@@ -65,6 +72,11 @@ public class RunnableProcessorOnMemory<R extends Report> implements Runnable {
 
   private static final Logger LOGGER = Logger.getLogger(RunnableProcessorOnMemory.class);
 
+  /**
+   * Times a report is processed again after its download is cancelled by the watchdog.
+   */
+  private static final int TIMEOUT_RETRIES = 1;
+
   private final String mccAccountId;
   private final AdWordsSession adWordsSession;
   private final Long accountId;
@@ -77,8 +89,23 @@ public class RunnableProcessorOnMemory<R extends Report> implements Runnable {
   private EntityPersister entityPersister;
   private final int reportRowsSetSize;
 
+  private ReportStatsStore reportStatsStore;
+
+  private CheckpointJournal checkpointJournal;
+  private String reportKey;
+
   private CountDownLatch latch;
 
+  private DownloadWatchdog downloadWatchdog;
+
+  private ReportRateLimiter rateLimiter;
+
+  private boolean hashRowIds = false;
+
+  private ReportWriteStage writeStage;
+
+  private boolean replaceSlices = false;
+
   private Exception error = null;
 
   /**
@@ -129,44 +156,95 @@ public class RunnableProcessorOnMemory<R extends Report> implements Runnable {
   @Override
   public void run() {
     try {
-      // Report Input Streams comes GZipped
-      GZIPInputStream gZIPInputStream = new GZIPInputStream(getReportInputStream());
-      CSVReader csvReader = this.createCsvReader(gZIPInputStream);
+      for (int retry = 0;; retry++) {
+        DownloadWatchdog.Attempt attempt = null;
+        if (this.downloadWatchdog != null) {
+          attempt = this.downloadWatchdog.start(
+              this.reportDefinition.getReportType().value(), this.accountId, null);
+        }
+        boolean success = false;
+        try {
+          this.downloadAndPersist();
+          success = true;
+          break;
+        } catch (Exception e) {
+          // The rows are persisted by ID, so processing the report again does not duplicate them
+          if (attempt == null || !attempt.isTimedOut() || retry >= TIMEOUT_RETRIES) {
+            throw e;
+          }
+          LOGGER.warn("Download timed out, retrying account: " + this.accountId);
+        } finally {
+          if (attempt != null) {
+            this.downloadWatchdog.finish(attempt, success);
+          }
+        }
+      }
+    } catch (Exception e) {
+      error = new Exception("Error processing report for account: " + this.accountId, e);
+      LOGGER.error("Error processing report for account: " + this.accountId + " " + e.getMessage());
+      e.printStackTrace();
+    } finally {
+      if (this.latch != null) {
+        this.latch.countDown();
+      }
+    }
+  }
+
+  /**
+   * Downloads the report and persists its rows while they are parsed.
+   *
+   * @throws Exception error downloading, parsing or persisting the report.
+   */
+  private void downloadAndPersist() throws Exception {
+    Stopwatch stopwatch = Stopwatch.createStarted();
 
-      LOGGER.debug("Starting parse of report rows...");
-      CsvParserIterator<R> reportRowsList = csvToBean.lazyParse(mappingStrategy, csvReader);
-      LOGGER.debug("... success.");
+    // Report Input Streams comes GZipped
+    CountingInputStream countingStream = new CountingInputStream(getReportInputStream());
+    GZIPInputStream gZIPInputStream = new GZIPInputStream(countingStream);
+    CSVReader csvReader = this.createCsvReader(gZIPInputStream);
 
-      LOGGER.debug("Starting report persistence...");
-      List<R> reportBuffer = Lists.newArrayList();
+    LOGGER.debug("Starting parse of report rows...");
+    CsvParserIterator<R> reportRowsList = csvToBean.lazyParse(mappingStrategy, csvReader);
+    LOGGER.debug("... success.");
+
+    LOGGER.debug("Starting report persistence...");
+    Long topAccountId = Long.parseLong(this.mccAccountId.replaceAll("-", ""));
+    String dateRangeTypeValue = dateRangeType.value();
+    ReportBuffer<R> reportBuffer =
+        new ReportBuffer<R>(this.entityPersister, this.reportRowsSetSize, this.writeStage);
+    reportBuffer.setReplaceSlices(this.replaceSlices);
+    long rows = 0;
+    try {
       while (reportRowsList.hasNext()) {
         R report = reportRowsList.next();
+        rows++;
         report.setAccountId(this.accountId);
-        report.setTopAccountId(Long.parseLong(this.mccAccountId.replaceAll("-", "")));
-        report.setDateRangeType(dateRangeType.value());
+        report.setTopAccountId(topAccountId);
+        report.setDateRangeType(dateRangeTypeValue);
         report.setDateStart(dateStart);
         report.setDateEnd(dateEnd);
         report.setId();
-        reportBuffer.add(report);
-
-        if (reportBuffer.size() >= this.reportRowsSetSize) {
-          this.entityPersister.persistReportEntities(reportBuffer);
-          reportBuffer.clear();
+        if (this.hashRowIds) {
+          report.hashId();
         }
+        reportBuffer.add(report);
       }
-      if (reportBuffer.size() > 0) {
-        this.entityPersister.persistReportEntities(reportBuffer);
-      }
-      LOGGER.debug("... success.");
-      csvReader.close();
-    } catch (Exception e) {
-      error = new Exception("Error processing report for account: " + this.accountId, e);
-      LOGGER.error("Error processing report for account: " + this.accountId + " " + e.getMessage());
-      e.printStackTrace();
+      reportBuffer.flush();
     } finally {
-      if (this.latch != null) {
-        this.latch.countDown();
-      }
+      // A download cancelled by the watchdog leaves the stored rows for the retry to replace
+      reportBuffer.close();
+    }
+    LOGGER.debug("... success.");
+    csvReader.close();
+
+    if (this.reportStatsStore != null) {
+      String reportType = this.reportDefinition.getReportType().value();
+      this.reportStatsStore.recordDownload(this.accountId, reportType,
+          countingStream.getCount(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+      this.reportStatsStore.recordRows(this.accountId, reportType, rows);
+    }
+    if (this.checkpointJournal != null) {
+      this.checkpointJournal.markCompleted(this.reportKey, this.accountId);
     }
   }
 
@@ -190,7 +268,62 @@ public class RunnableProcessorOnMemory<R extends Report> implements Runnable {
   }
 
   /**
-   * Downloads the file from the API into an InputStream.
+   * @param checkpointJournal the journal to mark the report as completed in, can be {@code null}.
+   * @param reportKey the key of the report in the journal.
+   */
+  public void setCheckpoint(CheckpointJournal checkpointJournal, String reportKey) {
+    this.checkpointJournal = checkpointJournal;
+    this.reportKey = reportKey;
+  }
+
+  /**
+   * @param hashRowIds true to store the row ids as their fixed width hash.
+   */
+  public void setHashRowIds(boolean hashRowIds) {
+    this.hashRowIds = hashRowIds;
+  }
+
+  /**
+   * @param writeStage the stage persisting the rows on its own threads, {@code null} to persist
+   *        them on the thread of the processor.
+   */
+  public void setWriteStage(ReportWriteStage writeStage) {
+    this.writeStage = writeStage;
+  }
+
+  /**
+   * @param replaceSlices true to replace the stored rows of the account and date range of the
+   *        report with its rows.
+   */
+  public void setReplaceSlices(boolean replaceSlices) {
+    this.replaceSlices = replaceSlices;
+  }
+
+  /**
+   * @param downloadWatchdog the watchdog cancelling the downloads past the timeout, can be
+   *        {@code null}.
+   */
+  public void setDownloadWatchdog(DownloadWatchdog downloadWatchdog) {
+    this.downloadWatchdog = downloadWatchdog;
+  }
+
+  /**
+   * @param rateLimiter the rate limiter pacing the downloads of the MCC, can be {@code null}.
+   */
+  public void setRateLimiter(ReportRateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  /**
+   * @param reportStatsStore the store that records the size of each report, can be {@code null}.
+   */
+  public void setReportStatsStore(ReportStatsStore reportStatsStore) {
+    this.reportStatsStore = reportStatsStore;
+  }
+
+  /**
+   * Downloads the file from the API into an InputStream, paced by the {@link ReportRateLimiter} of
+   * the MCC if one was set.
    *
    * @return the InputStream from the online report
    * @throws ValidationException API validation error
@@ -202,12 +335,27 @@ public class RunnableProcessorOnMemory<R extends Report> implements Runnable {
 
     InputStream inputStream = null;
 
+    if (this.rateLimiter != null) {
+      try {
+        this.rateLimiter.acquire(adWordsSession.getDeveloperToken(), mccAccountId);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ReportException("Interrupted while waiting for the rate limiter", e);
+      }
+    }
+
     ReportDownloader reportDownloader = new ReportDownloader(adWordsSession);
+    if (this.downloadWatchdog != null) {
+      this.downloadWatchdog.configure(reportDownloader);
+    }
     ReportDownloadResponse reportDownloadResponse =
         reportDownloader.downloadReport(this.reportDefinition);
 
     if (reportDownloadResponse.getHttpStatus() == HttpURLConnection.HTTP_OK) {
       inputStream = reportDownloadResponse.getInputStream();
+      if (this.downloadWatchdog != null) {
+        this.downloadWatchdog.watchStream(inputStream);
+      }
 
     } else {
       System.out.println("getHttpStatus():" + reportDownloadResponse.getHttpStatus());
@@ -14,6 +14,8 @@ public class AdWordsSessionBuilderSynchronizer {
 
   private final AdWordsSession.Builder builder;
 
+  private String clientCustomerId;
+
   /**
    * Constructor.
    *
@@ -36,4 +38,17 @@ public class AdWordsSessionBuilderSynchronizer {
     adWordsSession.setClientCustomerId(String.valueOf(cid));
     return adWordsSession;
   }
+
+  /**
+   * Gets the client customer ID the builder was created with, usually the MCC.
+   *
+   * @return the client customer ID.
+   * @throws ValidationException error building the session.
+   */
+  public synchronized String getClientCustomerId() throws ValidationException {
+    if (this.clientCustomerId == null) {
+      this.clientCustomerId = this.builder.build().getClientCustomerId();
+    }
+    return this.clientCustomerId;
+  }
 }
@@ -0,0 +1,203 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.util;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+
+/**
+ * Splits a plain CSV file in byte ranges that can be parsed independently.
+ *
+ *  The ranges start and end at row boundaries. A line break inside a quoted cell does not end a
+ * row, and the quotes are read the same way as the {@code AwReportCsvTokenizer} does: a cell is
+ * quoted only if it starts with a quote, and a doubled quote inside a quoted cell is a regular
+ * character. The separator and the quote have to be ASCII characters, so they are never part of
+ * a multi byte character of the UTF-8 contents.
+ *
+ * @author agent@google.com (Agent)
+ */
+public final class CsvFileSplitter {
+
+  private static final int CELL_START = 0;
+  private static final int UNQUOTED = 1;
+  private static final int QUOTED = 2;
+  private static final int QUOTE_IN_QUOTED = 3;
+
+  private final File file;
+
+  private final byte separator;
+
+  private final byte quote;
+
+  /**
+   * C'tor
+   *
+   * @param file the plain, not compressed, CSV file.
+   * @param separator the character separating the cells.
+   * @param quote the character quoting the cells.
+   */
+  public CsvFileSplitter(File file, char separator, char quote) {
+    if (separator > 0x7f || quote > 0x7f) {
+      throw new IllegalArgumentException("The separator and the quote must be ASCII characters.");
+    }
+    this.file = file;
+    this.separator = (byte) separator;
+    this.quote = (byte) quote;
+  }
+
+  /**
+   * Finds the boundaries of the ranges of the rows after the heading rows.
+   *
+   *  Each range is at least {@code rangeSize} bytes long, except for the last one, and ends right
+   * after a line feed that ends a row.
+   *
+   * @param headingRows the number of rows before the rows to split, like the title and the header
+   *        of the report.
+   * @param rangeSize the minimum number of bytes of a range.
+   * @return the offsets of the boundaries, starting with the offset of the first row after the
+   *         heading rows and ending with the length of the file, so there is one range less than
+   *         offsets.
+   * @throws IOException error reading the file.
+   */
+  public long[] split(int headingRows, long rangeSize) throws IOException {
+    if (rangeSize <= 0) {
+      throw new IllegalArgumentException("The range size must be positive: " + rangeSize);
+    }
+
+    long[] boundaries = new long[16];
+    int boundaryCount = 0;
+    long nextBoundary = -1;
+    int rowsToSkip = headingRows;
+    if (rowsToSkip == 0) {
+      boundaries[boundaryCount++] = 0;
+      nextBoundary = rangeSize;
+    }
+
+    InputStream inputStream = new FileInputStream(this.file);
+    try {
+      byte[] buffer = new byte[64 * 1024];
+      int state = CELL_START;
+      long offset = 0;
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        for (int i = 0; i < read; i++) {
+          byte b = buffer[i];
+          offset++;
+          if (state == QUOTED) {
+            if (b == this.quote) {
+              state = QUOTE_IN_QUOTED;
+            }
+            continue;
+          }
+          if (b == '\n' || b == '\r') {
+            state = CELL_START;
+            if (b == '\r') {
+              // The row boundaries are placed after the line feed of a "\r\n"
+              continue;
+            }
+            if (rowsToSkip > 0) {
+              rowsToSkip--;
+              if (rowsToSkip == 0) {
+                boundaries[boundaryCount++] = offset;
+                nextBoundary = offset + rangeSize;
+              }
+            } else if (offset >= nextBoundary) {
+              if (boundaryCount == boundaries.length) {
+                long[] newBoundaries = new long[boundaryCount * 2];
+                System.arraycopy(boundaries, 0, newBoundaries, 0, boundaryCount);
+                boundaries = newBoundaries;
+              }
+              boundaries[boundaryCount++] = offset;
+              nextBoundary = offset + rangeSize;
+            }
+          } else if (b == this.separator) {
+            state = CELL_START;
+          } else if (b == this.quote && state == CELL_START) {
+            state = QUOTED;
+          } else if (b == this.quote && state == QUOTE_IN_QUOTED) {
+            state = QUOTED;
+          } else {
+            state = UNQUOTED;
+          }
+        }
+      }
+
+      if (boundaryCount == 0) {
+        // Fewer rows than the heading rows, so there is nothing to split
+        return new long[] {offset, offset};
+      }
+      if (boundaries[boundaryCount - 1] < offset || boundaryCount == 1) {
+        long[] newBoundaries = new long[boundaryCount + 1];
+        System.arraycopy(boundaries, 0, newBoundaries, 0, boundaryCount);
+        newBoundaries[boundaryCount++] = offset;
+        boundaries = newBoundaries;
+      }
+      long[] result = new long[boundaryCount];
+      System.arraycopy(boundaries, 0, result, 0, boundaryCount);
+      return result;
+
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Reads the first bytes of the file, like the heading rows before the first range.
+   *
+   * @param length the number of bytes to read.
+   * @return the bytes.
+   * @throws IOException error reading the file.
+   */
+  public byte[] readHead(long length) throws IOException {
+    byte[] head = new byte[(int) length];
+    RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "r");
+    try {
+      randomAccessFile.readFully(head);
+    } finally {
+      randomAccessFile.close();
+    }
+    return head;
+  }
+
+  /**
+   * Opens a range of the file, preceded by some bytes like the heading rows of the file, so the
+   * range can be parsed as a file on its own.
+   *
+   * @param head the bytes to read before the range.
+   * @param start the offset of the first byte of the range.
+   * @param end the offset after the last byte of the range.
+   * @return the stream of the bytes.
+   * @throws IOException error opening the file.
+   */
+  public InputStream openRange(byte[] head, long start, long end) throws IOException {
+    FileInputStream fileInputStream = new FileInputStream(this.file);
+    try {
+      fileInputStream.getChannel().position(start);
+    } catch (IOException e) {
+      fileInputStream.close();
+      throw e;
+    }
+    InputStream range = ByteStreams.limit(new BufferedInputStream(fileInputStream), end - start);
+    return new SequenceInputStream(new ByteArrayInputStream(head), range);
+  }
+}
@@ -16,6 +16,7 @@ package com.google.api.ads.adwords.awreporting.util;
 
 import com.google.api.client.util.Lists;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -106,6 +107,46 @@ public final class FileUtil {
     }
   }
 
+  /**
+   * Decompresses the {@code InputStream} on the fly if it starts with the GZip magic number,
+   * otherwise the content is returned as it is. This allows reading both the GZIPPED_CSV downloads
+   * and plain CSV files with the same code.
+   *
+   * @param inputStream the possibly compressed stream.
+   * @return the decompressed stream.
+   * @throws IOException error reading the stream header.
+   */
+  public static InputStream gUnzipIfCompressed(InputStream inputStream) throws IOException {
+
+    BufferedInputStream bufferedStream = new BufferedInputStream(inputStream);
+    bufferedStream.mark(2);
+    int magic = bufferedStream.read() | (bufferedStream.read() << 8);
+    bufferedStream.reset();
+
+    if (magic == GZIPInputStream.GZIP_MAGIC) {
+      return new GZIPInputStream(bufferedStream);
+    }
+    return bufferedStream;
+  }
+
+  /**
+   * Checks if the file starts with the GZip magic number.
+   *
+   * @param file the file.
+   * @return true if the file is GZipped.
+   * @throws IOException error reading the file.
+   */
+  public static boolean isGZipped(File file) throws IOException {
+
+    InputStream inputStream = new FileInputStream(file);
+    try {
+      int magic = inputStream.read() | (inputStream.read() << 8);
+      return magic == GZIPInputStream.GZIP_MAGIC;
+    } finally {
+      inputStream.close();
+    }
+  }
+
   /**
    * Reads the lines of a file and create a list of Strings containing each line.
    *
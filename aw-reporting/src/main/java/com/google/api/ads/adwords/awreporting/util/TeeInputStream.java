@@ -0,0 +1,122 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link InputStream} that copies every byte read from the source into a branch
+ * {@link OutputStream}.
+ *
+ * The readers of a report usually stop before the end of the stream (for example at the 'Total'
+ * line), so on {@code close} the rest of the source is copied to the branch too. That way the
+ * branch always ends up with a full copy of the source.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class TeeInputStream extends FilterInputStream {
+
+  private static final int DRAIN_BUFFER_SIZE = 8 * 1024;
+
+  private final OutputStream branch;
+
+  private boolean closed = false;
+
+  /**
+   * C'tor.
+   *
+   * @param inputStream the source stream.
+   * @param branch the stream that receives a copy of the bytes read.
+   */
+  public TeeInputStream(InputStream inputStream, OutputStream branch) {
+    super(inputStream);
+    this.branch = branch;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b != -1) {
+      branch.write(b);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    int count = super.read(bytes, offset, length);
+    if (count > 0) {
+      branch.write(bytes, offset, count);
+    }
+    return count;
+  }
+
+  /**
+   * Skipped bytes are read, so they also reach the branch.
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    byte[] buffer = new byte[(int) Math.min(n, DRAIN_BUFFER_SIZE)];
+    long skipped = 0;
+    while (skipped < n) {
+      int count = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+      if (count == -1) {
+        break;
+      }
+      skipped += count;
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {}
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  /**
+   * Copies what is left of the source into the branch and closes both streams.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+      int count;
+      while ((count = super.read(buffer, 0, buffer.length)) != -1) {
+        branch.write(buffer, 0, count);
+      }
+    } finally {
+      try {
+        super.close();
+      } finally {
+        branch.close();
+      }
+    }
+  }
+}
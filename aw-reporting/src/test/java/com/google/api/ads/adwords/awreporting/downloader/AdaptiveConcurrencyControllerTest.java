@@ -0,0 +1,119 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.ads.adwords.awreporting.downloader.AdaptiveConcurrencyController.Outcome;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test case for the {@link AdaptiveConcurrencyController} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class AdaptiveConcurrencyControllerTest {
+
+  /**
+   * Tests that healthy responses raise the limit up to the maximum.
+   */
+  @Test
+  public void testAdditiveIncrease() throws InterruptedException {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(2, 1, 4);
+    assertEquals(2, controller.getCurrentLimit());
+
+    // 1/2 + 1/2.5 + 1/2.9 > 1
+    for (int i = 0; i < 3; i++) {
+      controller.acquire();
+      controller.release(Outcome.SUCCESS);
+    }
+    assertEquals(3, controller.getCurrentLimit());
+
+    for (int i = 0; i < 100; i++) {
+      controller.acquire();
+      controller.release(Outcome.SUCCESS);
+    }
+    assertEquals(4, controller.getCurrentLimit());
+    assertEquals(0, controller.getInFlight());
+    assertEquals(0d, controller.getErrorRate(), 0d);
+  }
+
+  /**
+   * Tests that throttled responses cut the limit down to the minimum, and other failures only
+   * count in the error rate.
+   */
+  @Test
+  public void testMultiplicativeDecrease() throws InterruptedException {
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(20, 2, 20);
+
+    controller.acquire();
+    controller.release(Outcome.THROTTLED);
+    assertEquals(10, controller.getCurrentLimit());
+
+    controller.acquire();
+    controller.release(Outcome.FAILURE);
+    assertEquals(10, controller.getCurrentLimit());
+
+    for (int i = 0; i < 5; i++) {
+      controller.acquire();
+      controller.release(Outcome.THROTTLED);
+    }
+    assertEquals(2, controller.getCurrentLimit());
+    assertTrue(controller.getErrorRate() > 0.2);
+  }
+
+  /**
+   * Tests that acquire waits while the downloads in flight are at the limit.
+   */
+  @Test
+  public void testAcquireWaitsForPermit() throws InterruptedException {
+    final AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(1, 1, 1);
+    controller.acquire();
+
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread waiting = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          controller.acquire();
+          acquired.countDown();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    waiting.start();
+
+    assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+    controller.release(Outcome.SUCCESS);
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    assertEquals(1, controller.getInFlight());
+  }
+
+  /**
+   * Tests the validation of the limits.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLimits() {
+    new AdaptiveConcurrencyController(1, 0, 10);
+  }
+}
@@ -0,0 +1,133 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test case for the {@link DownloadWatchdog} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class DownloadWatchdogTest {
+
+  private static final String REPORT_TYPE = "ACCOUNT_PERFORMANCE_REPORT";
+
+  private DownloadWatchdog downloadWatchdog;
+
+  @Before
+  public void setUp() {
+    downloadWatchdog = new DownloadWatchdog();
+  }
+
+  @After
+  public void tearDown() {
+    downloadWatchdog.shutdown();
+    // Clears the interrupt of the cancelled attempts
+    Thread.interrupted();
+  }
+
+  /**
+   * Tests that an attempt past the timeout gets its stream closed and its thread interrupted.
+   */
+  @Test
+  public void testCheck_timeout() {
+    downloadWatchdog.setTimeoutMillis(1000);
+
+    final AtomicBoolean closed = new AtomicBoolean(false);
+    InputStream stream = new ByteArrayInputStream(new byte[0]) {
+      @Override
+      public void close() throws IOException {
+        closed.set(true);
+      }
+    };
+    long startMillis = System.currentTimeMillis();
+    DownloadWatchdog.Attempt attempt = downloadWatchdog.start(REPORT_TYPE, 1L, null);
+    downloadWatchdog.watchStream(stream);
+
+    downloadWatchdog.check(startMillis + 500);
+    assertFalse(attempt.isTimedOut());
+    assertFalse(closed.get());
+
+    downloadWatchdog.check(startMillis + 2000);
+    assertTrue(attempt.isTimedOut());
+    assertTrue(closed.get());
+    assertTrue(Thread.currentThread().isInterrupted());
+    assertEquals(1, downloadWatchdog.getTimedOutCount());
+
+    // Finishing the attempt clears the interrupt, so the download can be retried
+    downloadWatchdog.finish(attempt, false);
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  /**
+   * Tests that a slow attempt is hedged once enough downloads were observed.
+   */
+  @Test
+  public void testCheck_hedging() {
+    downloadWatchdog.setHedging(true);
+
+    final CountDownLatch hedged = new CountDownLatch(1);
+    Runnable hedge = new Runnable() {
+      @Override
+      public void run() {
+        hedged.countDown();
+      }
+    };
+
+    // Not enough downloads observed to hedge
+    DownloadWatchdog.Attempt attempt = downloadWatchdog.start(REPORT_TYPE, 1L, hedge);
+    downloadWatchdog.check(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+    assertFalse(attempt.isHedged());
+    downloadWatchdog.finish(attempt, false);
+
+    for (int i = 0; i < 20; i++) {
+      downloadWatchdog.finish(downloadWatchdog.start(REPORT_TYPE, (long) i, null), true);
+    }
+    assertTrue(downloadWatchdog.getHedgingThreshold(REPORT_TYPE) < 1000);
+
+    attempt = downloadWatchdog.start(REPORT_TYPE, 1L, hedge);
+    downloadWatchdog.check(System.currentTimeMillis() + 1000);
+    assertTrue(attempt.isHedged());
+    downloadWatchdog.check(System.currentTimeMillis() + 2000);
+    assertEquals(1, downloadWatchdog.getHedgedCount());
+    downloadWatchdog.finish(attempt, true);
+  }
+
+  /**
+   * Tests that the wait gives up when no work finishes for too long.
+   */
+  @Test
+  public void testAwait() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    assertFalse(DownloadWatchdog.await(latch, "downloads", 50));
+
+    latch.countDown();
+    assertTrue(DownloadWatchdog.await(latch, "downloads", 50));
+  }
+}
@@ -22,6 +22,8 @@ import com.google.api.ads.adwords.awreporting.downloader.MultipleClientReportDow
 import com.google.api.ads.adwords.awreporting.downloader.RunnableDownloader;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
 import com.google.api.ads.adwords.lib.client.AdWordsSession;
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.api.ads.common.lib.exception.ValidationException;
 import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
 import com.google.common.collect.ImmutableSet;
@@ -79,8 +81,12 @@ public class MultipleClientReportDownloaderTest {
     
     AdWordsSessionBuilderSynchronizer adWordsSessionBuilderSynchronizer = new AdWordsSessionBuilderSynchronizer(builder);
     
+    ReportDefinition reportDefinition = new ReportDefinition();
+    reportDefinition.setReportType(ReportDefinitionReportType.ACCOUNT_PERFORMANCE_REPORT);
+
     Set<Long> cids = ImmutableSet.of(1L, 2L, 3L, 4L, 5L);
-    mockedMultipleClientReportDownloader.downloadReports(adWordsSessionBuilderSynchronizer, null, cids);
+    mockedMultipleClientReportDownloader.downloadReports(
+        adWordsSessionBuilderSynchronizer, reportDefinition, cids);
 
     ArgumentCaptor<CountDownLatch> argument = ArgumentCaptor.forClass(CountDownLatch.class);
 
@@ -0,0 +1,88 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test case for the {@link ReportRateLimiter} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportRateLimiterTest {
+
+  /**
+   * Tests that the buckets are shared per developer token and MCC.
+   */
+  @Test
+  public void testGetBucket() {
+    ReportRateLimiter rateLimiter = new ReportRateLimiter();
+    ReportRateLimiter.Bucket bucket = rateLimiter.getBucket("DevToken", "123-456-7890");
+
+    assertSame(bucket, rateLimiter.getBucket("DevToken", "1234567890"));
+    assertNotSame(bucket, rateLimiter.getBucket("OtherToken", "1234567890"));
+    assertNotSame(bucket, rateLimiter.getBucket("DevToken", "1234567891"));
+    assertNotSame(bucket, new ReportRateLimiter().getBucket("DevToken", "1234567890"));
+  }
+
+  /**
+   * Tests that the burst is allowed at once, and the rest of the permits follow the rate.
+   */
+  @Test
+  public void testAcquire() throws InterruptedException {
+    ReportRateLimiter rateLimiter = new ReportRateLimiter();
+    rateLimiter.setPermitsPerSecond(20);
+    rateLimiter.setBurst(5);
+    ReportRateLimiter.Bucket bucket = rateLimiter.getBucket("DevToken", "1234567890");
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      rateLimiter.acquire("DevToken", "123-456-7890");
+    }
+    assertEquals(0, bucket.getWaitTimeMillis());
+
+    // 4 more permits at 20 per second take at least 200 ms
+    for (int i = 0; i < 4; i++) {
+      bucket.acquire();
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1000000;
+    assertTrue("Elapsed: " + elapsedMillis, elapsedMillis >= 180);
+    assertTrue(bucket.getWaitTimeMillis() >= 180);
+    assertEquals(9, bucket.getAcquiredPermits());
+  }
+
+  /**
+   * Tests that a rate of zero does not pace the downloads, and that the settings of a limiter do
+   * not affect the others.
+   */
+  @Test
+  public void testAcquire_disabled() throws InterruptedException {
+    ReportRateLimiter pacedRateLimiter = new ReportRateLimiter();
+    pacedRateLimiter.setPermitsPerSecond(1);
+
+    ReportRateLimiter.Bucket bucket = new ReportRateLimiter().getBucket("DevToken", "1234567890");
+    for (int i = 0; i < 1000; i++) {
+      bucket.acquire();
+    }
+    assertEquals(0, bucket.getWaitTimeMillis());
+    assertEquals(1000, bucket.getAcquiredPermits());
+  }
+}
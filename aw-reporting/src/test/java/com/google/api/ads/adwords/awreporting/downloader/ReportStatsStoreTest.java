@@ -0,0 +1,105 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.downloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.api.ads.adwords.awreporting.downloader.ReportStatsStore.ReportStats;
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Test case for the {@link ReportStatsStore} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportStatsStoreTest {
+
+  private static final String REPORT_TYPE = "ACCOUNT_PERFORMANCE_REPORT";
+
+  /**
+   * Tests that the accounts without stats go first, followed by the slowest ones.
+   */
+  @Test
+  public void testSortLargestFirst() {
+    ReportStatsStore reportStatsStore = new ReportStatsStore();
+    reportStatsStore.recordDownload(1L, REPORT_TYPE, 100, 1000);
+    reportStatsStore.recordDownload(2L, REPORT_TYPE, 900, 9000);
+    reportStatsStore.recordDownload(3L, REPORT_TYPE, 500, 5000);
+    // Stats of other report types are not taken into account
+    reportStatsStore.recordDownload(1L, "AD_PERFORMANCE_REPORT", 10000, 100000);
+
+    List<Long> sortedAccountIds =
+        reportStatsStore.sortLargestFirst(Lists.newArrayList(1L, 2L, 3L, 4L), REPORT_TYPE);
+
+    assertEquals(Lists.newArrayList(4L, 2L, 3L, 1L), sortedAccountIds);
+  }
+
+  /**
+   * Tests that the values are smoothed over the downloads.
+   */
+  @Test
+  public void testRecord() {
+    ReportStatsStore reportStatsStore = new ReportStatsStore();
+    assertNull(reportStatsStore.getStats(1L, REPORT_TYPE));
+
+    reportStatsStore.recordDownload(1L, REPORT_TYPE, 100, 1000);
+    reportStatsStore.recordRows(1L, REPORT_TYPE, 40);
+    reportStatsStore.recordDownload(1L, REPORT_TYPE, 300, 3000);
+    reportStatsStore.recordRows(1L, REPORT_TYPE, 80);
+
+    ReportStats stats = reportStatsStore.getStats(1L, REPORT_TYPE);
+    assertEquals(200, stats.getBytes());
+    assertEquals(60, stats.getRows());
+    assertEquals(2000, stats.getDurationMillis());
+    assertEquals(2, stats.getSamples());
+  }
+
+  /**
+   * Tests that the stats are kept in the file between runs.
+   */
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File statsFile = File.createTempFile("reportStats", ".tsv");
+    statsFile.deleteOnExit();
+
+    ReportStatsStore reportStatsStore = new ReportStatsStore();
+    reportStatsStore.setStatsFile(statsFile.getAbsolutePath());
+    reportStatsStore.recordDownload(1L, REPORT_TYPE, 100, 1000);
+    reportStatsStore.recordRows(1L, REPORT_TYPE, 40);
+    reportStatsStore.recordDownload(2L, REPORT_TYPE, 900, 9000);
+    reportStatsStore.save();
+
+    ReportStatsStore loadedStatsStore = new ReportStatsStore();
+    loadedStatsStore.setStatsFile(statsFile.getAbsolutePath());
+    loadedStatsStore.load();
+
+    ReportStats stats = loadedStatsStore.getStats(1L, REPORT_TYPE);
+    assertEquals(100, stats.getBytes());
+    assertEquals(40, stats.getRows());
+    assertEquals(1000, stats.getDurationMillis());
+    assertEquals(1, stats.getSamples());
+
+    List<ReportStats> largestAccounts = loadedStatsStore.getLargestAccounts(REPORT_TYPE, 1);
+    assertEquals(1, largestAccounts.size());
+    assertEquals(Long.valueOf(2L), largestAccounts.get(0).getAccountId());
+  }
+}
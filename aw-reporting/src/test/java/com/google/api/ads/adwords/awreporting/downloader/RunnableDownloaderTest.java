@@ -14,6 +14,11 @@
 
 package com.google.api.ads.adwords.awreporting.downloader;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
@@ -33,15 +38,31 @@ import com.google.api.ads.common.lib.exception.ValidationException;
 import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
 import com.google.common.collect.Lists;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Test case for the {@code RunnableDownloader} class.
@@ -53,6 +74,11 @@ public class RunnableDownloaderTest {
   @Spy
   private RunnableDownloader mockedRunnableDownloader;
 
+  @Mock
+  private ReportStreamProcessor mockedReportStreamProcessor;
+
+  private Collection<File> results;
+
   @Before
   public void setUp() throws ValidationException {
 
@@ -72,7 +98,7 @@ public class RunnableDownloaderTest {
     reportDefinition.setIncludeZeroImpressions(false);
     reportDefinition.setSelector(new Selector());
 
-    Collection<File> results = Lists.newArrayList();
+    results = Lists.newArrayList();
 
     mockedRunnableDownloader =
         new RunnableDownloader(5, 0, 10, 1L, reportDefinition, adWordsSession, results);
@@ -135,4 +161,222 @@ public class RunnableDownloaderTest {
     verify(mockedRunnableDownloader, times(1)).downloadFileToFileSystem();
     verify(mockedRunnableDownloader, times(1)).run();
   }
+
+  /**
+   * Rate limit errors are retried even when they come as a DetailedReportDownloadResponseException.
+   */
+  @Test
+  public void testRun_retriesRateExceeded() throws Exception {
+
+    DetailedReportDownloadResponseException ex = new DetailedReportDownloadResponseException(
+        400, "Testing");
+    ex.setType("RateExceededError.RATE_EXCEEDED");
+    doThrow(ex).when(mockedRunnableDownloader).downloadFileToFileSystem();
+
+    AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(8, 1, 8);
+    mockedRunnableDownloader.setConcurrencyController(controller);
+    mockedRunnableDownloader.run();
+
+    verify(mockedRunnableDownloader, times(5)).downloadFileToFileSystem();
+    assertEquals(1, controller.getCurrentLimit());
+    assertEquals(0, controller.getInFlight());
+  }
+
+  /**
+   * The accounts whose download never succeeded are recorded as failed, also when the error is
+   * not retried.
+   */
+  @Test
+  public void testRun_failedAccounts() throws Exception {
+
+    Collection<Long> failed = Lists.newArrayList();
+    mockedRunnableDownloader.setFailed(failed);
+    doThrow(new IllegalStateException("UnitTest non-Retryable Error"))
+        .when(mockedRunnableDownloader).downloadFileToFileSystem();
+
+    mockedRunnableDownloader.run();
+    verify(mockedRunnableDownloader, times(1)).downloadFileToFileSystem();
+    assertEquals(Lists.newArrayList(1L), failed);
+    assertTrue(results.isEmpty());
+
+    failed.clear();
+    doThrow(new ReportException("ReportException", new Exception("UnitTest Server Error")))
+        .when(mockedRunnableDownloader).downloadFileToFileSystem();
+    mockedRunnableDownloader.run();
+    assertEquals(Lists.newArrayList(1L), failed);
+
+    failed.clear();
+    doReturn(new File("")).when(mockedRunnableDownloader).downloadFileToFileSystem();
+    mockedRunnableDownloader.run();
+    assertTrue(failed.isEmpty());
+  }
+
+  /**
+   * The file waits for space in a full queue after the attempt, so the watchdog does not cancel
+   * the wait as a slow download.
+   */
+  @Test
+  public void testRun_fullQueue() throws Exception {
+
+    final File reportFile = File.createTempFile("reportDownload-", ".report");
+    final File otherFile = new File("other.report");
+    doReturn(reportFile).when(mockedRunnableDownloader).downloadFileToFileSystem();
+    final BlockingQueue<File> downloadedFiles = new ArrayBlockingQueue<File>(1);
+    downloadedFiles.put(otherFile);
+    Collection<Long> failed = Lists.newArrayList();
+    final DownloadWatchdog watchdog = new DownloadWatchdog();
+    watchdog.setTimeoutMillis(2000);
+
+    mockedRunnableDownloader.setFailed(failed);
+    mockedRunnableDownloader.setDownloadedFiles(downloadedFiles);
+    mockedRunnableDownloader.setDownloadWatchdog(watchdog);
+    Thread processor = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(200);
+          // The checker finds the attempts past the timeout while the queue is full
+          watchdog.check(System.currentTimeMillis() + 5000);
+          downloadedFiles.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    processor.start();
+    try {
+      mockedRunnableDownloader.run();
+    } finally {
+      processor.join();
+      watchdog.shutdown();
+    }
+
+    assertEquals(0, watchdog.getTimedOutCount());
+    assertEquals(reportFile, downloadedFiles.poll(1, TimeUnit.SECONDS));
+    assertTrue(failed.isEmpty());
+    assertEquals(Lists.newArrayList(reportFile), results);
+    reportFile.delete();
+  }
+
+  /**
+   * A file that can not be queued is dropped from the results and its account recorded as failed.
+   */
+  @Test
+  public void testRun_fullQueueTimeout() throws Exception {
+
+    File reportFile = File.createTempFile("reportDownload-", ".report");
+    doReturn(reportFile).when(mockedRunnableDownloader).downloadFileToFileSystem();
+    BlockingQueue<File> downloadedFiles = new ArrayBlockingQueue<File>(1);
+    downloadedFiles.put(new File("other.report"));
+    Collection<Long> failed = Lists.newArrayList();
+    DownloadWatchdog watchdog = new DownloadWatchdog();
+    watchdog.setTimeoutMillis(100);
+
+    mockedRunnableDownloader.setFailed(failed);
+    mockedRunnableDownloader.setDownloadedFiles(downloadedFiles);
+    mockedRunnableDownloader.setDownloadWatchdog(watchdog);
+    try {
+      mockedRunnableDownloader.run();
+    } finally {
+      watchdog.shutdown();
+    }
+
+    verify(mockedRunnableDownloader, times(1)).downloadFileToFileSystem();
+    assertEquals(Lists.newArrayList(1L), failed);
+    assertTrue(results.isEmpty());
+    assertFalse(reportFile.exists());
+  }
+
+  /**
+   * Test for the streaming mode, the report is handed decompressed to the processor and the
+   * compressed bytes are kept complete in the audit directory even if the processor stops reading.
+   */
+  @Test
+  public void testRun_streaming() throws Exception {
+
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream gZipStream = new GZIPOutputStream(compressed);
+    gZipStream.write("\"ACCOUNT_PERFORMANCE_REPORT\"\nCustomer ID\n123\nTotal\n".getBytes("UTF-8"));
+    gZipStream.close();
+    final byte[] reportBytes = compressed.toByteArray();
+
+    doReturn(new ByteArrayInputStream(reportBytes))
+        .when(mockedRunnableDownloader).downloadReportStream();
+
+    final List<String> readLines = Lists.newArrayList();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader((InputStream) invocation.getArguments()[1], "UTF-8"));
+        // Reads only the first lines, like the CSV reader stopping at the Total line
+        readLines.add(reader.readLine());
+        readLines.add(reader.readLine());
+        return null;
+      }
+    }).when(mockedReportStreamProcessor).process(Mockito.eq(1L), Mockito.any(InputStream.class));
+
+    File auditDirectory = File.createTempFile("audit", "");
+    auditDirectory.delete();
+    auditDirectory.mkdir();
+
+    mockedRunnableDownloader.setReportStreamProcessor(mockedReportStreamProcessor);
+    mockedRunnableDownloader.setAuditDirectory(auditDirectory);
+    mockedRunnableDownloader.run();
+
+    verify(mockedRunnableDownloader, times(1)).downloadReportStream();
+    verify(mockedRunnableDownloader, times(0)).downloadFileToFileSystem();
+    assertEquals("Customer ID", readLines.get(1));
+
+    assertEquals(1, results.size());
+    File auditFile = results.iterator().next();
+    assertEquals(auditDirectory, auditFile.getParentFile());
+    assertArrayEquals(reportBytes, FileUtils.readFileToByteArray(auditFile));
+
+    FileUtils.deleteDirectory(auditDirectory);
+  }
+
+  /**
+   * A slow processor of the streamed report does not count as a slow download, so it is not
+   * cancelled and retried.
+   */
+  @Test
+  public void testRun_streamingSlowProcessor() throws Exception {
+
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream gZipStream = new GZIPOutputStream(compressed);
+    gZipStream.write("\"ACCOUNT_PERFORMANCE_REPORT\"\nCustomer ID\n123\nTotal\n".getBytes("UTF-8"));
+    gZipStream.close();
+    doReturn(new ByteArrayInputStream(compressed.toByteArray()))
+        .when(mockedRunnableDownloader).downloadReportStream();
+
+    final DownloadWatchdog watchdog = new DownloadWatchdog();
+    watchdog.setTimeoutMillis(100);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        // The checker finds the attempt past the timeout while the rows are persisted
+        watchdog.check(System.currentTimeMillis() + 5000);
+        IOUtils.toByteArray((InputStream) invocation.getArguments()[1]);
+        return null;
+      }
+    }).when(mockedReportStreamProcessor).process(Mockito.eq(1L), Mockito.any(InputStream.class));
+    Collection<Long> failed = Lists.newArrayList();
+
+    mockedRunnableDownloader.setFailed(failed);
+    mockedRunnableDownloader.setReportStreamProcessor(mockedReportStreamProcessor);
+    mockedRunnableDownloader.setDownloadWatchdog(watchdog);
+    try {
+      mockedRunnableDownloader.run();
+    } finally {
+      watchdog.shutdown();
+    }
+
+    assertEquals(0, watchdog.getTimedOutCount());
+    assertFalse(Thread.interrupted());
+    verify(mockedRunnableDownloader, times(1)).downloadReportStream();
+    verify(mockedReportStreamProcessor, times(1))
+        .process(Mockito.eq(1L), Mockito.any(InputStream.class));
+    assertTrue(failed.isEmpty());
+  }
 }
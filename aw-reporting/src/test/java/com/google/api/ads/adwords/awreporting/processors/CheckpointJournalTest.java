@@ -0,0 +1,129 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Test case for the {@link CheckpointJournal} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class CheckpointJournalTest {
+
+  private static final String REPORT_KEY = CheckpointJournal.getReportKey("123-456-7890",
+      "ACCOUNT_PERFORMANCE_REPORT", ReportDefinitionDateRangeType.CUSTOM_DATE, "20140101",
+      "20140131");
+
+  private File journalFile;
+
+  @Before
+  public void setUp() throws IOException {
+    journalFile = File.createTempFile("checkpointJournal", ".tsv");
+  }
+
+  @After
+  public void tearDown() {
+    journalFile.delete();
+  }
+
+  /**
+   * Tests that the completed reports are kept when resuming, and discarded otherwise.
+   */
+  @Test
+  public void testResume() throws IOException {
+    CheckpointJournal checkpointJournal = new CheckpointJournal(journalFile, false);
+    checkpointJournal.markCompleted(REPORT_KEY, 1L);
+    checkpointJournal.markCompleted(REPORT_KEY, 2L);
+    checkpointJournal.close();
+
+    CheckpointJournal resumedJournal = new CheckpointJournal(journalFile, true);
+    assertTrue(resumedJournal.isCompleted(REPORT_KEY, 1L));
+    assertEquals(ImmutableSet.of(3L),
+        resumedJournal.getPendingAccounts(REPORT_KEY, ImmutableSet.of(1L, 2L, 3L)));
+
+    // Other dates are not completed
+    String otherReportKey = CheckpointJournal.getReportKey("1234567890",
+        "ACCOUNT_PERFORMANCE_REPORT", ReportDefinitionDateRangeType.CUSTOM_DATE, "20140201",
+        "20140228");
+    assertFalse(resumedJournal.isCompleted(otherReportKey, 1L));
+    resumedJournal.markCompleted(REPORT_KEY, 3L);
+    resumedJournal.close();
+    assertEquals(3, new CheckpointJournal(journalFile, true).getCompletedCount());
+
+    CheckpointJournal newJournal = new CheckpointJournal(journalFile, false);
+    assertEquals(0, newJournal.getCompletedCount());
+    assertFalse(newJournal.isCompleted(REPORT_KEY, 1L));
+    newJournal.close();
+  }
+
+  /**
+   * Tests that a line cut by a crash does not mark the report as completed.
+   */
+  @Test
+  public void testResume_cutLine() throws IOException {
+    CheckpointJournal checkpointJournal = new CheckpointJournal(journalFile, false);
+    checkpointJournal.markCompleted(REPORT_KEY, 1L);
+    checkpointJournal.close();
+
+    // The line of account 123 was cut after "12"
+    FileWriter writer = new FileWriter(journalFile, true);
+    writer.write(REPORT_KEY + "\t12");
+    writer.close();
+
+    CheckpointJournal resumedJournal = new CheckpointJournal(journalFile, true);
+    assertTrue(resumedJournal.isCompleted(REPORT_KEY, 1L));
+    assertFalse(resumedJournal.isCompleted(REPORT_KEY, 12L));
+    assertFalse(resumedJournal.isCompleted(REPORT_KEY, 123L));
+    resumedJournal.close();
+  }
+
+  /**
+   * Tests that the reports completed after resuming from a cut line are not appended to it.
+   */
+  @Test
+  public void testResume_afterCutLine() throws IOException {
+    CheckpointJournal checkpointJournal = new CheckpointJournal(journalFile, false);
+    checkpointJournal.markCompleted(REPORT_KEY, 1L);
+    checkpointJournal.close();
+
+    FileWriter writer = new FileWriter(journalFile, true);
+    writer.write(REPORT_KEY + "\t12");
+    writer.close();
+
+    CheckpointJournal resumedJournal = new CheckpointJournal(journalFile, true);
+    resumedJournal.markCompleted(REPORT_KEY, 2L);
+    resumedJournal.close();
+
+    CheckpointJournal secondJournal = new CheckpointJournal(journalFile, true);
+    assertTrue(secondJournal.isCompleted(REPORT_KEY, 1L));
+    assertTrue(secondJournal.isCompleted(REPORT_KEY, 2L));
+    assertEquals(2, secondJournal.getCompletedCount());
+    secondJournal.close();
+  }
+}
@@ -0,0 +1,296 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.api.ads.adwords.awreporting.model.entities.Report;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportBatchPersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlice;
+import com.google.api.ads.adwords.awreporting.model.persistence.ReportSlicePersister;
+import com.google.api.ads.adwords.awreporting.model.persistence.RowBatch;
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test case for the {@link ReportBuffer} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportBufferTest {
+
+  /**
+   * Tests that the persisters without batches get lists of entities.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFlush_entities() throws Exception {
+    EntityPersister persister = mock(EntityPersister.class);
+    ReportBuffer<ReportAccount> buffer = new ReportBuffer<ReportAccount>(persister, 2);
+
+    for (int i = 0; i < 5; i++) {
+      buffer.add(newReport(i));
+    }
+    buffer.flush();
+    buffer.flush();
+
+    ArgumentCaptor<List> lists = ArgumentCaptor.forClass(List.class);
+    verify(persister, times(3)).persistReportEntities(lists.capture());
+    assertEquals(2, lists.getAllValues().get(0).size());
+    assertEquals(2, lists.getAllValues().get(1).size());
+    assertEquals(1, lists.getAllValues().get(2).size());
+    assertEquals(newReport(4).getId(), ((Report) lists.getAllValues().get(2).get(0)).getId());
+  }
+
+  /**
+   * Tests that the batch persisters get batches of the rows.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testFlush_batches() throws Exception {
+    ReportBatchPersister persister = mock(ReportBatchPersister.class);
+    final List<String> ids = Lists.newArrayList();
+    final List<Integer> sizes = Lists.newArrayList();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        // The batch is reused once persisted
+        RowBatch<?> batch = (RowBatch<?>) invocation.getArguments()[0];
+        sizes.add(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+          ids.add(batch.getId(row));
+        }
+        return null;
+      }
+    }).when(persister).persistReportBatch(any(RowBatch.class));
+    ReportBuffer<ReportAccount> buffer = new ReportBuffer<ReportAccount>(persister, 2);
+
+    for (int i = 0; i < 5; i++) {
+      buffer.add(newReport(i));
+    }
+    buffer.flush();
+    buffer.flush();
+
+    assertEquals(Lists.newArrayList(2, 2, 1), sizes);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(newReport(i).getId(), ids.get(i));
+    }
+    verify(persister, never()).persistReportEntities(any(List.class));
+  }
+
+  /**
+   * Tests that the write stage persists the rows on its own thread, coalescing the sets of rows
+   * waiting, and that the flush waits for them.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testFlush_writeStage() throws Exception {
+    ReportBatchPersister persister = mock(ReportBatchPersister.class);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> ids = Collections.synchronizedList(Lists.<String>newArrayList());
+    final AtomicInteger calls = new AtomicInteger();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws InterruptedException {
+        // The first write waits, so the next sets of rows are queued
+        release.await();
+        calls.incrementAndGet();
+        RowBatch<?> batch = (RowBatch<?>) invocation.getArguments()[0];
+        for (int row = 0; row < batch.size(); row++) {
+          ids.add(batch.getId(row));
+        }
+        return null;
+      }
+    }).when(persister).persistReportBatch(any(RowBatch.class));
+    ReportWriteStage writeStage = new ReportWriteStage(1, 10, 100);
+    ReportBuffer<ReportAccount> buffer =
+        new ReportBuffer<ReportAccount>(persister, 1, writeStage);
+
+    try {
+      for (int i = 0; i < 5; i++) {
+        buffer.add(newReport(i));
+      }
+      release.countDown();
+      buffer.flush();
+    } finally {
+      writeStage.shutdown();
+    }
+
+    assertTrue(calls.get() <= 2);
+    assertEquals(5, ids.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(newReport(i).getId(), ids.get(i));
+    }
+  }
+
+  /**
+   * Tests that the flush gets the errors of the write stage.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFlush_writeStageError() throws Exception {
+    EntityPersister persister = mock(EntityPersister.class);
+    doThrow(new IllegalStateException("Data base down"))
+        .when(persister).persistReportEntities(any(List.class));
+    ReportWriteStage writeStage = new ReportWriteStage(2, 1, 100);
+    ReportBuffer<ReportAccount> buffer =
+        new ReportBuffer<ReportAccount>(persister, 2, writeStage);
+
+    try {
+      for (int i = 0; i < 5; i++) {
+        buffer.add(newReport(i));
+      }
+      buffer.flush();
+      fail("The error of the write stage must be thrown.");
+    } catch (IllegalStateException e) {
+      assertEquals("Data base down", e.getMessage());
+    } finally {
+      writeStage.shutdown();
+    }
+  }
+
+  /**
+   * Tests that the rows submitted once the write stage is shut down fail instead of waiting.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test(timeout = 10000)
+  @SuppressWarnings("unchecked")
+  public void testFlush_writeStageShutdown() throws Exception {
+    EntityPersister persister = mock(EntityPersister.class);
+    ReportWriteStage writeStage = new ReportWriteStage(2, 10, 100);
+    writeStage.shutdown();
+    ReportBuffer<ReportAccount> buffer =
+        new ReportBuffer<ReportAccount>(persister, 2, writeStage);
+
+    try {
+      for (int i = 0; i < 5; i++) {
+        buffer.add(newReport(i));
+      }
+      buffer.flush();
+      fail("The rows submitted to a stopped write stage must fail.");
+    } catch (RejectedExecutionException e) {
+      // Expected
+    }
+    try {
+      buffer.flush();
+      fail("The rows submitted to a stopped write stage must fail.");
+    } catch (RejectedExecutionException e) {
+      // Expected, the rows are not waited for
+    }
+    verify(persister, never()).persistReportEntities(any(List.class));
+  }
+
+  /**
+   * Tests that the rows replace the slice of the first row once flushed, without the write stage.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testFlush_replaceSlice() throws Exception {
+    ReportSlicePersister persister = mock(ReportSlicePersister.class);
+    ReportSlicePersister.Replacement replacement = mock(ReportSlicePersister.Replacement.class);
+    final List<Integer> sizes = Lists.newArrayList();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        sizes.add(((RowBatch<?>) invocation.getArguments()[0]).size());
+        return null;
+      }
+    }).when(replacement).add(any(RowBatch.class));
+    when(persister.beginReplacement(any(ReportSlice.class))).thenReturn(replacement);
+    ReportWriteStage writeStage = new ReportWriteStage(1, 10, 100);
+    ReportBuffer<ReportAccount> buffer =
+        new ReportBuffer<ReportAccount>(persister, 2, writeStage);
+    buffer.setReplaceSlices(true);
+
+    try {
+      for (int i = 0; i < 5; i++) {
+        buffer.add(newReport(i));
+      }
+      buffer.flush();
+      buffer.close();
+    } finally {
+      writeStage.shutdown();
+    }
+
+    ArgumentCaptor<ReportSlice> slice = ArgumentCaptor.forClass(ReportSlice.class);
+    verify(persister).beginReplacement(slice.capture());
+    assertEquals(ReportSlice.forReport(newReport(0)), slice.getValue());
+    assertEquals(Lists.newArrayList(2, 2, 1), sizes);
+    verify(replacement).commit();
+    verify(replacement, never()).abort();
+    verify(persister, never()).persistReportBatch(any(RowBatch.class));
+  }
+
+  /**
+   * Tests that closing a buffer not flushed aborts the replacement of the slice.
+   *
+   * @throws Exception not handled, test should fail.
+   */
+  @Test
+  public void testClose_replaceSlice() throws Exception {
+    ReportSlicePersister persister = mock(ReportSlicePersister.class);
+    ReportSlicePersister.Replacement replacement = mock(ReportSlicePersister.Replacement.class);
+    when(persister.beginReplacement(any(ReportSlice.class))).thenReturn(replacement);
+    ReportBuffer<ReportAccount> buffer = new ReportBuffer<ReportAccount>(persister, 2);
+    buffer.setReplaceSlices(true);
+
+    for (int i = 0; i < 3; i++) {
+      buffer.add(newReport(i));
+    }
+    buffer.close();
+    buffer.close();
+
+    verify(replacement, times(1)).add(any(RowBatch.class));
+    verify(replacement).abort();
+    verify(replacement, never()).commit();
+  }
+
+  private static ReportAccount newReport(int index) {
+    ReportAccount report = new ReportAccount(1L, 2L + index);
+    report.setDay("2015-01-01");
+    report.setId();
+    return report;
+  }
+}
@@ -15,10 +15,18 @@
 package com.google.api.ads.adwords.awreporting.processors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.when;
 
@@ -26,7 +34,10 @@ import com.google.api.ads.adwords.awreporting.authentication.Authenticator;
 import com.google.api.ads.adwords.awreporting.model.csv.CsvReportEntitiesMapping;
 import com.google.api.ads.adwords.awreporting.model.entities.Report;
 import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportBase;
+import com.google.api.ads.adwords.awreporting.model.entities.ReportKeyword;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
+import com.google.api.ads.adwords.awreporting.model.util.DateUtil;
 import com.google.api.ads.adwords.awreporting.processors.ReportProcessor;
 import com.google.api.ads.adwords.awreporting.util.DynamicPropertyPlaceholderConfigurer;
 import com.google.api.ads.adwords.lib.jaxb.v201502.DownloadFormat;
@@ -35,6 +46,7 @@ import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
 import com.google.api.ads.adwords.lib.jaxb.v201502.Selector;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import org.joda.time.DateTime;
@@ -50,7 +62,9 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PropertiesLoaderUtils;
 
 import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -128,6 +142,45 @@ public class ReportProcessorTest {
     when(reportProcessor.retrieveAccountIds(anyString())).thenReturn(accountIds);
   }
 
+  /**
+   * Tests the connections held at once by the processor threads, writers and replacements.
+   */
+  @Test
+  public void testGetMaxConcurrentConnections() {
+    doCallRealMethod().when(reportProcessor).getMaxConcurrentConnections();
+    doCallRealMethod().when(reportProcessor).setWriterThreads(anyInt());
+    doCallRealMethod().when(reportProcessor).setReplaceSlices(anyBoolean());
+    reportProcessor.numberOfReportProcessors = 20;
+
+    assertEquals(20, reportProcessor.getMaxConcurrentConnections());
+    reportProcessor.setWriterThreads(4);
+    assertEquals(24, reportProcessor.getMaxConcurrentConnections());
+    reportProcessor.setReplaceSlices(true);
+    assertEquals(44, reportProcessor.getMaxConcurrentConnections());
+  }
+
+  /**
+   * Tests that the writer threads are stopped at the end of a run, and started again by the next.
+   */
+  @Test
+  public void testShutdownWriteStage() {
+    doCallRealMethod().when(reportProcessor).setWriterThreads(anyInt());
+    doCallRealMethod().when(reportProcessor).getWriteStage();
+    doCallRealMethod().when(reportProcessor).shutdownWriteStage();
+    reportProcessor.shutdownWriteStage();
+
+    reportProcessor.setWriterThreads(2);
+    ReportWriteStage writeStage = reportProcessor.getWriteStage();
+    assertSame(writeStage, reportProcessor.getWriteStage());
+    reportProcessor.shutdownWriteStage();
+    assertTrue(writeStage.isShutdown());
+
+    ReportWriteStage nextWriteStage = reportProcessor.getWriteStage();
+    assertNotSame(writeStage, nextWriteStage);
+    assertFalse(nextWriteStage.isShutdown());
+    reportProcessor.shutdownWriteStage();
+  }
+
   @Test
   public void testGetReportDefinition() throws Exception {
     ReportDefinition reportDefinition =
@@ -197,4 +250,73 @@ public class ReportProcessorTest {
     Assert.assertTrue(reportDefinitionValue.contains("Year"));
     Assert.assertFalse(reportDefinitionValue.contains("Date"));
   }
+
+  /**
+   * Tests that the incremental mode downloads the missing days and the restatement window.
+   */
+  @Test
+  public void testGetDateRangesToDownload_incremental() {
+    doCallRealMethod().when(reportProcessor).setIncremental(anyBoolean());
+    doCallRealMethod().when(reportProcessor).setRestatementDays(anyInt());
+    doCallRealMethod().when(reportProcessor)
+        .getReportInclusions(anyString(), any(Properties.class));
+    doCallRealMethod().when(reportProcessor).getDateRangesToDownload(anyString(),
+        any(ReportDefinitionReportType.class), any(ReportDefinitionDateRangeType.class),
+        anyString(), anyString(), anySetOf(Long.class), anyString(), any(Properties.class));
+
+    when(mockedEntitiesPersister.getMinDateByAccount(
+        eq(ReportKeyword.class), eq(1234567890L), eq(ReportBase.DAY))).thenReturn(
+        ImmutableMap.of(1L, toDate("20140101"), 2L, toDate("20140101"), 4L, toDate("20140110"),
+            5L, toDate("20140101")));
+    when(mockedEntitiesPersister.getMaxDateByAccount(
+        eq(ReportKeyword.class), eq(1234567890L), eq(ReportBase.DAY))).thenReturn(
+        ImmutableMap.of(1L, toDate("20140120"), 2L, toDate("20140131"), 4L, toDate("20140131"),
+            5L, toDate("20140125")));
+
+    String reportDefinitionKey = ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT.name();
+    Set<Long> accounts = ImmutableSet.of(1L, 2L, 3L, 4L, 5L);
+
+    reportProcessor.setIncremental(false);
+    Map<String, Set<Long>> dateRanges = reportProcessor.getDateRangesToDownload("123-456-7890",
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT,
+        ReportDefinitionDateRangeType.CUSTOM_DATE, dateStart, dateEnd, accounts,
+        reportDefinitionKey, properties);
+    assertEquals(ImmutableMap.of(dateStart, accounts), dateRanges);
+
+    reportProcessor.setIncremental(true);
+    reportProcessor.setRestatementDays(3);
+    dateRanges = reportProcessor.getDateRangesToDownload("123-456-7890",
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT,
+        ReportDefinitionDateRangeType.CUSTOM_DATE, dateStart, dateEnd, accounts,
+        reportDefinitionKey, properties);
+    assertEquals(ImmutableMap.of(
+        "20140101", ImmutableSet.of(3L, 4L),
+        "20140121", ImmutableSet.of(1L),
+        "20140126", ImmutableSet.of(5L),
+        "20140129", ImmutableSet.of(2L)), dateRanges);
+
+    // Without restatement window, the accounts up to date are left out
+    reportProcessor.setRestatementDays(0);
+    dateRanges = reportProcessor.getDateRangesToDownload("123-456-7890",
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT,
+        ReportDefinitionDateRangeType.CUSTOM_DATE, dateStart, dateEnd, accounts,
+        reportDefinitionKey, properties);
+    assertEquals(ImmutableMap.of(
+        "20140101", ImmutableSet.of(3L, 4L),
+        "20140121", ImmutableSet.of(1L),
+        "20140126", ImmutableSet.of(5L)), dateRanges);
+
+    // The reports not segmented by day download the whole range
+    reportDefinitionKey = ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT.name()
+        + ReportProcessor.REPORT_KEY_SEPARATOR + "MONTH";
+    dateRanges = reportProcessor.getDateRangesToDownload("123-456-7890",
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT,
+        ReportDefinitionDateRangeType.CUSTOM_DATE, dateStart, dateEnd, accounts,
+        reportDefinitionKey, properties);
+    assertEquals(ImmutableMap.of(dateStart, accounts), dateRanges);
+  }
+
+  private static Date toDate(String day) {
+    return DateUtil.parseDateTime(day).toDate();
+  }
 }
@@ -0,0 +1,142 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionReportType;
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test case for the {@link ReportTypeScheduler} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class ReportTypeSchedulerTest {
+
+  /**
+   * Tests that the report types are run by priority, keeping the order of the equal ones.
+   */
+  @Test
+  public void testRunAll_priority() throws InterruptedException {
+    Properties properties = new Properties();
+    properties.setProperty(ReportTypeScheduler.PRIORITY_PROPERTY_PREFIX
+        + ReportDefinitionReportType.ACCOUNT_PERFORMANCE_REPORT.name(), "10");
+    properties.setProperty(ReportTypeScheduler.PRIORITY_PROPERTY_PREFIX
+        + ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT.name(), "-1");
+
+    ReportTypeScheduler scheduler = new ReportTypeScheduler(1, 2, properties);
+    final List<ReportDefinitionReportType> runOrder =
+        Collections.synchronizedList(Lists.<ReportDefinitionReportType>newArrayList());
+    for (final ReportDefinitionReportType reportType : Lists.newArrayList(
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.AD_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.CAMPAIGN_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.ACCOUNT_PERFORMANCE_REPORT)) {
+      scheduler.schedule(reportType, new Runnable() {
+        @Override
+        public void run() {
+          runOrder.add(reportType);
+        }
+      });
+    }
+    scheduler.runAll();
+
+    assertEquals(Lists.newArrayList(
+        ReportDefinitionReportType.ACCOUNT_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.AD_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.CAMPAIGN_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT), runOrder);
+  }
+
+  /**
+   * Tests that the report types share the threads, and a capped report type does not take more.
+   */
+  @Test
+  public void testRunAll_sharedThreads() throws InterruptedException {
+    final ReportDefinitionReportType cappedType =
+        ReportDefinitionReportType.KEYWORDS_PERFORMANCE_REPORT;
+    Properties properties = new Properties();
+    properties.setProperty(ReportTypeScheduler.THREADS_PROPERTY_PREFIX + cappedType.name(), "2");
+
+    final ReportTypeScheduler scheduler = new ReportTypeScheduler(3, 4, properties);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final AtomicInteger cappedRunning = new AtomicInteger();
+    final AtomicInteger maxCappedRunning = new AtomicInteger();
+    final AtomicInteger finished = new AtomicInteger();
+
+    for (final ReportDefinitionReportType reportType : Lists.newArrayList(cappedType,
+        ReportDefinitionReportType.AD_PERFORMANCE_REPORT,
+        ReportDefinitionReportType.ACCOUNT_PERFORMANCE_REPORT)) {
+      scheduler.schedule(reportType, new Runnable() {
+        @Override
+        public void run() {
+          ExecutorService executorService = Executors.newFixedThreadPool(10);
+          try {
+            for (int i = 0; i < 10; i++) {
+              scheduler.execute(executorService, reportType, new Runnable() {
+                @Override
+                public void run() {
+                  updateMax(maxRunning, running.incrementAndGet());
+                  if (reportType == cappedType) {
+                    updateMax(maxCappedRunning, cappedRunning.incrementAndGet());
+                  }
+                  try {
+                    Thread.sleep(5);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  if (reportType == cappedType) {
+                    cappedRunning.decrementAndGet();
+                  }
+                  running.decrementAndGet();
+                  finished.incrementAndGet();
+                }
+              });
+            }
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+    }
+    scheduler.runAll();
+
+    assertEquals(30, finished.get());
+    assertTrue("Max running: " + maxRunning.get(), maxRunning.get() <= 4);
+    assertTrue("Max capped running: " + maxCappedRunning.get(), maxCappedRunning.get() <= 2);
+  }
+
+  private static void updateMax(AtomicInteger max, int value) {
+    int current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+}
@@ -16,6 +16,7 @@ package com.google.api.ads.adwords.awreporting.processors.onfile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,9 +24,12 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
@@ -56,6 +60,7 @@ import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
 import com.google.api.ads.adwords.awreporting.processors.onfile.ReportProcessorOnFile;
 import com.google.api.ads.adwords.awreporting.util.AdWordsSessionBuilderSynchronizer;
 import com.google.api.ads.adwords.awreporting.util.DynamicPropertyPlaceholderConfigurer;
+import com.google.api.ads.adwords.awreporting.util.FileUtil;
 import com.google.api.ads.adwords.lib.client.AdWordsSession;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinition;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
@@ -177,6 +182,196 @@ public class ReportProcessorOnFileTest {
     }
   }
 
+  /**
+   * Tests the pipelined mode, where the files are processed as they come out of the downloader.
+   */
+  @Test
+  public void testGenerateReportsForMCC_pipelined() throws Exception {
+
+    // Pipelined downloads hand each file to the queue as they finish
+    Mockito.doAnswer(new Answer<Collection<File>>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Collection<File> answer(InvocationOnMock invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        Collection<File> files = ((MultipleClientReportDownloader) invocation.getMock())
+            .downloadReports((AdWordsSessionBuilderSynchronizer) args[0],
+                (ReportDefinition) args[1], (Set<Long>) args[2]);
+        for (File file : files) {
+          ((BlockingQueue<File>) args[3]).put(file);
+        }
+        return files;
+      }
+    }).when(mockedMultipleClientReportDownloader).downloadReports(
+        Mockito.<AdWordsSessionBuilderSynchronizer>anyObject(),
+        Mockito.<ReportDefinition>anyObject(), Mockito.<Set<Long>>anyObject(),
+        Mockito.<BlockingQueue<File>>anyObject());
+
+    Properties accountReportProperties = new Properties();
+    accountReportProperties.setProperty("ACCOUNT_PERFORMANCE_REPORT",
+        properties.getProperty("ACCOUNT_PERFORMANCE_REPORT"));
+
+    reportProcessorOnFile.setPipelined(true);
+    reportProcessorOnFile.setPipelineQueueSize(5);
+    reportProcessorOnFile.generateReportsForMCC("123",
+        ReportDefinitionDateRangeType.CUSTOM_DATE,
+        "20130101",
+        "20130131",
+        CIDS,
+        accountReportProperties,
+        null,
+        null);
+
+    verify(mockedMultipleClientReportDownloader, times(1)).downloadReports(
+        Mockito.<AdWordsSessionBuilderSynchronizer>anyObject(),
+        Mockito.<ReportDefinition>anyObject(), Mockito.<Set<Long>>anyObject(),
+        Mockito.<BlockingQueue<File>>anyObject());
+
+    // One set of rows for each of the account files
+    verify(mockedEntitiesPersister, times(NUMBER_OF_ACCOUNTS)).persistReportEntities(
+        reportEntitiesCaptor.capture());
+    for (List<? extends Report> reportEntities : reportEntitiesCaptor.getAllValues()) {
+      for (Report report : reportEntities) {
+        assertNotNull(report.getId());
+        assertNotNull(report.getAccountId());
+      }
+    }
+  }
+
+  /**
+   * Tests that the pipelined mode does not hang waiting for the processor threads once they died
+   * with the pipeline queue full.
+   */
+  @Test(timeout = 60000)
+  public void testGenerateReportsForMCC_pipelinedDeadProcessors() throws Exception {
+
+    Mockito.doAnswer(new Answer<Collection<File>>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Collection<File> answer(InvocationOnMock invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        Collection<File> files = ((MultipleClientReportDownloader) invocation.getMock())
+            .downloadReports((AdWordsSessionBuilderSynchronizer) args[0],
+                (ReportDefinition) args[1], (Set<Long>) args[2]);
+        for (File file : files) {
+          // The downloads give up on the files the queue does not take in time
+          ((BlockingQueue<File>) args[3]).offer(file, 10, TimeUnit.MILLISECONDS);
+        }
+        return files;
+      }
+    }).when(mockedMultipleClientReportDownloader).downloadReports(
+        Mockito.<AdWordsSessionBuilderSynchronizer>anyObject(),
+        Mockito.<ReportDefinition>anyObject(), Mockito.<Set<Long>>anyObject(),
+        Mockito.<BlockingQueue<File>>anyObject());
+    // An error that the processors do not catch, killing their threads
+    Mockito.doThrow(new AssertionError("Persister error")).when(mockedEntitiesPersister)
+        .persistReportEntities(Mockito.<List<? extends Report>>anyObject());
+
+    Properties accountReportProperties = new Properties();
+    accountReportProperties.setProperty("ACCOUNT_PERFORMANCE_REPORT",
+        properties.getProperty("ACCOUNT_PERFORMANCE_REPORT"));
+
+    reportProcessorOnFile.setPipelined(true);
+    reportProcessorOnFile.setPipelineQueueSize(5);
+    reportProcessorOnFile.generateReportsForMCC("123",
+        ReportDefinitionDateRangeType.CUSTOM_DATE,
+        "20130101",
+        "20130131",
+        CIDS,
+        accountReportProperties,
+        null,
+        null);
+
+    verify(mockedEntitiesPersister, Mockito.atLeastOnce()).persistReportEntities(
+        Mockito.<List<? extends Report>>anyObject());
+  }
+
+  /**
+   * Tests that the report types processed at the same time share the writer threads until all of
+   * them are done, persisting the same rows as without writer threads.
+   */
+  @Test(timeout = 60000)
+  public void testGenerateReportsForMCC_concurrentReportTypesWithWriters() throws Exception {
+
+    final List<String> persistedIds = Collections.synchronizedList(Lists.<String>newArrayList());
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        for (Object report : (List<?>) invocation.getArguments()[0]) {
+          persistedIds.add(((Report) report).getId());
+        }
+        return null;
+      }
+    }).when(mockedEntitiesPersister)
+        .persistReportEntities(Mockito.<List<? extends Report>>anyObject());
+
+    // A small and a large report type, so that one of them finishes first
+    Properties twoReportProperties = new Properties();
+    twoReportProperties.setProperty("ACCOUNT_PERFORMANCE_REPORT",
+        properties.getProperty("ACCOUNT_PERFORMANCE_REPORT"));
+    twoReportProperties.setProperty("KEYWORDS_PERFORMANCE_REPORT",
+        properties.getProperty("KEYWORDS_PERFORMANCE_REPORT"));
+
+    reportProcessorOnFile.generateReportsForMCC("123",
+        ReportDefinitionDateRangeType.CUSTOM_DATE, "20130101", "20130131", CIDS,
+        twoReportProperties, null, null);
+    List<String> expectedIds = Lists.newArrayList(persistedIds);
+    persistedIds.clear();
+
+    reportProcessorOnFile.setConcurrentReportTypes(2);
+    reportProcessorOnFile.setWriterThreads(2);
+    reportProcessorOnFile.generateReportsForMCC("123",
+        ReportDefinitionDateRangeType.CUSTOM_DATE, "20130101", "20130131", CIDS,
+        twoReportProperties, null, null);
+
+    assertTrue(expectedIds.size() > NUMBER_OF_ACCOUNTS);
+    assertEquals(expectedIds.size(), persistedIds.size());
+    assertEquals(Sets.newHashSet(expectedIds), Sets.newHashSet(persistedIds));
+  }
+
+  /**
+   * Tests that the large files parsed in ranges by several threads give the same rows.
+   */
+  @Test
+  public void testProcessLocalFiles_split() throws Exception {
+
+    final List<String> persistedIds = Collections.synchronizedList(Lists.<String>newArrayList());
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        for (Object report : (List<?>) invocation.getArguments()[0]) {
+          persistedIds.add(((Report) report).getId());
+        }
+        return null;
+      }
+    }).when(mockedEntitiesPersister)
+        .persistReportEntities(Mockito.<List<? extends Report>>anyObject());
+
+    File file = new File("src/test/resources/csv/"
+        + "reportDownload-KEYWORDS_PERFORMANCE_REPORT-8661954824-1370029730794.report");
+    reportProcessorOnFile.processLocalFiles("123", "KEYWORDS_PERFORMANCE_REPORT",
+        Lists.newArrayList(file), "20130101", "20130131",
+        ReportDefinitionDateRangeType.CUSTOM_DATE);
+    List<String> expectedIds = Lists.newArrayList(persistedIds);
+    persistedIds.clear();
+
+    File gZipFile = File.createTempFile(
+        "reportDownload-KEYWORDS_PERFORMANCE_REPORT-8661954824-", ".report");
+    FileUtil.gZip(file, gZipFile);
+    reportProcessorOnFile.setSplitSize(1000L);
+    reportProcessorOnFile.processLocalFiles("123", "KEYWORDS_PERFORMANCE_REPORT",
+        Lists.newArrayList(gZipFile), "20130101", "20130131",
+        ReportDefinitionDateRangeType.CUSTOM_DATE);
+    gZipFile.delete();
+
+    assertTrue(expectedIds.size() > 100);
+    assertEquals(expectedIds.size(), persistedIds.size());
+    assertEquals(Sets.newHashSet(expectedIds), Sets.newHashSet(persistedIds));
+    // Each range is persisted on its own
+    verify(mockedEntitiesPersister, Mockito.atLeast(20)).persistReportEntities(
+        Mockito.<List<? extends Report>>anyObject());
+  }
+
   private void mockDownloadReports(final int numberOfFiles) throws InterruptedException, ValidationException {
     Mockito.doAnswer(new Answer<Collection<File>>() {
       @Override
@@ -267,10 +462,8 @@ public class ReportProcessorOnFileTest {
     for (int i = 1; i <= numberOfFiles; i++) {
 
       File newFile = new File("src/test/resources/csv/" + fileName + i);
-      File newFile2 = new File("src/test/resources/csv/" + fileName + i + ".gunzip");
 
       FileUtils.copyFile(new File("src/test/resources/csv/" + fileName), newFile);
-      FileUtils.copyFile(new File("src/test/resources/csv/" + fileName), newFile2);
 
       files.add(newFile);
     }
@@ -15,6 +15,7 @@
 package com.google.api.ads.adwords.awreporting.processors.onfile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,9 +26,9 @@ import com.google.api.ads.adwords.awreporting.model.entities.ReportAccount;
 import com.google.api.ads.adwords.awreporting.model.persistence.EntityPersister;
 import com.google.api.ads.adwords.awreporting.model.util.ModifiedCsvToBean;
 import com.google.api.ads.adwords.awreporting.processors.onfile.RunnableProcessorOnFile;
+import com.google.api.ads.adwords.awreporting.util.FileUtil;
 import com.google.api.ads.adwords.lib.jaxb.v201502.ReportDefinitionDateRangeType;
 
-import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -54,7 +55,6 @@ public class RunnableProcessorOnFileTest {
       "src/test/resources/csv/reportDownload-ACCOUNT_PERFORMANCE_REPORT-2602198216-1370030134500.report";
   
   private File file = new File(CSV_FILE_PATH);
-  private File newFile = new File(CSV_FILE_PATH + ".gunzip");
 
   @Mock
   private EntityPersister mockedEntitiesPersister;
@@ -72,8 +72,6 @@ public class RunnableProcessorOnFileTest {
     MappingStrategy<ReportAccount> mappingStrategy =
         new AnnotationBasedMappingStrategy<ReportAccount>(ReportAccount.class);
 
-    FileUtils.copyFile(file, newFile);
-
     runnableProcessorOnFile = new RunnableProcessorOnFile<ReportAccount>(file,
         csvToBean, mappingStrategy, ReportDefinitionDateRangeType.CUSTOM_DATE,
         "20140101", "20140131", "123", mockedEntitiesPersister, 5);
@@ -91,10 +89,33 @@ public class RunnableProcessorOnFileTest {
     
     verify(mockedEntitiesPersister, times(2)).persistReportEntities(
         reportEntitiesCaptor.capture());
-    newFile.delete();
     
     assertTrue(reportEntitiesCaptor.getValue() instanceof ArrayList);
     assertTrue(reportEntitiesCaptor.getValue().get(0) instanceof ReportAccount);
     assertEquals(reportEntitiesCaptor.getValue().get(0).getAccountId(), new Long(1232198123));
   }
+
+  /**
+   * The downloaded files are kept GZipped and decompressed while parsing.
+   */
+  @Test
+  public void testRun_gZippedFile() throws IOException {
+    File gZipFile = File.createTempFile("reportDownload-ACCOUNT_PERFORMANCE_REPORT-2602198216-",
+        ".report");
+    FileUtil.gZip(file, gZipFile);
+
+    RunnableProcessorOnFile<ReportAccount> gZipRunnableProcessorOnFile =
+        new RunnableProcessorOnFile<ReportAccount>(gZipFile,
+            new ModifiedCsvToBean<ReportAccount>(),
+            new AnnotationBasedMappingStrategy<ReportAccount>(ReportAccount.class),
+            ReportDefinitionDateRangeType.CUSTOM_DATE, "20140101", "20140131", "123",
+            mockedEntitiesPersister, 5);
+    gZipRunnableProcessorOnFile.run();
+    gZipFile.delete();
+
+    assertNull(gZipRunnableProcessorOnFile.getError());
+    verify(mockedEntitiesPersister, times(2)).persistReportEntities(
+        reportEntitiesCaptor.capture());
+    assertEquals(reportEntitiesCaptor.getValue().get(0).getAccountId(), new Long(1232198123));
+  }
 }
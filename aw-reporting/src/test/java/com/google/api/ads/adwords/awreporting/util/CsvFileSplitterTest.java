@@ -0,0 +1,123 @@
+// Copyright 2026 Google Inc. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.api.ads.adwords.awreporting.util;
+
+import com.google.api.ads.adwords.awreporting.model.csv.AwReportCsvReader;
+import com.google.common.collect.Lists;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test case for the {@link CsvFileSplitter} class.
+ *
+ * @author agent@google.com (Agent)
+ */
+public class CsvFileSplitterTest {
+
+  private static final String KEYWORDS_FILE = "src/test/resources/csv/"
+      + "reportDownload-KEYWORDS_PERFORMANCE_REPORT-8661954824-1370029730794.report";
+
+  /**
+   * Tests that the ranges end at the end of the rows, and not inside the quoted cells.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testSplit() throws IOException {
+
+    String title = "\"Report\ntitle\"\n";
+    String header = "A,B\r\n";
+    String row1 = "1,\"multi\nline \"\"quoted\"\"\"\n";
+    String row2 = "2,f\"g\n";
+    String row3 = "3,\"\"\n";
+    File file = this.createFile(title + header + row1 + row2 + row3 + "Total,4");
+    try {
+      CsvFileSplitter splitter = new CsvFileSplitter(file, ',', '"');
+
+      long dataStart = title.length() + header.length();
+      long end = file.length();
+      Assert.assertTrue(Arrays.equals(new long[] {dataStart, dataStart + row1.length(),
+          dataStart + row1.length() + row2.length(), end - "Total,4".length(), end},
+          splitter.split(2, 1)));
+      Assert.assertTrue(Arrays.equals(new long[] {dataStart, end}, splitter.split(2, 1000)));
+      Assert.assertEquals(title + header, new String(splitter.readHead(dataStart), "UTF-8"));
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests that the ranges read with the header give the rows of the whole file.
+   *
+   * @throws IOException not handled, test should fail.
+   */
+  @Test
+  public void testOpenRange() throws IOException {
+
+    File file = new File(KEYWORDS_FILE);
+    List<List<String>> expectedRows = this.readRows(new FileInputStream(file));
+
+    CsvFileSplitter splitter = new CsvFileSplitter(file, ',', '"');
+    long[] boundaries = splitter.split(2, 2000);
+    Assert.assertTrue(boundaries.length > 5);
+    byte[] head = splitter.readHead(boundaries[0]);
+
+    List<List<String>> rows = Lists.newArrayList();
+    for (int i = 0; i + 1 < boundaries.length; i++) {
+      List<List<String>> rangeRows =
+          this.readRows(splitter.openRange(head, boundaries[i], boundaries[i + 1]));
+      Assert.assertEquals(expectedRows.get(0), rangeRows.get(0));
+      rows.addAll(rangeRows.subList(1, rangeRows.size()));
+    }
+    Assert.assertEquals(expectedRows.subList(1, expectedRows.size()), rows);
+  }
+
+  private List<List<String>> readRows(InputStream inputStream) throws IOException {
+    AwReportCsvReader csvReader =
+        new AwReportCsvReader(new InputStreamReader(inputStream, "UTF-8"), ',', '"', 1);
+    try {
+      List<List<String>> rows = Lists.newArrayList();
+      String[] row;
+      while ((row = csvReader.readNext()) != null) {
+        rows.add(Arrays.asList(row));
+      }
+      return rows;
+    } finally {
+      csvReader.close();
+    }
+  }
+
+  private File createFile(String contents) throws IOException {
+    File file = File.createTempFile("CsvFileSplitterTest", ".csv");
+    FileOutputStream outputStream = new FileOutputStream(file);
+    try {
+      outputStream.write(contents.getBytes("UTF-8"));
+    } finally {
+      outputStream.close();
+    }
+    return file;
+  }
+}